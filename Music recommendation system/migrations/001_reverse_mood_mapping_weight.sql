@@ -0,0 +1,15 @@
+-- Migration: weighted mood transitions
+-- For a database created from schema.sql before reverse_mood_mapping had
+-- the weight column. Run once; schema.sql already includes this change.
+USE music_project;
+
+-- weight is the cost of shifting from the current to the target mood;
+-- existing mappings start at the default cost of 1
+ALTER TABLE reverse_mood_mapping
+    ADD COLUMN weight DECIMAL(4,2) NOT NULL DEFAULT 1.00 AFTER target_mood_id;
+
+-- Sample data weights, as in schema.sql
+UPDATE reverse_mood_mapping SET weight = 2.50 WHERE current_mood_id = 2 AND target_mood_id = 1;
+UPDATE reverse_mood_mapping SET weight = 3.00 WHERE current_mood_id = 2 AND target_mood_id = 3;
+UPDATE reverse_mood_mapping SET weight = 2.50 WHERE current_mood_id = 5 AND target_mood_id = 1;
+UPDATE reverse_mood_mapping SET weight = 1.50 WHERE current_mood_id = 4 AND target_mood_id = 3;
@@ -0,0 +1,11 @@
+-- Migration: trajectory-only mood transitions
+-- Run after 001. Steps with direct_shift FALSE are walked by multi-hop
+-- mood trajectories but not offered as one-hop mood-shifting suggestions.
+USE music_project;
+
+ALTER TABLE reverse_mood_mapping
+    ADD COLUMN direct_shift BOOLEAN NOT NULL DEFAULT TRUE AFTER weight;
+
+-- Sample data, as in schema.sql: Sad -> Calm -> Happy
+INSERT INTO reverse_mood_mapping (current_mood_id, target_mood_id, weight, direct_shift) VALUES
+(2, 4, 1.00, FALSE), (4, 1, 1.00, FALSE);
@@ -90,9 +90,15 @@ CREATE TABLE user_favorites (
 );
 
 -- Table 9: Reverse Mood Mapping
+-- weight is the cost of shifting from the current to the target mood;
+-- lower means a gentler step, and trajectories take the cheapest path.
+-- direct_shift FALSE marks a step used only inside multi-hop trajectories,
+-- left out of the one-hop mood-shifting suggestions
 CREATE TABLE reverse_mood_mapping (
     current_mood_id INT,
     target_mood_id INT,
+    weight DECIMAL(4,2) NOT NULL DEFAULT 1.00,
+    direct_shift BOOLEAN NOT NULL DEFAULT TRUE,
     PRIMARY KEY (current_mood_id, target_mood_id),
     FOREIGN KEY (current_mood_id) REFERENCES moods(mood_id) ON DELETE CASCADE,
     FOREIGN KEY (target_mood_id) REFERENCES moods(mood_id) ON DELETE CASCADE
@@ -130,8 +136,12 @@ INSERT INTO activities (activity_name, activity_description) VALUES
 
 -- Insert Reverse Mood Mapping
 
-INSERT INTO reverse_mood_mapping (current_mood_id, target_mood_id) VALUES
-(2, 1), (2, 3), (5, 4), (5, 1), (4, 3), (1, 4);
+INSERT INTO reverse_mood_mapping (current_mood_id, target_mood_id, weight) VALUES
+(2, 1, 2.50), (2, 3, 3.00), (5, 4, 1.00), (5, 1, 2.50), (4, 3, 1.50), (1, 4, 1.00);
+
+-- Trajectory-only steps: Sad -> Calm -> Happy is gentler than Sad -> Happy
+INSERT INTO reverse_mood_mapping (current_mood_id, target_mood_id, weight, direct_shift) VALUES
+(2, 4, 1.00, FALSE), (4, 1, 1.00, FALSE);
 
 -- Insert Sample Songs
 
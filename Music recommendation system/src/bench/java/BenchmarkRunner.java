@@ -0,0 +1,203 @@
+package bench.java;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Minimal benchmark harness: warmup, timed measurement, latency percentiles
+ * and allocation per operation.
+ *
+ * Each benchmark runs on the calling thread, first for the warmup period
+ * (results discarded) and then for the measurement period. Every call is
+ * timed individually; allocation is read from the thread's allocated-bytes
+ * counter, so it only covers work done on the calling thread. Results can
+ * be saved as a TSV file and compared against an earlier run.
+ */
+public class BenchmarkRunner {
+
+    /** Latency samples kept per benchmark, later calls are timed but not stored */
+    private static final int MAX_SAMPLES = 1_000_000;
+
+    private final long warmupNanos;
+    private final long measureNanos;
+    private final List<Result> results = new ArrayList<>();
+
+    private volatile Object sink;
+
+    /**
+     * @param warmupSeconds  Warmup period per benchmark
+     * @param measureSeconds Measurement period per benchmark
+     */
+    public BenchmarkRunner(int warmupSeconds, int measureSeconds) {
+        this.warmupNanos = TimeUnit.SECONDS.toNanos(warmupSeconds);
+        this.measureNanos = TimeUnit.SECONDS.toNanos(measureSeconds);
+    }
+
+    /**
+     * Run one benchmark and record its result
+     *
+     * @param name      Benchmark name
+     * @param operation Call under test; its result is kept so it cannot be
+     *                  optimized away
+     * @return Measured result
+     */
+    public Result run(String name, Supplier<?> operation) {
+        System.out.println("Running " + name + "...");
+
+        long warmupEnd = System.nanoTime() + warmupNanos;
+        while (System.nanoTime() < warmupEnd) {
+            sink = operation.get();
+        }
+
+        long[] samples = new long[1024];
+        int sampleCount = 0;
+        long operations = 0;
+
+        long allocatedBefore = allocatedBytes();
+        long start = System.nanoTime();
+        long end = start + measureNanos;
+        long now = start;
+        while (now < end) {
+            long callStart = now;
+            sink = operation.get();
+            now = System.nanoTime();
+            operations++;
+
+            if (sampleCount < MAX_SAMPLES) {
+                if (sampleCount == samples.length) {
+                    samples = Arrays.copyOf(samples, Math.min(samples.length * 2, MAX_SAMPLES));
+                }
+                samples[sampleCount++] = now - callStart;
+            }
+        }
+        long elapsed = now - start;
+        long allocated = allocatedBytes() - allocatedBefore;
+
+        Arrays.sort(samples, 0, sampleCount);
+        Result result = new Result(name, operations,
+                operations / (elapsed / 1_000_000_000.0),
+                percentile(samples, sampleCount, 0.50),
+                percentile(samples, sampleCount, 0.99),
+                allocated < 0 ? -1 : allocated / Math.max(operations, 1),
+                allocated < 0 ? -1 : allocated / (elapsed / 1_000_000_000.0) / (1024 * 1024));
+        results.add(result);
+        return result;
+    }
+
+    public List<Result> getResults() {
+        return results;
+    }
+
+    /**
+     * Print all results, with the change against a baseline if one is given
+     *
+     * @param baseline Results of an earlier run by name, or empty
+     */
+    public void printResults(Map<String, Result> baseline) {
+        System.out.println();
+        System.out.printf("%-36s %12s %10s %10s %12s %10s%s%n",
+                "Benchmark", "ops/s", "p50 ms", "p99 ms", "alloc B/op", "alloc MB/s",
+                baseline.isEmpty() ? "" : String.format(" %10s", "vs base"));
+        for (Result result : results) {
+            String change = "";
+            Result base = baseline.get(result.name);
+            if (base != null && base.throughput > 0) {
+                change = String.format(" %+9.1f%%", (result.throughput / base.throughput - 1) * 100);
+            }
+            System.out.printf("%-36s %12.1f %10.3f %10.3f %12d %10.1f%s%n",
+                    result.name, result.throughput, result.p50Nanos / 1_000_000.0,
+                    result.p99Nanos / 1_000_000.0, result.bytesPerOp, result.allocationMBPerSecond, change);
+        }
+    }
+
+    /**
+     * Save results as TSV (name, ops, ops/s, p50 ns, p99 ns, bytes/op, MB/s)
+     */
+    public void saveResults(Path file) throws IOException {
+        try (BufferedWriter out = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            for (Result result : results) {
+                out.write(result.name + "\t" + result.operations + "\t" + result.throughput + "\t"
+                        + result.p50Nanos + "\t" + result.p99Nanos + "\t" + result.bytesPerOp + "\t"
+                        + result.allocationMBPerSecond);
+                out.newLine();
+            }
+        }
+    }
+
+    /**
+     * Load results saved by saveResults
+     *
+     * @return Results by benchmark name
+     */
+    public static Map<String, Result> loadResults(Path file) throws IOException {
+        Map<String, Result> loaded = new HashMap<>();
+        for (String line : Files.readAllLines(file, StandardCharsets.UTF_8)) {
+            String[] fields = line.split("\t");
+            if (fields.length < 7) {
+                continue;
+            }
+            loaded.put(fields[0], new Result(fields[0], Long.parseLong(fields[1]),
+                    Double.parseDouble(fields[2]), Long.parseLong(fields[3]), Long.parseLong(fields[4]),
+                    Long.parseLong(fields[5]), Double.parseDouble(fields[6])));
+        }
+        return loaded;
+    }
+
+    private static long percentile(long[] sorted, int count, double fraction) {
+        if (count == 0) {
+            return 0;
+        }
+        int index = (int) Math.ceil(fraction * count) - 1;
+        return sorted[Math.max(0, Math.min(index, count - 1))];
+    }
+
+    /**
+     * Bytes allocated so far by the current thread, or -1 if the JVM does not
+     * report it
+     */
+    private static long allocatedBytes() {
+        java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        if (bean instanceof com.sun.management.ThreadMXBean) {
+            com.sun.management.ThreadMXBean sunBean = (com.sun.management.ThreadMXBean) bean;
+            if (sunBean.isThreadAllocatedMemorySupported() && sunBean.isThreadAllocatedMemoryEnabled()) {
+                return sunBean.getThreadAllocatedBytes(Thread.currentThread().getId());
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Result of one benchmark
+     */
+    public static class Result {
+        public final String name;
+        public final long operations;
+        public final double throughput;
+        public final long p50Nanos;
+        public final long p99Nanos;
+        public final long bytesPerOp;
+        public final double allocationMBPerSecond;
+
+        Result(String name, long operations, double throughput, long p50Nanos, long p99Nanos,
+                long bytesPerOp, double allocationMBPerSecond) {
+            this.name = name;
+            this.operations = operations;
+            this.throughput = throughput;
+            this.p50Nanos = p50Nanos;
+            this.p99Nanos = p99Nanos;
+            this.bytesPerOp = bytesPerOp;
+            this.allocationMBPerSecond = allocationMBPerSecond;
+        }
+    }
+}
@@ -0,0 +1,147 @@
+package bench.java;
+
+import main.java.service.ItemSimilarityModel;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.SplittableRandom;
+
+/**
+ * Build time of the item-item model against the number of ratings, plus
+ * incremental update time and neighbor lookup latency.
+ *
+ * The incrementally updated model is also checked against a full retrain
+ * on the same data: the match column is the share of the retrained model's
+ * top-K neighbors that the incremental model has too. A match below
+ * cf.bench.minNeighborMatch fails the run, so the row patching is verified
+ * and not only timed.
+ *
+ * Uses in-memory synthetic interactions (Zipf song popularity, long-tailed
+ * users) so it needs no database.
+ *
+ * Settings (system properties): cf.bench.sizes (comma separated rating
+ * counts, default 100000,500000,1000000,2000000), cf.bench.songs (100000),
+ * cf.bench.neighbors (30), cf.bench.maxItemsPerUser (500),
+ * cf.bench.changedUsers (share of users changed for the incremental run,
+ * default 0.01), cf.bench.minNeighborMatch (default 0.99)
+ */
+public class CollaborativeFilteringBenchmark {
+
+    public static void main(String[] args) {
+        String[] sizes = System.getProperty("cf.bench.sizes", "100000,500000,1000000,2000000").split(",");
+        int songCount = Integer.getInteger("cf.bench.songs", 100_000);
+        int neighbors = Integer.getInteger("cf.bench.neighbors", 30);
+        int maxItemsPerUser = Integer.getInteger("cf.bench.maxItemsPerUser", 500);
+        double changedUsers = Double.parseDouble(System.getProperty("cf.bench.changedUsers", "0.01"));
+        double minNeighborMatch = Double.parseDouble(System.getProperty("cf.bench.minNeighborMatch", "0.99"));
+
+        System.out.println("=== Item-Item Model Benchmark ===");
+        System.out.println("Songs: " + songCount + ", K: " + neighbors + ", cores: "
+                + Runtime.getRuntime().availableProcessors() + "\n");
+        System.out.printf("%12s %10s %12s %14s %10s %12s %12s%n",
+                "ratings", "users", "full ms", "incremental ms", "match", "lookup p50", "lookup p99");
+
+        double worstMatch = 1.0;
+
+        for (String size : sizes) {
+            int ratingCount = Integer.parseInt(size.trim());
+            int userCount = Math.max(ratingCount / 20, 1);
+            SplittableRandom random = new SplittableRandom(42);
+            SyntheticDataGenerator.ZipfSampler popularity = new SyntheticDataGenerator.ZipfSampler(songCount, 1.0);
+
+            Map<Integer, Set<Integer>> byUser = generate(random, popularity, userCount, ratingCount);
+            ItemSimilarityModel.Interactions data = toInteractions(byUser, random);
+
+            // One warmup build so the JIT has compiled the training loops
+            ItemSimilarityModel.train(data, neighbors, maxItemsPerUser, null);
+            long start = System.nanoTime();
+            ItemSimilarityModel full = ItemSimilarityModel.train(data, neighbors, maxItemsPerUser, null);
+            double fullMillis = (System.nanoTime() - start) / 1_000_000.0;
+
+            // Some users rate a few more songs
+            int changed = (int) (userCount * changedUsers);
+            for (int i = 0; i < changed; i++) {
+                byUser.get(random.nextInt(userCount)).add(popularity.sample(random) + 1);
+            }
+            ItemSimilarityModel.Interactions updated = toInteractions(byUser, new SplittableRandom(7));
+            start = System.nanoTime();
+            ItemSimilarityModel incremental = ItemSimilarityModel.train(updated, neighbors, maxItemsPerUser, full);
+            double incrementalMillis = (System.nanoTime() - start) / 1_000_000.0;
+
+            // The same data trained from scratch is the reference
+            ItemSimilarityModel retrained = ItemSimilarityModel.train(updated, neighbors, maxItemsPerUser, null);
+            double match = neighborMatch(incremental, retrained, songCount, neighbors);
+            worstMatch = Math.min(worstMatch, match);
+
+            BenchmarkRunner runner = new BenchmarkRunner(1, 2);
+            SplittableRandom lookups = new SplittableRandom(3);
+            BenchmarkRunner.Result lookup = runner.run("getSimilarSongIds " + size,
+                    () -> incremental.getSimilarSongIds(popularity.sample(lookups) + 1, 10));
+
+            System.out.printf("%12d %10d %12.1f %14.1f %9.2f%% %9.2f us %9.2f us%n",
+                    data.size(), byUser.size(), fullMillis, incrementalMillis, match * 100,
+                    lookup.p50Nanos / 1000.0, lookup.p99Nanos / 1000.0);
+            System.out.println("  " + incremental);
+        }
+
+        if (worstMatch < minNeighborMatch) {
+            System.err.printf("Incremental model matches only %.2f%% of the retrained neighbors (minimum %.2f%%)%n",
+                    worstMatch * 100, minNeighborMatch * 100);
+            System.exit(1);
+        }
+    }
+
+    /**
+     * Share of the reference model's top-K neighbors, over all songs, that
+     * the other model also lists for the same song
+     */
+    private static double neighborMatch(ItemSimilarityModel model, ItemSimilarityModel reference, int songCount,
+            int neighbors) {
+        long expected = 0;
+        long found = 0;
+        for (int songId = 1; songId <= songCount; songId++) {
+            List<Integer> wanted = reference.getSimilarSongIds(songId, neighbors);
+            if (wanted.isEmpty()) {
+                continue;
+            }
+            Set<Integer> actual = new HashSet<>(model.getSimilarSongIds(songId, neighbors));
+            expected += wanted.size();
+            for (int neighbor : wanted) {
+                if (actual.contains(neighbor)) {
+                    found++;
+                }
+            }
+        }
+        return expected == 0 ? 1.0 : (double) found / expected;
+    }
+
+    private static Map<Integer, Set<Integer>> generate(SplittableRandom random,
+            SyntheticDataGenerator.ZipfSampler popularity, int userCount, int ratingCount) {
+        Map<Integer, Set<Integer>> byUser = new HashMap<>();
+        for (int u = 0; u < userCount; u++) {
+            byUser.put(u, new HashSet<>());
+        }
+        for (int r = 0; r < ratingCount; r++) {
+            // Square of a uniform value gives a few heavy users
+            double x = random.nextDouble();
+            byUser.get((int) (x * x * userCount)).add(popularity.sample(random) + 1);
+        }
+        return byUser;
+    }
+
+    private static ItemSimilarityModel.Interactions toInteractions(Map<Integer, Set<Integer>> byUser,
+            SplittableRandom random) {
+        ItemSimilarityModel.Interactions data = new ItemSimilarityModel.Interactions();
+        for (Map.Entry<Integer, Set<Integer>> user : byUser.entrySet()) {
+            for (int songId : user.getValue()) {
+                // Strength is a function of the pair so unchanged songs keep
+                // their fingerprint between runs
+                data.add(user.getKey(), songId, (1 + Math.floorMod(user.getKey() * 31 + songId, 5)) / 5.0f);
+            }
+        }
+        return data;
+    }
+}
@@ -0,0 +1,125 @@
+package bench.java;
+
+import main.java.audio.AudioDecoder;
+import main.java.audio.AudioDecoders;
+
+import javax.sound.sampled.AudioFormat;
+import javax.sound.sampled.AudioInputStream;
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Decode throughput per audio format, through the same AudioDecoders path
+ * the player uses.
+ *
+ * Usage: DecoderBenchmark [directory or file ...] (default: music)
+ * Every file is decoded in full on the calling thread, once to warm up and
+ * then bench.passes times (default 3). For each format the table shows how
+ * much audio was decoded, how many times faster than real time, PCM
+ * megabytes per second and the mean time from opening a file to its first
+ * decoded chunk. Files in formats without an installed decoder are counted
+ * as failed.
+ */
+public class DecoderBenchmark {
+
+    private static final int CHUNK_BYTES = 64 * 1024;
+
+    public static void main(String[] args) throws Exception {
+        int passes = Integer.getInteger("bench.passes", 3);
+        List<File> files = new ArrayList<>();
+        for (String path : args.length > 0 ? args : new String[] { "music" }) {
+            collect(new File(path), files);
+        }
+
+        System.out.println("=== Decoder Benchmark ===");
+        System.out.println("Files: " + files.size() + ", passes: " + passes + ", decoders: "
+                + AudioDecoders.getDecoders() + "\n");
+
+        Map<String, Stats> byFormat = new LinkedHashMap<>();
+        byte[] chunk = new byte[CHUNK_BYTES];
+        for (File file : files) {
+            AudioDecoder decoder = AudioDecoders.detect(file);
+            Stats stats = byFormat.computeIfAbsent(decoder != null ? decoder.getFormat() : "unknown",
+                    format -> new Stats());
+            try {
+                decode(file, chunk, null);
+                for (int pass = 0; pass < passes; pass++) {
+                    decode(file, chunk, stats);
+                }
+                stats.files++;
+            } catch (Exception e) {
+                stats.failed++;
+                System.err.println("Cannot decode " + file + ": " + e.getMessage());
+            }
+        }
+
+        System.out.printf("%8s %6s %7s %12s %12s %10s %14s%n",
+                "format", "files", "failed", "audio s", "x realtime", "PCM MB/s", "first chunk ms");
+        for (Map.Entry<String, Stats> entry : byFormat.entrySet()) {
+            Stats stats = entry.getValue();
+            double seconds = stats.nanos / 1e9;
+            System.out.printf("%8s %6d %7d %12.1f %12.1f %10.1f %14.2f%n",
+                    entry.getKey(), stats.files, stats.failed, stats.audioSeconds,
+                    seconds > 0 ? stats.audioSeconds / seconds : 0,
+                    seconds > 0 ? stats.bytes / 1e6 / seconds : 0,
+                    stats.opens > 0 ? stats.firstChunkNanos / 1e6 / stats.opens : 0);
+        }
+    }
+
+    /**
+     * Decode a whole file, adding the time and output to stats if given
+     */
+    private static void decode(File file, byte[] chunk, Stats stats) throws Exception {
+        long start = System.nanoTime();
+        long firstChunk = -1;
+        long bytes = 0;
+        AudioFormat format;
+        try (AudioInputStream stream = AudioDecoders.open(file)) {
+            format = stream.getFormat();
+            int count;
+            while ((count = stream.read(chunk, 0, chunk.length)) >= 0) {
+                if (firstChunk < 0) {
+                    firstChunk = System.nanoTime() - start;
+                }
+                bytes += count;
+            }
+        }
+        long elapsed = System.nanoTime() - start;
+
+        if (stats != null) {
+            stats.nanos += elapsed;
+            stats.bytes += bytes;
+            stats.audioSeconds += bytes / (double) (format.getFrameSize() * format.getFrameRate());
+            stats.firstChunkNanos += Math.max(firstChunk, 0);
+            stats.opens++;
+        }
+    }
+
+    private static void collect(File path, List<File> files) {
+        if (path.isDirectory()) {
+            File[] children = path.listFiles();
+            if (children != null) {
+                Arrays.sort(children);
+                for (File child : children) {
+                    collect(child, files);
+                }
+            }
+        } else if (path.isFile()) {
+            files.add(path);
+        }
+    }
+
+    private static class Stats {
+        int files;
+        int failed;
+        int opens;
+        long nanos;
+        long bytes;
+        long firstChunkNanos;
+        double audioSeconds;
+    }
+}
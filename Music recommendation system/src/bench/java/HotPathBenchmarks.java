@@ -0,0 +1,112 @@
+package bench.java;
+
+import main.java.dao.*;
+import main.java.model.*;
+import main.java.service.RecommendationCache;
+import main.java.service.RecommendationService;
+import main.java.util.DatabaseConfig;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * Benchmarks for the recommendation and DAO hot paths.
+ *
+ * Runs against the database configured with -Ddb.url / -Ddb.user /
+ * -Ddb.password, so point it at a scratch schema filled with load-test data
+ * rather than at the real one. Each suite reports throughput, p50/p99
+ * latency and allocation.
+ *
+ * Settings (system properties):
+ * bench.warmupSeconds, bench.measureSeconds - per benchmark (default 5 / 10)
+ * bench.userId - user to personalize for (default 1)
+ * bench.mood, bench.activity - tag pair to recommend for (default Happy / Workout)
+ * bench.targetMood - mood trajectories end in (default Calm)
+ * bench.searchTerm - search term (default "love")
+ * bench.only - run only benchmarks whose name contains this text
+ * bench.results - write results to this TSV file
+ * bench.baseline - compare throughput against an earlier results file
+ * rec.cache.enabled=false - measure the recommendation paths without the
+ * result cache
+ */
+public class HotPathBenchmarks {
+
+    public static void main(String[] args) throws Exception {
+        int warmupSeconds = Integer.getInteger("bench.warmupSeconds", 5);
+        int measureSeconds = Integer.getInteger("bench.measureSeconds", 10);
+        int userId = Integer.getInteger("bench.userId", 1);
+        String mood = System.getProperty("bench.mood", "Happy");
+        String activity = System.getProperty("bench.activity", "Workout");
+        String targetMood = System.getProperty("bench.targetMood", "Calm");
+        String searchTerm = System.getProperty("bench.searchTerm", "love");
+        String only = System.getProperty("bench.only", "");
+
+        if (!DatabaseConfig.testConnection()) {
+            System.err.println("Cannot connect to the benchmark database");
+            return;
+        }
+
+        RecommendationService recommendationService = new RecommendationService();
+        SongDAO songDAO = new SongDAO();
+        UserRatingDAO ratingDAO = new UserRatingDAO();
+
+        List<Song> candidates = recommendationService.getRecommendations(mood, activity, 0);
+        if (candidates.isEmpty()) {
+            candidates = songDAO.getAllSongs();
+        }
+        List<Song> personalizeInput = candidates;
+
+        System.out.println("=== Hot Path Benchmarks ===");
+        System.out.println("User: " + userId + ", mood: " + mood + ", activity: " + activity
+                + ", search: \"" + searchTerm + "\", candidates: " + personalizeInput.size());
+        System.out.println("Warmup " + warmupSeconds + " s, measurement " + measureSeconds + " s per benchmark\n");
+
+        Map<String, Supplier<?>> benchmarks = new LinkedHashMap<>();
+        benchmarks.put("getRecommendations",
+                () -> recommendationService.getRecommendations(mood, activity, userId));
+        benchmarks.put("getMoodShiftingRecommendations",
+                () -> recommendationService.getMoodShiftingRecommendations(mood, activity, userId));
+        benchmarks.put("findTrajectory",
+                () -> MoodGraph.getInstance().findTrajectory(mood, targetMood));
+        benchmarks.put("getMoodTrajectory",
+                () -> recommendationService.getMoodTrajectory(mood, targetMood, activity, userId, 20));
+        benchmarks.put("personalizeRecommendations",
+                () -> recommendationService.personalizeRecommendations(personalizeInput, userId));
+        benchmarks.put("personalizeRecommendations top 20",
+                () -> recommendationService.personalizeRecommendations(personalizeInput, userId, 0, 20));
+        benchmarks.put("searchSongs",
+                () -> songDAO.searchSongs(searchTerm));
+        benchmarks.put("getTopRatedSongs",
+                () -> ratingDAO.getTopRatedSongs(10));
+
+        BenchmarkRunner runner = new BenchmarkRunner(warmupSeconds, measureSeconds);
+        for (Map.Entry<String, Supplier<?>> benchmark : benchmarks.entrySet()) {
+            if (benchmark.getKey().contains(only)) {
+                runner.run(benchmark.getKey(), benchmark.getValue());
+            }
+        }
+
+        Map<String, BenchmarkRunner.Result> baseline = new HashMap<>();
+        String baselineFile = System.getProperty("bench.baseline");
+        if (baselineFile != null && Files.exists(Paths.get(baselineFile))) {
+            baseline = BenchmarkRunner.loadResults(Paths.get(baselineFile));
+        }
+        runner.printResults(baseline);
+        System.out.println("\n" + RecommendationCache.getInstance());
+
+        String resultsFile = System.getProperty("bench.results");
+        if (resultsFile != null) {
+            Path path = Paths.get(resultsFile);
+            runner.saveResults(path);
+            System.out.println("\nResults written to " + path.toAbsolutePath());
+        }
+
+        DatabaseConfig.closeConnection();
+    }
+}
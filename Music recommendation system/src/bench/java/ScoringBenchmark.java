@@ -0,0 +1,119 @@
+package bench.java;
+
+import main.java.dao.*;
+import main.java.model.*;
+import main.java.service.RecommendationService;
+import main.java.util.ConnectionPool;
+import main.java.util.DatabaseConfig;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Compares the old per-candidate scoring path (four queries per song) with
+ * the bulk scoring path used by RecommendationService.
+ * 
+ * Usage: ScoringBenchmark [userId] [iterations]
+ * Scores every song in the catalog so the candidate list is as large as
+ * possible. Round trips are counted as connection borrows from the pool.
+ */
+public class ScoringBenchmark {
+
+    public static void main(String[] args) {
+        int userId = args.length > 0 ? Integer.parseInt(args[0]) : 1;
+        int iterations = args.length > 1 ? Integer.parseInt(args[1]) : 5;
+
+        SongDAO songDAO = new SongDAO();
+        UserRatingDAO ratingDAO = new UserRatingDAO();
+        UserFavoriteDAO favoriteDAO = new UserFavoriteDAO();
+
+        List<Song> candidates = songDAO.getAllSongs();
+        int[] songIds = new int[candidates.size()];
+        for (int i = 0; i < songIds.length; i++) {
+            songIds[i] = candidates.get(i).getSongId();
+        }
+
+        System.out.println("=== Personalization Scoring Benchmark ===");
+        System.out.println("User: " + userId + ", candidates: " + candidates.size()
+                + ", iterations: " + iterations + "\n");
+
+        List<Integer> legacyOrder = null;
+        List<Integer> bulkOrder = null;
+
+        // Warm up the pool and the server caches
+        scoreLegacy(songIds, userId, ratingDAO, favoriteDAO);
+        scoreBulk(songIds, userId, ratingDAO, favoriteDAO);
+
+        long borrowsBefore = borrowCount();
+        long start = System.nanoTime();
+        for (int i = 0; i < iterations; i++) {
+            legacyOrder = rank(scoreLegacy(songIds, userId, ratingDAO, favoriteDAO));
+        }
+        double legacyMillis = (System.nanoTime() - start) / 1_000_000.0 / iterations;
+        long legacyTrips = (borrowCount() - borrowsBefore) / iterations;
+
+        borrowsBefore = borrowCount();
+        start = System.nanoTime();
+        for (int i = 0; i < iterations; i++) {
+            bulkOrder = rank(scoreBulk(songIds, userId, ratingDAO, favoriteDAO));
+        }
+        double bulkMillis = (System.nanoTime() - start) / 1_000_000.0 / iterations;
+        long bulkTrips = (borrowCount() - borrowsBefore) / iterations;
+
+        System.out.printf("Per-song path: %8.2f ms, %6d round trips per ranking%n", legacyMillis, legacyTrips);
+        System.out.printf("Bulk path:     %8.2f ms, %6d round trips per ranking%n", bulkMillis, bulkTrips);
+        if (bulkMillis > 0) {
+            System.out.printf("Speedup:       %8.1fx%n", legacyMillis / bulkMillis);
+        }
+        System.out.println(legacyOrder != null && legacyOrder.equals(bulkOrder)
+                ? "✓ Both paths produce the same ranking"
+                : "✗ Rankings differ!");
+
+        DatabaseConfig.closeConnection();
+    }
+
+    /**
+     * The scoring loop as it was before the bulk queries: four lookups per song
+     */
+    private static CandidateSignals scoreLegacy(int[] songIds, int userId,
+            UserRatingDAO ratingDAO, UserFavoriteDAO favoriteDAO) {
+        CandidateSignals signals = new CandidateSignals(songIds);
+        for (int i = 0; i < songIds.length; i++) {
+            signals.setUserRating(i, ratingDAO.getUserRating(userId, songIds[i]));
+            signals.setAverageRating(i, ratingDAO.getAverageSongRating(songIds[i]));
+            signals.setFavorite(i, favoriteDAO.isFavorite(userId, songIds[i]));
+            signals.setFavoriteCount(i, favoriteDAO.getFavoriteCount(songIds[i]));
+        }
+        return signals;
+    }
+
+    private static CandidateSignals scoreBulk(int[] songIds, int userId,
+            UserRatingDAO ratingDAO, UserFavoriteDAO favoriteDAO) {
+        CandidateSignals signals = new CandidateSignals(songIds);
+        ratingDAO.addRatingSignals(userId, signals);
+        favoriteDAO.addFavoriteSignals(userId, signals);
+        return signals;
+    }
+
+    private static List<Integer> rank(CandidateSignals signals) {
+        List<Integer> positions = new ArrayList<>();
+        for (int i = 0; i < signals.size(); i++) {
+            positions.add(i);
+        }
+        // Stable sort: equal scores keep candidate order
+        positions.sort(Comparator.comparingDouble((Integer i) -> RecommendationService.calculateScore(
+                signals.getUserRating(i), signals.getAverageRating(i), signals.isFavorite(i),
+                signals.getFavoriteCount(i))).reversed());
+        List<Integer> order = new ArrayList<>();
+        for (int position : positions) {
+            order.add(signals.getSongId(position));
+        }
+        return order;
+    }
+
+    private static long borrowCount() {
+        ConnectionPool.PoolStats stats = DatabaseConfig.getPoolStats();
+        return stats != null ? stats.getBorrowCount() : 0;
+    }
+}
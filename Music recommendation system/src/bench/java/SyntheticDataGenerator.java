@@ -0,0 +1,474 @@
+package bench.java;
+
+import main.java.util.DatabaseConfig;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Fills a database with a synthetic catalog and user behavior for load
+ * testing: songs, song_mood, song_activity, users, user_ratings,
+ * user_favorites and activity_logs.
+ *
+ * Song popularity, artist catalog sizes, per-user activity and tag usage all
+ * follow Zipf distributions, so a few songs and users account for most of
+ * the ratings the way they do in a real catalog. The same seed and sizes
+ * always produce the same data. Rows are appended after the existing ones
+ * with multi-row INSERT statements on a dedicated connection.
+ *
+ * Run it against a scratch schema created from schema.sql, never the real
+ * one; generated users log in with the password "password".
+ *
+ * Settings (system properties):
+ * gen.seed (42), gen.songs (200000), gen.users (100000), gen.artists
+ * (20000), gen.ratingsPerUser (20, mean), gen.favoritesPerUser (5, mean),
+ * gen.logs (1000000), gen.zipfExponent (1.0), gen.rowsPerInsert (1000)
+ */
+public class SyntheticDataGenerator {
+
+    private static final String[] TITLE_WORDS = {
+            "Midnight", "Fire", "Heart", "Summer", "Rain", "Dream", "City", "Light", "Love", "River",
+            "Golden", "Shadow", "Wild", "Echo", "Blue", "Night", "Run", "Home", "Stars", "Ocean",
+            "Broken", "Electric", "Silent", "Falling", "Forever", "Storm", "Paradise", "Highway", "Neon", "Gravity"
+    };
+    private static final String[] ARTIST_WORDS = {
+            "The", "Velvet", "Northern", "Lights", "Kings", "Sister", "Young", "Lost", "Boys", "Crystal",
+            "Radio", "Saints", "Atlas", "Harbor", "Foxes", "Club", "Orchestra", "Project", "Collective", "Avenue"
+    };
+    private static final String[] GENRES = {
+            "Pop", "Rock", "Hip Hop", "Electronic", "R&B", "Indie", "Jazz", "Classical", "Country", "Ambient",
+            "Metal", "Folk", "Latin", "Reggae", "Blues"
+    };
+    private static final String[] LOG_ACTIONS = { "SELECT", "SELECT", "SELECT", "INSERT", "UPDATE", "LOGIN", "DELETE" };
+    private static final String[] LOG_TABLES = { "songs", "songs", "user_ratings", "user_favorites", "users", null, "songs" };
+
+    // Skewed towards good ratings, as rating data usually is
+    private static final double[] RATING_WEIGHTS = { 0.06, 0.09, 0.20, 0.33, 0.32 };
+
+    private static final long ONE_YEAR_MS = TimeUnit.DAYS.toMillis(365);
+
+    private final long seed;
+    private final int songCount;
+    private final int userCount;
+    private final int artistCount;
+    private final int ratingsPerUser;
+    private final int favoritesPerUser;
+    private final int logCount;
+    private final double zipfExponent;
+    private final int rowsPerInsert;
+    private final long now = System.currentTimeMillis();
+
+    public SyntheticDataGenerator(long seed, int songCount, int userCount, int artistCount, int ratingsPerUser,
+            int favoritesPerUser, int logCount, double zipfExponent, int rowsPerInsert) {
+        this.seed = seed;
+        this.songCount = songCount;
+        this.userCount = userCount;
+        this.artistCount = artistCount;
+        this.ratingsPerUser = ratingsPerUser;
+        this.favoritesPerUser = favoritesPerUser;
+        this.logCount = logCount;
+        this.zipfExponent = zipfExponent;
+        this.rowsPerInsert = rowsPerInsert;
+    }
+
+    public static void main(String[] args) throws Exception {
+        SyntheticDataGenerator generator = new SyntheticDataGenerator(
+                Long.getLong("gen.seed", 42L),
+                Integer.getInteger("gen.songs", 200_000),
+                Integer.getInteger("gen.users", 100_000),
+                Integer.getInteger("gen.artists", 20_000),
+                Integer.getInteger("gen.ratingsPerUser", 20),
+                Integer.getInteger("gen.favoritesPerUser", 5),
+                Integer.getInteger("gen.logs", 1_000_000),
+                Double.parseDouble(System.getProperty("gen.zipfExponent", "1.0")),
+                Integer.getInteger("gen.rowsPerInsert", 1000));
+
+        System.out.println("=== Synthetic Data Generator ===");
+        System.out.println("Target: " + DatabaseConfig.getDatabaseURL() + "\n");
+
+        try (Connection conn = DatabaseConfig.createNewConnection()) {
+            generator.generate(conn);
+        }
+    }
+
+    /**
+     * Generate every table
+     *
+     * @param conn Dedicated connection; its session settings are changed
+     */
+    public void generate(Connection conn) throws SQLException {
+        long start = System.nanoTime();
+
+        try (Statement stmt = conn.createStatement()) {
+            // The generated rows are consistent, so skip per-row checks for speed
+            stmt.execute("SET unique_checks = 0");
+            stmt.execute("SET foreign_key_checks = 0");
+        }
+        conn.setAutoCommit(false);
+
+        int[] moodIds = readIds(conn, "SELECT mood_id FROM moods ORDER BY mood_id");
+        int[] activityIds = readIds(conn, "SELECT activity_id FROM activities ORDER BY activity_id");
+        if (moodIds.length == 0 || activityIds.length == 0) {
+            throw new SQLException("Moods and activities must exist (load schema.sql first)");
+        }
+        int firstSongId = maxId(conn, "songs", "song_id") + 1;
+        int firstUserId = maxId(conn, "users", "user_id") + 1;
+
+        // Popularity rank -> song ID, so popular songs are spread over the catalog
+        int[] songByRank = shuffledRange(firstSongId, songCount, new SplittableRandom(seed));
+        ZipfSampler songPopularity = new ZipfSampler(songCount, zipfExponent);
+
+        generateSongs(conn, firstSongId);
+        generateTags(conn, firstSongId, moodIds, activityIds);
+        generateUsers(conn, firstUserId);
+        generateRatings(conn, firstUserId, songByRank, songPopularity);
+        generateFavorites(conn, firstUserId, songByRank, songPopularity);
+        generateLogs(conn, firstUserId, songByRank, songPopularity);
+
+        try (Statement stmt = conn.createStatement()) {
+            stmt.execute("SET unique_checks = 1");
+            stmt.execute("SET foreign_key_checks = 1");
+        }
+        conn.setAutoCommit(true);
+
+        System.out.printf("%nDone in %.1f s%n", (System.nanoTime() - start) / 1_000_000_000.0);
+    }
+
+    private void generateSongs(Connection conn, int firstSongId) throws SQLException {
+        SplittableRandom random = new SplittableRandom(seed + 1);
+        ZipfSampler artistSize = new ZipfSampler(artistCount, zipfExponent);
+
+        try (MultiRowInserter insert = new MultiRowInserter(conn, "songs",
+                new String[] { "song_id", "title", "artist", "genre", "duration", "file_path", "date_added" },
+                rowsPerInsert)) {
+            for (int i = 0; i < songCount; i++) {
+                int songId = firstSongId + i;
+                int artist = artistSize.sample(random);
+                // The song ID keeps (title, artist) unique
+                String title = TITLE_WORDS[random.nextInt(TITLE_WORDS.length)] + " "
+                        + TITLE_WORDS[random.nextInt(TITLE_WORDS.length)] + " " + songId;
+                insert.add(songId, title, artistName(artist),
+                        GENRES[artist % GENRES.length],
+                        120 + random.nextInt(300),
+                        "/music/generated/" + songId + ".mp3",
+                        new Timestamp(now - random.nextLong(ONE_YEAR_MS)));
+            }
+        }
+    }
+
+    private void generateTags(Connection conn, int firstSongId, int[] moodIds, int[] activityIds)
+            throws SQLException {
+        SplittableRandom random = new SplittableRandom(seed + 2);
+        // Tag popularity is Zipf too, in a seed-dependent order
+        int[] moodByRank = shuffle(moodIds.clone(), random);
+        int[] activityByRank = shuffle(activityIds.clone(), random);
+        ZipfSampler moodSampler = new ZipfSampler(moodByRank.length, zipfExponent);
+        ZipfSampler activitySampler = new ZipfSampler(activityByRank.length, zipfExponent);
+
+        try (MultiRowInserter moods = new MultiRowInserter(conn, "song_mood",
+                new String[] { "song_id", "mood_id" }, rowsPerInsert);
+                MultiRowInserter activities = new MultiRowInserter(conn, "song_activity",
+                        new String[] { "song_id", "activity_id" }, rowsPerInsert)) {
+            for (int i = 0; i < songCount; i++) {
+                int songId = firstSongId + i;
+                for (int tag : distinctSample(moodSampler, 1 + random.nextInt(3), random)) {
+                    moods.add(songId, moodByRank[tag]);
+                }
+                for (int tag : distinctSample(activitySampler, 1 + random.nextInt(3), random)) {
+                    activities.add(songId, activityByRank[tag]);
+                }
+            }
+        }
+    }
+
+    private void generateUsers(Connection conn, int firstUserId) throws SQLException {
+        SplittableRandom random = new SplittableRandom(seed + 3);
+        String passwordHash = sha256("password");
+
+        try (MultiRowInserter insert = new MultiRowInserter(conn, "users",
+                new String[] { "user_id", "username", "email", "password_hash", "created_at" },
+                rowsPerInsert)) {
+            for (int i = 0; i < userCount; i++) {
+                int userId = firstUserId + i;
+                insert.add(userId, "user" + userId, "user" + userId + "@example.com", passwordHash,
+                        new Timestamp(now - random.nextLong(ONE_YEAR_MS)));
+            }
+        }
+    }
+
+    private void generateRatings(Connection conn, int firstUserId, int[] songByRank, ZipfSampler songPopularity)
+            throws SQLException {
+        SplittableRandom random = new SplittableRandom(seed + 4);
+        double[] cumulativeRating = cumulative(RATING_WEIGHTS);
+
+        try (MultiRowInserter insert = new MultiRowInserter(conn, "user_ratings",
+                new String[] { "user_id", "song_id", "rating", "rated_at" }, rowsPerInsert)) {
+            for (int i = 0; i < userCount; i++) {
+                int userId = firstUserId + i;
+                int count = activityCount(ratingsPerUser, random);
+                for (int rank : distinctSample(songPopularity, count, random)) {
+                    int rating = pick(cumulativeRating, random) + 1;
+                    // The most popular songs lean towards better ratings
+                    if (rating < 5 && rank < songByRank.length / 100 && random.nextInt(3) == 0) {
+                        rating++;
+                    }
+                    insert.add(userId, songByRank[rank], rating, new Timestamp(now - random.nextLong(ONE_YEAR_MS)));
+                }
+            }
+        }
+    }
+
+    private void generateFavorites(Connection conn, int firstUserId, int[] songByRank, ZipfSampler songPopularity)
+            throws SQLException {
+        SplittableRandom random = new SplittableRandom(seed + 5);
+
+        try (MultiRowInserter insert = new MultiRowInserter(conn, "user_favorites",
+                new String[] { "user_id", "song_id", "saved_at" }, rowsPerInsert)) {
+            for (int i = 0; i < userCount; i++) {
+                int userId = firstUserId + i;
+                int count = activityCount(favoritesPerUser, random);
+                for (int rank : distinctSample(songPopularity, count, random)) {
+                    insert.add(userId, songByRank[rank], new Timestamp(now - random.nextLong(ONE_YEAR_MS)));
+                }
+            }
+        }
+    }
+
+    private void generateLogs(Connection conn, int firstUserId, int[] songByRank, ZipfSampler songPopularity)
+            throws SQLException {
+        SplittableRandom random = new SplittableRandom(seed + 6);
+        ZipfSampler userActivity = new ZipfSampler(userCount, zipfExponent);
+        long ninetyDays = TimeUnit.DAYS.toMillis(90);
+
+        try (MultiRowInserter insert = new MultiRowInserter(conn, "activity_logs",
+                new String[] { "action_type", "table_name", "description", "user_id", "admin_id", "timestamp" },
+                rowsPerInsert)) {
+            for (int i = 0; i < logCount; i++) {
+                int action = random.nextInt(LOG_ACTIONS.length);
+                int userId = firstUserId + userActivity.sample(random);
+                int songId = songByRank[songPopularity.sample(random)];
+                insert.add(LOG_ACTIONS[action], LOG_TABLES[action],
+                        "Generated " + LOG_ACTIONS[action].toLowerCase() + " for song ID: " + songId,
+                        userId, null, new Timestamp(now - random.nextLong(ninetyDays)));
+            }
+        }
+    }
+
+    /**
+     * Per-user row count with a long tail: most users are light, a few very
+     * heavy (Pareto with the given mean, at least 1)
+     */
+    private static int activityCount(int mean, SplittableRandom random) {
+        double alpha = 1.5;
+        double minimum = mean * (alpha - 1) / alpha;
+        double value = minimum / Math.pow(1 - random.nextDouble(), 1 / alpha);
+        return (int) Math.max(1, Math.min(value, mean * 100L));
+    }
+
+    /**
+     * Up to count distinct ranks from a Zipf sampler
+     */
+    private static int[] distinctSample(ZipfSampler sampler, int count, SplittableRandom random) {
+        count = Math.min(count, sampler.size());
+        Set<Integer> seen = new HashSet<>(count * 2);
+        int[] result = new int[count];
+        int found = 0;
+        // Bounded so very skewed distributions cannot loop for long
+        for (int attempts = 0; found < count && attempts < count * 20; attempts++) {
+            int rank = sampler.sample(random);
+            if (seen.add(rank)) {
+                result[found++] = rank;
+            }
+        }
+        return found == count ? result : Arrays.copyOf(result, found);
+    }
+
+    private static String artistName(int artist) {
+        return ARTIST_WORDS[artist % ARTIST_WORDS.length] + " "
+                + ARTIST_WORDS[(artist / ARTIST_WORDS.length) % ARTIST_WORDS.length] + " " + (artist + 1);
+    }
+
+    private static int[] shuffledRange(int first, int count, SplittableRandom random) {
+        int[] values = new int[count];
+        for (int i = 0; i < count; i++) {
+            values[i] = first + i;
+        }
+        return shuffle(values, random);
+    }
+
+    private static int[] shuffle(int[] values, SplittableRandom random) {
+        for (int i = values.length - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            int swap = values[i];
+            values[i] = values[j];
+            values[j] = swap;
+        }
+        return values;
+    }
+
+    private static double[] cumulative(double[] weights) {
+        double[] result = new double[weights.length];
+        double total = 0;
+        for (double weight : weights) {
+            total += weight;
+        }
+        double sum = 0;
+        for (int i = 0; i < weights.length; i++) {
+            sum += weights[i] / total;
+            result[i] = sum;
+        }
+        return result;
+    }
+
+    private static int pick(double[] cumulative, SplittableRandom random) {
+        int index = Arrays.binarySearch(cumulative, random.nextDouble());
+        index = index >= 0 ? index : -index - 1;
+        return Math.min(index, cumulative.length - 1);
+    }
+
+    private static int[] readIds(Connection conn, String query) throws SQLException {
+        List<Integer> ids = new ArrayList<>();
+        try (Statement stmt = conn.createStatement(); ResultSet rs = stmt.executeQuery(query)) {
+            while (rs.next()) {
+                ids.add(rs.getInt(1));
+            }
+        }
+        return ids.stream().mapToInt(Integer::intValue).toArray();
+    }
+
+    private static int maxId(Connection conn, String table, String column) throws SQLException {
+        try (Statement stmt = conn.createStatement();
+                ResultSet rs = stmt.executeQuery("SELECT COALESCE(MAX(" + column + "), 0) FROM " + table)) {
+            return rs.next() ? rs.getInt(1) : 0;
+        }
+    }
+
+    private static String sha256(String text) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(text.getBytes(StandardCharsets.UTF_8));
+            StringBuilder hex = new StringBuilder();
+            for (byte b : hash) {
+                hex.append(String.format("%02x", b));
+            }
+            return hex.toString();
+        } catch (Exception e) {
+            throw new RuntimeException("Error hashing password", e);
+        }
+    }
+
+    /**
+     * Samples ranks 0..n-1 with probability proportional to 1 / (rank + 1)^s
+     */
+    static class ZipfSampler {
+        private final double[] cumulative;
+
+        ZipfSampler(int n, double exponent) {
+            cumulative = new double[n];
+            double sum = 0;
+            for (int i = 0; i < n; i++) {
+                sum += 1.0 / Math.pow(i + 1, exponent);
+                cumulative[i] = sum;
+            }
+            for (int i = 0; i < n; i++) {
+                cumulative[i] /= sum;
+            }
+        }
+
+        int sample(SplittableRandom random) {
+            return pick(cumulative, random);
+        }
+
+        int size() {
+            return cumulative.length;
+        }
+    }
+
+    /**
+     * Buffers rows and writes them with one INSERT ... VALUES (...), (...)
+     * statement per rowsPerInsert rows, committing after each statement.
+     * Prints its row count and rate when closed
+     */
+    static class MultiRowInserter implements AutoCloseable {
+        private final Connection conn;
+        private final String table;
+        private final String[] columns;
+        private final int rowsPerInsert;
+        private final PreparedStatement fullInsert;
+        private final Object[] buffer;
+        private int bufferedRows = 0;
+        private long written = 0;
+        private final long start = System.nanoTime();
+
+        MultiRowInserter(Connection conn, String table, String[] columns, int rowsPerInsert) throws SQLException {
+            this.conn = conn;
+            this.table = table;
+            this.columns = columns;
+            this.rowsPerInsert = rowsPerInsert;
+            this.buffer = new Object[rowsPerInsert * columns.length];
+            this.fullInsert = conn.prepareStatement(insertSql(rowsPerInsert));
+        }
+
+        void add(Object... values) throws SQLException {
+            System.arraycopy(values, 0, buffer, bufferedRows * columns.length, columns.length);
+            if (++bufferedRows == rowsPerInsert) {
+                write(fullInsert);
+            }
+        }
+
+        @Override
+        public void close() throws SQLException {
+            try {
+                if (bufferedRows > 0) {
+                    try (PreparedStatement lastInsert = conn.prepareStatement(insertSql(bufferedRows))) {
+                        write(lastInsert);
+                    }
+                }
+            } finally {
+                fullInsert.close();
+            }
+
+            double seconds = (System.nanoTime() - start) / 1_000_000_000.0;
+            System.out.printf("%-16s %,12d rows %8.1f s %,12.0f rows/s%n",
+                    table, written, seconds, written / Math.max(seconds, 0.001));
+        }
+
+        private void write(PreparedStatement pstmt) throws SQLException {
+            int parameters = bufferedRows * columns.length;
+            for (int i = 0; i < parameters; i++) {
+                pstmt.setObject(i + 1, buffer[i]);
+            }
+            pstmt.executeUpdate();
+            conn.commit();
+            written += bufferedRows;
+            bufferedRows = 0;
+        }
+
+        private String insertSql(int rows) {
+            StringBuilder row = new StringBuilder("(");
+            for (int i = 0; i < columns.length; i++) {
+                row.append(i == 0 ? "?" : ", ?");
+            }
+            row.append(")");
+
+            StringBuilder sql = new StringBuilder("INSERT INTO ").append(table).append(" (")
+                    .append(String.join(", ", columns)).append(") VALUES ");
+            for (int i = 0; i < rows; i++) {
+                sql.append(i == 0 ? "" : ", ").append(row);
+            }
+            return sql.toString();
+        }
+    }
+}
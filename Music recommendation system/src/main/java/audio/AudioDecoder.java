@@ -0,0 +1,38 @@
+package main.java.audio;
+
+import javax.sound.sampled.AudioInputStream;
+import javax.sound.sampled.UnsupportedAudioFileException;
+import java.io.File;
+import java.io.IOException;
+
+/**
+ * Decoder for one audio file format. AudioDecoders picks the decoder by the
+ * file's first bytes, not by its extension. Decoders run on the player's
+ * decoder thread, never on the EDT.
+ *
+ * Further decoders can be plugged in without changing the player: list the
+ * implementing class in
+ * META-INF/services/main.java.audio.AudioDecoder on the classpath.
+ * Plug-ins are asked before the built-in decoders.
+ */
+public interface AudioDecoder {
+
+    /**
+     * @return Format name, e.g. "MP3"
+     */
+    String getFormat();
+
+    /**
+     * @param header First AudioDecoders.HEADER_BYTES bytes of the file,
+     *               zero-padded if the file is shorter
+     * @return true if the file is in this decoder's format
+     */
+    boolean accepts(byte[] header);
+
+    /**
+     * Open a file for decoding
+     *
+     * @return Stream of signed PCM
+     */
+    AudioInputStream open(File file) throws UnsupportedAudioFileException, IOException;
+}
@@ -0,0 +1,219 @@
+package main.java.audio;
+
+import javax.sound.sampled.AudioFormat;
+import javax.sound.sampled.AudioInputStream;
+import javax.sound.sampled.AudioSystem;
+import javax.sound.sampled.UnsupportedAudioFileException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.ServiceLoader;
+import java.util.function.Predicate;
+
+/**
+ * Picks the decoder for an audio file from its header and opens the file
+ * as signed PCM.
+ *
+ * The built-in decoders go through the Java Sound SPI. WAV, AIFF and AU
+ * are read by the JDK itself. MP3, Ogg Vorbis and FLAC are recognized by
+ * their headers and decoded by the pure-Java Java Sound decoders shipped
+ * in lib/: mp3spi with JLayer, vorbisspi with JOrbis, and jflac, all on
+ * top of tritonus-share. If one of those jars is missing from the
+ * classpath, opening fails with a message naming the missing decoder
+ * rather than a generic format error.
+ */
+public final class AudioDecoders {
+
+    /** Bytes of the file header passed to AudioDecoder.accepts */
+    public static final int HEADER_BYTES = 16;
+
+    private static final List<AudioDecoder> DECODERS = loadDecoders();
+
+    private AudioDecoders() {
+    }
+
+    /**
+     * @return Plug-in decoders followed by the built-in ones
+     */
+    public static List<AudioDecoder> getDecoders() {
+        return DECODERS;
+    }
+
+    /**
+     * Find the decoder for a file by its header
+     *
+     * @return Decoder, or null if no decoder knows the format
+     */
+    public static AudioDecoder detect(File file) throws IOException {
+        byte[] header = readHeader(file);
+        for (AudioDecoder decoder : DECODERS) {
+            if (decoder.accepts(header)) {
+                return decoder;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Open a file as signed PCM with the decoder its header calls for
+     */
+    public static AudioInputStream open(File file) throws UnsupportedAudioFileException, IOException {
+        return open(file, null);
+    }
+
+    /**
+     * Open a file as signed PCM with the decoder for a format already known,
+     * e.g. from the MediaIndex, without reading the header first
+     *
+     * @param format Format name, or null to detect it from the header
+     */
+    public static AudioInputStream open(File file, String format) throws UnsupportedAudioFileException,
+            IOException {
+        AudioDecoder decoder = null;
+        for (AudioDecoder candidate : DECODERS) {
+            if (candidate.getFormat().equals(format)) {
+                decoder = candidate;
+                break;
+            }
+        }
+        if (decoder == null) {
+            decoder = detect(file);
+        }
+        if (decoder == null) {
+            // Unknown header: let Java Sound try every reader it has
+            AudioInputStream stream = AudioSystem.getAudioInputStream(file);
+            try {
+                return toPcm(stream);
+            } catch (IllegalArgumentException e) {
+                stream.close();
+                throw new UnsupportedAudioFileException("Cannot decode " + file.getName() + ": " + e.getMessage());
+            }
+        }
+        return decoder.open(file);
+    }
+
+    /**
+     * Convert a stream to 16-bit signed PCM unless it already is signed PCM
+     */
+    static AudioInputStream toPcm(AudioInputStream stream) {
+        AudioFormat format = stream.getFormat();
+        if (format.getEncoding() == AudioFormat.Encoding.PCM_SIGNED) {
+            return stream;
+        }
+        AudioFormat decodedFormat = new AudioFormat(
+                AudioFormat.Encoding.PCM_SIGNED,
+                format.getSampleRate(),
+                16,
+                format.getChannels(),
+                format.getChannels() * 2,
+                format.getSampleRate(),
+                false);
+        return AudioSystem.getAudioInputStream(decodedFormat, stream);
+    }
+
+    private static byte[] readHeader(File file) throws IOException {
+        byte[] header = new byte[HEADER_BYTES];
+        try (InputStream in = new FileInputStream(file)) {
+            int offset = 0;
+            int count;
+            while (offset < header.length && (count = in.read(header, offset, header.length - offset)) > 0) {
+                offset += count;
+            }
+        }
+        return header;
+    }
+
+    private static boolean startsWith(byte[] header, int offset, String magic) {
+        for (int i = 0; i < magic.length(); i++) {
+            if (header[offset + i] != (byte) magic.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static List<AudioDecoder> loadDecoders() {
+        List<AudioDecoder> decoders = new ArrayList<>();
+        for (AudioDecoder decoder : ServiceLoader.load(AudioDecoder.class)) {
+            decoders.add(decoder);
+        }
+
+        decoders.add(new JavaSoundDecoder("WAV", null,
+                header -> startsWith(header, 0, "RIFF") && startsWith(header, 8, "WAVE")));
+        decoders.add(new JavaSoundDecoder("AIFF", null,
+                header -> startsWith(header, 0, "FORM")
+                        && (startsWith(header, 8, "AIFF") || startsWith(header, 8, "AIFC"))));
+        decoders.add(new JavaSoundDecoder("AU", null, header -> startsWith(header, 0, ".snd")));
+        // An ID3 tag, or straight into an MPEG audio frame sync
+        decoders.add(new JavaSoundDecoder("MP3", "javazoom.spi.mpeg.sampled.file.MpegAudioFileReader",
+                header -> startsWith(header, 0, "ID3")
+                        || ((header[0] & 0xFF) == 0xFF && (header[1] & 0xE0) == 0xE0)));
+        decoders.add(new JavaSoundDecoder("OGG", "javazoom.spi.vorbis.sampled.file.VorbisAudioFileReader",
+                header -> startsWith(header, 0, "OggS")));
+        decoders.add(new JavaSoundDecoder("FLAC", "org.jflac.sound.spi.FlacAudioFileReader",
+                header -> startsWith(header, 0, "fLaC")));
+        return Collections.unmodifiableList(decoders);
+    }
+
+    /**
+     * Decoder backed by the Java Sound readers and converters installed in
+     * the JVM
+     */
+    private static final class JavaSoundDecoder implements AudioDecoder {
+        private final String format;
+        private final String pluginReader;
+        private final Predicate<byte[]> matcher;
+
+        /**
+         * @param pluginReader Class name of the plug-in AudioFileReader that
+         *                     reads this format, or null if the JDK does
+         */
+        JavaSoundDecoder(String format, String pluginReader, Predicate<byte[]> matcher) {
+            this.format = format;
+            this.pluginReader = pluginReader;
+            this.matcher = matcher;
+        }
+
+        @Override
+        public String getFormat() {
+            return format;
+        }
+
+        @Override
+        public boolean accepts(byte[] header) {
+            return matcher.test(header);
+        }
+
+        @Override
+        public AudioInputStream open(File file) throws UnsupportedAudioFileException, IOException {
+            try {
+                return toPcm(AudioSystem.getAudioInputStream(file));
+            } catch (UnsupportedAudioFileException | IllegalArgumentException e) {
+                if (pluginReader != null && !isInstalled(pluginReader)) {
+                    throw new UnsupportedAudioFileException("No " + format + " decoder is installed. Add a Java Sound "
+                            + format + " decoder to lib/, or convert the file to WAV");
+                }
+                throw e instanceof UnsupportedAudioFileException ? (UnsupportedAudioFileException) e
+                        : new UnsupportedAudioFileException(e.getMessage());
+            }
+        }
+
+        @Override
+        public String toString() {
+            return format;
+        }
+
+        private static boolean isInstalled(String className) {
+            try {
+                Class.forName(className, false, AudioDecoders.class.getClassLoader());
+                return true;
+            } catch (ClassNotFoundException | LinkageError e) {
+                return false;
+            }
+        }
+    }
+}
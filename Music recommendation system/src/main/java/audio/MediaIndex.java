@@ -0,0 +1,308 @@
+package main.java.audio;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Index of the audio files in the music directory: format, length, sample
+ * rate and channels of each, read by MediaProbe from the file headers. A
+ * background scan keeps it current and saves it in a compact binary file,
+ * so after a restart only new or changed files are probed again. Files
+ * that are not audio are kept too, as entries without a format, so they
+ * are not probed again either while their size and mtime stay the same.
+ *
+ * Entries are keyed by the file's absolute path, resolved the same way the
+ * player resolves songs.file_path, so get(song.getFilePath()) finds a
+ * song's file with a single stat of it. The map is an immutable snapshot
+ * behind a volatile reference, so lookups take no locks.
+ *
+ * Settings (system properties): media.dir - directory to scan (default
+ * music), media.indexFile (default ~/.music-recommender/media.index).
+ */
+public class MediaIndex {
+
+    private static final File DIRECTORY = new File(System.getProperty("media.dir", "music"));
+    private static final File INDEX_FILE = new File(System.getProperty("media.indexFile",
+            System.getProperty("user.home") + File.separator + ".music-recommender" + File.separator
+                    + "media.index"));
+
+    private static final int MAGIC = 0x4D494458; // "MIDX"
+    private static final int VERSION = 1;
+    /** Format of the entry of a file that is not audio */
+    private static final String NOT_AUDIO = "";
+
+    private static final MediaIndex INSTANCE = new MediaIndex();
+
+    private volatile Map<String, MediaInfo> entries = Collections.emptyMap();
+
+    // Last scan, guarded by this
+    private int probedCount = 0;
+    private int reusedCount = 0;
+    private int notAudioCount = 0;
+    private long scanMillis = -1;
+
+    private MediaIndex() {
+    }
+
+    public static MediaIndex getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Load the saved index and bring it up to date on a background thread
+     */
+    public void scanInBackground() {
+        Thread scanner = new Thread(() -> {
+            load();
+            scan();
+        }, "media-scanner");
+        scanner.setDaemon(true);
+        scanner.setPriority(Thread.MIN_PRIORITY);
+        scanner.start();
+    }
+
+    /**
+     * Look a file up without probing it. The entry only counts while the
+     * file's size and mtime still match it, so a deleted or replaced file
+     * is not reported with its old format and length.
+     *
+     * @param filePath Path as stored in songs.file_path
+     * @return The file's media info, or null if the scanner has not seen it
+     *         or the file changed since
+     */
+    public MediaInfo get(String filePath) {
+        if (filePath == null || filePath.isEmpty()) {
+            return null;
+        }
+        File file = new File(filePath);
+        MediaInfo known = entries.get(key(file));
+        if (known == null || known.getSize() != file.length() || known.getLastModified() != file.lastModified()) {
+            return null;
+        }
+        return audioOnly(known);
+    }
+
+    /**
+     * Probe one file now and add it to the index. Reads the disk, so call
+     * it off the EDT.
+     *
+     * @param filePath Path as stored in songs.file_path
+     * @return Media info, or null if the file is missing or not audio
+     */
+    public MediaInfo probe(String filePath) {
+        if (filePath == null || filePath.isEmpty()) {
+            return null;
+        }
+        File file = new File(filePath);
+        MediaInfo known = entries.get(key(file));
+        if (known != null && known.getSize() == file.length() && known.getLastModified() == file.lastModified()) {
+            return audioOnly(known);
+        }
+        if (!file.isFile()) {
+            return null;
+        }
+        try {
+            MediaInfo info = probeOrMark(file);
+            synchronized (this) {
+                Map<String, MediaInfo> next = new HashMap<>(entries);
+                MediaInfo replaced = next.put(key(file), info);
+                if (replaced != null && audioOnly(replaced) == null) {
+                    notAudioCount--;
+                }
+                if (audioOnly(info) == null) {
+                    notAudioCount++;
+                }
+                entries = Collections.unmodifiableMap(next);
+            }
+            return audioOnly(info);
+        } catch (IOException e) {
+            System.err.println("Error probing " + filePath + ": " + e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Walk the music directory: keep entries whose file is unchanged, probe
+     * new and changed files, drop files that are gone, and save the index
+     * if anything changed
+     */
+    public synchronized void scan() {
+        long start = System.currentTimeMillis();
+        Map<String, MediaInfo> previous = entries;
+        Map<String, MediaInfo> next = new HashMap<>();
+        int[] counts = new int[2]; // probed, reused
+        int notAudio = 0;
+        walk(DIRECTORY, previous, next, counts);
+
+        // Files outside the directory, added by probe(), stay while unchanged
+        for (Map.Entry<String, MediaInfo> entry : previous.entrySet()) {
+            if (!next.containsKey(entry.getKey())) {
+                File file = new File(entry.getKey());
+                if (file.length() == entry.getValue().getSize()
+                        && file.lastModified() == entry.getValue().getLastModified()) {
+                    next.put(entry.getKey(), entry.getValue());
+                    counts[1]++;
+                }
+            }
+        }
+        for (MediaInfo info : next.values()) {
+            if (audioOnly(info) == null) {
+                notAudio++;
+            }
+        }
+
+        entries = Collections.unmodifiableMap(next);
+        probedCount = counts[0];
+        reusedCount = counts[1];
+        notAudioCount = notAudio;
+        scanMillis = System.currentTimeMillis() - start;
+        if (counts[0] > 0 || next.size() != previous.size()) {
+            save(next);
+        }
+        System.out.println("Media scan: " + this);
+    }
+
+    /**
+     * @return Number of audio files in the index
+     */
+    public synchronized int size() {
+        return entries.size() - notAudioCount;
+    }
+
+    private void walk(File path, Map<String, MediaInfo> previous, Map<String, MediaInfo> next, int[] counts) {
+        File[] children = path.listFiles();
+        if (children == null) {
+            return;
+        }
+        Arrays.sort(children);
+        for (File child : children) {
+            if (child.isDirectory()) {
+                walk(child, previous, next, counts);
+                continue;
+            }
+            String key = key(child);
+            MediaInfo known = previous.get(key);
+            if (known != null && known.getSize() == child.length()
+                    && known.getLastModified() == child.lastModified()) {
+                next.put(key, known);
+                counts[1]++;
+                continue;
+            }
+            try {
+                next.put(key, probeOrMark(child));
+                counts[0]++;
+            } catch (IOException e) {
+                System.err.println("Error probing " + child + ": " + e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Probe a file; a file that is not audio gets an entry without a format
+     * (keyed by size and mtime like the others)
+     */
+    private static MediaInfo probeOrMark(File file) throws IOException {
+        MediaInfo info = MediaProbe.probe(file);
+        return info != null ? info : new MediaInfo(NOT_AUDIO, -1, -1, -1, file.length(), file.lastModified());
+    }
+
+    /**
+     * @return The entry, or null for a file that is not audio
+     */
+    private static MediaInfo audioOnly(MediaInfo info) {
+        return info == null || NOT_AUDIO.equals(info.getFormat()) ? null : info;
+    }
+
+    /**
+     * Read the saved index, if there is one
+     */
+    private synchronized void load() {
+        if (!INDEX_FILE.isFile()) {
+            return;
+        }
+        Map<String, MediaInfo> loaded = new HashMap<>();
+        int notAudio = 0;
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(INDEX_FILE)))) {
+            if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+                return;
+            }
+            int count = in.readInt();
+            for (int i = 0; i < count; i++) {
+                String key = in.readUTF();
+                long size = in.readLong();
+                long lastModified = in.readLong();
+                String format = in.readUTF();
+                long durationMillis = in.readLong();
+                int sampleRate = in.readInt();
+                int channels = in.readByte();
+                loaded.put(key, new MediaInfo(format, durationMillis, sampleRate, channels, size, lastModified));
+                if (NOT_AUDIO.equals(format)) {
+                    notAudio++;
+                }
+            }
+        } catch (IOException e) {
+            System.err.println("Error loading media index: " + e.getMessage());
+            return;
+        }
+        entries = Collections.unmodifiableMap(loaded);
+        notAudioCount = notAudio;
+    }
+
+    private void save(Map<String, MediaInfo> snapshot) {
+        File parent = INDEX_FILE.getAbsoluteFile().getParentFile();
+        if (parent != null && !parent.isDirectory() && !parent.mkdirs()) {
+            System.err.println("Cannot create directory for media index: " + parent);
+            return;
+        }
+        File temp = new File(INDEX_FILE.getPath() + ".tmp");
+        try {
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(temp)))) {
+                out.writeInt(MAGIC);
+                out.writeInt(VERSION);
+                out.writeInt(snapshot.size());
+                for (Map.Entry<String, MediaInfo> entry : snapshot.entrySet()) {
+                    MediaInfo info = entry.getValue();
+                    out.writeUTF(entry.getKey());
+                    out.writeLong(info.getSize());
+                    out.writeLong(info.getLastModified());
+                    out.writeUTF(info.getFormat());
+                    out.writeLong(info.getDurationMillis());
+                    out.writeInt(info.getSampleRate());
+                    out.writeByte(info.getChannels());
+                }
+            }
+            Files.move(temp.toPath(), INDEX_FILE.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException e) {
+            System.err.println("Error saving media index: " + e.getMessage());
+            temp.delete();
+        }
+    }
+
+    private static String key(File file) {
+        return file.getAbsoluteFile().toPath().normalize().toString();
+    }
+
+    @Override
+    public synchronized String toString() {
+        return "MediaIndex{" +
+                "files=" + (entries.size() - notAudioCount) +
+                ", notAudio=" + notAudioCount +
+                ", probed=" + probedCount +
+                ", reused=" + reusedCount +
+                ", scanMs=" + scanMillis +
+                ", directory=" + DIRECTORY.getAbsolutePath() +
+                '}';
+    }
+}
@@ -0,0 +1,71 @@
+package main.java.audio;
+
+/**
+ * What the media scanner found out about one audio file from its header
+ */
+public final class MediaInfo {
+    private final String format;
+    private final long durationMillis;
+    private final int sampleRate;
+    private final int channels;
+    private final long size;
+    private final long lastModified;
+
+    /**
+     * @param durationMillis Length, or -1 if the header does not say
+     * @param sampleRate     Samples per second, or -1 if unknown
+     * @param channels       Channel count, or -1 if unknown
+     * @param size           File size, to notice changes
+     * @param lastModified   File modification time, to notice changes
+     */
+    public MediaInfo(String format, long durationMillis, int sampleRate, int channels, long size,
+            long lastModified) {
+        this.format = format;
+        this.durationMillis = durationMillis;
+        this.sampleRate = sampleRate;
+        this.channels = channels;
+        this.size = size;
+        this.lastModified = lastModified;
+    }
+
+    public String getFormat() {
+        return format;
+    }
+
+    public long getDurationMillis() {
+        return durationMillis;
+    }
+
+    /**
+     * @return Length rounded to whole seconds, as stored in songs.duration,
+     *         or -1 if unknown
+     */
+    public int getDurationSeconds() {
+        return durationMillis < 0 ? -1 : (int) ((durationMillis + 500) / 1000);
+    }
+
+    public int getSampleRate() {
+        return sampleRate;
+    }
+
+    public int getChannels() {
+        return channels;
+    }
+
+    public long getSize() {
+        return size;
+    }
+
+    public long getLastModified() {
+        return lastModified;
+    }
+
+    @Override
+    public String toString() {
+        return format +
+                (sampleRate > 0 ? ", " + sampleRate / 1000.0 + " kHz" : "") +
+                (channels == 1 ? ", mono" : channels == 2 ? ", stereo" : channels > 0 ? ", " + channels + " ch" : "") +
+                (durationMillis >= 0 ? String.format(", %d:%02d", getDurationSeconds() / 60, getDurationSeconds() % 60)
+                        : "");
+    }
+}
@@ -0,0 +1,230 @@
+package main.java.audio;
+
+import javax.sound.sampled.AudioFileFormat;
+import javax.sound.sampled.AudioSystem;
+import javax.sound.sampled.UnsupportedAudioFileException;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+
+/**
+ * Reads format, length, sample rate and channels from an audio file's
+ * headers without decoding any audio. MP3 length comes from the Xing/Info
+ * or VBRI frame count, or from the bitrate for constant bitrate files;
+ * FLAC from STREAMINFO; Ogg Vorbis from the granule position of the last
+ * page; everything else from Java Sound's file format.
+ */
+public final class MediaProbe {
+
+    private static final int SCAN_BYTES = 64 * 1024;
+
+    private static final int[] MP3_SAMPLE_RATES = { 44100, 48000, 32000 };
+    // Bitrates in kbps by bitrate index: MPEG-1 layers I-III, MPEG-2/2.5 layer I, MPEG-2/2.5 layers II-III
+    private static final int[][] MP3_BITRATES = {
+            { 0, 32, 64, 96, 128, 160, 192, 224, 256, 288, 320, 352, 384, 416, 448 },
+            { 0, 32, 48, 56, 64, 80, 96, 112, 128, 160, 192, 224, 256, 320, 384 },
+            { 0, 32, 40, 48, 56, 64, 80, 96, 112, 128, 160, 192, 224, 256, 320 },
+            { 0, 32, 48, 56, 64, 80, 96, 112, 128, 144, 160, 176, 192, 224, 256 },
+            { 0, 8, 16, 24, 32, 40, 48, 56, 64, 80, 96, 112, 128, 144, 160 } };
+
+    private MediaProbe() {
+    }
+
+    /**
+     * Probe a file
+     *
+     * @return Media info, or null if the file is not in a known audio
+     *         format
+     */
+    public static MediaInfo probe(File file) throws IOException {
+        AudioDecoder decoder = AudioDecoders.detect(file);
+        if (decoder == null) {
+            return null;
+        }
+        String format = decoder.getFormat();
+        long[] details = { -1, -1, -1 }; // duration ms, sample rate, channels
+
+        try (RandomAccessFile in = new RandomAccessFile(file, "r")) {
+            switch (format) {
+                case "MP3":
+                    probeMp3(in, details);
+                    break;
+                case "FLAC":
+                    probeFlac(in, details);
+                    break;
+                case "OGG":
+                    probeOgg(in, details);
+                    break;
+                default:
+                    break;
+            }
+        }
+        if (details[0] < 0) {
+            probeJavaSound(file, details);
+        }
+
+        return new MediaInfo(format, details[0], (int) details[1], (int) details[2], file.length(),
+                file.lastModified());
+    }
+
+    private static void probeMp3(RandomAccessFile in, long[] details) throws IOException {
+        long length = in.length();
+        byte[] tag = new byte[10];
+        long start = 0;
+        if (read(in, 0, tag) == tag.length && tag[0] == 'I' && tag[1] == 'D' && tag[2] == '3') {
+            // ID3v2 size is syncsafe: 7 bits per byte
+            start = 10 + ((tag[6] & 0x7F) << 21 | (tag[7] & 0x7F) << 14 | (tag[8] & 0x7F) << 7 | (tag[9] & 0x7F));
+            if ((tag[5] & 0x10) != 0) {
+                start += 10;
+            }
+        }
+
+        byte[] buffer = new byte[(int) Math.min(SCAN_BYTES, Math.max(length - start, 0))];
+        int count = read(in, start, buffer);
+        for (int i = 0; i + 4 <= count; i++) {
+            if ((buffer[i] & 0xFF) != 0xFF || (buffer[i + 1] & 0xE0) != 0xE0) {
+                continue;
+            }
+            int version = (buffer[i + 1] >> 3) & 3; // 3 = MPEG-1, 2 = MPEG-2, 0 = MPEG-2.5
+            int layer = 4 - ((buffer[i + 1] >> 1) & 3); // 1-3, 4 = reserved
+            int bitrateIndex = (buffer[i + 2] >> 4) & 0xF;
+            int rateIndex = (buffer[i + 2] >> 2) & 3;
+            if (version == 1 || layer == 4 || bitrateIndex == 0 || bitrateIndex == 15 || rateIndex == 3) {
+                continue;
+            }
+            boolean mpeg1 = version == 3;
+            int sampleRate = MP3_SAMPLE_RATES[rateIndex] / (mpeg1 ? 1 : version == 2 ? 2 : 4);
+            int channels = ((buffer[i + 3] >> 6) & 3) == 3 ? 1 : 2;
+            int bitrate = MP3_BITRATES[mpeg1 ? layer - 1 : layer == 1 ? 3 : 4][bitrateIndex] * 1000;
+            int samplesPerFrame = layer == 1 ? 384 : layer == 2 || mpeg1 ? 1152 : 576;
+            details[1] = sampleRate;
+            details[2] = channels;
+
+            // Variable bitrate files carry their frame count in the first frame
+            int sideInfo = mpeg1 ? (channels == 1 ? 17 : 32) : (channels == 1 ? 9 : 17);
+            long frames = -1;
+            int xing = i + 4 + sideInfo;
+            int vbri = i + 4 + 32;
+            if (matches(buffer, count, xing, "Xing") || matches(buffer, count, xing, "Info")) {
+                if (xing + 12 <= count && (readIntBE(buffer, xing + 4) & 1) != 0) {
+                    frames = readIntBE(buffer, xing + 8) & 0xFFFFFFFFL;
+                }
+            } else if (matches(buffer, count, vbri, "VBRI") && vbri + 18 <= count) {
+                frames = readIntBE(buffer, vbri + 14) & 0xFFFFFFFFL;
+            }
+
+            if (frames > 0) {
+                details[0] = frames * samplesPerFrame * 1000 / sampleRate;
+            } else {
+                long audioBytes = length - start - i;
+                byte[] trailer = new byte[3];
+                if (length >= 128 && read(in, length - 128, trailer) == 3
+                        && trailer[0] == 'T' && trailer[1] == 'A' && trailer[2] == 'G') {
+                    audioBytes -= 128; // ID3v1 tag
+                }
+                details[0] = audioBytes * 8 * 1000 / bitrate;
+            }
+            return;
+        }
+    }
+
+    private static void probeFlac(RandomAccessFile in, long[] details) throws IOException {
+        // STREAMINFO is always the first metadata block
+        byte[] info = new byte[26];
+        if (read(in, 0, info) < info.length || (info[4] & 0x7F) != 0) {
+            return;
+        }
+        long packed = 0;
+        for (int i = 18; i < 26; i++) {
+            packed = packed << 8 | (info[i] & 0xFF);
+        }
+        long sampleRate = packed >>> 44;
+        long totalSamples = packed & 0xFFFFFFFFFL;
+        details[1] = sampleRate;
+        details[2] = ((packed >>> 41) & 7) + 1;
+        if (sampleRate > 0 && totalSamples > 0) {
+            details[0] = totalSamples * 1000 / sampleRate;
+        }
+    }
+
+    private static void probeOgg(RandomAccessFile in, long[] details) throws IOException {
+        byte[] first = new byte[512];
+        int count = read(in, 0, first);
+        if (count < 28) {
+            return;
+        }
+        int packet = 27 + (first[26] & 0xFF);
+        if (packet + 16 > count || first[packet] != 1 || !matches(first, count, packet + 1, "vorbis")) {
+            return;
+        }
+        long sampleRate = readIntLE(first, packet + 12) & 0xFFFFFFFFL;
+        details[1] = sampleRate;
+        details[2] = first[packet + 11] & 0xFF;
+
+        // The granule position of the last page is the total sample count
+        long length = in.length();
+        byte[] tail = new byte[(int) Math.min(SCAN_BYTES, length)];
+        int tailCount = read(in, length - tail.length, tail);
+        for (int i = tailCount - 14; i >= 0; i--) {
+            if (matches(tail, tailCount, i, "OggS")) {
+                long granule = readIntLE(tail, i + 6) & 0xFFFFFFFFL | (long) readIntLE(tail, i + 10) << 32;
+                if (sampleRate > 0 && granule > 0) {
+                    details[0] = granule * 1000 / sampleRate;
+                }
+                return;
+            }
+        }
+    }
+
+    private static void probeJavaSound(File file, long[] details) {
+        try {
+            AudioFileFormat fileFormat = AudioSystem.getAudioFileFormat(file);
+            float frameRate = fileFormat.getFormat().getFrameRate();
+            if (fileFormat.getFrameLength() != AudioSystem.NOT_SPECIFIED && frameRate > 0) {
+                details[0] = (long) (fileFormat.getFrameLength() * 1000L / frameRate);
+            } else if (fileFormat.properties().get("duration") instanceof Long) {
+                details[0] = (Long) fileFormat.properties().get("duration") / 1000;
+            }
+            if (fileFormat.getFormat().getSampleRate() > 0) {
+                details[1] = (long) fileFormat.getFormat().getSampleRate();
+            }
+            if (fileFormat.getFormat().getChannels() > 0) {
+                details[2] = fileFormat.getFormat().getChannels();
+            }
+        } catch (UnsupportedAudioFileException | IOException e) {
+            // No reader for this format installed: keep what the header gave
+        }
+    }
+
+    private static int read(RandomAccessFile in, long position, byte[] buffer) throws IOException {
+        in.seek(Math.max(position, 0));
+        int offset = 0;
+        int count;
+        while (offset < buffer.length && (count = in.read(buffer, offset, buffer.length - offset)) > 0) {
+            offset += count;
+        }
+        return offset;
+    }
+
+    private static boolean matches(byte[] buffer, int count, int offset, String magic) {
+        if (offset < 0 || offset + magic.length() > count) {
+            return false;
+        }
+        for (int i = 0; i < magic.length(); i++) {
+            if (buffer[offset + i] != (byte) magic.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static int readIntBE(byte[] buffer, int offset) {
+        return (buffer[offset] & 0xFF) << 24 | (buffer[offset + 1] & 0xFF) << 16
+                | (buffer[offset + 2] & 0xFF) << 8 | (buffer[offset + 3] & 0xFF);
+    }
+
+    private static int readIntLE(byte[] buffer, int offset) {
+        return (buffer[offset] & 0xFF) | (buffer[offset + 1] & 0xFF) << 8
+                | (buffer[offset + 2] & 0xFF) << 16 | (buffer[offset + 3] & 0xFF) << 24;
+    }
+}
@@ -0,0 +1,493 @@
+package main.java.audio;
+
+import main.java.model.Song;
+
+import javax.sound.sampled.AudioFormat;
+import javax.sound.sampled.AudioInputStream;
+import javax.sound.sampled.UnsupportedAudioFileException;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Supplier;
+import java.util.zip.CRC32;
+
+/**
+ * On-disk cache of decoded PCM for the most played songs, so playing them
+ * starts with no decode work: the cached file is mapped with
+ * FileChannel.map and the player reads straight from the mapping.
+ *
+ * Entries are named by song ID and the audio file's modification time, so
+ * replacing the file makes the entry unused; it then ages out. Each entry
+ * has a header with the PCM format, the data length and a CRC32 of the
+ * data, checked the first time the entry is used in a run; a damaged entry
+ * is deleted and the song is decoded as usual. The cache is kept under a
+ * size cap by evicting the least recently played entries, and hits are
+ * recorded in the files' modification times so the order survives a
+ * restart.
+ *
+ * Entries are written on low-priority background threads: by
+ * warmInBackground(), which decodes the popular songs at startup, as many
+ * as fit the size cap, and by storeInBackground(), which the player calls
+ * for a song it decoded and played to the end.
+ *
+ * Settings (system properties): audio.cache.enabled (default true),
+ * audio.cache.dir (default ~/.music-recommender/pcm-cache),
+ * audio.cache.maxBytes (default 512 MB), audio.cache.hotSongs - songs
+ * taken from each popularity list (default 20).
+ */
+public class PcmCache {
+
+    private static final boolean ENABLED = !"false".equalsIgnoreCase(System.getProperty("audio.cache.enabled"));
+    private static final File DIRECTORY = new File(System.getProperty("audio.cache.dir",
+            System.getProperty("user.home") + File.separator + ".music-recommender" + File.separator + "pcm-cache"));
+    private static final long MAX_BYTES = Long.getLong("audio.cache.maxBytes", 512L << 20);
+    public static final int HOT_SONGS = Integer.getInteger("audio.cache.hotSongs", 20);
+
+    private static final String SUFFIX = ".pcm";
+    private static final int MAGIC = 0x50434D31; // "PCM1"
+    private static final int HEADER_BYTES = 48;
+    /** Returned by storeEntry when the song does not fit the allowance */
+    private static final long TOO_LARGE = -1;
+
+    private static final PcmCache INSTANCE = new PcmCache();
+
+    // Entry file name -> size in least recently used order, guarded by this
+    private final LinkedHashMap<String, Long> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private final Set<String> validated = new HashSet<>();
+    // Songs handed to the store thread and not stored yet, guarded by this
+    private final Set<Integer> pendingStores = new HashSet<>();
+    private ExecutorService storer = null;
+    private boolean scanned = false;
+    private long totalBytes = 0;
+
+    // Metrics, guarded by this
+    private long hits = 0;
+    private long misses = 0;
+    private long corrupt = 0;
+    private long stores = 0;
+    private long evictions = 0;
+
+    private PcmCache() {
+    }
+
+    public static PcmCache getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Open a song's decoded audio from the cache
+     *
+     * @param songId Song ID
+     * @param source The song's audio file
+     * @param count  false to leave the hit and miss counts alone, e.g. when
+     *               reopening for a seek
+     * @return Stream over the mapped PCM, or null if the song is not cached
+     */
+    public AudioInputStream open(int songId, File source, boolean count) {
+        if (!ENABLED || songId <= 0) {
+            return null;
+        }
+        String name = entryName(songId, source);
+        boolean check;
+        synchronized (this) {
+            ensureScanned();
+            if (entries.get(name) == null) {
+                if (count) {
+                    misses++;
+                }
+                return null;
+            }
+            check = !validated.contains(name);
+        }
+
+        File file = new File(DIRECTORY, name);
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            // The mapping stays valid after the channel is closed
+            MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            AudioInputStream stream = readEntry(mapped, check);
+            if (stream == null) {
+                System.err.println("Discarding damaged PCM cache entry: " + name);
+                synchronized (this) {
+                    corrupt++;
+                    remove(name);
+                }
+                return null;
+            }
+            file.setLastModified(System.currentTimeMillis());
+            synchronized (this) {
+                validated.add(name);
+                if (count) {
+                    hits++;
+                }
+            }
+            return stream;
+
+        } catch (IOException e) {
+            System.err.println("Error reading PCM cache entry " + name + ": " + e.getMessage());
+            synchronized (this) {
+                remove(name);
+            }
+            return null;
+        }
+    }
+
+    /**
+     * Decode a song into the cache unless it is there already
+     *
+     * @return true if the song was decoded and stored
+     */
+    public boolean store(int songId, File source) {
+        return storeEntry(songId, source, MAX_BYTES) > 0;
+    }
+
+    /**
+     * Decode a song into the cache on the background store thread, unless
+     * it is cached or queued already
+     */
+    public void storeInBackground(int songId, File source) {
+        if (!ENABLED || songId <= 0) {
+            return;
+        }
+        synchronized (this) {
+            ensureScanned();
+            if (entries.containsKey(entryName(songId, source)) || !pendingStores.add(songId)) {
+                return;
+            }
+            if (storer == null) {
+                storer = Executors.newSingleThreadExecutor(r -> {
+                    Thread thread = new Thread(r, "pcm-cache-store");
+                    thread.setDaemon(true);
+                    thread.setPriority(Thread.MIN_PRIORITY);
+                    return thread;
+                });
+            }
+        }
+        storer.execute(() -> {
+            try {
+                store(songId, source);
+            } finally {
+                synchronized (this) {
+                    pendingStores.remove(songId);
+                }
+            }
+        });
+    }
+
+    /**
+     * @param maxBytes Give up if the entry would be larger than this
+     * @return Size of the new entry, 0 if the song is cached already or
+     *         cannot be decoded, or TOO_LARGE
+     */
+    private long storeEntry(int songId, File source, long maxBytes) {
+        if (!ENABLED || songId <= 0) {
+            return 0;
+        }
+        String name = entryName(songId, source);
+        synchronized (this) {
+            ensureScanned();
+            if (entries.containsKey(name)) {
+                return 0;
+            }
+        }
+
+        File file = new File(DIRECTORY, name);
+        File temp = new File(DIRECTORY, name + ".tmp");
+        long limit = Math.min(Math.min(maxBytes, MAX_BYTES), Integer.MAX_VALUE) - HEADER_BYTES;
+        boolean tooLarge = false;
+        try {
+            try (AudioInputStream stream = AudioDecoders.open(source);
+                    FileChannel out = FileChannel.open(temp.toPath(), StandardOpenOption.CREATE,
+                            StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+
+                AudioFormat format = stream.getFormat();
+                CRC32 crc = new CRC32();
+                byte[] chunk = new byte[64 * 1024];
+                long length = 0;
+                out.position(HEADER_BYTES);
+                int count;
+                while ((count = stream.read(chunk)) > 0) {
+                    length += count;
+                    if (length > limit) {
+                        tooLarge = true;
+                        throw new IOException("decoded audio is larger than the cache allows");
+                    }
+                    crc.update(chunk, 0, count);
+                    out.write(ByteBuffer.wrap(chunk, 0, count));
+                }
+
+                ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+                header.putInt(MAGIC)
+                        .putFloat(format.getSampleRate())
+                        .putInt(format.getSampleSizeInBits())
+                        .putInt(format.getChannels())
+                        .putInt(format.getFrameSize())
+                        .putFloat(format.getFrameRate())
+                        .putInt(format.isBigEndian() ? 1 : 0)
+                        .putLong(length)
+                        .putLong(crc.getValue());
+                header.rewind();
+                out.write(header, 0);
+            }
+            Files.move(temp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+
+        } catch (UnsupportedAudioFileException | IOException e) {
+            if (!tooLarge || maxBytes >= MAX_BYTES) {
+                System.err.println("Cannot cache song " + songId + ": " + e.getMessage());
+            }
+            temp.delete();
+            return tooLarge ? TOO_LARGE : 0;
+        }
+
+        synchronized (this) {
+            // Entries for an older version of the file are no longer used
+            String prefix = songId + "-";
+            for (String stale : entries.keySet().toArray(new String[0])) {
+                if (stale.startsWith(prefix)) {
+                    remove(stale);
+                }
+            }
+            entries.put(name, file.length());
+            totalBytes += file.length();
+            validated.add(name);
+            stores++;
+            evict();
+        }
+        return file.length();
+    }
+
+    /**
+     * Decode the given songs into the cache on a low-priority background
+     * thread, most popular first and only as many as fit the size cap, so
+     * warming never evicts what it just stored
+     *
+     * @param hotSongs Fetches the songs to cache, most popular first, called
+     *                 on that thread
+     */
+    public void warmInBackground(Supplier<List<Song>> hotSongs) {
+        if (!ENABLED) {
+            return;
+        }
+        Thread warmer = new Thread(() -> {
+            Map<Integer, File> sources = new LinkedHashMap<>();
+            for (Song song : hotSongs.get()) {
+                if (song.getFilePath() != null && !song.getFilePath().isEmpty()) {
+                    File source = new File(song.getFilePath());
+                    if (source.isFile()) {
+                        sources.putIfAbsent(song.getSongId(), source);
+                    }
+                }
+            }
+
+            // Mark the cached ones as just played, so the stores below
+            // evict other entries first
+            synchronized (this) {
+                ensureScanned();
+                for (Map.Entry<Integer, File> source : sources.entrySet()) {
+                    String name = entryName(source.getKey(), source.getValue());
+                    if (entries.get(name) != null) {
+                        new File(DIRECTORY, name).setLastModified(System.currentTimeMillis());
+                    }
+                }
+            }
+
+            long warmBytes = 0;
+            int stored = 0;
+            for (Map.Entry<Integer, File> source : sources.entrySet()) {
+                Long cached;
+                synchronized (this) {
+                    cached = entries.get(entryName(source.getKey(), source.getValue()));
+                }
+                long size = cached != null ? cached
+                        : storeEntry(source.getKey(), source.getValue(), MAX_BYTES - warmBytes);
+                if (size == TOO_LARGE) {
+                    // Storing more would only evict the more popular songs
+                    break;
+                }
+                if (cached == null && size > 0) {
+                    stored++;
+                }
+                warmBytes += size;
+            }
+            System.out.println("Warmed PCM cache: " + stored + " songs decoded, " + this);
+        }, "pcm-cache-warmup");
+        warmer.setDaemon(true);
+        warmer.setPriority(Thread.MIN_PRIORITY);
+        warmer.start();
+    }
+
+    /**
+     * Hits / (hits + misses), or 0 before the first lookup
+     */
+    public synchronized double getHitRatio() {
+        long lookups = hits + misses;
+        return lookups == 0 ? 0 : (double) hits / lookups;
+    }
+
+    public synchronized long getSizeBytes() {
+        return totalBytes;
+    }
+
+    private static String entryName(int songId, File source) {
+        return songId + "-" + source.lastModified() + SUFFIX;
+    }
+
+    /**
+     * Parse an entry's header and check its data
+     *
+     * @param verify true to check the CRC of the data
+     * @return Stream over the data, or null if the entry is damaged
+     */
+    private static AudioInputStream readEntry(MappedByteBuffer mapped, boolean verify) {
+        if (mapped.capacity() < HEADER_BYTES || mapped.getInt(0) != MAGIC) {
+            return null;
+        }
+        float sampleRate = mapped.getFloat(4);
+        int sampleSize = mapped.getInt(8);
+        int channels = mapped.getInt(12);
+        int frameSize = mapped.getInt(16);
+        float frameRate = mapped.getFloat(20);
+        boolean bigEndian = mapped.getInt(24) == 1;
+        long length = mapped.getLong(28);
+        long checksum = mapped.getLong(36);
+        if (frameSize <= 0 || length != mapped.capacity() - HEADER_BYTES) {
+            return null;
+        }
+
+        ByteBuffer data = mapped.duplicate();
+        data.position(HEADER_BYTES);
+        if (verify) {
+            CRC32 crc = new CRC32();
+            crc.update(data.duplicate());
+            if (crc.getValue() != checksum) {
+                return null;
+            }
+        }
+
+        AudioFormat format = new AudioFormat(AudioFormat.Encoding.PCM_SIGNED, sampleRate, sampleSize, channels,
+                frameSize, frameRate, bigEndian);
+        return new AudioInputStream(new MappedInputStream(data.slice()), format, length / frameSize);
+    }
+
+    /**
+     * Read the cache directory once: entries in least recently played
+     * order, minus leftovers of interrupted stores
+     */
+    private void ensureScanned() {
+        if (scanned) {
+            return;
+        }
+        scanned = true;
+        if (!DIRECTORY.isDirectory() && !DIRECTORY.mkdirs()) {
+            System.err.println("Cannot create PCM cache directory: " + DIRECTORY);
+            return;
+        }
+        File[] files = DIRECTORY.listFiles();
+        if (files == null) {
+            return;
+        }
+        Arrays.sort(files, Comparator.comparingLong(File::lastModified));
+        for (File file : files) {
+            if (file.getName().endsWith(SUFFIX)) {
+                entries.put(file.getName(), file.length());
+                totalBytes += file.length();
+            } else if (file.getName().endsWith(".tmp")) {
+                file.delete();
+            }
+        }
+        evict();
+    }
+
+    /**
+     * Drop the least recently played entries until the cache fits its cap
+     */
+    private void evict() {
+        while (totalBytes > MAX_BYTES && !entries.isEmpty()) {
+            remove(entries.keySet().iterator().next());
+            evictions++;
+        }
+    }
+
+    private void remove(String name) {
+        Long size = entries.remove(name);
+        if (size != null) {
+            totalBytes -= size;
+        }
+        validated.remove(name);
+        File file = new File(DIRECTORY, name);
+        if (file.exists() && !file.delete()) {
+            // Still mapped by a player on some systems; the next run retries
+            System.err.println("Cannot delete PCM cache entry: " + name);
+        }
+    }
+
+    @Override
+    public synchronized String toString() {
+        return "PcmCache{" +
+                "entries=" + entries.size() +
+                ", sizeMB=" + (totalBytes >> 20) +
+                ", hits=" + hits +
+                ", misses=" + misses +
+                ", hitRatio=" + String.format("%.2f", getHitRatio()) +
+                ", corrupt=" + corrupt +
+                ", stores=" + stores +
+                ", evictions=" + evictions +
+                '}';
+    }
+
+    /**
+     * InputStream over a mapped buffer; skipping moves the position, so
+     * seeking in a cached song costs nothing
+     */
+    private static final class MappedInputStream extends InputStream {
+        private final ByteBuffer data;
+
+        MappedInputStream(ByteBuffer data) {
+            this.data = data;
+        }
+
+        @Override
+        public int read() {
+            return data.hasRemaining() ? data.get() & 0xFF : -1;
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) {
+            if (length == 0) {
+                return 0;
+            }
+            if (!data.hasRemaining()) {
+                return -1;
+            }
+            int count = Math.min(length, data.remaining());
+            data.get(buffer, offset, count);
+            return count;
+        }
+
+        @Override
+        public long skip(long count) {
+            int skipped = (int) Math.max(0, Math.min(count, data.remaining()));
+            data.position(data.position() + skipped);
+            return skipped;
+        }
+
+        @Override
+        public int available() {
+            return data.remaining();
+        }
+    }
+}
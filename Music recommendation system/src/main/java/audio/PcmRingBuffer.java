@@ -0,0 +1,137 @@
+package main.java.audio;
+
+/**
+ * Fixed-size ring of decoded PCM bytes between one decoder thread and one
+ * line writer thread. The writer blocks while the ring is full and the
+ * reader while it is empty, so a track of any length is played through the
+ * same few hundred milliseconds of memory.
+ *
+ * Reads always return whole frames. clear() starts a new epoch after a
+ * seek: the reader sees the epoch change with the first bytes decoded from
+ * the new position, and can drop whatever it already handed to the line.
+ */
+public class PcmRingBuffer {
+
+    private final byte[] buffer;
+    private final int frameSize;
+
+    // Guarded by this
+    private int readPosition = 0;
+    private int size = 0;
+    private boolean finished = false;
+    private boolean cancelled = false;
+    private long epoch = 0;
+    private long epochStartFrame = 0;
+    private long readEpoch = 0;
+    private long readEpochStartFrame = 0;
+
+    /**
+     * @param capacity  Size in bytes, rounded down to whole frames
+     * @param frameSize Bytes per frame
+     */
+    public PcmRingBuffer(int capacity, int frameSize) {
+        this.frameSize = Math.max(frameSize, 1);
+        this.buffer = new byte[Math.max(capacity / this.frameSize, 1) * this.frameSize];
+    }
+
+    /**
+     * Append bytes, waiting for room as needed
+     *
+     * @return false if the ring was cancelled before all bytes were written
+     */
+    public synchronized boolean write(byte[] data, int offset, int length) throws InterruptedException {
+        while (length > 0) {
+            while (size == buffer.length && !cancelled) {
+                wait();
+            }
+            if (cancelled) {
+                return false;
+            }
+            int writePosition = (readPosition + size) % buffer.length;
+            int count = Math.min(length, Math.min(buffer.length - size, buffer.length - writePosition));
+            System.arraycopy(data, offset, buffer, writePosition, count);
+            size += count;
+            offset += count;
+            length -= count;
+            notifyAll();
+        }
+        return true;
+    }
+
+    /**
+     * Take up to length bytes of whole frames, waiting for at least one frame
+     *
+     * @return Number of bytes read, or -1 at the end of the stream or after
+     *         cancel
+     */
+    public synchronized int read(byte[] data, int offset, int length) throws InterruptedException {
+        while (size < frameSize && !finished && !cancelled) {
+            wait();
+        }
+        if (cancelled || size < frameSize) {
+            return -1;
+        }
+        int count = Math.min(length, size) / frameSize * frameSize;
+        int first = Math.min(count, buffer.length - readPosition);
+        System.arraycopy(buffer, readPosition, data, offset, first);
+        System.arraycopy(buffer, 0, data, offset + first, count - first);
+        readPosition = (readPosition + count) % buffer.length;
+        size -= count;
+        readEpoch = epoch;
+        readEpochStartFrame = epochStartFrame;
+        notifyAll();
+        return count;
+    }
+
+    /**
+     * Mark the end of the stream; the reader gets -1 once the ring is empty
+     */
+    public synchronized void finish() {
+        finished = true;
+        notifyAll();
+    }
+
+    /**
+     * Drop everything buffered and start a new epoch
+     *
+     * @param startFrame Frame the bytes written next start at
+     */
+    public synchronized void clear(long startFrame) {
+        readPosition = 0;
+        size = 0;
+        finished = false;
+        epoch++;
+        epochStartFrame = startFrame;
+        notifyAll();
+    }
+
+    /**
+     * Wake both sides and make every further call fail
+     */
+    public synchronized void cancel() {
+        cancelled = true;
+        notifyAll();
+    }
+
+    /**
+     * @return Epoch of the bytes returned by the last read
+     */
+    public synchronized long getReadEpoch() {
+        return readEpoch;
+    }
+
+    /**
+     * @return Frame the epoch of the last read started at
+     */
+    public synchronized long getReadEpochStartFrame() {
+        return readEpochStartFrame;
+    }
+
+    public int getCapacity() {
+        return buffer.length;
+    }
+
+    public synchronized int getBufferedBytes() {
+        return size;
+    }
+}
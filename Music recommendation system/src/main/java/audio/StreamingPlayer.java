@@ -0,0 +1,927 @@
+package main.java.audio;
+
+import javax.sound.sampled.*;
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Streaming playback engine. Instead of decoding a whole track into a Clip,
+ * each track gets a decoder thread that reads and decodes into a small
+ * PcmRingBuffer, and one output thread drains the rings into a
+ * SourceDataLine. Memory stays the same whatever the track length, and
+ * sound starts as soon as the first chunk is decoded.
+ *
+ * Tracks can be queued behind the one playing. The next few are opened and
+ * decoded ahead into their own rings, bounded by a prefetch depth and a
+ * memory budget, so when a track ends the output thread carries straight on
+ * with the next ring on the same line: no gap, no open, no decode wait. Only
+ * a track in a different PCM format needs a new line.
+ *
+ * Files are decoded by the AudioDecoder their header calls for (WAV,
+ * AIFF, AU, and MP3, Ogg Vorbis or FLAC with a decoder installed), taking
+ * the format and length from the MediaIndex when the scanner has seen the
+ * file. Catalog songs are read from the PcmCache when it holds their
+ * decoded audio, and handed to it to store once played to the end from
+ * their file.
+ *
+ * Every call returns immediately: opening files and lines happens on the
+ * audio threads, and results come back through the Listener, on those
+ * threads. Time to first audio (from a track becoming current to its first
+ * chunk on the line) is measured for every track.
+ *
+ * Settings (system properties): audio.ringBufferMillis (default 500),
+ * audio.lineBufferMillis (default 200), audio.chunkMillis (default 20),
+ * audio.prefetchDepth - queued tracks decoded ahead (default 2),
+ * audio.prefetchMillis - audio decoded ahead per track (default 3000),
+ * audio.prefetchBudgetBytes - cap on the audio decoded ahead beyond the
+ * normal ring buffers, shared by every queued track of every player
+ * (default 4 MB).
+ */
+public class StreamingPlayer {
+
+    private static final int RING_BUFFER_MILLIS = Integer.getInteger("audio.ringBufferMillis", 500);
+    private static final int LINE_BUFFER_MILLIS = Integer.getInteger("audio.lineBufferMillis", 200);
+    private static final int CHUNK_MILLIS = Integer.getInteger("audio.chunkMillis", 20);
+    private static final int PREFETCH_DEPTH = Integer.getInteger("audio.prefetchDepth", 2);
+    private static final int PREFETCH_MILLIS = Integer.getInteger("audio.prefetchMillis", 3000);
+    private static final int PREFETCH_BUDGET_BYTES = Integer.getInteger("audio.prefetchBudgetBytes", 4 << 20);
+
+    // Prefetch bytes held by open sessions, at most PREFETCH_BUDGET_BYTES
+    private static final AtomicLong prefetchReserved = new AtomicLong();
+
+    /**
+     * Playback events, delivered on the audio threads, in queue order.
+     * Tracks are numbered by play() and enqueue(); a skipped or stopped
+     * track may get neither call.
+     */
+    public interface Listener {
+        /**
+         * The first audio of a track reached the line
+         */
+        void onStarted(int track, long timeToFirstAudioMillis);
+
+        /**
+         * The last queued track played to its end
+         */
+        void onFinished();
+
+        /**
+         * A track could not be opened or played; the queue moves on
+         */
+        void onError(int track, Exception e);
+    }
+
+    private final Listener listener;
+
+    private volatile int volumePercent = 80;
+
+    // Guarded by this
+    private Output output = null;
+    private int nextTrack = 1;
+    private long lastTimeToFirstAudioMillis = -1;
+    private long totalTimeToFirstAudioMillis = 0;
+    private int startedCount = 0;
+    private int gaplessCount = 0;
+
+    public StreamingPlayer(Listener listener) {
+        this.listener = listener;
+    }
+
+    /**
+     * Stop playback, drop the queue and start streaming a file
+     *
+     * @return Track number reported to the listener
+     */
+    public int play(File file) {
+        return play(0, file);
+    }
+
+    /**
+     * Stop playback, drop the queue and start streaming a song, from the
+     * PcmCache if it holds the song
+     *
+     * @param songId Song ID, 0 if the file is not a catalog song
+     * @return Track number reported to the listener
+     */
+    public int play(int songId, File file) {
+        stop();
+        synchronized (this) {
+            output = new Output();
+            int track = output.add(songId, file);
+            output.start();
+            return track;
+        }
+    }
+
+    /**
+     * Queue a file behind the current track, or play it if nothing is
+     * playing
+     *
+     * @return Track number reported to the listener
+     */
+    public int enqueue(File file) {
+        return enqueue(0, file);
+    }
+
+    /**
+     * Queue a song behind the current track, or play it if nothing is
+     * playing
+     *
+     * @param songId Song ID, 0 if the file is not a catalog song
+     * @return Track number reported to the listener
+     */
+    public int enqueue(int songId, File file) {
+        synchronized (this) {
+            int track = output == null ? -1 : output.add(songId, file);
+            if (track > 0) {
+                return track;
+            }
+        }
+        return play(songId, file);
+    }
+
+    /**
+     * Stop and release the current track and the queue
+     */
+    public void stop() {
+        Output stopped;
+        synchronized (this) {
+            stopped = output;
+            output = null;
+        }
+        if (stopped != null) {
+            stopped.close();
+        }
+    }
+
+    /**
+     * End the current track now and go on with the next queued one
+     */
+    public void skip() {
+        Output current = currentOutput();
+        if (current != null) {
+            current.skip();
+        }
+    }
+
+    public void pause() {
+        Output current = currentOutput();
+        if (current != null) {
+            current.setPaused(true);
+        }
+    }
+
+    public void resume() {
+        Output current = currentOutput();
+        if (current != null) {
+            current.setPaused(false);
+        }
+    }
+
+    /**
+     * Continue the current track from a position
+     */
+    public void seek(long positionMicros) {
+        Output current = currentOutput();
+        if (current != null) {
+            current.seek(positionMicros);
+        }
+    }
+
+    /**
+     * @param percent 0-100, applied to the current and every later track
+     */
+    public void setVolume(int percent) {
+        volumePercent = Math.max(0, Math.min(percent, 100));
+        Output current = currentOutput();
+        if (current != null) {
+            current.applyVolume();
+        }
+    }
+
+    /**
+     * @return true if a track is loaded, paused or not
+     */
+    public boolean isLoaded() {
+        return currentOutput() != null;
+    }
+
+    public boolean isPaused() {
+        Output current = currentOutput();
+        return current != null && current.isPaused();
+    }
+
+    /**
+     * @return Tracks queued behind the current one
+     */
+    public int getQueuedCount() {
+        Output current = currentOutput();
+        return current == null ? 0 : current.getQueuedCount();
+    }
+
+    /**
+     * @return Position in the current track, 0 if none
+     */
+    public long getPositionMicros() {
+        Output current = currentOutput();
+        return current == null ? 0 : current.getPositionMicros();
+    }
+
+    /**
+     * @return Length of the current track, -1 if unknown or not yet open
+     */
+    public long getDurationMicros() {
+        Output current = currentOutput();
+        return current == null ? -1 : current.getDurationMicros();
+    }
+
+    /**
+     * @return Time to first audio of the last track started, -1 if none
+     */
+    public synchronized long getLastTimeToFirstAudioMillis() {
+        return lastTimeToFirstAudioMillis;
+    }
+
+    /**
+     * @return Mean time to first audio over all tracks started, -1 if none
+     */
+    public synchronized long getAverageTimeToFirstAudioMillis() {
+        return startedCount == 0 ? -1 : totalTimeToFirstAudioMillis / startedCount;
+    }
+
+    /**
+     * Stop playback for good
+     */
+    public void close() {
+        stop();
+    }
+
+    /**
+     * Bytes of whole frames covering a span of time
+     */
+    static int bytesFor(AudioFormat format, int millis) {
+        long frames = Math.max(1, Math.round(format.getFrameRate() * millis / 1000.0));
+        return (int) Math.min(frames * format.getFrameSize(), Integer.MAX_VALUE / 2);
+    }
+
+    private synchronized Output currentOutput() {
+        return output;
+    }
+
+    private synchronized int newTrackNumber() {
+        return nextTrack++;
+    }
+
+    private synchronized void recordTimeToFirstAudio(long millis, boolean gapless) {
+        lastTimeToFirstAudioMillis = millis;
+        totalTimeToFirstAudioMillis += millis;
+        startedCount++;
+        if (gapless) {
+            gaplessCount++;
+        }
+    }
+
+    @Override
+    public synchronized String toString() {
+        return "StreamingPlayer{" +
+                "tracksStarted=" + startedCount +
+                ", gaplessTransitions=" + gaplessCount +
+                ", lastTimeToFirstAudioMs=" + lastTimeToFirstAudioMillis +
+                ", averageTimeToFirstAudioMs=" + (startedCount == 0 ? -1 : totalTimeToFirstAudioMillis / startedCount) +
+                ", ringBufferMs=" + RING_BUFFER_MILLIS +
+                ", prefetchDepth=" + PREFETCH_DEPTH +
+                ", prefetchBudgetBytes=" + PREFETCH_BUDGET_BYTES +
+                '}';
+    }
+
+    /**
+     * One play() run: the queue of tracks, the line and the output thread
+     * that moves from one track's ring to the next
+     */
+    private final class Output {
+
+        // Guarded by this
+        private final Deque<Session> queue = new ArrayDeque<>();
+        private Session current = null;
+        private SourceDataLine line = null;
+        private FloatControl volumeControl = null;
+        private boolean paused = false;
+        private boolean closed = false;
+        private boolean ended = false;
+        private boolean skipRequested = false;
+        private long positionBaseFrame = 0;
+        private long lineBaseFrame = 0;
+
+        /**
+         * @return Track number, or -1 if this run has already ended
+         */
+        synchronized int add(int songId, File file) {
+            if (closed || ended) {
+                return -1;
+            }
+            Session session = new Session(songId, file, newTrackNumber());
+            queue.addLast(session);
+            prefetch();
+            notifyAll();
+            return session.track;
+        }
+
+        void start() {
+            Thread thread = new Thread(this::run, "audio-output");
+            thread.setDaemon(true);
+            thread.start();
+        }
+
+        /**
+         * Start decoding the first queued tracks, within the depth and the
+         * memory budget
+         */
+        private synchronized void prefetch() {
+            if (current == null) {
+                // The first track is opened as the current one
+                return;
+            }
+            int depth = 0;
+            for (Session session : queue) {
+                if (depth++ >= PREFETCH_DEPTH) {
+                    break;
+                }
+                session.start(true);
+            }
+        }
+
+        /**
+         * @return Next queued track, now the current one, or null if the
+         *         queue is empty
+         */
+        private synchronized Session nextSession() {
+            if (closed || queue.isEmpty()) {
+                return null;
+            }
+            current = queue.pollFirst();
+            skipRequested = false;
+            prefetch();
+            return current;
+        }
+
+        /**
+         * @return true if the run is over: closed, or nothing was queued
+         *         while the line drained
+         */
+        private synchronized boolean endIfEmpty() {
+            if (closed || queue.isEmpty()) {
+                ended = true;
+                return true;
+            }
+            return false;
+        }
+
+        /**
+         * Output thread: play the queue on as few lines as possible
+         */
+        private void run() {
+            SourceDataLine opened = null;
+            boolean finished = false;
+            Exception lineFailure = null;
+            int track = -1;
+            try {
+                byte[] chunk = new byte[0];
+                long framesWritten = 0;
+                boolean gapless = false;
+                while (true) {
+                    Session session = nextSession();
+                    if (session == null) {
+                        // Let the last track play out, unless more is queued meanwhile
+                        if (opened != null && !isClosed()) {
+                            opened.drain();
+                        }
+                        if (endIfEmpty()) {
+                            break;
+                        }
+                        continue;
+                    }
+                    track = session.track;
+                    long becameCurrent = System.nanoTime();
+                    session.start(false);
+                    if (!session.awaitOpened()) {
+                        if (!isClosed() && session.failure != null) {
+                            notifyError(track, session.failure);
+                        }
+                        gapless = false;
+                        continue;
+                    }
+                    AudioFormat format = session.format;
+
+                    if (opened == null || !opened.getFormat().matches(format)) {
+                        if (opened != null) {
+                            opened.drain();
+                            opened.close();
+                            opened = null;
+                            synchronized (this) {
+                                line = null;
+                                volumeControl = null;
+                            }
+                        }
+                        try {
+                            opened = openLine(format);
+                        } catch (LineUnavailableException | IllegalArgumentException e) {
+                            // No line for this track's format: report it and go on with the queue
+                            session.close();
+                            if (!isClosed()) {
+                                notifyError(track, e);
+                            }
+                            gapless = false;
+                            continue;
+                        }
+                        framesWritten = 0;
+                        gapless = false;
+                        chunk = new byte[bytesFor(format, CHUNK_MILLIS)];
+                        synchronized (this) {
+                            line = opened;
+                            if (closed) {
+                                break;
+                            }
+                            volumeControl = opened.isControlSupported(FloatControl.Type.MASTER_GAIN)
+                                    ? (FloatControl) opened.getControl(FloatControl.Type.MASTER_GAIN)
+                                    : null;
+                            applyVolume();
+                            if (!paused) {
+                                opened.start();
+                            }
+                        }
+                    }
+                    synchronized (this) {
+                        positionBaseFrame = 0;
+                        lineBaseFrame = framesWritten;
+                    }
+
+                    long epoch = 0;
+                    boolean started = false;
+                    PcmRingBuffer ring = session.ring;
+                    int frameSize = format.getFrameSize();
+                    while (!isClosed()) {
+                        int count = ring.read(chunk, 0, chunk.length);
+                        if (count < 0) {
+                            break;
+                        }
+                        if (ring.getReadEpoch() != epoch) {
+                            // First bytes after a seek: drop what the line still holds
+                            epoch = ring.getReadEpoch();
+                            synchronized (this) {
+                                opened.flush();
+                                framesWritten = opened.getLongFramePosition();
+                                positionBaseFrame = ring.getReadEpochStartFrame();
+                                lineBaseFrame = framesWritten;
+                                session.seekApplied();
+                            }
+                        }
+                        opened.write(chunk, 0, count);
+                        framesWritten += count / frameSize;
+                        if (!started && !isClosed()) {
+                            started = true;
+                            long millis = (System.nanoTime() - becameCurrent) / 1_000_000;
+                            recordTimeToFirstAudio(millis, gapless);
+                            notifyStarted(track, millis);
+                        }
+                    }
+                    session.close();
+                    if (takeSkip()) {
+                        // The skipped track's audio is already flushed from the line
+                        synchronized (this) {
+                            framesWritten = opened.getLongFramePosition();
+                        }
+                        gapless = false;
+                    } else {
+                        gapless = true;
+                        if (session.decodedFromFile && !isClosed()) {
+                            PcmCache.getInstance().storeInBackground(session.songId, session.file);
+                        }
+                    }
+                }
+                finished = !isClosed();
+            } catch (IllegalArgumentException e) {
+                lineFailure = isClosed() ? null : e;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                close();
+                if (opened != null) {
+                    opened.close();
+                }
+                if (endRun()) {
+                    // A failed write ends the run: report after it has ended
+                    if (lineFailure != null) {
+                        listener.onError(track, lineFailure);
+                    } else if (finished) {
+                        listener.onFinished();
+                    }
+                }
+            }
+        }
+
+        /**
+         * Open a line for a format, with the line buffer size
+         */
+        private SourceDataLine openLine(AudioFormat format) throws LineUnavailableException {
+            SourceDataLine opening = AudioSystem.getSourceDataLine(format);
+            try {
+                opening.open(format, bytesFor(format, LINE_BUFFER_MILLIS));
+            } catch (LineUnavailableException | IllegalArgumentException e) {
+                opening.close();
+                throw e;
+            }
+            return opening;
+        }
+
+        synchronized boolean isClosed() {
+            return closed;
+        }
+
+        synchronized boolean isPaused() {
+            return paused;
+        }
+
+        synchronized int getQueuedCount() {
+            return queue.size();
+        }
+
+        synchronized void setPaused(boolean pause) {
+            paused = pause;
+            if (line != null) {
+                if (pause) {
+                    line.stop();
+                } else {
+                    if (current != null && current.isSeekPending()) {
+                        // Seeked while paused: the line may still hold audio from before
+                        line.flush();
+                    }
+                    line.start();
+                }
+            }
+        }
+
+        synchronized void skip() {
+            if (current != null) {
+                skipRequested = true;
+                if (line != null) {
+                    line.flush();
+                }
+                current.close();
+            }
+        }
+
+        synchronized boolean takeSkip() {
+            boolean skipped = skipRequested;
+            skipRequested = false;
+            return skipped;
+        }
+
+        synchronized void seek(long positionMicros) {
+            if (current != null && current.seek(positionMicros) && line != null) {
+                // Release a write blocked on a paused line
+                line.flush();
+            }
+        }
+
+        synchronized long getPositionMicros() {
+            Session session = current;
+            AudioFormat format = session == null ? null : session.format;
+            if (format == null || format.getFrameRate() <= 0) {
+                return 0;
+            }
+            long frame = session.getDisplayFrame();
+            if (frame < 0) {
+                frame = positionBaseFrame
+                        + Math.max(0, (line == null ? 0 : line.getLongFramePosition()) - lineBaseFrame);
+            }
+            return (long) (frame * 1_000_000.0 / format.getFrameRate());
+        }
+
+        synchronized long getDurationMicros() {
+            return current == null ? -1 : current.durationMicros;
+        }
+
+        synchronized void applyVolume() {
+            if (volumeControl != null) {
+                float min = volumeControl.getMinimum();
+                float max = volumeControl.getMaximum();
+                volumeControl.setValue(min + (max - min) * (volumePercent / 100.0f));
+            }
+        }
+
+        void close() {
+            synchronized (this) {
+                if (closed) {
+                    return;
+                }
+                closed = true;
+                if (line != null) {
+                    line.stop();
+                    line.flush();
+                }
+                if (current != null) {
+                    current.close();
+                }
+                for (Session session : queue) {
+                    session.close();
+                }
+                queue.clear();
+                notifyAll();
+            }
+        }
+
+        private void notifyStarted(int track, long millis) {
+            if (currentOutput() == this) {
+                listener.onStarted(track, millis);
+            }
+        }
+
+        private void notifyError(int track, Exception e) {
+            if (currentOutput() == this) {
+                listener.onError(track, e);
+            }
+        }
+
+        /**
+         * @return true if this was still the player's run
+         */
+        private boolean endRun() {
+            synchronized (StreamingPlayer.this) {
+                if (output != this) {
+                    return false;
+                }
+                output = null;
+                return true;
+            }
+        }
+    }
+
+    /**
+     * One track: its decoder thread and ring
+     */
+    private static final class Session {
+        final int songId;
+        final File file;
+        final int track;
+
+        volatile long durationMicros = -1;
+        volatile AudioFormat format;
+        volatile PcmRingBuffer ring;
+        volatile Exception failure;
+        // Opened from the audio file rather than the PcmCache
+        volatile boolean decodedFromFile;
+        // Bytes of the prefetch budget held by this session's ring
+        private final AtomicInteger prefetchBytes = new AtomicInteger();
+
+        // Guarded by this
+        private boolean started = false;
+        private boolean opened = false;
+        private boolean closed = false;
+        private long pendingSeekFrame = -1;
+        private long displayFrame = -1;
+
+        Session(int songId, File file, int track) {
+            this.songId = songId;
+            this.file = file;
+            this.track = track;
+        }
+
+        /**
+         * Start the decoder thread if it is not running yet
+         *
+         * @param prefetch true to give it the larger prefetch ring
+         */
+        synchronized void start(boolean prefetch) {
+            if (started || closed) {
+                return;
+            }
+            started = true;
+            Thread decoder = new Thread(() -> decode(prefetch), "audio-decoder");
+            decoder.setDaemon(true);
+            decoder.start();
+        }
+
+        /**
+         * Wait until the decoder has opened the file
+         *
+         * @return true if it opened, false if it failed or was closed
+         */
+        synchronized boolean awaitOpened() throws InterruptedException {
+            while (!opened && failure == null && !closed) {
+                wait();
+            }
+            return opened && !closed;
+        }
+
+        /**
+         * Decoder thread: fill the ring from the file, reopening it at the
+         * requested frame after a seek
+         */
+        private void decode(boolean prefetch) {
+            AudioInputStream stream = null;
+            try {
+                stream = openStream(true);
+                AudioFormat streamFormat = stream.getFormat();
+                int frameSize = streamFormat.getFrameSize();
+                if (stream.getFrameLength() != AudioSystem.NOT_SPECIFIED && streamFormat.getFrameRate() > 0) {
+                    durationMicros = (long) (stream.getFrameLength() * 1_000_000L / streamFormat.getFrameRate());
+                } else {
+                    // Compressed streams rarely know their length; read it from the header,
+                    // or from the index if the scanner already has
+                    MediaInfo info = MediaIndex.getInstance().probe(file.getPath());
+                    if (info != null && info.getDurationMillis() >= 0) {
+                        durationMicros = info.getDurationMillis() * 1000;
+                    }
+                }
+                int capacity = bytesFor(streamFormat, RING_BUFFER_MILLIS);
+                if (prefetch) {
+                    capacity += reservePrefetch(bytesFor(streamFormat, PREFETCH_MILLIS) - capacity, frameSize);
+                }
+                ring = new PcmRingBuffer(capacity, frameSize);
+                format = streamFormat;
+                synchronized (this) {
+                    opened = true;
+                    if (closed) {
+                        ring.cancel();
+                    }
+                    notifyAll();
+                }
+
+                byte[] chunk = new byte[bytesFor(streamFormat, CHUNK_MILLIS)];
+                while (!isClosed()) {
+                    long seekFrame = takePendingSeek();
+                    if (seekFrame >= 0) {
+                        stream.close();
+                        stream = openStream(false);
+                        skipFully(stream, seekFrame * frameSize);
+                        ring.clear(seekFrame);
+                        continue;
+                    }
+
+                    int count = stream.read(chunk, 0, chunk.length);
+                    if (count < 0) {
+                        // Wait for the output to finish, or for a seek back
+                        ring.finish();
+                        synchronized (this) {
+                            while (!closed && pendingSeekFrame < 0) {
+                                wait();
+                            }
+                        }
+                    } else if (count > 0 && !ring.write(chunk, 0, count)) {
+                        break;
+                    }
+                }
+            } catch (UnsupportedAudioFileException | IOException | RuntimeException e) {
+                // Decoders and format converters may throw unchecked exceptions too
+                fail(e);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                if (stream != null) {
+                    try {
+                        stream.close();
+                    } catch (IOException e) {
+                        System.err.println("Error closing audio stream: " + e.getMessage());
+                    }
+                }
+            }
+        }
+
+        /**
+         * Record why decoding stopped. Before the track opened this wakes
+         * the output thread to report it; after, what was decoded plays out
+         * and the track ends there.
+         */
+        private synchronized void fail(Exception e) {
+            failure = e;
+            if (opened) {
+                System.err.println("Error decoding " + file + ": " + e.getMessage());
+                ring.finish();
+            }
+            notifyAll();
+        }
+
+        /**
+         * Open the track from the PcmCache, or decode it from its file
+         *
+         * @param first false when reopening for a seek
+         */
+        private AudioInputStream openStream(boolean first) throws UnsupportedAudioFileException, IOException {
+            AudioInputStream cached = PcmCache.getInstance().open(songId, file, first);
+            if (cached != null) {
+                return cached;
+            }
+            decodedFromFile = true;
+            MediaInfo info = MediaIndex.getInstance().get(file.getPath());
+            return AudioDecoders.open(file, info != null ? info.getFormat() : null);
+        }
+
+        synchronized boolean isClosed() {
+            return closed;
+        }
+
+        /**
+         * @return false if the track is not open or already closed
+         */
+        synchronized boolean seek(long positionMicros) {
+            AudioFormat opened = format;
+            if (closed || opened == null) {
+                return false;
+            }
+            long frame = (long) (Math.max(positionMicros, 0) * (double) opened.getFrameRate() / 1_000_000);
+            pendingSeekFrame = frame;
+            displayFrame = frame;
+            notifyAll();
+            return true;
+        }
+
+        synchronized long takePendingSeek() {
+            long frame = pendingSeekFrame;
+            pendingSeekFrame = -1;
+            return frame;
+        }
+
+        /**
+         * The output reached audio from the last seek, unless another one
+         * is already waiting
+         */
+        synchronized void seekApplied() {
+            if (pendingSeekFrame < 0) {
+                displayFrame = -1;
+            }
+        }
+
+        synchronized boolean isSeekPending() {
+            return displayFrame >= 0;
+        }
+
+        /**
+         * @return Seek target to show until the output reaches it, or -1
+         */
+        synchronized long getDisplayFrame() {
+            return displayFrame;
+        }
+
+        void close() {
+            synchronized (this) {
+                if (closed) {
+                    return;
+                }
+                closed = true;
+                notifyAll();
+            }
+            PcmRingBuffer opened = ring;
+            if (opened != null) {
+                opened.cancel();
+            }
+            releasePrefetch();
+        }
+
+        /**
+         * Take up to the wanted bytes, in whole frames, from what is left of
+         * the shared prefetch budget
+         *
+         * @return Bytes granted, 0 when the budget is spent
+         */
+        private int reservePrefetch(int wanted, int frameSize) {
+            while (wanted > 0) {
+                long reserved = prefetchReserved.get();
+                long granted = Math.min(wanted, PREFETCH_BUDGET_BYTES - reserved);
+                granted -= granted % Math.max(frameSize, 1);
+                if (granted <= 0) {
+                    return 0;
+                }
+                if (prefetchReserved.compareAndSet(reserved, reserved + granted)) {
+                    prefetchBytes.addAndGet((int) granted);
+                    if (isClosed()) {
+                        // close() may have run before the bytes were recorded
+                        releasePrefetch();
+                    }
+                    return (int) granted;
+                }
+            }
+            return 0;
+        }
+
+        private void releasePrefetch() {
+            int bytes = prefetchBytes.getAndSet(0);
+            if (bytes > 0) {
+                prefetchReserved.addAndGet(-bytes);
+            }
+        }
+
+        private void skipFully(AudioInputStream stream, long bytes) throws IOException {
+            while (bytes > 0) {
+                long skipped = stream.skip(bytes);
+                if (skipped <= 0) {
+                    break;
+                }
+                bytes -= skipped;
+            }
+        }
+    }
+}
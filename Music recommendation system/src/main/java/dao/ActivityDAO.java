@@ -11,6 +11,11 @@ public class ActivityDAO {
 
     // Get all activities
     public List<Activity> getAllActivities() {
+        MoodActivityDictionary dictionary = MoodActivityDictionary.getInstance();
+        if (dictionary.ensureLoaded()) {
+            return dictionary.getAllActivities();
+        }
+
         List<Activity> activities = new ArrayList<>();
         String query = "SELECT * FROM activities ORDER BY activity_name";
 
@@ -36,6 +41,11 @@ public class ActivityDAO {
 
     // Get activity by ID
     public Activity getActivityById(int activityId) {
+        MoodActivityDictionary dictionary = MoodActivityDictionary.getInstance();
+        if (dictionary.ensureLoaded()) {
+            return dictionary.getActivityById(activityId);
+        }
+
         String query = "SELECT * FROM activities WHERE activity_id = ?";
 
         try (Connection conn = DatabaseConfig.getConnection();
@@ -62,6 +72,11 @@ public class ActivityDAO {
 
     // Get activity by name
     public Activity getActivityByName(String activityName) {
+        MoodActivityDictionary dictionary = MoodActivityDictionary.getInstance();
+        if (dictionary.ensureLoaded()) {
+            return dictionary.getActivityByName(activityName);
+        }
+
         String query = "SELECT * FROM activities WHERE activity_name = ?";
 
         try (Connection conn = DatabaseConfig.getConnection();
@@ -100,7 +115,10 @@ public class ActivityDAO {
             if (affectedRows > 0) {
                 ResultSet generatedKeys = pstmt.getGeneratedKeys();
                 if (generatedKeys.next()) {
-                    return generatedKeys.getInt(1);
+                    int activityId = generatedKeys.getInt(1);
+                    MoodActivityDictionary.getInstance().addActivity(activityId, activity.getActivityName(),
+                            activity.getActivityDescription());
+                    return activityId;
                 }
             }
 
@@ -14,49 +14,57 @@ import java.util.List;
 public class ActivityLogDAO {
 
     /**
-     * Add new activity log entry
+     * Add new activity log entry. The entry is queued and written in the
+     * background by ActivityLogWriter, so this never waits on the database.
+     * 
+     * @return true if the entry was accepted
      */
     public boolean logActivity(String action, String tableName, String description, Integer userId, Integer adminId) {
-        Connection conn = null;
-        PreparedStatement pstmt = null;
-
-        try {
-            conn = DatabaseConfig.getConnection();
-            String query = "INSERT INTO activity_logs (action_type, table_name, description, user_id, admin_id, timestamp) "
-                    +
-                    "VALUES (?, ?, ?, ?, ?, NOW())";
-
-            pstmt = conn.prepareStatement(query);
-            pstmt.setString(1, action);
-            pstmt.setString(2, tableName);
-            pstmt.setString(3, description);
-
-            if (userId != null) {
-                pstmt.setInt(4, userId);
-            } else {
-                pstmt.setNull(4, Types.INTEGER);
-            }
-
-            if (adminId != null) {
-                pstmt.setInt(5, adminId);
-            } else {
-                pstmt.setNull(5, Types.INTEGER);
-            }
-
-            int result = pstmt.executeUpdate();
-            return result > 0;
+        ActivityLog entry = new ActivityLog(action, tableName, description);
+        entry.setUserId(userId);
+        entry.setAdminId(adminId);
+        return ActivityLogWriter.getInstance().enqueue(entry);
+    }
 
-        } catch (SQLException e) {
-            System.err.println("Error logging activity: " + e.getMessage());
-            return false;
-        } finally {
-            try {
-                if (pstmt != null)
-                    pstmt.close();
-                if (conn != null)
-                    conn.close();
+    /**
+     * Insert queued entries in one batch, keeping the time each was logged
+     * 
+     * @param entries Entries to insert
+     * @throws SQLException if the batch fails (nothing is committed)
+     */
+    void insertBatch(List<ActivityLog> entries) throws SQLException {
+        String query = "INSERT INTO activity_logs (action_type, table_name, description, user_id, admin_id, timestamp) "
+                + "VALUES (?, ?, ?, ?, ?, ?)";
+
+        try (Connection conn = DatabaseConfig.getConnection()) {
+            conn.setAutoCommit(false);
+            try (PreparedStatement pstmt = conn.prepareStatement(query)) {
+                for (ActivityLog entry : entries) {
+                    pstmt.setString(1, entry.getActionType());
+                    pstmt.setString(2, entry.getTableName());
+                    pstmt.setString(3, entry.getDescription());
+
+                    if (entry.getUserId() != null) {
+                        pstmt.setInt(4, entry.getUserId());
+                    } else {
+                        pstmt.setNull(4, Types.INTEGER);
+                    }
+
+                    if (entry.getAdminId() != null) {
+                        pstmt.setInt(5, entry.getAdminId());
+                    } else {
+                        pstmt.setNull(5, Types.INTEGER);
+                    }
+
+                    pstmt.setTimestamp(6, entry.getTimestamp());
+                    pstmt.addBatch();
+                }
+
+                pstmt.executeBatch();
+                conn.commit();
             } catch (SQLException e) {
-                e.printStackTrace();
+                conn.rollback();
+                throw e;
             }
         }
     }
@@ -65,6 +73,8 @@ public class ActivityLogDAO {
      * Get all activity logs (most recent first)
      */
     public List<ActivityLog> getAllLogs(int limit) {
+        // Include entries still waiting in the writer queue
+        ActivityLogWriter.getInstance().flush();
         List<ActivityLog> logs = new ArrayList<>();
         Connection conn = null;
         PreparedStatement pstmt = null;
@@ -111,6 +121,7 @@ public class ActivityLogDAO {
      * Get logs by action type
      */
     public List<ActivityLog> getLogsByAction(String actionType, int limit) {
+        ActivityLogWriter.getInstance().flush();
         List<ActivityLog> logs = new ArrayList<>();
         Connection conn = null;
         PreparedStatement pstmt = null;
@@ -154,10 +165,60 @@ public class ActivityLogDAO {
         return logs;
     }
 
+    /**
+     * Get one page of logs, newest first, starting below a given log ID
+     * (keyset pagination)
+     * 
+     * @param beforeLogId Last log ID of the previous page, or null for the first
+     * @param actionType  Action type to filter on, or null for all
+     * @param limit       Page size
+     * @throws SQLException If the page could not be read, so a failed page is
+     *                      not mistaken for the end of the log
+     */
+    public List<ActivityLog> getLogsPage(Integer beforeLogId, String actionType, int limit) throws SQLException {
+        if (beforeLogId == null) {
+            // Include entries still waiting in the writer queue
+            ActivityLogWriter.getInstance().flush();
+        }
+
+        List<ActivityLog> logs = new ArrayList<>(limit);
+        String query = "SELECT * FROM activity_logs WHERE log_id < ?"
+                + (actionType != null ? " AND action_type = ?" : "")
+                + " ORDER BY log_id DESC LIMIT ?";
+
+        try (Connection conn = DatabaseConfig.getConnection();
+                PreparedStatement pstmt = conn.prepareStatement(query)) {
+
+            int index = 1;
+            pstmt.setInt(index++, beforeLogId != null ? beforeLogId : Integer.MAX_VALUE);
+            if (actionType != null) {
+                pstmt.setString(index++, actionType);
+            }
+            pstmt.setInt(index, limit);
+
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    ActivityLog log = new ActivityLog();
+                    log.setLogId(rs.getInt("log_id"));
+                    log.setActionType(rs.getString("action_type"));
+                    log.setTableName(rs.getString("table_name"));
+                    log.setDescription(rs.getString("description"));
+                    log.setUserId((Integer) rs.getObject("user_id"));
+                    log.setAdminId((Integer) rs.getObject("admin_id"));
+                    log.setTimestamp(rs.getTimestamp("timestamp"));
+                    logs.add(log);
+                }
+            }
+        }
+
+        return logs;
+    }
+
     /**
      * Get logs by date range
      */
     public List<ActivityLog> getLogsByDateRange(Date startDate, Date endDate) {
+        ActivityLogWriter.getInstance().flush();
         List<ActivityLog> logs = new ArrayList<>();
         Connection conn = null;
         PreparedStatement pstmt = null;
@@ -237,6 +298,7 @@ public class ActivityLogDAO {
      * Get activity statistics
      */
     public java.util.Map<String, Integer> getActivityStats() {
+        ActivityLogWriter.getInstance().flush();
         java.util.Map<String, Integer> stats = new java.util.HashMap<>();
         Connection conn = null;
         Statement stmt = null;
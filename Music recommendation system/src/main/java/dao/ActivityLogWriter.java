@@ -0,0 +1,457 @@
+package main.java.dao;
+
+import main.java.model.ActivityLog;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.sql.DataTruncation;
+import java.sql.SQLDataException;
+import java.sql.SQLException;
+import java.sql.SQLIntegrityConstraintViolationException;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Background writer for the activity log.
+ *
+ * logActivity only enqueues the entry; a daemon thread drains the queue and
+ * inserts it with one batched statement once a batch is full or the flush
+ * interval has passed. The queue is bounded, and what happens when it is
+ * full is set by the overflow policy. Batches that cannot be written while
+ * the database is unavailable go to the spill file and are replayed after
+ * the next successful flush, so an outage does not lose audit entries.
+ * When a batch fails, its rows are retried one at a time; rows the
+ * database rejects outright (bad data or a broken constraint) are moved to
+ * the rejected file instead of being retried forever. Pending entries are
+ * flushed on JVM shutdown.
+ *
+ * Settings (system properties): activity.log.queueCapacity,
+ * activity.log.batchSize, activity.log.flushIntervalMs,
+ * activity.log.overflow (BLOCK, DROP_OLDEST, SPILL_TO_FILE),
+ * activity.log.spillFile and activity.log.rejectedFile.
+ */
+public class ActivityLogWriter {
+
+    public enum OverflowPolicy {
+        /** Caller waits until the writer has made room */
+        BLOCK,
+        /** Oldest queued entry is discarded */
+        DROP_OLDEST,
+        /** Entry is appended to the spill file and replayed later */
+        SPILL_TO_FILE
+    }
+
+    private static final int QUEUE_CAPACITY = Integer.getInteger("activity.log.queueCapacity", 10_000);
+    private static final int BATCH_SIZE = Integer.getInteger("activity.log.batchSize", 200);
+    private static final long FLUSH_INTERVAL_MS = Long.getLong("activity.log.flushIntervalMs", 500L);
+    private static final OverflowPolicy OVERFLOW_POLICY = OverflowPolicy.valueOf(
+            System.getProperty("activity.log.overflow", OverflowPolicy.SPILL_TO_FILE.name()));
+    private static final Path SPILL_FILE = Paths.get(
+            System.getProperty("activity.log.spillFile", "activity_log_spill.tsv"));
+    private static final Path REJECTED_FILE = Paths.get(
+            System.getProperty("activity.log.rejectedFile", "activity_log_rejected.tsv"));
+
+    private static final String NULL_FIELD = "\\N";
+
+    private static ActivityLogWriter instance = null;
+
+    private final ConcurrentLinkedQueue<ActivityLog> queue = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger queued = new AtomicInteger();
+    private final Object spaceAvailable = new Object();
+
+    // One drain-and-insert at a time, whether from the writer thread or flush()
+    private final ReentrantLock writeLock = new ReentrantLock();
+    private final Object spillLock = new Object();
+
+    private final ActivityLogDAO logDAO = new ActivityLogDAO();
+    private final Thread writerThread;
+    private volatile boolean running = true;
+
+    private final AtomicLong written = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+    private final AtomicLong spilled = new AtomicLong();
+    private final AtomicLong failedBatches = new AtomicLong();
+    private final AtomicLong rejected = new AtomicLong();
+
+    private ActivityLogWriter() {
+        writerThread = new Thread(this::run, "activity-log-writer");
+        writerThread.setDaemon(true);
+        writerThread.start();
+        Runtime.getRuntime().addShutdownHook(new Thread(this::shutdown, "activity-log-shutdown"));
+    }
+
+    public static synchronized ActivityLogWriter getInstance() {
+        if (instance == null) {
+            instance = new ActivityLogWriter();
+        }
+        return instance;
+    }
+
+    /**
+     * Queue an entry for writing. Never touches the database.
+     *
+     * @param entry Log entry, its timestamp is set here if missing
+     * @return false if the entry was discarded (writer stopped, or
+     *         interrupted while waiting under the BLOCK policy)
+     */
+    public boolean enqueue(ActivityLog entry) {
+        if (entry.getTimestamp() == null) {
+            entry.setTimestamp(new Timestamp(System.currentTimeMillis()));
+        }
+        if (!running) {
+            return false;
+        }
+
+        while (true) {
+            int size = queued.get();
+            if (size < QUEUE_CAPACITY) {
+                if (queued.compareAndSet(size, size + 1)) {
+                    queue.offer(entry);
+                    if (size + 1 >= BATCH_SIZE) {
+                        LockSupport.unpark(writerThread);
+                    }
+                    return true;
+                }
+                continue;
+            }
+
+            switch (OVERFLOW_POLICY) {
+                case DROP_OLDEST:
+                    if (queue.poll() != null) {
+                        queued.decrementAndGet();
+                        dropped.incrementAndGet();
+                    }
+                    break;
+                case SPILL_TO_FILE:
+                    List<ActivityLog> single = new ArrayList<>(1);
+                    single.add(entry);
+                    spill(single);
+                    return true;
+                default:
+                    LockSupport.unpark(writerThread);
+                    synchronized (spaceAvailable) {
+                        try {
+                            if (queued.get() >= QUEUE_CAPACITY) {
+                                spaceAvailable.wait(FLUSH_INTERVAL_MS);
+                            }
+                        } catch (InterruptedException e) {
+                            Thread.currentThread().interrupt();
+                            dropped.incrementAndGet();
+                            return false;
+                        }
+                    }
+            }
+        }
+    }
+
+    /**
+     * Write everything queued so far on the calling thread
+     */
+    public void flush() {
+        writeLock.lock();
+        try {
+            while (drainBatch()) {
+                // keep going until the queue is empty
+            }
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * Stop the writer thread and flush what is left
+     */
+    public void shutdown() {
+        if (!running) {
+            return;
+        }
+        running = false;
+        LockSupport.unpark(writerThread);
+        try {
+            writerThread.join(TimeUnit.SECONDS.toMillis(5));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        flush();
+    }
+
+    public int getQueuedCount() {
+        return queued.get();
+    }
+
+    public long getWrittenCount() {
+        return written.get();
+    }
+
+    public long getDroppedCount() {
+        return dropped.get();
+    }
+
+    public long getSpilledCount() {
+        return spilled.get();
+    }
+
+    public long getRejectedCount() {
+        return rejected.get();
+    }
+
+    @Override
+    public String toString() {
+        return String.format("ActivityLogWriter{policy=%s, queued=%d, written=%d, dropped=%d, spilled=%d, "
+                + "failedBatches=%d, rejected=%d}", OVERFLOW_POLICY, queued.get(), written.get(), dropped.get(),
+                spilled.get(), failedBatches.get(), rejected.get());
+    }
+
+    private void run() {
+        replaySpill();
+        while (running) {
+            if (queued.get() < BATCH_SIZE) {
+                LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(FLUSH_INTERVAL_MS));
+            }
+            if (!running) {
+                break;
+            }
+            flush();
+        }
+    }
+
+    /**
+     * Insert up to one batch from the queue
+     *
+     * @return true if there may be more to write
+     */
+    private boolean drainBatch() {
+        List<ActivityLog> batch = new ArrayList<>(Math.min(BATCH_SIZE, Math.max(queued.get(), 1)));
+        ActivityLog entry;
+        while (batch.size() < BATCH_SIZE && (entry = queue.poll()) != null) {
+            batch.add(entry);
+        }
+        if (batch.isEmpty()) {
+            return false;
+        }
+
+        queued.addAndGet(-batch.size());
+        synchronized (spaceAvailable) {
+            spaceAvailable.notifyAll();
+        }
+
+        List<ActivityLog> unwritten = write(batch);
+        if (unwritten.isEmpty()) {
+            replaySpill();
+            return true;
+        }
+        spill(unwritten);
+        return false;
+    }
+
+    /**
+     * Insert entries in batches. When a batch fails its rows are retried
+     * one at a time, so one bad row does not hold back the others; rows
+     * the database rejects outright are moved to the rejected file.
+     *
+     * @return Entries left unwritten because the database is unavailable,
+     *         from the first such failure on; empty if everything was
+     *         written or rejected
+     */
+    private List<ActivityLog> write(List<ActivityLog> entries) {
+        for (int from = 0; from < entries.size(); from += BATCH_SIZE) {
+            List<ActivityLog> batch = entries.subList(from, Math.min(from + BATCH_SIZE, entries.size()));
+            try {
+                logDAO.insertBatch(batch);
+                written.addAndGet(batch.size());
+                continue;
+            } catch (SQLException e) {
+                failedBatches.incrementAndGet();
+                System.err.println("Error writing activity log batch: " + e.getMessage());
+            }
+
+            for (int i = 0; i < batch.size(); i++) {
+                ActivityLog entry = batch.get(i);
+                try {
+                    logDAO.insertBatch(Collections.singletonList(entry));
+                    written.incrementAndGet();
+                } catch (SQLException e) {
+                    if (!isRejected(e)) {
+                        return entries.subList(from + i, entries.size());
+                    }
+                    System.err.println("Activity log entry rejected: " + e.getMessage());
+                    reject(encode(entry));
+                }
+            }
+        }
+        return Collections.emptyList();
+    }
+
+    /**
+     * @return true if retrying the row can never succeed: bad data or a
+     *         broken constraint, as opposed to the database being down
+     */
+    private static boolean isRejected(SQLException e) {
+        String state = e.getSQLState();
+        return e instanceof SQLDataException || e instanceof SQLIntegrityConstraintViolationException
+                || e instanceof DataTruncation
+                || (state != null && (state.startsWith("22") || state.startsWith("23")));
+    }
+
+    /**
+     * Set aside a spill-file line that will never be written, for someone
+     * to look at later
+     */
+    private void reject(String line) {
+        rejected.incrementAndGet();
+        synchronized (spillLock) {
+            try (BufferedWriter out = Files.newBufferedWriter(REJECTED_FILE, StandardCharsets.UTF_8,
+                    StandardOpenOption.CREATE, StandardOpenOption.APPEND)) {
+                out.write(line);
+                out.newLine();
+            } catch (IOException e) {
+                System.err.println("Error writing rejected activity log entry: " + e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Append entries to the spill file
+     */
+    private void spill(List<ActivityLog> entries) {
+        synchronized (spillLock) {
+            try (BufferedWriter out = Files.newBufferedWriter(SPILL_FILE, StandardCharsets.UTF_8,
+                    StandardOpenOption.CREATE, StandardOpenOption.APPEND)) {
+                for (ActivityLog entry : entries) {
+                    out.write(encode(entry));
+                    out.newLine();
+                }
+                spilled.addAndGet(entries.size());
+            } catch (IOException e) {
+                dropped.addAndGet(entries.size());
+                System.err.println("Error spilling activity log: " + e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Insert whatever was spilled earlier, then remove the file
+     */
+    private void replaySpill() {
+        Path replaying = SPILL_FILE.resolveSibling(SPILL_FILE.getFileName() + ".replay");
+        writeLock.lock();
+        try {
+            // A replay that could not read its file left it behind: finish that one first
+            if (Files.exists(replaying) && !replay(replaying)) {
+                return;
+            }
+
+            synchronized (spillLock) {
+                if (!Files.exists(SPILL_FILE)) {
+                    return;
+                }
+                try {
+                    // Entries spilled while we replay go to a fresh file
+                    Files.move(SPILL_FILE, replaying);
+                } catch (IOException e) {
+                    System.err.println("Error reading activity log spill file: " + e.getMessage());
+                    return;
+                }
+            }
+            replay(replaying);
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * Insert the entries of one spill file and delete it. Lines that do not
+     * decode are moved to the rejected file; entries the database cannot
+     * take yet are spilled again.
+     *
+     * @return false if the file could not be read, in which case it is kept
+     */
+    private boolean replay(Path file) {
+        List<ActivityLog> pending = new ArrayList<>();
+        try (BufferedReader in = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = in.readLine()) != null) {
+                if (line.isEmpty()) {
+                    continue;
+                }
+                try {
+                    pending.add(decode(line));
+                } catch (RuntimeException e) {
+                    System.err.println("Skipping unreadable activity log spill line: " + e.getMessage());
+                    reject(line);
+                }
+            }
+        } catch (IOException e) {
+            System.err.println("Error reading activity log spill file: " + e.getMessage());
+            return false;
+        }
+
+        List<ActivityLog> unwritten = write(pending);
+        if (!unwritten.isEmpty()) {
+            spill(unwritten);
+        }
+
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            System.err.println("Error removing activity log spill file: " + e.getMessage());
+        }
+        return true;
+    }
+
+    private static String encode(ActivityLog entry) {
+        return entry.getTimestamp().getTime() + "\t"
+                + escape(entry.getActionType()) + "\t"
+                + escape(entry.getTableName()) + "\t"
+                + (entry.getUserId() != null ? entry.getUserId() : NULL_FIELD) + "\t"
+                + (entry.getAdminId() != null ? entry.getAdminId() : NULL_FIELD) + "\t"
+                + escape(entry.getDescription());
+    }
+
+    private static ActivityLog decode(String line) {
+        String[] fields = line.split("\t", -1);
+        ActivityLog entry = new ActivityLog(unescape(fields[1]), unescape(fields[2]), unescape(fields[5]));
+        entry.setTimestamp(new Timestamp(Long.parseLong(fields[0])));
+        entry.setUserId(NULL_FIELD.equals(fields[3]) ? null : Integer.valueOf(fields[3]));
+        entry.setAdminId(NULL_FIELD.equals(fields[4]) ? null : Integer.valueOf(fields[4]));
+        return entry;
+    }
+
+    private static String escape(String value) {
+        if (value == null) {
+            return NULL_FIELD;
+        }
+        return value.replace("\\", "\\\\").replace("\t", "\\t").replace("\n", "\\n").replace("\r", "\\r");
+    }
+
+    private static String unescape(String value) {
+        if (NULL_FIELD.equals(value)) {
+            return null;
+        }
+        StringBuilder sb = new StringBuilder(value.length());
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '\\' && i + 1 < value.length()) {
+                char next = value.charAt(++i);
+                sb.append(next == 't' ? '\t' : next == 'n' ? '\n' : next == 'r' ? '\r' : next);
+            } else {
+                sb.append(c);
+            }
+        }
+        return sb.toString();
+    }
+}
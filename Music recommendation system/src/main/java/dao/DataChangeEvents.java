@@ -0,0 +1,67 @@
+package main.java.dao;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Announces writes to the catalog, tags, ratings and favorites, so caches
+ * above the DAO layer can drop or adjust what they built from the old data.
+ *
+ * The DAO write methods publish after their write succeeds. Listeners are
+ * called on the writing thread and should only mark things stale or apply
+ * small deltas.
+ */
+public final class DataChangeEvents {
+
+    public enum Type {
+        /** A song was added (delta 1), updated (0) or deleted (-1) */
+        SONG,
+        /** A mood tag (tagId) was added to (1) or removed from (-1) a song */
+        MOOD_TAG,
+        /** An activity tag (tagId) was added to (1) or removed from (-1) a song */
+        ACTIVITY_TAG,
+        /** A user's rating was added (1), changed (0) or removed (-1) */
+        RATING,
+        /** Favorites were added (1) or removed (minus the number removed) */
+        FAVORITE
+    }
+
+    public interface Listener {
+        /**
+         * @param type   What changed
+         * @param userId User whose data changed, 0 for catalog changes
+         * @param songId Song that changed, 0 if several songs changed
+         * @param tagId  Mood or activity ID for tag changes, otherwise 0
+         * @param delta  Change in the number of rows, as listed per type
+         */
+        void onDataChanged(Type type, int userId, int songId, int tagId, int delta);
+    }
+
+    private static final List<Listener> LISTENERS = new CopyOnWriteArrayList<>();
+
+    private DataChangeEvents() {
+    }
+
+    public static void addListener(Listener listener) {
+        LISTENERS.add(listener);
+    }
+
+    public static void removeListener(Listener listener) {
+        LISTENERS.remove(listener);
+    }
+
+    /**
+     * Tell every listener about a write. A failing listener is logged and
+     * does not fail the write.
+     */
+    public static void publish(Type type, int userId, int songId, int tagId, int delta) {
+        for (Listener listener : LISTENERS) {
+            try {
+                listener.onDataChanged(type, userId, songId, tagId, delta);
+            } catch (RuntimeException e) {
+                System.err.println("Error handling " + type + " change: " + e.getMessage());
+                e.printStackTrace();
+            }
+        }
+    }
+}
@@ -0,0 +1,141 @@
+package main.java.dao;
+
+import main.java.util.DatabaseConfig;
+
+import java.sql.*;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Reads user/song interactions (ratings and favorites) for the
+ * collaborative filtering and latent-factor models.
+ *
+ * An interaction has a strength: a rating of 3 to 5 stars counts 1/3 to 1,
+ * a favorite counts FAVORITE_STRENGTH, and a song that is both rated and
+ * favorited gets the sum. Ratings of 1 or 2 stars say the user did not like
+ * the song, so they are left out rather than counted as a co-occurrence.
+ */
+public class InteractionDAO {
+
+    public static final float FAVORITE_STRENGTH = 1.0f;
+    /** Lowest rating that counts as an interaction */
+    private static final int MIN_POSITIVE_RATING = 3;
+
+    /**
+     * Receives interactions as they are read
+     */
+    public interface InteractionVisitor {
+        void visit(int userId, int songId, float strength);
+    }
+
+    /**
+     * Stream every rating and favorite to a visitor without holding the
+     * result sets in memory. A song that is both rated and favorited by a
+     * user is visited twice.
+     *
+     * @param visitor Receives each interaction
+     * @return true if both tables were read completely
+     */
+    public boolean forEachInteraction(InteractionVisitor visitor) {
+        try (Connection conn = DatabaseConfig.getConnection()) {
+            try (Statement stmt = streamingStatement(conn);
+                    ResultSet rs = stmt.executeQuery("SELECT user_id, song_id, rating FROM user_ratings")) {
+                while (rs.next()) {
+                    float strength = ratingStrength(rs.getInt(3));
+                    if (strength > 0) {
+                        visitor.visit(rs.getInt(1), rs.getInt(2), strength);
+                    }
+                }
+            }
+            try (Statement stmt = streamingStatement(conn);
+                    ResultSet rs = stmt.executeQuery("SELECT user_id, song_id FROM user_favorites")) {
+                while (rs.next()) {
+                    visitor.visit(rs.getInt(1), rs.getInt(2), FAVORITE_STRENGTH);
+                }
+            }
+            return true;
+
+        } catch (SQLException e) {
+            System.err.println("Error reading interactions: " + e.getMessage());
+            e.printStackTrace();
+            return false;
+        }
+    }
+
+    /**
+     * Stream every rating to a visitor without holding the result set in
+     * memory. The strength passed is the raw rating (1-5).
+     *
+     * @param visitor Receives each rating
+     * @return true if the table was read completely
+     */
+    public boolean forEachRating(InteractionVisitor visitor) {
+        try (Connection conn = DatabaseConfig.getConnection();
+                Statement stmt = streamingStatement(conn);
+                ResultSet rs = stmt.executeQuery("SELECT user_id, song_id, rating FROM user_ratings")) {
+            while (rs.next()) {
+                visitor.visit(rs.getInt(1), rs.getInt(2), rs.getInt(3));
+            }
+            return true;
+
+        } catch (SQLException e) {
+            System.err.println("Error reading ratings: " + e.getMessage());
+            e.printStackTrace();
+            return false;
+        }
+    }
+
+    /**
+     * Get one user's interactions
+     *
+     * @param userId User ID
+     * @return Interaction strength by song ID
+     */
+    public Map<Integer, Float> getUserInteractions(int userId) {
+        Map<Integer, Float> interactions = new HashMap<>();
+        String query = "SELECT song_id, rating AS strength FROM user_ratings WHERE user_id = ? " +
+                "UNION ALL SELECT song_id, NULL FROM user_favorites WHERE user_id = ?";
+
+        try (Connection conn = DatabaseConfig.getConnection();
+                PreparedStatement pstmt = conn.prepareStatement(query)) {
+
+            pstmt.setInt(1, userId);
+            pstmt.setInt(2, userId);
+            ResultSet rs = pstmt.executeQuery();
+
+            while (rs.next()) {
+                int rating = rs.getInt(2);
+                float strength = rs.wasNull() ? FAVORITE_STRENGTH : ratingStrength(rating);
+                if (strength > 0) {
+                    interactions.merge(rs.getInt(1), strength, Float::sum);
+                }
+            }
+
+        } catch (SQLException e) {
+            System.err.println("Error fetching user interactions: " + e.getMessage());
+            e.printStackTrace();
+        }
+
+        return interactions;
+    }
+
+    /**
+     * @return Strength of a rating, 0 for a rating that does not count
+     */
+    private static float ratingStrength(int rating) {
+        if (rating < MIN_POSITIVE_RATING) {
+            return 0;
+        }
+        return (rating - MIN_POSITIVE_RATING + 1) / (float) (5 - MIN_POSITIVE_RATING + 1);
+    }
+
+    /**
+     * Forward-only statement that makes MySQL stream rows one at a time
+     * instead of buffering the whole result
+     */
+    private static Statement streamingStatement(Connection conn) throws SQLException {
+        Statement stmt = conn.createStatement(ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+        stmt.setFetchSize(Integer.MIN_VALUE);
+        return stmt;
+    }
+}
@@ -0,0 +1,248 @@
+package main.java.dao;
+
+import main.java.model.Activity;
+import main.java.model.Mood;
+import main.java.util.DatabaseConfig;
+
+import java.sql.*;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * In-memory dictionary of the moods and activities tables, shared by every
+ * MoodDAO and ActivityDAO. Both tables hold a handful of rows and change
+ * only when an admin adds one, so they are loaded once and every lookup by
+ * name or ID is a map read.
+ *
+ * The dictionary is an immutable snapshot behind a volatile reference.
+ * Readers take no locks; addMood and addActivity build the next version
+ * with the new row and swap it in. Names match in any case, like the
+ * database's name columns. Rows are copied on the way out so callers
+ * cannot change the shared ones. Lookups need ensureLoaded() to have
+ * returned true.
+ */
+public class MoodActivityDictionary {
+
+    private static final MoodActivityDictionary INSTANCE = new MoodActivityDictionary();
+
+    private volatile Snapshot snapshot = null;
+
+    private MoodActivityDictionary() {
+    }
+
+    public static MoodActivityDictionary getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Make sure the dictionary is loaded
+     *
+     * @return true if the dictionary can answer lookups
+     */
+    public boolean ensureLoaded() {
+        if (snapshot == null) {
+            synchronized (this) {
+                if (snapshot == null) {
+                    reload();
+                }
+            }
+        }
+        return snapshot != null;
+    }
+
+    /**
+     * Load both tables from the database into a new version
+     */
+    public synchronized void reload() {
+        List<Mood> moods = new ArrayList<>();
+        List<Activity> activities = new ArrayList<>();
+
+        try (Connection conn = DatabaseConfig.getConnection();
+                Statement stmt = conn.createStatement()) {
+
+            try (ResultSet rs = stmt.executeQuery("SELECT * FROM moods")) {
+                while (rs.next()) {
+                    moods.add(mood(rs.getInt("mood_id"), rs.getString("mood_name"),
+                            rs.getString("mood_description")));
+                }
+            }
+
+            try (ResultSet rs = stmt.executeQuery("SELECT * FROM activities")) {
+                while (rs.next()) {
+                    activities.add(activity(rs.getInt("activity_id"), rs.getString("activity_name"),
+                            rs.getString("activity_description")));
+                }
+            }
+
+        } catch (SQLException e) {
+            System.err.println("Error loading mood and activity dictionary: " + e.getMessage());
+            e.printStackTrace();
+            return;
+        }
+
+        Snapshot current = snapshot;
+        snapshot = new Snapshot(current == null ? 1 : current.version + 1, moods, activities);
+    }
+
+    /**
+     * Version of the loaded dictionary, 0 if not loaded; bumped by every
+     * change
+     */
+    public long getVersion() {
+        Snapshot current = snapshot;
+        return current == null ? 0 : current.version;
+    }
+
+    /**
+     * Add a newly inserted mood
+     */
+    synchronized void addMood(int moodId, String moodName, String moodDescription) {
+        Snapshot current = snapshot;
+        if (current != null) {
+            List<Mood> moods = new ArrayList<>(current.moods);
+            moods.add(mood(moodId, moodName, moodDescription));
+            snapshot = new Snapshot(current.version + 1, moods, current.activities);
+        }
+    }
+
+    /**
+     * Add a newly inserted activity
+     */
+    synchronized void addActivity(int activityId, String activityName, String activityDescription) {
+        Snapshot current = snapshot;
+        if (current != null) {
+            List<Activity> activities = new ArrayList<>(current.activities);
+            activities.add(activity(activityId, activityName, activityDescription));
+            snapshot = new Snapshot(current.version + 1, current.moods, activities);
+        }
+    }
+
+    /**
+     * @return Copies of all moods ordered by name
+     */
+    public List<Mood> getAllMoods() {
+        List<Mood> moods = new ArrayList<>();
+        for (Mood mood : snapshot.moods) {
+            moods.add(copyOf(mood));
+        }
+        return moods;
+    }
+
+    /**
+     * @return Copy of the mood, or null if there is no such mood
+     */
+    public Mood getMoodById(int moodId) {
+        return copyOf(snapshot.moodsById.get(moodId));
+    }
+
+    /**
+     * @return Copy of the mood, or null if there is no such mood
+     */
+    public Mood getMoodByName(String moodName) {
+        return moodName == null ? null : copyOf(snapshot.moodsByName.get(nameKey(moodName)));
+    }
+
+    /**
+     * @return Mood ID, or -1 if there is no such mood
+     */
+    public int getMoodId(String moodName) {
+        Mood mood = moodName == null ? null : snapshot.moodsByName.get(nameKey(moodName));
+        return mood == null ? -1 : mood.getMoodId();
+    }
+
+    /**
+     * @return Copies of all activities ordered by name
+     */
+    public List<Activity> getAllActivities() {
+        List<Activity> activities = new ArrayList<>();
+        for (Activity activity : snapshot.activities) {
+            activities.add(copyOf(activity));
+        }
+        return activities;
+    }
+
+    /**
+     * @return Copy of the activity, or null if there is no such activity
+     */
+    public Activity getActivityById(int activityId) {
+        return copyOf(snapshot.activitiesById.get(activityId));
+    }
+
+    /**
+     * @return Copy of the activity, or null if there is no such activity
+     */
+    public Activity getActivityByName(String activityName) {
+        return activityName == null ? null : copyOf(snapshot.activitiesByName.get(nameKey(activityName)));
+    }
+
+    /**
+     * @return Activity ID, or -1 if there is no such activity
+     */
+    public int getActivityId(String activityName) {
+        Activity activity = activityName == null ? null : snapshot.activitiesByName.get(nameKey(activityName));
+        return activity == null ? -1 : activity.getActivityId();
+    }
+
+    private static String nameKey(String name) {
+        return name.toLowerCase(Locale.ROOT);
+    }
+
+    private static Mood mood(int moodId, String moodName, String moodDescription) {
+        Mood mood = new Mood(moodName, moodDescription);
+        mood.setMoodId(moodId);
+        return mood;
+    }
+
+    private static Activity activity(int activityId, String activityName, String activityDescription) {
+        Activity activity = new Activity(activityName, activityDescription);
+        activity.setActivityId(activityId);
+        return activity;
+    }
+
+    private static Mood copyOf(Mood mood) {
+        return mood == null ? null : mood(mood.getMoodId(), mood.getMoodName(), mood.getMoodDescription());
+    }
+
+    private static Activity copyOf(Activity activity) {
+        return activity == null ? null
+                : activity(activity.getActivityId(), activity.getActivityName(), activity.getActivityDescription());
+    }
+
+    /**
+     * One immutable version of both tables
+     */
+    private static final class Snapshot {
+        final long version;
+        final List<Mood> moods;
+        final List<Activity> activities;
+        final Map<Integer, Mood> moodsById = new HashMap<>();
+        final Map<String, Mood> moodsByName = new HashMap<>();
+        final Map<Integer, Activity> activitiesById = new HashMap<>();
+        final Map<String, Activity> activitiesByName = new HashMap<>();
+
+        Snapshot(long version, List<Mood> moods, List<Activity> activities) {
+            this.version = version;
+
+            List<Mood> sortedMoods = new ArrayList<>(moods);
+            sortedMoods.sort(Comparator.comparing(Mood::getMoodName, String.CASE_INSENSITIVE_ORDER));
+            this.moods = Collections.unmodifiableList(sortedMoods);
+            for (Mood mood : sortedMoods) {
+                moodsById.put(mood.getMoodId(), mood);
+                moodsByName.put(nameKey(mood.getMoodName()), mood);
+            }
+
+            List<Activity> sortedActivities = new ArrayList<>(activities);
+            sortedActivities.sort(Comparator.comparing(Activity::getActivityName, String.CASE_INSENSITIVE_ORDER));
+            this.activities = Collections.unmodifiableList(sortedActivities);
+            for (Activity activity : sortedActivities) {
+                activitiesById.put(activity.getActivityId(), activity);
+                activitiesByName.put(nameKey(activity.getActivityName()), activity);
+            }
+        }
+    }
+}
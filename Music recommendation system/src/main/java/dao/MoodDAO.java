@@ -14,6 +14,11 @@ public class MoodDAO {
      * @return List of all moods
      */
     public List<Mood> getAllMoods() {
+        MoodActivityDictionary dictionary = MoodActivityDictionary.getInstance();
+        if (dictionary.ensureLoaded()) {
+            return dictionary.getAllMoods();
+        }
+
         List<Mood> moods = new ArrayList<>();
         String query = "SELECT * FROM moods ORDER BY mood_name";
 
@@ -44,6 +49,11 @@ public class MoodDAO {
      * @return Mood object or null
      */
     public Mood getMoodById(int moodId) {
+        MoodActivityDictionary dictionary = MoodActivityDictionary.getInstance();
+        if (dictionary.ensureLoaded()) {
+            return dictionary.getMoodById(moodId);
+        }
+
         String query = "SELECT * FROM moods WHERE mood_id = ?";
 
         try (Connection conn = DatabaseConfig.getConnection();
@@ -75,6 +85,11 @@ public class MoodDAO {
      * @return Mood object or null
      */
     public Mood getMoodByName(String moodName) {
+        MoodActivityDictionary dictionary = MoodActivityDictionary.getInstance();
+        if (dictionary.ensureLoaded()) {
+            return dictionary.getMoodByName(moodName);
+        }
+
         String query = "SELECT * FROM moods WHERE mood_name = ?";
 
         try (Connection conn = DatabaseConfig.getConnection();
@@ -119,7 +134,12 @@ public class MoodDAO {
             if (affectedRows > 0) {
                 ResultSet generatedKeys = pstmt.getGeneratedKeys();
                 if (generatedKeys.next()) {
-                    return generatedKeys.getInt(1);
+                    int moodId = generatedKeys.getInt(1);
+                    MoodActivityDictionary.getInstance().addMood(moodId, mood.getMoodName(),
+                            mood.getMoodDescription());
+                    // The mood graph has a node per mood
+                    MoodGraph.getInstance().invalidate();
+                    return moodId;
                 }
             }
 
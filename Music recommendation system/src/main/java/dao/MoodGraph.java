@@ -0,0 +1,220 @@
+package main.java.dao;
+
+import main.java.model.Mood;
+import main.java.util.DatabaseConfig;
+
+import java.sql.*;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * In-memory weighted graph of mood transitions from reverse_mood_mapping,
+ * with a node per mood of the MoodActivityDictionary. Every mapping is an
+ * edge, including the trajectory-only ones (direct_shift FALSE) that the
+ * one-hop mood-shifting suggestions leave out.
+ * An edge current -> target carries the weight column, the cost of that
+ * step: lower is a gentler shift. Edges are kept as adjacency arrays over
+ * dense mood indexes, so planning a multi-hop mood trajectory walks a few
+ * small arrays and runs no queries.
+ *
+ * The graph is loaded on first use and reloaded after the reload
+ * interval; a failed load is retried with backoff. A reload builds a new
+ * graph and swaps it in, so readers never lock.
+ */
+public class MoodGraph {
+
+    private static final long RELOAD_INTERVAL_MILLIS = 5 * 60_000;
+
+    private static final MoodGraph INSTANCE = new MoodGraph();
+
+    private final ReloadSchedule schedule = new ReloadSchedule(RELOAD_INTERVAL_MILLIS);
+    private volatile Graph graph = null;
+
+    private MoodGraph() {
+    }
+
+    public static MoodGraph getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Make sure the graph is loaded and not older than the reload interval
+     *
+     * @return true if the graph can answer queries
+     */
+    public boolean ensureLoaded() {
+        return schedule.ensureLoaded(this::reload);
+    }
+
+    /**
+     * Rebuild the graph from the database
+     */
+    public synchronized void reload() {
+        MoodActivityDictionary dictionary = MoodActivityDictionary.getInstance();
+        if (!dictionary.ensureLoaded()) {
+            schedule.loadFailed();
+            return;
+        }
+
+        List<String> names = new ArrayList<>();
+        Map<Integer, Integer> indexById = new HashMap<>();
+        for (Mood mood : dictionary.getAllMoods()) {
+            indexById.put(mood.getMoodId(), names.size());
+            names.add(mood.getMoodName());
+        }
+
+        List<int[]> edges = new ArrayList<>();
+        List<Float> weights = new ArrayList<>();
+
+        try (Connection conn = DatabaseConfig.getConnection();
+                Statement stmt = conn.createStatement()) {
+
+            try (ResultSet rs = stmt.executeQuery(
+                    "SELECT current_mood_id, target_mood_id, weight FROM reverse_mood_mapping")) {
+                while (rs.next()) {
+                    Integer from = indexById.get(rs.getInt("current_mood_id"));
+                    Integer to = indexById.get(rs.getInt("target_mood_id"));
+                    if (from != null && to != null) {
+                        edges.add(new int[] { from, to });
+                        weights.add(Math.max(rs.getFloat("weight"), 0f));
+                    }
+                }
+            }
+
+        } catch (SQLException e) {
+            System.err.println("Error loading mood graph: " + e.getMessage());
+            e.printStackTrace();
+            schedule.loadFailed();
+            return;
+        }
+
+        graph = new Graph(names.toArray(new String[0]), edges, weights);
+        schedule.loadSucceeded(true);
+    }
+
+    /**
+     * Drop the graph so the next query reloads it
+     */
+    public void invalidate() {
+        schedule.invalidate();
+    }
+
+    /**
+     * Cheapest mood trajectory between two moods (Dijkstra over the edge
+     * weights)
+     *
+     * @param fromMoodName Current mood name (any case)
+     * @param toMoodName   Target mood name (any case)
+     * @return Mood names from the current to the target mood, both included;
+     *         empty if either mood is unknown or the target cannot be
+     *         reached
+     */
+    public List<String> findTrajectory(String fromMoodName, String toMoodName) {
+        List<String> trajectory = new ArrayList<>();
+        if (!ensureLoaded()) {
+            return trajectory;
+        }
+        Graph current = graph;
+        int from = current.indexOf(fromMoodName);
+        int to = current.indexOf(toMoodName);
+        if (from < 0 || to < 0) {
+            return trajectory;
+        }
+        for (int mood : current.shortestPath(from, to)) {
+            trajectory.add(current.names[mood]);
+        }
+        return trajectory;
+    }
+
+    /**
+     * Immutable graph snapshot: the edges of mood m are
+     * offsets[m]..offsets[m+1] in targets and weights
+     */
+    private static class Graph {
+        final String[] names;
+        final Map<String, Integer> indexByName = new HashMap<>();
+        final int[] offsets;
+        final int[] targets;
+        final float[] weights;
+
+        Graph(String[] names, List<int[]> edges, List<Float> edgeWeights) {
+            this.names = names;
+            for (int m = 0; m < names.length; m++) {
+                indexByName.put(names[m].toLowerCase(Locale.ROOT), m);
+            }
+
+            offsets = new int[names.length + 1];
+            for (int[] edge : edges) {
+                offsets[edge[0] + 1]++;
+            }
+            for (int m = 0; m < names.length; m++) {
+                offsets[m + 1] += offsets[m];
+            }
+            int[] fill = Arrays.copyOf(offsets, names.length);
+            targets = new int[edges.size()];
+            weights = new float[edges.size()];
+            for (int e = 0; e < edges.size(); e++) {
+                int position = fill[edges.get(e)[0]]++;
+                targets[position] = edges.get(e)[1];
+                weights[position] = edgeWeights.get(e);
+            }
+        }
+
+        int indexOf(String moodName) {
+            return moodName == null ? -1 : indexByName.getOrDefault(moodName.toLowerCase(Locale.ROOT), -1);
+        }
+
+        /**
+         * Mood indexes on the cheapest path, empty if unreachable. There are
+         * only tens of moods, so picking the next mood by a linear scan
+         * beats a heap.
+         */
+        int[] shortestPath(int from, int to) {
+            int n = names.length;
+            double[] distance = new double[n];
+            int[] previous = new int[n];
+            boolean[] done = new boolean[n];
+            Arrays.fill(distance, Double.POSITIVE_INFINITY);
+            Arrays.fill(previous, -1);
+            distance[from] = 0;
+
+            while (true) {
+                int next = -1;
+                for (int m = 0; m < n; m++) {
+                    if (!done[m] && distance[m] < Double.POSITIVE_INFINITY
+                            && (next < 0 || distance[m] < distance[next])) {
+                        next = m;
+                    }
+                }
+                if (next < 0 || next == to) {
+                    break;
+                }
+                done[next] = true;
+                for (int e = offsets[next]; e < offsets[next + 1]; e++) {
+                    double candidate = distance[next] + weights[e];
+                    if (candidate < distance[targets[e]]) {
+                        distance[targets[e]] = candidate;
+                        previous[targets[e]] = next;
+                    }
+                }
+            }
+
+            if (distance[to] == Double.POSITIVE_INFINITY) {
+                return new int[0];
+            }
+            int length = 1;
+            for (int m = to; m != from; m = previous[m]) {
+                length++;
+            }
+            int[] path = new int[length];
+            for (int m = to, i = length - 1; i >= 0; m = previous[m], i--) {
+                path[i] = m;
+            }
+            return path;
+        }
+    }
+}
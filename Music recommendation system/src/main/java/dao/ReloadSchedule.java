@@ -0,0 +1,72 @@
+package main.java.dao;
+
+/**
+ * When an in-memory copy of some tables is due to be (re)loaded from the
+ * database. A successful load is good for the reload interval. A failed
+ * load is retried after a backoff that doubles up to a cap, so while the
+ * database is down callers keep using the old copy (or none) instead of
+ * each running the full load again.
+ *
+ * ensureLoaded runs at most one load at a time: callers that find a load
+ * due while another thread is loading wait for it and then use its result.
+ */
+final class ReloadSchedule {
+
+    private static final long FIRST_RETRY_MILLIS = 1_000;
+    private static final long MAX_RETRY_MILLIS = 30_000;
+
+    private final long reloadIntervalMillis;
+
+    private volatile boolean loaded = false;
+    private volatile long nextLoadAt = 0;
+    private volatile long retryMillis = FIRST_RETRY_MILLIS;
+
+    ReloadSchedule(long reloadIntervalMillis) {
+        this.reloadIntervalMillis = reloadIntervalMillis;
+    }
+
+    /**
+     * Run the load if it is due
+     *
+     * @param load Loads the tables and reports back through loadSucceeded
+     *             or loadFailed
+     * @return true if a load has ever succeeded
+     */
+    boolean ensureLoaded(Runnable load) {
+        if (isDue()) {
+            synchronized (this) {
+                if (isDue()) {
+                    load.run();
+                }
+            }
+        }
+        return loaded;
+    }
+
+    private boolean isDue() {
+        return System.currentTimeMillis() >= nextLoadAt;
+    }
+
+    /**
+     * @param upToDate false if a write raced with the load and may be
+     *                 missing from it, so the next call loads again
+     */
+    void loadSucceeded(boolean upToDate) {
+        loaded = true;
+        retryMillis = FIRST_RETRY_MILLIS;
+        nextLoadAt = upToDate ? System.currentTimeMillis() + reloadIntervalMillis : 0;
+    }
+
+    void loadFailed() {
+        long retry = retryMillis;
+        retryMillis = Math.min(retry * 2, MAX_RETRY_MILLIS);
+        nextLoadAt = System.currentTimeMillis() + retry;
+    }
+
+    /**
+     * Make the next call load again
+     */
+    void invalidate() {
+        nextLoadAt = 0;
+    }
+}
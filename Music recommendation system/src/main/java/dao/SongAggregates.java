@@ -0,0 +1,290 @@
+package main.java.dao;
+
+import main.java.util.DatabaseConfig;
+
+import java.sql.*;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Per-song rating sum, rating count and favorite count, kept in memory so
+ * the average rating and favorite count of a song are O(1) reads instead of
+ * an AVG/COUNT query per table row.
+ *
+ * Loaded once from user_ratings and user_favorites, then maintained by
+ * UserRatingDAO and UserFavoriteDAO as they write. Each song's counters are
+ * an immutable snapshot replaced under a striped lock, and two sorted sets
+ * over the same snapshots serve the top rated and most favorited lists.
+ */
+public class SongAggregates {
+
+    private static final int STRIPES = 32;
+    private static final long RELOAD_INTERVAL_MILLIS = 5 * 60_000;
+
+    private static final SongAggregates INSTANCE = new SongAggregates();
+
+    private static final Comparator<Aggregate> BY_RATING = Comparator
+            .comparingDouble(Aggregate::getAverageRating).reversed()
+            .thenComparing(Comparator.comparingInt(Aggregate::getRatingCount).reversed())
+            .thenComparingInt(Aggregate::getSongId);
+
+    private static final Comparator<Aggregate> BY_FAVORITES = Comparator
+            .comparingInt(Aggregate::getFavoriteCount).reversed()
+            .thenComparingInt(Aggregate::getSongId);
+
+    private final Map<Integer, Aggregate> aggregates = new ConcurrentHashMap<>();
+    private final ConcurrentSkipListSet<Aggregate> topRated = new ConcurrentSkipListSet<>(BY_RATING);
+    private final ConcurrentSkipListSet<Aggregate> mostFavorited = new ConcurrentSkipListSet<>(BY_FAVORITES);
+
+    private final Object[] stripes = new Object[STRIPES];
+    // Updates share the read side, a reload takes the write side
+    private final ReadWriteLock reloadLock = new ReentrantReadWriteLock();
+    private final ReloadSchedule schedule = new ReloadSchedule(RELOAD_INTERVAL_MILLIS);
+    private volatile long writeCount = 0;
+
+    private SongAggregates() {
+        for (int i = 0; i < STRIPES; i++) {
+            stripes[i] = new Object();
+        }
+    }
+
+    public static SongAggregates getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Make sure the aggregates are loaded and not older than the reload
+     * interval
+     *
+     * @return true if the aggregates can answer queries
+     */
+    public boolean ensureLoaded() {
+        return schedule.ensureLoaded(this::reload);
+    }
+
+    /**
+     * Rebuild every aggregate from the database
+     */
+    public synchronized void reload() {
+        long writesBefore = writeCount;
+        Map<Integer, long[]> counters = new java.util.HashMap<>();
+
+        try (Connection conn = DatabaseConfig.getConnection();
+                Statement stmt = conn.createStatement()) {
+
+            try (ResultSet rs = stmt.executeQuery(
+                    "SELECT song_id, SUM(rating) as rating_sum, COUNT(*) as rating_count " +
+                            "FROM user_ratings GROUP BY song_id")) {
+                while (rs.next()) {
+                    long[] c = counters.computeIfAbsent(rs.getInt("song_id"), k -> new long[3]);
+                    c[0] = rs.getLong("rating_sum");
+                    c[1] = rs.getLong("rating_count");
+                }
+            }
+
+            try (ResultSet rs = stmt.executeQuery(
+                    "SELECT song_id, COUNT(*) as favorite_count FROM user_favorites GROUP BY song_id")) {
+                while (rs.next()) {
+                    long[] c = counters.computeIfAbsent(rs.getInt("song_id"), k -> new long[3]);
+                    c[2] = rs.getLong("favorite_count");
+                }
+            }
+
+        } catch (SQLException e) {
+            System.err.println("Error loading song aggregates: " + e.getMessage());
+            e.printStackTrace();
+            schedule.loadFailed();
+            return;
+        }
+
+        reloadLock.writeLock().lock();
+        try {
+            aggregates.clear();
+            topRated.clear();
+            mostFavorited.clear();
+            for (Map.Entry<Integer, long[]> entry : counters.entrySet()) {
+                long[] c = entry.getValue();
+                index(null, new Aggregate(entry.getKey(), c[0], (int) c[1], (int) c[2]));
+            }
+            // An update that raced with the load may be missing, so load again on the next call
+            schedule.loadSucceeded(writeCount == writesBefore);
+        } finally {
+            reloadLock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Drop the aggregates so the next read reloads them
+     */
+    public void invalidate() {
+        schedule.invalidate();
+    }
+
+    public double getAverageRating(int songId) {
+        Aggregate aggregate = aggregates.get(songId);
+        return aggregate != null ? aggregate.getAverageRating() : 0.0;
+    }
+
+    public int getRatingCount(int songId) {
+        Aggregate aggregate = aggregates.get(songId);
+        return aggregate != null ? aggregate.getRatingCount() : 0;
+    }
+
+    public int getFavoriteCount(int songId) {
+        Aggregate aggregate = aggregates.get(songId);
+        return aggregate != null ? aggregate.getFavoriteCount() : 0;
+    }
+
+    /**
+     * Song IDs ordered by average rating, then rating count
+     *
+     * @param limit Maximum number of IDs
+     * @return Song IDs, best first
+     */
+    public List<Integer> getTopRatedSongIds(int limit) {
+        return firstIds(topRated, limit);
+    }
+
+    /**
+     * Song IDs ordered by favorite count
+     *
+     * @param limit Maximum number of IDs
+     * @return Song IDs, most favorited first
+     */
+    public List<Integer> getMostFavoritedSongIds(int limit) {
+        return firstIds(mostFavorited, limit);
+    }
+
+    /**
+     * A user rated a song, or changed their rating
+     *
+     * @param songId    Song ID
+     * @param oldRating Previous rating, or -1 if the user had not rated it
+     * @param newRating New rating, or -1 if the rating was deleted
+     */
+    public void applyRatingChange(int songId, int oldRating, int newRating) {
+        long sumDelta = (newRating > 0 ? newRating : 0) - (oldRating > 0 ? oldRating : 0);
+        int countDelta = (newRating > 0 ? 1 : 0) - (oldRating > 0 ? 1 : 0);
+        update(songId, sumDelta, countDelta, 0);
+    }
+
+    /**
+     * A song was added to (+1) or removed from (-1) a user's favorites
+     */
+    public void applyFavoriteChange(int songId, int delta) {
+        update(songId, 0, 0, delta);
+    }
+
+    /**
+     * A song was deleted (its ratings and favorites cascade away)
+     */
+    public void removeSong(int songId) {
+        reloadLock.readLock().lock();
+        try {
+            synchronized (stripeFor(songId)) {
+                writeCount++;
+                Aggregate old = aggregates.remove(songId);
+                if (old != null) {
+                    topRated.remove(old);
+                    mostFavorited.remove(old);
+                }
+            }
+        } finally {
+            reloadLock.readLock().unlock();
+        }
+    }
+
+    private void update(int songId, long sumDelta, int countDelta, int favoriteDelta) {
+        reloadLock.readLock().lock();
+        try {
+            synchronized (stripeFor(songId)) {
+                writeCount++;
+                Aggregate old = aggregates.get(songId);
+                Aggregate updated = old == null
+                        ? new Aggregate(songId, sumDelta, countDelta, favoriteDelta)
+                        : new Aggregate(songId,
+                                old.ratingSum + sumDelta,
+                                old.ratingCount + countDelta,
+                                old.favoriteCount + favoriteDelta);
+                index(old, updated);
+            }
+        } finally {
+            reloadLock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Replace a song's snapshot in the map and both sorted sets
+     */
+    private void index(Aggregate old, Aggregate updated) {
+        if (old != null) {
+            topRated.remove(old);
+            mostFavorited.remove(old);
+        }
+
+        aggregates.put(updated.songId, updated);
+        if (updated.ratingCount > 0) {
+            topRated.add(updated);
+        }
+        if (updated.favoriteCount > 0) {
+            mostFavorited.add(updated);
+        }
+    }
+
+    private Object stripeFor(int songId) {
+        return stripes[Math.floorMod(songId, STRIPES)];
+    }
+
+    private static List<Integer> firstIds(ConcurrentSkipListSet<Aggregate> ranked, int limit) {
+        List<Integer> songIds = new ArrayList<>(Math.min(limit, 64));
+        for (Aggregate aggregate : ranked) {
+            if (songIds.size() >= limit) {
+                break;
+            }
+            // Weakly consistent iteration can briefly see a song twice mid-update
+            if (!songIds.contains(aggregate.songId)) {
+                songIds.add(aggregate.songId);
+            }
+        }
+        return songIds;
+    }
+
+    /**
+     * Immutable counters for one song
+     */
+    private static class Aggregate {
+        final int songId;
+        final long ratingSum;
+        final int ratingCount;
+        final int favoriteCount;
+
+        Aggregate(int songId, long ratingSum, int ratingCount, int favoriteCount) {
+            this.songId = songId;
+            this.ratingSum = ratingSum;
+            this.ratingCount = Math.max(ratingCount, 0);
+            this.favoriteCount = Math.max(favoriteCount, 0);
+        }
+
+        int getSongId() {
+            return songId;
+        }
+
+        int getRatingCount() {
+            return ratingCount;
+        }
+
+        int getFavoriteCount() {
+            return favoriteCount;
+        }
+
+        double getAverageRating() {
+            return ratingCount > 0 ? (double) ratingSum / ratingCount : 0.0;
+        }
+    }
+}
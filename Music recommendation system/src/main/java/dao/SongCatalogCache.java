@@ -0,0 +1,167 @@
+package main.java.dao;
+
+import main.java.model.Song;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Read-through cache in front of the songs table, shared by every SongDAO.
+ *
+ * Single songs are kept in a bounded LRU map. The full catalog list is
+ * cached as a snapshot that any song write drops; searches are answered by
+ * SongSearchIndex. Single songs are copied on the way in and out so callers
+ * editing a Song object (the admin edit form does) cannot change the
+ * cached row. The catalog is copied once when cached and then handed out
+ * as a shared unmodifiable list, so its songs must not be edited.
+ */
+public class SongCatalogCache {
+
+    private static final int MAX_SONGS = Integer.getInteger("catalog.cache.maxSongs", 10_000);
+
+    // Rows edited from another client are picked up after this long
+    private static final long TTL_MILLIS = 5 * 60_000;
+
+    private static final SongCatalogCache INSTANCE = new SongCatalogCache();
+
+    private final Map<Integer, Cached<Song>> songs = new LinkedHashMap<Integer, Cached<Song>>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Integer, Cached<Song>> eldest) {
+            return size() > MAX_SONGS;
+        }
+    };
+
+    private Cached<List<Song>> allSongs = null;
+
+    // Bumped by every write, so a read that started before the write cannot
+    // put the old row back afterwards
+    private long generation = 0;
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+
+    private SongCatalogCache() {
+    }
+
+    public static SongCatalogCache getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * @return Copy of the cached song, or null on a miss
+     */
+    public synchronized Song getSong(int songId) {
+        Cached<Song> entry = songs.get(songId);
+        if (entry == null || entry.isExpired()) {
+            songs.remove(songId);
+            misses.incrementAndGet();
+            return null;
+        }
+        hits.incrementAndGet();
+        return new Song(entry.value);
+    }
+
+    /**
+     * Current write generation, read before querying the database
+     */
+    public synchronized long getGeneration() {
+        return generation;
+    }
+
+    public synchronized void putSong(Song song, long readGeneration) {
+        if (readGeneration == generation) {
+            songs.put(song.getSongId(), new Cached<>(new Song(song)));
+        }
+    }
+
+    /**
+     * @return The cached catalog (shared and unmodifiable; do not edit its
+     *         songs), or null on a miss
+     */
+    public synchronized List<Song> getAllSongs() {
+        if (allSongs == null || allSongs.isExpired()) {
+            allSongs = null;
+            misses.incrementAndGet();
+            return null;
+        }
+        hits.incrementAndGet();
+        return allSongs.value;
+    }
+
+    public synchronized void putAllSongs(List<Song> catalog, long readGeneration) {
+        if (readGeneration == generation) {
+            allSongs = new Cached<>(Collections.unmodifiableList(copyOf(catalog)));
+        }
+    }
+
+    /**
+     * A song was inserted: cached rows are still valid, lists are not
+     */
+    public synchronized void onSongAdded() {
+        generation++;
+        allSongs = null;
+    }
+
+    /**
+     * A song was updated or deleted
+     */
+    public synchronized void onSongChanged(int songId) {
+        generation++;
+        songs.remove(songId);
+        allSongs = null;
+    }
+
+    public synchronized void clear() {
+        generation++;
+        songs.clear();
+        allSongs = null;
+    }
+
+    public long getHitCount() {
+        return hits.get();
+    }
+
+    public long getMissCount() {
+        return misses.get();
+    }
+
+    public double getHitRatio() {
+        long total = hits.get() + misses.get();
+        return total > 0 ? (double) hits.get() / total : 0.0;
+    }
+
+    public synchronized int getCachedSongCount() {
+        return songs.size();
+    }
+
+    @Override
+    public String toString() {
+        return String.format("SongCatalogCache{songs=%d, hits=%d, misses=%d, hitRatio=%.2f}",
+                getCachedSongCount(), getHitCount(), getMissCount(), getHitRatio());
+    }
+
+    private static List<Song> copyOf(List<Song> source) {
+        List<Song> copy = new ArrayList<>(source.size());
+        for (Song song : source) {
+            copy.add(new Song(song));
+        }
+        return copy;
+    }
+
+    private static class Cached<T> {
+        final T value;
+        final long loadedAt = System.currentTimeMillis();
+
+        Cached(T value) {
+            this.value = value;
+        }
+
+        boolean isExpired() {
+            return System.currentTimeMillis() - loadedAt > TTL_MILLIS;
+        }
+    }
+}
@@ -1,12 +1,19 @@
 package main.java.dao;
 
 import main.java.util.DatabaseConfig;
+import main.java.util.SqlUtils;
 import main.java.model.Song;
 import main.java.dao.ActivityLogDAO;
 
 import java.sql.*;
 import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 public class SongDAO {
 
@@ -34,6 +41,11 @@ public class SongDAO {
                 ResultSet generatedKeys = pstmt.getGeneratedKeys();
                 if (generatedKeys.next()) {
                     int songId = generatedKeys.getInt(1);
+                    SongCatalogCache.getInstance().onSongAdded();
+                    Song indexed = new Song(song);
+                    indexed.setSongId(songId);
+                    SongSearchIndex.getInstance().putSong(indexed);
+                    DataChangeEvents.publish(DataChangeEvents.Type.SONG, 0, songId, 0, 1);
                     System.out.println("Song added successfully with ID: " + songId);
 
                     // ✨ ADD ACTIVITY LOGGING HERE
@@ -69,6 +81,13 @@ public class SongDAO {
      * @return Song object or null if not found
      */
     public Song getSongById(int songId) {
+        SongCatalogCache cache = SongCatalogCache.getInstance();
+        Song cached = cache.getSong(songId);
+        if (cached != null) {
+            return cached;
+        }
+
+        long generation = cache.getGeneration();
         String query = "SELECT * FROM songs WHERE song_id = ?";
 
         try (Connection conn = DatabaseConfig.getConnection();
@@ -78,7 +97,9 @@ public class SongDAO {
             ResultSet rs = pstmt.executeQuery();
 
             if (rs.next()) {
-                return extractSongFromResultSet(rs);
+                Song song = extractSongFromResultSet(rs);
+                cache.putSong(song, generation);
+                return song;
             }
 
         } catch (SQLException e) {
@@ -92,9 +113,17 @@ public class SongDAO {
     /**
      * Get all songs from database
      * 
-     * @return List of all songs
+     * @return List of all songs, shared with the catalog cache: do not modify
+     *         the list or its songs
      */
     public List<Song> getAllSongs() {
+        SongCatalogCache cache = SongCatalogCache.getInstance();
+        List<Song> cached = cache.getAllSongs();
+        if (cached != null) {
+            return cached;
+        }
+
+        long generation = cache.getGeneration();
         List<Song> songs = new ArrayList<>();
         String query = "SELECT * FROM songs ORDER BY title";
 
@@ -105,6 +134,7 @@ public class SongDAO {
             while (rs.next()) {
                 songs.add(extractSongFromResultSet(rs));
             }
+            cache.putAllSongs(songs, generation);
 
         } catch (SQLException e) {
             System.err.println("Error fetching all songs: " + e.getMessage());
@@ -114,6 +144,109 @@ public class SongDAO {
         return songs;
     }
 
+    /**
+     * Get one page of songs in title order, starting after a given song
+     * (keyset pagination on title and song ID, so deep pages cost the same
+     * as the first and songs with the same title are neither skipped nor
+     * repeated)
+     * 
+     * @param after Last song of the previous page, null for the first
+     * @param limit Page size
+     * @return Up to limit songs following after
+     * @throws SQLException If the page could not be read, so a failed page is
+     *                      not mistaken for the end of the list
+     */
+    public List<Song> getSongsPage(Song after, int limit) throws SQLException {
+        List<Song> songs = new ArrayList<>(limit);
+        String query = "SELECT * FROM songs "
+                + (after != null ? "WHERE (title, song_id) > (?, ?) " : "")
+                + "ORDER BY title, song_id LIMIT ?";
+
+        try (Connection conn = DatabaseConfig.getConnection();
+                PreparedStatement pstmt = conn.prepareStatement(query)) {
+
+            int index = 1;
+            if (after != null) {
+                pstmt.setString(index++, after.getTitle());
+                pstmt.setInt(index++, after.getSongId());
+            }
+            pstmt.setInt(index, limit);
+            ResultSet rs = pstmt.executeQuery();
+
+            while (rs.next()) {
+                songs.add(extractSongFromResultSet(rs));
+            }
+        }
+
+        return songs;
+    }
+
+    /**
+     * Get songs by ID in one query
+     * 
+     * @param songIds Song IDs
+     * @return List of songs, in the order of the given IDs (missing IDs are
+     *         skipped)
+     */
+    public List<Song> getSongsByIds(Collection<Integer> songIds) {
+        SongCatalogCache cache = SongCatalogCache.getInstance();
+        long generation = cache.getGeneration();
+        Map<Integer, Song> found = new HashMap<>();
+        List<Integer> missing = new ArrayList<>();
+
+        for (Integer songId : songIds) {
+            Song cached = cache.getSong(songId);
+            if (cached != null) {
+                found.put(songId, cached);
+            } else {
+                missing.add(songId);
+            }
+        }
+
+        for (List<Integer> chunk : SqlUtils.chunk(missing)) {
+            String query = "SELECT * FROM songs WHERE song_id IN (" + SqlUtils.placeholders(chunk.size()) + ")";
+
+            try (Connection conn = DatabaseConfig.getConnection();
+                    PreparedStatement pstmt = conn.prepareStatement(query)) {
+
+                for (int i = 0; i < chunk.size(); i++) {
+                    pstmt.setInt(i + 1, chunk.get(i));
+                }
+                ResultSet rs = pstmt.executeQuery();
+
+                while (rs.next()) {
+                    Song song = extractSongFromResultSet(rs);
+                    cache.putSong(song, generation);
+                    found.put(song.getSongId(), song);
+                }
+
+            } catch (SQLException e) {
+                System.err.println("Error fetching songs by IDs: " + e.getMessage());
+                e.printStackTrace();
+            }
+        }
+
+        List<Song> songs = new ArrayList<>(found.size());
+        for (Integer songId : songIds) {
+            Song song = found.get(songId);
+            if (song != null) {
+                songs.add(song);
+            }
+        }
+        return songs;
+    }
+
+    /**
+     * Get songs for a bitset of song IDs from the tag index
+     */
+    private List<Song> getSongsByIds(BitSet songIds) {
+        List<Integer> ids = new ArrayList<>(songIds.cardinality());
+        for (int id = songIds.nextSetBit(0); id >= 0; id = songIds.nextSetBit(id + 1)) {
+            ids.add(id);
+        }
+        return ids.isEmpty() ? new ArrayList<>() : getSongsByIds(ids);
+    }
+
     /**
      * Get songs by mood and activity (YOUR USP #1!)
      * 
@@ -122,6 +255,11 @@ public class SongDAO {
      * @return List of matching songs
      */
     public List<Song> getSongsByMoodAndActivity(int moodId, int activityId) {
+        SongTagIndex tagIndex = SongTagIndex.getInstance();
+        if (tagIndex.ensureLoaded()) {
+            return getSongsByIds(tagIndex.getSongsByMoodAndActivity(moodId, activityId));
+        }
+
         List<Song> songs = new ArrayList<>();
         String query = "SELECT DISTINCT s.* FROM songs s " +
                 "INNER JOIN song_mood sm ON s.song_id = sm.song_id " +
@@ -155,12 +293,17 @@ public class SongDAO {
      * @return List of songs for target mood
      */
     public List<Song> getSongsForReverseMood(int currentMoodId, int activityId) {
+        SongTagIndex tagIndex = SongTagIndex.getInstance();
+        if (tagIndex.ensureLoaded()) {
+            return getSongsByIds(tagIndex.getSongsForReverseMood(currentMoodId, activityId));
+        }
+
         List<Song> songs = new ArrayList<>();
         String query = "SELECT DISTINCT s.* FROM songs s " +
                 "INNER JOIN song_mood sm ON s.song_id = sm.song_id " +
                 "INNER JOIN song_activity sa ON s.song_id = sa.song_id " +
                 "INNER JOIN reverse_mood_mapping rmm ON sm.mood_id = rmm.target_mood_id " +
-                "WHERE rmm.current_mood_id = ? AND sa.activity_id = ?";
+                "WHERE rmm.current_mood_id = ? AND sa.activity_id = ? AND rmm.direct_shift";
 
         try (Connection conn = DatabaseConfig.getConnection();
                 PreparedStatement pstmt = conn.prepareStatement(query)) {
@@ -181,6 +324,93 @@ public class SongDAO {
         return songs;
     }
 
+    /**
+     * Get mood-shifting songs with their fallbacks in one step: songs for
+     * the reverse moods of the current mood, or else songs for the first
+     * fallback mood that has any, all matching the activity. Served from
+     * the tag index, or with a single query when the index is not loaded.
+     * 
+     * @param currentMoodName   Current mood name
+     * @param activityName      Activity name
+     * @param fallbackMoodNames Moods to try in order when no reverse mood
+     *                          matches
+     * @return List of songs (empty if nothing matches or the mood or
+     *         activity does not exist)
+     */
+    public List<Song> getMoodShiftingSongs(String currentMoodName, String activityName,
+            List<String> fallbackMoodNames) {
+        SongTagIndex tagIndex = SongTagIndex.getInstance();
+        MoodActivityDictionary dictionary = MoodActivityDictionary.getInstance();
+        if (tagIndex.ensureLoaded() && dictionary.ensureLoaded()) {
+            int currentMoodId = dictionary.getMoodId(currentMoodName);
+            int activityId = dictionary.getActivityId(activityName);
+            if (currentMoodId < 0 || activityId < 0) {
+                return new ArrayList<>();
+            }
+            List<Integer> fallbackMoodIds = new ArrayList<>();
+            for (String moodName : fallbackMoodNames) {
+                int moodId = dictionary.getMoodId(moodName);
+                if (moodId >= 0) {
+                    fallbackMoodIds.add(moodId);
+                }
+            }
+            return getSongsByIds(tagIndex.getMoodShiftingSongs(currentMoodId, activityId, fallbackMoodIds));
+        }
+
+        // One branch per step, numbered in fallback order; only the rows of
+        // the first step that has any are kept
+        StringBuilder query = new StringBuilder("SELECT s.*, 0 AS step FROM songs s " +
+                "INNER JOIN song_mood sm ON s.song_id = sm.song_id " +
+                "INNER JOIN reverse_mood_mapping rmm ON sm.mood_id = rmm.target_mood_id " +
+                "INNER JOIN moods cm ON rmm.current_mood_id = cm.mood_id " +
+                "INNER JOIN song_activity sa ON s.song_id = sa.song_id " +
+                "INNER JOIN activities a ON sa.activity_id = a.activity_id " +
+                "WHERE cm.mood_name = ? AND a.activity_name = ? AND rmm.direct_shift");
+        for (int i = 0; i < fallbackMoodNames.size(); i++) {
+            query.append(" UNION ALL SELECT s.*, ").append(i + 1).append(" AS step FROM songs s " +
+                    "INNER JOIN song_mood sm ON s.song_id = sm.song_id " +
+                    "INNER JOIN moods m ON sm.mood_id = m.mood_id " +
+                    "INNER JOIN song_activity sa ON s.song_id = sa.song_id " +
+                    "INNER JOIN activities a ON sa.activity_id = a.activity_id " +
+                    "WHERE m.mood_name = ? AND a.activity_name = ?");
+        }
+        query.append(" ORDER BY step, song_id");
+
+        List<Song> songs = new ArrayList<>();
+        try (Connection conn = DatabaseConfig.getConnection();
+                PreparedStatement pstmt = conn.prepareStatement(query.toString())) {
+
+            pstmt.setString(1, currentMoodName);
+            pstmt.setString(2, activityName);
+            for (int i = 0; i < fallbackMoodNames.size(); i++) {
+                pstmt.setString(3 + 2 * i, fallbackMoodNames.get(i));
+                pstmt.setString(4 + 2 * i, activityName);
+            }
+            ResultSet rs = pstmt.executeQuery();
+
+            int firstStep = -1;
+            Set<Integer> seen = new HashSet<>();
+            while (rs.next()) {
+                int step = rs.getInt("step");
+                if (firstStep < 0) {
+                    firstStep = step;
+                } else if (step != firstStep) {
+                    break;
+                }
+                // A song can match several reverse moods
+                if (seen.add(rs.getInt("song_id"))) {
+                    songs.add(extractSongFromResultSet(rs));
+                }
+            }
+
+        } catch (SQLException e) {
+            System.err.println("Error fetching mood-shifting songs: " + e.getMessage());
+            e.printStackTrace();
+        }
+
+        return songs;
+    }
+
     /**
      * Get songs by mood only
      * 
@@ -188,6 +418,11 @@ public class SongDAO {
      * @return List of matching songs
      */
     public List<Song> getSongsByMood(int moodId) {
+        SongTagIndex tagIndex = SongTagIndex.getInstance();
+        if (tagIndex.ensureLoaded()) {
+            return getSongsByIds(tagIndex.getSongsByMood(moodId));
+        }
+
         List<Song> songs = new ArrayList<>();
         String query = "SELECT DISTINCT s.* FROM songs s " +
                 "INNER JOIN song_mood sm ON s.song_id = sm.song_id " +
@@ -218,6 +453,11 @@ public class SongDAO {
      * @return List of matching songs
      */
     public List<Song> getSongsByActivity(int activityId) {
+        SongTagIndex tagIndex = SongTagIndex.getInstance();
+        if (tagIndex.ensureLoaded()) {
+            return getSongsByIds(tagIndex.getSongsByActivity(activityId));
+        }
+
         List<Song> songs = new ArrayList<>();
         String query = "SELECT DISTINCT s.* FROM songs s " +
                 "INNER JOIN song_activity sa ON s.song_id = sa.song_id " +
@@ -262,6 +502,9 @@ public class SongDAO {
 
             int rowsAffected = pstmt.executeUpdate();
             if (rowsAffected > 0) {
+                SongCatalogCache.getInstance().onSongChanged(song.getSongId());
+                SongSearchIndex.getInstance().putSong(song);
+                DataChangeEvents.publish(DataChangeEvents.Type.SONG, 0, song.getSongId(), 0, 0);
                 System.out.println("Song updated successfully!");
                 return true;
             }
@@ -290,6 +533,11 @@ public class SongDAO {
             int rowsAffected = pstmt.executeUpdate();
 
             if (rowsAffected > 0) {
+                SongTagIndex.getInstance().removeSong(songId);
+                SongAggregates.getInstance().removeSong(songId);
+                SongCatalogCache.getInstance().onSongChanged(songId);
+                SongSearchIndex.getInstance().removeSong(songId);
+                DataChangeEvents.publish(DataChangeEvents.Type.SONG, 0, songId, 0, -1);
                 System.out.println("Song deleted successfully!");
                 return true;
             }
@@ -318,6 +566,8 @@ public class SongDAO {
             pstmt.setInt(1, songId);
             pstmt.setInt(2, moodId);
             pstmt.executeUpdate();
+            SongTagIndex.getInstance().addMood(songId, moodId);
+            DataChangeEvents.publish(DataChangeEvents.Type.MOOD_TAG, 0, songId, moodId, 1);
             System.out.println("Mood tag added successfully!");
             return true;
 
@@ -349,6 +599,8 @@ public class SongDAO {
             pstmt.setInt(1, songId);
             pstmt.setInt(2, activityId);
             pstmt.executeUpdate();
+            SongTagIndex.getInstance().addActivity(songId, activityId);
+            DataChangeEvents.publish(DataChangeEvents.Type.ACTIVITY_TAG, 0, songId, activityId, 1);
             System.out.println("Activity tag added successfully!");
             return true;
 
@@ -380,6 +632,10 @@ public class SongDAO {
             pstmt.setInt(1, songId);
             pstmt.setInt(2, moodId);
             int rowsAffected = pstmt.executeUpdate();
+            SongTagIndex.getInstance().removeMood(songId, moodId);
+            if (rowsAffected > 0) {
+                DataChangeEvents.publish(DataChangeEvents.Type.MOOD_TAG, 0, songId, moodId, -1);
+            }
             return rowsAffected > 0;
 
         } catch (SQLException e) {
@@ -406,6 +662,10 @@ public class SongDAO {
             pstmt.setInt(1, songId);
             pstmt.setInt(2, activityId);
             int rowsAffected = pstmt.executeUpdate();
+            SongTagIndex.getInstance().removeActivity(songId, activityId);
+            if (rowsAffected > 0) {
+                DataChangeEvents.publish(DataChangeEvents.Type.ACTIVITY_TAG, 0, songId, activityId, -1);
+            }
             return rowsAffected > 0;
 
         } catch (SQLException e) {
@@ -417,14 +677,31 @@ public class SongDAO {
     }
 
     /**
-     * Search songs by title or artist
+     * Search songs by title, artist or genre. Prefix, infix and near-miss
+     * spellings all match, best matches first.
      * 
      * @param searchTerm Search keyword
      * @return List of matching songs
      */
     public List<Song> searchSongs(String searchTerm) {
+        return searchSongs(searchTerm, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Search songs by title, artist or genre, keeping only the best matches
+     * 
+     * @param searchTerm Search keyword
+     * @param limit      Maximum number of songs
+     * @return List of matching songs, best first
+     */
+    public List<Song> searchSongs(String searchTerm, int limit) {
+        SongSearchIndex searchIndex = SongSearchIndex.getInstance();
+        if (searchIndex.ensureLoaded()) {
+            return getSongsByIds(searchIndex.search(searchTerm, limit));
+        }
+
         List<Song> songs = new ArrayList<>();
-        String query = "SELECT * FROM songs WHERE title LIKE ? OR artist LIKE ? ORDER BY title";
+        String query = "SELECT * FROM songs WHERE title LIKE ? OR artist LIKE ? ORDER BY title LIMIT ?";
 
         try (Connection conn = DatabaseConfig.getConnection();
                 PreparedStatement pstmt = conn.prepareStatement(query)) {
@@ -432,6 +709,7 @@ public class SongDAO {
             String search = "%" + searchTerm + "%";
             pstmt.setString(1, search);
             pstmt.setString(2, search);
+            pstmt.setInt(3, limit);
             ResultSet rs = pstmt.executeQuery();
 
             while (rs.next()) {
@@ -566,6 +844,11 @@ public class SongDAO {
      * @return Number of songs
      */
     public int getSongCountByMood(int moodId) {
+        SongTagIndex tagIndex = SongTagIndex.getInstance();
+        if (tagIndex.ensureLoaded()) {
+            return tagIndex.getSongsByMood(moodId).cardinality();
+        }
+
         String query = "SELECT COUNT(DISTINCT song_id) as count FROM song_mood WHERE mood_id = ?";
 
         try (Connection conn = DatabaseConfig.getConnection();
@@ -593,6 +876,11 @@ public class SongDAO {
      * @return Number of songs
      */
     public int getSongCountByActivity(int activityId) {
+        SongTagIndex tagIndex = SongTagIndex.getInstance();
+        if (tagIndex.ensureLoaded()) {
+            return tagIndex.getSongsByActivity(activityId).cardinality();
+        }
+
         String query = "SELECT COUNT(DISTINCT song_id) as count FROM song_activity WHERE activity_id = ?";
 
         try (Connection conn = DatabaseConfig.getConnection();
@@ -0,0 +1,546 @@
+package main.java.dao;
+
+import main.java.model.Song;
+import main.java.util.DatabaseConfig;
+
+import java.sql.*;
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory inverted index over song titles, artists and genres, so search
+ * does not need a LIKE '%term%' scan of the songs table.
+ *
+ * Three structures are kept per catalog:
+ * - a sorted token dictionary (word to songs) for whole-word and prefix
+ * matches,
+ * - trigrams of each full field for infix/phrase matches, verified against
+ * the field text,
+ * - padded trigrams of each dictionary word, used to find candidates for
+ * typo-tolerant matching by edit distance.
+ *
+ * Results are ranked: exact and prefix matches before infix matches before
+ * typo matches, title before artist before genre. The index is built from
+ * the catalog on first use, updated by the SongDAO writes and reloaded
+ * periodically like SongTagIndex.
+ */
+public class SongSearchIndex {
+
+    private static final long RELOAD_INTERVAL_MILLIS = 5 * 60_000;
+
+    private static final int TITLE = 0;
+    private static final int ARTIST = 1;
+    private static final int GENRE = 2;
+    private static final double[] FIELD_WEIGHTS = { 1.0, 0.9, 0.5 };
+
+    // Word matches rank below any phrase match in the same field
+    private static final double TOKEN_MATCH_FACTOR = 0.7;
+
+    private static final SongSearchIndex INSTANCE = new SongSearchIndex();
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private Index index = new Index();
+    private final ReloadSchedule schedule = new ReloadSchedule(RELOAD_INTERVAL_MILLIS);
+    private volatile long writeCount = 0;
+
+    private SongSearchIndex() {
+    }
+
+    public static SongSearchIndex getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Make sure the index is loaded and not older than the reload interval
+     *
+     * @return true if the index can answer queries
+     */
+    public boolean ensureLoaded() {
+        return schedule.ensureLoaded(this::reload);
+    }
+
+    /**
+     * Rebuild the index from the songs table
+     */
+    public synchronized void reload() {
+        long writesBefore = writeCount;
+        Index fresh = new Index();
+
+        try (Connection conn = DatabaseConfig.getConnection();
+                Statement stmt = conn.createStatement();
+                ResultSet rs = stmt.executeQuery(
+                        "SELECT song_id, title, artist, genre FROM songs ORDER BY song_id")) {
+
+            while (rs.next()) {
+                fresh.add(new Document(rs.getInt("song_id"), rs.getString("title"),
+                        rs.getString("artist"), rs.getString("genre")));
+            }
+
+        } catch (SQLException e) {
+            System.err.println("Error loading song search index: " + e.getMessage());
+            e.printStackTrace();
+            schedule.loadFailed();
+            return;
+        }
+
+        lock.writeLock().lock();
+        try {
+            index = fresh;
+            // A song write that raced with the load may be missing, so load again on the next call
+            schedule.loadSucceeded(writeCount == writesBefore);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Drop the index so the next search reloads it
+     */
+    public void invalidate() {
+        schedule.invalidate();
+    }
+
+    /**
+     * Add or replace a song in the index
+     */
+    public void putSong(Song song) {
+        Document document = new Document(song.getSongId(), song.getTitle(), song.getArtist(), song.getGenre());
+        lock.writeLock().lock();
+        try {
+            writeCount++;
+            index.remove(song.getSongId());
+            index.add(document);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void removeSong(int songId) {
+        lock.writeLock().lock();
+        try {
+            writeCount++;
+            index.remove(songId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Find songs whose title, artist or genre match the search term. An
+     * empty term matches every song, ordered by title.
+     *
+     * @param searchTerm Search text as typed
+     * @param limit      Maximum number of results
+     * @return Song IDs, best match first
+     */
+    public List<Integer> search(String searchTerm, int limit) {
+        String phrase = normalize(searchTerm);
+
+        lock.readLock().lock();
+        try {
+            Map<Integer, Double> scores = new HashMap<>();
+
+            if (phrase.isEmpty()) {
+                for (Integer songId : index.documents.keySet()) {
+                    scores.put(songId, 0.0);
+                }
+            } else {
+                scorePhraseMatches(phrase, scores);
+                scoreTokenMatches(phrase.split(" "), scores);
+            }
+
+            return rank(scores, limit);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return index.documents.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Songs containing the whole phrase in a field, the same set the old
+     * LIKE '%term%' query returned (plus genre)
+     */
+    private void scorePhraseMatches(String phrase, Map<Integer, Double> scores) {
+        BitSet candidates = new BitSet();
+
+        if (phrase.length() < 3) {
+            // Too short for a trigram; it cannot contain a space either, so
+            // any field containing it has a word containing it
+            for (Map.Entry<String, Postings> entry : index.tokens.entrySet()) {
+                if (entry.getKey().contains(phrase)) {
+                    entry.getValue().addTo(candidates);
+                }
+            }
+        } else {
+            boolean first = true;
+            for (String trigram : trigrams(phrase)) {
+                Postings postings = index.fieldTrigrams.get(trigram);
+                if (postings == null) {
+                    return;
+                }
+                if (first) {
+                    postings.addTo(candidates);
+                    first = false;
+                } else {
+                    BitSet next = new BitSet();
+                    postings.addTo(next);
+                    candidates.and(next);
+                }
+            }
+        }
+
+        for (int songId = candidates.nextSetBit(0); songId >= 0; songId = candidates.nextSetBit(songId + 1)) {
+            Document document = index.documents.get(songId);
+            double best = 0.0;
+            for (int field = TITLE; field <= GENRE; field++) {
+                best = Math.max(best, FIELD_WEIGHTS[field] * phraseQuality(document.fields[field], phrase));
+            }
+            if (best > 0) {
+                scores.merge(songId, best, Math::max);
+            }
+        }
+    }
+
+    /**
+     * Songs where every query word matches some word of the song, by
+     * prefix or within a small edit distance, in any field
+     */
+    private void scoreTokenMatches(String[] queryTokens, Map<Integer, Double> scores) {
+        List<Map<String, Double>> expansions = new ArrayList<>(queryTokens.length);
+        BitSet candidates = null;
+
+        for (String queryToken : queryTokens) {
+            Map<String, Double> expansion = expand(queryToken);
+            if (expansion.isEmpty()) {
+                return;
+            }
+            expansions.add(expansion);
+
+            BitSet matches = new BitSet();
+            for (String token : expansion.keySet()) {
+                index.tokens.get(token).addTo(matches);
+            }
+            if (candidates == null) {
+                candidates = matches;
+            } else {
+                candidates.and(matches);
+            }
+        }
+
+        for (int songId = candidates.nextSetBit(0); songId >= 0; songId = candidates.nextSetBit(songId + 1)) {
+            Document document = index.documents.get(songId);
+            double total = 0.0;
+            for (Map<String, Double> expansion : expansions) {
+                double best = 0.0;
+                for (int field = TITLE; field <= GENRE; field++) {
+                    for (String token : document.tokens[field]) {
+                        Double quality = expansion.get(token);
+                        if (quality != null) {
+                            best = Math.max(best, FIELD_WEIGHTS[field] * quality);
+                        }
+                    }
+                }
+                total += best;
+            }
+            scores.merge(songId, TOKEN_MATCH_FACTOR * total / expansions.size(), Math::max);
+        }
+    }
+
+    /**
+     * Dictionary words a query word can stand for, with a match quality:
+     * 1.0 for the same word, 0.8 for a word it is a prefix of, less for a
+     * word one or two edits away
+     */
+    private Map<String, Double> expand(String queryToken) {
+        Map<String, Double> expansion = new HashMap<>();
+
+        for (String token : index.tokens.subMap(queryToken, true, queryToken + Character.MAX_VALUE, true).keySet()) {
+            expansion.put(token, token.length() == queryToken.length() ? 1.0 : 0.8);
+        }
+
+        if (queryToken.length() >= 4) {
+            int maxDistance = queryToken.length() >= 8 ? 2 : 1;
+            Set<String> seen = new HashSet<>();
+            for (String trigram : paddedTrigrams(queryToken)) {
+                for (String token : index.tokenTrigrams.getOrDefault(trigram, Set.of())) {
+                    if (expansion.containsKey(token) || !seen.add(token)
+                            || Math.abs(token.length() - queryToken.length()) > maxDistance) {
+                        continue;
+                    }
+                    int distance = editDistance(queryToken, token, maxDistance);
+                    if (distance <= maxDistance) {
+                        expansion.put(token, 0.6 - 0.15 * distance);
+                    }
+                }
+            }
+        }
+
+        return expansion;
+    }
+
+    private List<Integer> rank(Map<Integer, Double> scores, int limit) {
+        List<Map.Entry<Integer, Double>> ranked = new ArrayList<>(scores.entrySet());
+        ranked.sort((a, b) -> {
+            int byScore = Double.compare(b.getValue(), a.getValue());
+            if (byScore != 0) {
+                return byScore;
+            }
+            int byTitle = index.documents.get(a.getKey()).fields[TITLE]
+                    .compareTo(index.documents.get(b.getKey()).fields[TITLE]);
+            return byTitle != 0 ? byTitle : Integer.compare(a.getKey(), b.getKey());
+        });
+
+        List<Integer> songIds = new ArrayList<>(Math.min(ranked.size(), limit));
+        for (int i = 0; i < ranked.size() && i < limit; i++) {
+            songIds.add(ranked.get(i).getKey());
+        }
+        return songIds;
+    }
+
+    private static double phraseQuality(String field, String phrase) {
+        if (field.equals(phrase)) {
+            return 1.0;
+        }
+        if (field.startsWith(phrase)) {
+            return 0.9;
+        }
+        if (field.contains(" " + phrase)) {
+            return 0.8;
+        }
+        return field.contains(phrase) ? 0.6 : 0.0;
+    }
+
+    /**
+     * Lower case, accents removed, punctuation folded to single spaces
+     */
+    static String normalize(String text) {
+        if (text == null) {
+            return "";
+        }
+        String folded = Normalizer.normalize(text, Normalizer.Form.NFD)
+                .replaceAll("\\p{M}", "")
+                .toLowerCase();
+        StringBuilder sb = new StringBuilder(folded.length());
+        boolean space = true;
+        for (int i = 0; i < folded.length(); i++) {
+            char c = folded.charAt(i);
+            if (Character.isLetterOrDigit(c)) {
+                sb.append(c);
+                space = false;
+            } else if (!space) {
+                sb.append(' ');
+                space = true;
+            }
+        }
+        int end = sb.length();
+        if (end > 0 && sb.charAt(end - 1) == ' ') {
+            sb.setLength(end - 1);
+        }
+        return sb.toString();
+    }
+
+    private static Set<String> trigrams(String text) {
+        Set<String> trigrams = new LinkedHashSet<>();
+        for (int i = 0; i + 3 <= text.length(); i++) {
+            trigrams.add(text.substring(i, i + 3));
+        }
+        return trigrams;
+    }
+
+    /**
+     * Trigrams of a word with start and end markers, so short words with a
+     * typo still share a trigram with the right word
+     */
+    private static Set<String> paddedTrigrams(String token) {
+        return trigrams("\u0001" + token + "\u0002");
+    }
+
+    /**
+     * Levenshtein distance, giving up once it exceeds maxDistance
+     *
+     * @return The distance, or maxDistance + 1 if it is larger
+     */
+    private static int editDistance(String a, String b, int maxDistance) {
+        int[] previous = new int[b.length() + 1];
+        int[] current = new int[b.length() + 1];
+        for (int j = 0; j <= b.length(); j++) {
+            previous[j] = j;
+        }
+
+        for (int i = 1; i <= a.length(); i++) {
+            current[0] = i;
+            int rowMin = current[0];
+            for (int j = 1; j <= b.length(); j++) {
+                int cost = a.charAt(i - 1) == b.charAt(j - 1) ? 0 : 1;
+                current[j] = Math.min(Math.min(current[j - 1] + 1, previous[j] + 1), previous[j - 1] + cost);
+                rowMin = Math.min(rowMin, current[j]);
+            }
+            if (rowMin > maxDistance) {
+                return maxDistance + 1;
+            }
+            int[] swap = previous;
+            previous = current;
+            current = swap;
+        }
+
+        return Math.min(previous[b.length()], maxDistance + 1);
+    }
+
+    /**
+     * One song's normalized fields and their words
+     */
+    private static class Document {
+        final int songId;
+        final String[] fields = new String[3];
+        final String[][] tokens = new String[3][];
+
+        Document(int songId, String title, String artist, String genre) {
+            this.songId = songId;
+            fields[TITLE] = normalize(title);
+            fields[ARTIST] = normalize(artist);
+            fields[GENRE] = normalize(genre);
+            for (int field = TITLE; field <= GENRE; field++) {
+                tokens[field] = fields[field].isEmpty() ? new String[0] : fields[field].split(" ");
+            }
+        }
+
+        Set<String> allTokens() {
+            Set<String> all = new HashSet<>();
+            for (String[] fieldTokens : tokens) {
+                all.addAll(Arrays.asList(fieldTokens));
+            }
+            return all;
+        }
+
+        Set<String> allTrigrams() {
+            Set<String> all = new HashSet<>();
+            for (String field : fields) {
+                all.addAll(trigrams(field));
+            }
+            return all;
+        }
+    }
+
+    /**
+     * The index structures, rebuilt as a whole on reload
+     */
+    private static class Index {
+        final Map<Integer, Document> documents = new HashMap<>();
+        final TreeMap<String, Postings> tokens = new TreeMap<>();
+        final Map<String, Postings> fieldTrigrams = new HashMap<>();
+        final Map<String, Set<String>> tokenTrigrams = new HashMap<>();
+
+        void add(Document document) {
+            documents.put(document.songId, document);
+
+            for (String token : document.allTokens()) {
+                Postings postings = tokens.get(token);
+                if (postings == null) {
+                    postings = new Postings();
+                    tokens.put(token, postings);
+                    for (String trigram : paddedTrigrams(token)) {
+                        tokenTrigrams.computeIfAbsent(trigram, k -> new HashSet<>()).add(token);
+                    }
+                }
+                postings.add(document.songId);
+            }
+
+            for (String trigram : document.allTrigrams()) {
+                fieldTrigrams.computeIfAbsent(trigram, k -> new Postings()).add(document.songId);
+            }
+        }
+
+        void remove(int songId) {
+            Document document = documents.remove(songId);
+            if (document == null) {
+                return;
+            }
+
+            for (String token : document.allTokens()) {
+                Postings postings = tokens.get(token);
+                if (postings != null && postings.remove(songId) && postings.isEmpty()) {
+                    tokens.remove(token);
+                    for (String trigram : paddedTrigrams(token)) {
+                        Set<String> words = tokenTrigrams.get(trigram);
+                        if (words != null) {
+                            words.remove(token);
+                            if (words.isEmpty()) {
+                                tokenTrigrams.remove(trigram);
+                            }
+                        }
+                    }
+                }
+            }
+
+            for (String trigram : document.allTrigrams()) {
+                Postings postings = fieldTrigrams.get(trigram);
+                if (postings != null && postings.remove(songId) && postings.isEmpty()) {
+                    fieldTrigrams.remove(trigram);
+                }
+            }
+        }
+    }
+
+    /**
+     * Sorted array of song IDs. Most postings are short, and songs are
+     * loaded in ID order so the initial build only appends.
+     */
+    private static class Postings {
+        private int[] songIds = new int[2];
+        private int size = 0;
+
+        void add(int songId) {
+            int i = size > 0 && songIds[size - 1] < songId ? -(size + 1)
+                    : Arrays.binarySearch(songIds, 0, size, songId);
+            if (i >= 0) {
+                return;
+            }
+            i = -(i + 1);
+            if (size == songIds.length) {
+                songIds = Arrays.copyOf(songIds, size * 2);
+            }
+            System.arraycopy(songIds, i, songIds, i + 1, size - i);
+            songIds[i] = songId;
+            size++;
+        }
+
+        boolean remove(int songId) {
+            int i = Arrays.binarySearch(songIds, 0, size, songId);
+            if (i < 0) {
+                return false;
+            }
+            System.arraycopy(songIds, i + 1, songIds, i, size - i - 1);
+            size--;
+            return true;
+        }
+
+        boolean isEmpty() {
+            return size == 0;
+        }
+
+        void addTo(BitSet bits) {
+            for (int i = 0; i < size; i++) {
+                bits.set(songIds[i]);
+            }
+        }
+    }
+}
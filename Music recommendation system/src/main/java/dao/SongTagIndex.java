@@ -0,0 +1,290 @@
+package main.java.dao;
+
+import main.java.util.DatabaseConfig;
+
+import java.sql.*;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory index of the song_mood, song_activity and reverse_mood_mapping
+ * tables. Each mood and activity maps to a bitset of song IDs, so
+ * mood/activity matching is a bitwise AND instead of a multi-way JOIN.
+ * Only the direct mood shifts are kept; trajectory-only steps belong to
+ * MoodGraph.
+ *
+ * The index is shared by every SongDAO, loaded on first use and updated
+ * incrementally by the tag write methods. It is also reloaded periodically
+ * so tags edited from another client eventually show up.
+ */
+public class SongTagIndex {
+
+    private static final long RELOAD_INTERVAL_MILLIS = 5 * 60_000;
+
+    private static final SongTagIndex INSTANCE = new SongTagIndex();
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<Integer, BitSet> songsByMood = new HashMap<>();
+    private final Map<Integer, BitSet> songsByActivity = new HashMap<>();
+    private final Map<Integer, List<Integer>> reverseMoods = new HashMap<>();
+    private final ReloadSchedule schedule = new ReloadSchedule(RELOAD_INTERVAL_MILLIS);
+    private volatile long writeCount = 0;
+
+    private SongTagIndex() {
+    }
+
+    public static SongTagIndex getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Make sure the index is loaded and not older than the reload interval
+     *
+     * @return true if the index can answer queries
+     */
+    public boolean ensureLoaded() {
+        return schedule.ensureLoaded(this::reload);
+    }
+
+    /**
+     * Rebuild the index from the database
+     */
+    public synchronized void reload() {
+        long writesBefore = writeCount;
+        Map<Integer, BitSet> moods = new HashMap<>();
+        Map<Integer, BitSet> activities = new HashMap<>();
+        Map<Integer, List<Integer>> reverse = new HashMap<>();
+
+        try (Connection conn = DatabaseConfig.getConnection();
+                Statement stmt = conn.createStatement()) {
+
+            try (ResultSet rs = stmt.executeQuery("SELECT song_id, mood_id FROM song_mood")) {
+                while (rs.next()) {
+                    moods.computeIfAbsent(rs.getInt("mood_id"), k -> new BitSet()).set(rs.getInt("song_id"));
+                }
+            }
+
+            try (ResultSet rs = stmt.executeQuery("SELECT song_id, activity_id FROM song_activity")) {
+                while (rs.next()) {
+                    activities.computeIfAbsent(rs.getInt("activity_id"), k -> new BitSet())
+                            .set(rs.getInt("song_id"));
+                }
+            }
+
+            try (ResultSet rs = stmt.executeQuery(
+                    "SELECT current_mood_id, target_mood_id FROM reverse_mood_mapping WHERE direct_shift " +
+                            "ORDER BY current_mood_id, weight, target_mood_id")) {
+                while (rs.next()) {
+                    reverse.computeIfAbsent(rs.getInt("current_mood_id"), k -> new ArrayList<>())
+                            .add(rs.getInt("target_mood_id"));
+                }
+            }
+
+        } catch (SQLException e) {
+            System.err.println("Error loading song tag index: " + e.getMessage());
+            e.printStackTrace();
+            schedule.loadFailed();
+            return;
+        }
+
+        lock.writeLock().lock();
+        try {
+            songsByMood.clear();
+            songsByMood.putAll(moods);
+            songsByActivity.clear();
+            songsByActivity.putAll(activities);
+            reverseMoods.clear();
+            reverseMoods.putAll(reverse);
+            // A tag write that raced with the load may be missing, so load again on the next call
+            schedule.loadSucceeded(writeCount == writesBefore);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Drop the index so the next query reloads it
+     */
+    public void invalidate() {
+        schedule.invalidate();
+    }
+
+    /**
+     * Songs tagged with both the mood and the activity
+     *
+     * @param moodId     Mood ID
+     * @param activityId Activity ID
+     * @return New bitset of song IDs
+     */
+    public BitSet getSongsByMoodAndActivity(int moodId, int activityId) {
+        lock.readLock().lock();
+        try {
+            BitSet result = copyOf(songsByMood.get(moodId));
+            result.and(emptyIfNull(songsByActivity.get(activityId)));
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Songs tagged with any target mood of the current mood, and with the
+     * activity
+     *
+     * @param currentMoodId Current mood ID
+     * @param activityId    Activity ID
+     * @return New bitset of song IDs
+     */
+    public BitSet getSongsForReverseMood(int currentMoodId, int activityId) {
+        lock.readLock().lock();
+        try {
+            BitSet result = new BitSet();
+            for (int targetMoodId : reverseMoods.getOrDefault(currentMoodId, List.of())) {
+                result.or(emptyIfNull(songsByMood.get(targetMoodId)));
+            }
+            result.and(emptyIfNull(songsByActivity.get(activityId)));
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Mood-shifting songs for the activity: those tagged with any target
+     * mood of the current mood, or else those of the first fallback mood
+     * that has any
+     *
+     * @param currentMoodId   Current mood ID
+     * @param activityId      Activity ID
+     * @param fallbackMoodIds Moods to try in order when no target mood
+     *                        matches
+     * @return New bitset of song IDs
+     */
+    public BitSet getMoodShiftingSongs(int currentMoodId, int activityId, List<Integer> fallbackMoodIds) {
+        lock.readLock().lock();
+        try {
+            BitSet activitySongs = emptyIfNull(songsByActivity.get(activityId));
+            BitSet result = new BitSet();
+            for (int targetMoodId : reverseMoods.getOrDefault(currentMoodId, List.of())) {
+                result.or(emptyIfNull(songsByMood.get(targetMoodId)));
+            }
+            result.and(activitySongs);
+
+            for (int i = 0; i < fallbackMoodIds.size() && result.isEmpty(); i++) {
+                result.or(emptyIfNull(songsByMood.get(fallbackMoodIds.get(i))));
+                result.and(activitySongs);
+            }
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public BitSet getSongsByMood(int moodId) {
+        lock.readLock().lock();
+        try {
+            return copyOf(songsByMood.get(moodId));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public BitSet getSongsByActivity(int activityId) {
+        lock.readLock().lock();
+        try {
+            return copyOf(songsByActivity.get(activityId));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Target moods for a current mood, gentlest shift (lowest weight) first
+     */
+    public List<Integer> getReverseMoods(int currentMoodId) {
+        lock.readLock().lock();
+        try {
+            return new ArrayList<>(reverseMoods.getOrDefault(currentMoodId, List.of()));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public void addMood(int songId, int moodId) {
+        lock.writeLock().lock();
+        try {
+            writeCount++;
+            songsByMood.computeIfAbsent(moodId, k -> new BitSet()).set(songId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void removeMood(int songId, int moodId) {
+        lock.writeLock().lock();
+        try {
+            writeCount++;
+            BitSet songs = songsByMood.get(moodId);
+            if (songs != null) {
+                songs.clear(songId);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void addActivity(int songId, int activityId) {
+        lock.writeLock().lock();
+        try {
+            writeCount++;
+            songsByActivity.computeIfAbsent(activityId, k -> new BitSet()).set(songId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void removeActivity(int songId, int activityId) {
+        lock.writeLock().lock();
+        try {
+            writeCount++;
+            BitSet songs = songsByActivity.get(activityId);
+            if (songs != null) {
+                songs.clear(songId);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Remove every tag of a deleted song (the FK cascade does the same in
+     * the database)
+     */
+    public void removeSong(int songId) {
+        lock.writeLock().lock();
+        try {
+            writeCount++;
+            for (BitSet songs : songsByMood.values()) {
+                songs.clear(songId);
+            }
+            for (BitSet songs : songsByActivity.values()) {
+                songs.clear(songId);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private static BitSet copyOf(BitSet songs) {
+        return songs != null ? (BitSet) songs.clone() : new BitSet();
+    }
+
+    private static BitSet emptyIfNull(BitSet songs) {
+        return songs != null ? songs : new BitSet();
+    }
+}
@@ -0,0 +1,58 @@
+package main.java.dao;
+
+import main.java.util.DatabaseConfig;
+
+import java.sql.*;
+
+public class StatisticsDAO {
+
+    public static final String SONGS = "songs";
+    public static final String RATINGS = "ratings";
+    public static final String FAVORITES = "favorites";
+    public static final String SONGS_BY_MOOD = "mood";
+    public static final String SONGS_BY_ACTIVITY = "activity";
+
+    /**
+     * Receives counts as they are read
+     */
+    public interface CountVisitor {
+        /**
+         * @param metric One of the metric constants
+         * @param itemId Mood or activity ID for the per-tag metrics, otherwise 0
+         * @param count  Row count
+         */
+        void visit(String metric, int itemId, int count);
+    }
+
+    /**
+     * Count songs, ratings, favorites and songs per mood and per activity
+     * in one grouped query
+     *
+     * @param visitor Receives every count
+     * @return true if all counts were read
+     */
+    public boolean forEachCount(CountVisitor visitor) {
+        String query = "SELECT '" + SONGS + "' AS metric, 0 AS item_id, COUNT(*) AS total FROM songs " +
+                "UNION ALL SELECT '" + RATINGS + "', 0, COUNT(*) FROM user_ratings " +
+                "UNION ALL SELECT '" + FAVORITES + "', 0, COUNT(*) FROM user_favorites " +
+                "UNION ALL SELECT '" + SONGS_BY_MOOD + "', mood_id, COUNT(*) FROM song_mood GROUP BY mood_id " +
+                "UNION ALL SELECT '" + SONGS_BY_ACTIVITY + "', activity_id, COUNT(*) FROM song_activity " +
+                "GROUP BY activity_id";
+
+        try (Connection conn = DatabaseConfig.getConnection();
+                Statement stmt = conn.createStatement();
+                ResultSet rs = stmt.executeQuery(query)) {
+
+            while (rs.next()) {
+                visitor.visit(rs.getString("metric"), rs.getInt("item_id"), rs.getInt("total"));
+            }
+            return true;
+
+        } catch (SQLException e) {
+            System.err.println("Error counting statistics: " + e.getMessage());
+            e.printStackTrace();
+        }
+
+        return false;
+    }
+}
@@ -1,6 +1,8 @@
 package main.java.dao;
 
 import main.java.util.DatabaseConfig;
+import main.java.util.SqlUtils;
+import main.java.model.CandidateSignals;
 import main.java.model.Song;
 
 import java.sql.*;
@@ -25,6 +27,8 @@ public class UserFavoriteDAO {
             pstmt.setInt(1, userId);
             pstmt.setInt(2, songId);
             pstmt.executeUpdate();
+            SongAggregates.getInstance().applyFavoriteChange(songId, 1);
+            DataChangeEvents.publish(DataChangeEvents.Type.FAVORITE, userId, songId, 0, 1);
             System.out.println("✓ Song added to favorites!");
             return true;
 
@@ -58,6 +62,8 @@ public class UserFavoriteDAO {
 
             int rowsAffected = pstmt.executeUpdate();
             if (rowsAffected > 0) {
+                SongAggregates.getInstance().applyFavoriteChange(songId, -1);
+                DataChangeEvents.publish(DataChangeEvents.Type.FAVORITE, userId, songId, 0, -1);
                 System.out.println("✓ Song removed from favorites!");
                 return true;
             }
@@ -144,6 +150,11 @@ public class UserFavoriteDAO {
      * @return Number of users who favorited this song
      */
     public int getFavoriteCount(int songId) {
+        SongAggregates aggregates = SongAggregates.getInstance();
+        if (aggregates.ensureLoaded()) {
+            return aggregates.getFavoriteCount(songId);
+        }
+
         String query = "SELECT COUNT(*) FROM user_favorites WHERE song_id = ?";
 
         try (Connection conn = DatabaseConfig.getConnection();
@@ -164,6 +175,59 @@ public class UserFavoriteDAO {
         return 0;
     }
 
+    /**
+     * Fill in favorite status and favorite count of a whole candidate list,
+     * by candidate position. Counts come from SongAggregates when loaded, so
+     * only the user's own favorites are queried.
+     * 
+     * @param userId  User ID
+     * @param signals Candidate signals, updated in place
+     */
+    public void addFavoriteSignals(int userId, CandidateSignals signals) {
+        SongAggregates aggregates = SongAggregates.getInstance();
+        boolean countsLoaded = aggregates.ensureLoaded();
+        if (countsLoaded) {
+            for (int i = 0; i < signals.size(); i++) {
+                signals.setFavoriteCount(i, aggregates.getFavoriteCount(signals.getSongId(i)));
+            }
+        }
+
+        int[] songIds = signals.getSongIds();
+        for (int from = 0; from < songIds.length; from += SqlUtils.MAX_IN_LIST_SIZE) {
+            int count = Math.min(SqlUtils.MAX_IN_LIST_SIZE, songIds.length - from);
+            String query = countsLoaded
+                    ? "SELECT song_id, 1 as user_favorite FROM user_favorites " +
+                            "WHERE user_id = ? AND song_id IN (" + SqlUtils.placeholders(count) + ")"
+                    : "SELECT song_id, COUNT(*) as favorite_count, " +
+                            "SUM(CASE WHEN user_id = ? THEN 1 ELSE 0 END) as user_favorite " +
+                            "FROM user_favorites " +
+                            "WHERE song_id IN (" + SqlUtils.placeholders(count) + ") " +
+                            "GROUP BY song_id";
+
+            try (Connection conn = DatabaseConfig.getConnection();
+                    PreparedStatement pstmt = conn.prepareStatement(query)) {
+
+                pstmt.setInt(1, userId);
+                for (int i = 0; i < count; i++) {
+                    pstmt.setInt(i + 2, songIds[from + i]);
+                }
+                ResultSet rs = pstmt.executeQuery();
+
+                while (rs.next()) {
+                    int position = signals.positionOf(rs.getInt("song_id"));
+                    if (!countsLoaded) {
+                        signals.setFavoriteCount(position, rs.getInt("favorite_count"));
+                    }
+                    signals.setFavorite(position, rs.getInt("user_favorite") > 0);
+                }
+
+            } catch (SQLException e) {
+                System.err.println("Error fetching favorite signals: " + e.getMessage());
+                e.printStackTrace();
+            }
+        }
+    }
+
     /**
      * Get user's favorite count
      * 
@@ -198,6 +262,11 @@ public class UserFavoriteDAO {
      * @return List of most favorited songs
      */
     public List<Song> getMostFavoritedSongs(int limit) {
+        SongAggregates aggregates = SongAggregates.getInstance();
+        if (aggregates.ensureLoaded()) {
+            return new SongDAO().getSongsByIds(aggregates.getMostFavoritedSongIds(limit));
+        }
+
         List<Song> songs = new ArrayList<>();
         String query = "SELECT s.*, COUNT(uf.user_id) as favorite_count " +
                 "FROM songs s " +
@@ -287,7 +356,10 @@ public class UserFavoriteDAO {
                 PreparedStatement pstmt = conn.prepareStatement(query)) {
 
             pstmt.setInt(1, userId);
-            pstmt.executeUpdate();
+            int rowsAffected = pstmt.executeUpdate();
+            // Every song this user had favorited lost one, recount on next read
+            SongAggregates.getInstance().invalidate();
+            DataChangeEvents.publish(DataChangeEvents.Type.FAVORITE, userId, 0, 0, -rowsAffected);
             System.out.println("✓ All favorites cleared!");
             return true;
 
@@ -1,6 +1,8 @@
 package main.java.dao;
 
 import main.java.util.DatabaseConfig;
+import main.java.util.SqlUtils;
+import main.java.model.CandidateSignals;
 import main.java.model.Song;
 
 import java.sql.*;
@@ -26,17 +28,27 @@ public class UserRatingDAO {
         String query = "INSERT INTO user_ratings (user_id, song_id, rating) VALUES (?, ?, ?) " +
                 "ON DUPLICATE KEY UPDATE rating = ?, rated_at = CURRENT_TIMESTAMP";
 
-        try (Connection conn = DatabaseConfig.getConnection();
-                PreparedStatement pstmt = conn.prepareStatement(query)) {
-
-            pstmt.setInt(1, userId);
-            pstmt.setInt(2, songId);
-            pstmt.setInt(3, rating);
-            pstmt.setInt(4, rating); // for UPDATE part
-
-            pstmt.executeUpdate();
-            System.out.println("✓ Rating saved successfully!");
-            return true;
+        try (Connection conn = DatabaseConfig.getConnection()) {
+            conn.setAutoCommit(false);
+            try (PreparedStatement pstmt = conn.prepareStatement(query)) {
+                // Lock the row so the aggregate sees the rating this write replaced
+                int oldRating = lockRating(conn, userId, songId);
+
+                pstmt.setInt(1, userId);
+                pstmt.setInt(2, songId);
+                pstmt.setInt(3, rating);
+                pstmt.setInt(4, rating); // for UPDATE part
+
+                pstmt.executeUpdate();
+                conn.commit();
+                SongAggregates.getInstance().applyRatingChange(songId, oldRating, rating);
+                DataChangeEvents.publish(DataChangeEvents.Type.RATING, userId, songId, 0, oldRating < 0 ? 1 : 0);
+                System.out.println("✓ Rating saved successfully!");
+                return true;
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            }
 
         } catch (SQLException e) {
             System.err.println("Error saving rating: " + e.getMessage());
@@ -82,6 +94,11 @@ public class UserRatingDAO {
      * @return Average rating or 0.0 if no ratings
      */
     public double getAverageSongRating(int songId) {
+        SongAggregates aggregates = SongAggregates.getInstance();
+        if (aggregates.ensureLoaded()) {
+            return aggregates.getAverageRating(songId);
+        }
+
         String query = "SELECT AVG(rating) as avg_rating FROM user_ratings WHERE song_id = ?";
 
         try (Connection conn = DatabaseConfig.getConnection();
@@ -102,6 +119,77 @@ public class UserRatingDAO {
         return 0.0;
     }
 
+    /**
+     * Fill in the rating signals of a whole candidate list: the user's own
+     * rating and the average rating, by candidate position. Averages come
+     * from SongAggregates when loaded, so only the user's own ratings are
+     * queried.
+     * 
+     * @param userId  User ID
+     * @param signals Candidate signals, updated in place
+     */
+    public void addRatingSignals(int userId, CandidateSignals signals) {
+        SongAggregates aggregates = SongAggregates.getInstance();
+        boolean averagesLoaded = aggregates.ensureLoaded();
+        if (averagesLoaded) {
+            for (int i = 0; i < signals.size(); i++) {
+                signals.setAverageRating(i, aggregates.getAverageRating(signals.getSongId(i)));
+            }
+        }
+
+        int[] songIds = signals.getSongIds();
+        for (int from = 0; from < songIds.length; from += SqlUtils.MAX_IN_LIST_SIZE) {
+            int count = Math.min(SqlUtils.MAX_IN_LIST_SIZE, songIds.length - from);
+            String query = averagesLoaded
+                    ? "SELECT song_id, rating AS user_rating FROM user_ratings " +
+                            "WHERE user_id = ? AND song_id IN (" + SqlUtils.placeholders(count) + ")"
+                    : "SELECT song_id, AVG(rating) as avg_rating, " +
+                            "MAX(CASE WHEN user_id = ? THEN rating END) as user_rating " +
+                            "FROM user_ratings " +
+                            "WHERE song_id IN (" + SqlUtils.placeholders(count) + ") " +
+                            "GROUP BY song_id";
+
+            try (Connection conn = DatabaseConfig.getConnection();
+                    PreparedStatement pstmt = conn.prepareStatement(query)) {
+
+                pstmt.setInt(1, userId);
+                for (int i = 0; i < count; i++) {
+                    pstmt.setInt(i + 2, songIds[from + i]);
+                }
+                ResultSet rs = pstmt.executeQuery();
+
+                while (rs.next()) {
+                    int position = signals.positionOf(rs.getInt("song_id"));
+                    if (!averagesLoaded) {
+                        signals.setAverageRating(position, rs.getDouble("avg_rating"));
+                    }
+                    int userRating = rs.getInt("user_rating");
+                    signals.setUserRating(position, rs.wasNull() ? -1 : userRating);
+                }
+
+            } catch (SQLException e) {
+                System.err.println("Error fetching rating signals: " + e.getMessage());
+                e.printStackTrace();
+            }
+        }
+    }
+
+    /**
+     * Read and lock a user's current rating inside the caller's transaction
+     * 
+     * @return Rating value (1-5) or -1 if not rated
+     */
+    private int lockRating(Connection conn, int userId, int songId) throws SQLException {
+        String query = "SELECT rating FROM user_ratings WHERE user_id = ? AND song_id = ? FOR UPDATE";
+
+        try (PreparedStatement pstmt = conn.prepareStatement(query)) {
+            pstmt.setInt(1, userId);
+            pstmt.setInt(2, songId);
+            ResultSet rs = pstmt.executeQuery();
+            return rs.next() ? rs.getInt("rating") : -1;
+        }
+    }
+
     /**
      * Get top rated songs
      * 
@@ -109,6 +197,11 @@ public class UserRatingDAO {
      * @return List of top rated songs
      */
     public List<Song> getTopRatedSongs(int limit) {
+        SongAggregates aggregates = SongAggregates.getInstance();
+        if (aggregates.ensureLoaded()) {
+            return new SongDAO().getSongsByIds(aggregates.getTopRatedSongIds(limit));
+        }
+
         List<Song> songs = new ArrayList<>();
         String query = "SELECT s.*, AVG(ur.rating) as avg_rating, COUNT(ur.rating_id) as rating_count " +
                 "FROM songs s " +
@@ -191,14 +284,25 @@ public class UserRatingDAO {
     public boolean deleteRating(int userId, int songId) {
         String query = "DELETE FROM user_ratings WHERE user_id = ? AND song_id = ?";
 
-        try (Connection conn = DatabaseConfig.getConnection();
-                PreparedStatement pstmt = conn.prepareStatement(query)) {
-
-            pstmt.setInt(1, userId);
-            pstmt.setInt(2, songId);
-
-            int rowsAffected = pstmt.executeUpdate();
-            return rowsAffected > 0;
+        try (Connection conn = DatabaseConfig.getConnection()) {
+            conn.setAutoCommit(false);
+            try (PreparedStatement pstmt = conn.prepareStatement(query)) {
+                int oldRating = lockRating(conn, userId, songId);
+
+                pstmt.setInt(1, userId);
+                pstmt.setInt(2, songId);
+
+                int rowsAffected = pstmt.executeUpdate();
+                conn.commit();
+                if (rowsAffected > 0) {
+                    SongAggregates.getInstance().applyRatingChange(songId, oldRating, -1);
+                    DataChangeEvents.publish(DataChangeEvents.Type.RATING, userId, songId, 0, -1);
+                }
+                return rowsAffected > 0;
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            }
 
         } catch (SQLException e) {
             System.err.println("Error deleting rating: " + e.getMessage());
@@ -215,6 +319,11 @@ public class UserRatingDAO {
      * @return Number of ratings
      */
     public int getRatingCount(int songId) {
+        SongAggregates aggregates = SongAggregates.getInstance();
+        if (aggregates.ensureLoaded()) {
+            return aggregates.getRatingCount(songId);
+        }
+
         String query = "SELECT COUNT(*) as count FROM user_ratings WHERE song_id = ?";
 
         try (Connection conn = DatabaseConfig.getConnection();
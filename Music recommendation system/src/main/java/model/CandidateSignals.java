@@ -0,0 +1,89 @@
+package main.java.model;
+
+import main.java.util.IntIntMap;
+
+/**
+ * The inputs to the personalization score for a whole candidate list, as
+ * parallel primitive arrays indexed by candidate position. Ranking a list
+ * this way allocates a few arrays instead of one signals object and boxed
+ * key per song.
+ *
+ * Song IDs are expected to be distinct; a repeated ID only gets signals at
+ * its last position.
+ */
+public class CandidateSignals {
+    private final int[] songIds;
+    private final IntIntMap positions;
+    private final int[] userRatings;
+    private final double[] averageRatings;
+    private final boolean[] favorites;
+    private final int[] favoriteCounts;
+
+    public CandidateSignals(int[] songIds) {
+        this.songIds = songIds;
+        this.positions = new IntIntMap(songIds.length);
+        this.userRatings = new int[songIds.length];
+        this.averageRatings = new double[songIds.length];
+        this.favorites = new boolean[songIds.length];
+        this.favoriteCounts = new int[songIds.length];
+        for (int i = 0; i < songIds.length; i++) {
+            positions.put(songIds[i], i);
+            userRatings[i] = -1;
+        }
+    }
+
+    public int size() {
+        return songIds.length;
+    }
+
+    public int getSongId(int position) {
+        return songIds[position];
+    }
+
+    /**
+     * @return Song IDs in candidate order (shared, not to be modified)
+     */
+    public int[] getSongIds() {
+        return songIds;
+    }
+
+    /**
+     * @return Position of a song in the candidate list, or -1
+     */
+    public int positionOf(int songId) {
+        return positions.get(songId, -1);
+    }
+
+    /** The user's own rating (1-5), or -1 if not rated */
+    public int getUserRating(int position) {
+        return userRatings[position];
+    }
+
+    public void setUserRating(int position, int userRating) {
+        userRatings[position] = userRating;
+    }
+
+    public double getAverageRating(int position) {
+        return averageRatings[position];
+    }
+
+    public void setAverageRating(int position, double averageRating) {
+        averageRatings[position] = averageRating;
+    }
+
+    public boolean isFavorite(int position) {
+        return favorites[position];
+    }
+
+    public void setFavorite(int position, boolean favorite) {
+        favorites[position] = favorite;
+    }
+
+    public int getFavoriteCount(int position) {
+        return favoriteCounts[position];
+    }
+
+    public void setFavoriteCount(int position, int favoriteCount) {
+        favoriteCounts[position] = favoriteCount;
+    }
+}
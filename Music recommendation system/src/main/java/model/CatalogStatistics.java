@@ -0,0 +1,89 @@
+package main.java.model;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Figures for the admin statistics tab. The per-mood and per-activity song
+ * counts are keyed by name, in name order.
+ */
+public class CatalogStatistics {
+    private int songCount;
+    private int moodCount;
+    private int activityCount;
+    private int ratingCount;
+    private int favoriteCount;
+    private Map<String, Integer> songsPerMood = new LinkedHashMap<>();
+    private Map<String, Integer> songsPerActivity = new LinkedHashMap<>();
+
+    public CatalogStatistics() {
+    }
+
+    // Getters and Setters
+    public int getSongCount() {
+        return songCount;
+    }
+
+    public void setSongCount(int songCount) {
+        this.songCount = songCount;
+    }
+
+    public int getMoodCount() {
+        return moodCount;
+    }
+
+    public void setMoodCount(int moodCount) {
+        this.moodCount = moodCount;
+    }
+
+    public int getActivityCount() {
+        return activityCount;
+    }
+
+    public void setActivityCount(int activityCount) {
+        this.activityCount = activityCount;
+    }
+
+    public int getRatingCount() {
+        return ratingCount;
+    }
+
+    public void setRatingCount(int ratingCount) {
+        this.ratingCount = ratingCount;
+    }
+
+    public int getFavoriteCount() {
+        return favoriteCount;
+    }
+
+    public void setFavoriteCount(int favoriteCount) {
+        this.favoriteCount = favoriteCount;
+    }
+
+    public Map<String, Integer> getSongsPerMood() {
+        return songsPerMood;
+    }
+
+    public void setSongsPerMood(Map<String, Integer> songsPerMood) {
+        this.songsPerMood = songsPerMood;
+    }
+
+    public Map<String, Integer> getSongsPerActivity() {
+        return songsPerActivity;
+    }
+
+    public void setSongsPerActivity(Map<String, Integer> songsPerActivity) {
+        this.songsPerActivity = songsPerActivity;
+    }
+
+    @Override
+    public String toString() {
+        return "CatalogStatistics{" +
+                "songCount=" + songCount +
+                ", moodCount=" + moodCount +
+                ", activityCount=" + activityCount +
+                ", ratingCount=" + ratingCount +
+                ", favoriteCount=" + favoriteCount +
+                '}';
+    }
+}
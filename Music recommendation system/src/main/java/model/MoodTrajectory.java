@@ -0,0 +1,46 @@
+package main.java.model;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A gradual mood-shift playlist: the moods passed through, from the
+ * current to the target mood, and the songs for them in play order.
+ */
+public class MoodTrajectory {
+    private List<String> moodNames = new ArrayList<>();
+    private List<Song> songs = new ArrayList<>();
+
+    public MoodTrajectory() {
+    }
+
+    public MoodTrajectory(List<String> moodNames, List<Song> songs) {
+        this.moodNames = moodNames;
+        this.songs = songs;
+    }
+
+    // Getters and Setters
+    public List<String> getMoodNames() {
+        return moodNames;
+    }
+
+    public void setMoodNames(List<String> moodNames) {
+        this.moodNames = moodNames;
+    }
+
+    public List<Song> getSongs() {
+        return songs;
+    }
+
+    public void setSongs(List<Song> songs) {
+        this.songs = songs;
+    }
+
+    @Override
+    public String toString() {
+        return "MoodTrajectory{" +
+                "moodNames=" + moodNames +
+                ", songs=" + songs.size() +
+                '}';
+    }
+}
@@ -22,6 +22,16 @@ public class Song {
         this.filePath = filePath;
     }
 
+    public Song(Song other) {
+        this.songId = other.songId;
+        this.title = other.title;
+        this.artist = other.artist;
+        this.genre = other.genre;
+        this.duration = other.duration;
+        this.filePath = other.filePath;
+        this.dateAdded = other.dateAdded;
+    }
+
     // Getters and Setters
     public int getSongId() {
         return songId;
@@ -0,0 +1,249 @@
+package main.java.service;
+
+import main.java.util.IntIntMap;
+import main.java.util.TopK;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.FloatBuffer;
+import java.nio.IntBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Latent-factor model trained by AlsTrainer, served from a memory-mapped
+ * file.
+ *
+ * File layout (big-endian): magic "ALS1", factor count, user count, song
+ * count, global mean rating, then user IDs, per-user rating counts, song
+ * IDs, user factors (users x factors) and song factors (songs x factors).
+ * Only the ID arrays are copied onto the heap (into lookup maps); the
+ * factors are read straight from the mapping, so the model costs page
+ * cache rather than heap. The file is mapped in one piece, so it can be at
+ * most 2 GB.
+ */
+public class AlsModel {
+
+    private static final int MAGIC = 0x414C5331; // "ALS1"
+    private static final int HEADER_BYTES = 20;
+
+    private final int factors;
+    private final float globalMean;
+    private final int[] songIds;
+    private final IntIntMap userIndex;
+    private final IntIntMap songIndex;
+    private final IntBuffer userRatingCounts;
+    private final FloatBuffer userFactors;
+    private final FloatBuffer songFactors;
+
+    private AlsModel(int factors, float globalMean, int[] songIds, IntIntMap userIndex, IntIntMap songIndex,
+            IntBuffer userRatingCounts, FloatBuffer userFactors, FloatBuffer songFactors) {
+        this.factors = factors;
+        this.globalMean = globalMean;
+        this.songIds = songIds;
+        this.userIndex = userIndex;
+        this.songIndex = songIndex;
+        this.userRatingCounts = userRatingCounts;
+        this.userFactors = userFactors;
+        this.songFactors = songFactors;
+    }
+
+    /**
+     * Write a model file. The file is written under a temporary name and
+     * moved into place, so a server mapping the old file never sees a
+     * partial one.
+     */
+    public static void write(Path file, int factors, float globalMean, int[] userIds, int[] userRatingCounts,
+            float[] userFactors, int[] songIds, float[] songFactors) throws IOException {
+        Path temporary = file.resolveSibling(file.getFileName() + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(
+                new BufferedOutputStream(Files.newOutputStream(temporary), 1 << 16))) {
+            out.writeInt(MAGIC);
+            out.writeInt(factors);
+            out.writeInt(userIds.length);
+            out.writeInt(songIds.length);
+            out.writeFloat(globalMean);
+            for (int userId : userIds) {
+                out.writeInt(userId);
+            }
+            for (int count : userRatingCounts) {
+                out.writeInt(count);
+            }
+            for (int songId : songIds) {
+                out.writeInt(songId);
+            }
+            for (float value : userFactors) {
+                out.writeFloat(value);
+            }
+            for (float value : songFactors) {
+                out.writeFloat(value);
+            }
+        }
+        Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Map a model file
+     *
+     * @throws IOException if the file is missing, not a model file or too
+     *                     large to map
+     */
+    public static AlsModel load(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            if (channel.size() > Integer.MAX_VALUE) {
+                throw new IOException("ALS model file is " + channel.size() / (1024 * 1024)
+                        + " MB, more than the 2 GB a single mapping can hold: " + file);
+            }
+            // The mapping stays valid after the channel is closed
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            if (buffer.capacity() < HEADER_BYTES || buffer.getInt(0) != MAGIC) {
+                throw new IOException("Not an ALS model file: " + file);
+            }
+            int factors = buffer.getInt(4);
+            int userCount = buffer.getInt(8);
+            int songCount = buffer.getInt(12);
+            float globalMean = buffer.getFloat(16);
+
+            if (factors <= 0 || userCount < 0 || songCount < 0) {
+                throw new IOException("Corrupt ALS model header: " + file);
+            }
+
+            long expected = HEADER_BYTES + 4L * (2L * userCount + songCount)
+                    + 4L * factors * ((long) userCount + songCount);
+            if (buffer.capacity() != expected) {
+                throw new IOException("Truncated ALS model file: " + file);
+            }
+
+            // Every length is below the file size, so fits in an int once
+            // the size matched
+            long offset = HEADER_BYTES;
+            IntBuffer userIds = slice(buffer, offset, 4L * userCount).asIntBuffer();
+            offset += 4L * userCount;
+            IntBuffer ratingCounts = slice(buffer, offset, 4L * userCount).asIntBuffer();
+            offset += 4L * userCount;
+            IntBuffer songIdBuffer = slice(buffer, offset, 4L * songCount).asIntBuffer();
+            offset += 4L * songCount;
+            FloatBuffer userFactors = slice(buffer, offset, 4L * userCount * factors).asFloatBuffer();
+            offset += 4L * userCount * factors;
+            FloatBuffer songFactors = slice(buffer, offset, 4L * songCount * factors).asFloatBuffer();
+
+            IntIntMap userIndex = new IntIntMap(userCount);
+            for (int u = 0; u < userCount; u++) {
+                userIndex.put(userIds.get(u), u);
+            }
+            int[] songIds = new int[songCount];
+            IntIntMap songIndex = new IntIntMap(songCount);
+            for (int s = 0; s < songCount; s++) {
+                songIds[s] = songIdBuffer.get(s);
+                songIndex.put(songIds[s], s);
+            }
+
+            return new AlsModel(factors, globalMean, songIds, userIndex, songIndex, ratingCounts, userFactors,
+                    songFactors);
+        }
+    }
+
+    /**
+     * Number of ratings the user had when the model was trained, 0 if the
+     * user is not in the model
+     */
+    public int getUserRatingCount(int userId) {
+        int user = userIndex.get(userId, -1);
+        return user < 0 ? 0 : userRatingCounts.get(user);
+    }
+
+    /**
+     * Predicted ratings for some songs
+     *
+     * @param userId  User ID
+     * @param songIds Song IDs
+     * @return Predicted rating per song, in the order given (NaN for songs
+     *         not in the model), or null if the user is not in the model
+     */
+    public float[] predict(int userId, int[] songIds) {
+        int user = userIndex.get(userId, -1);
+        if (user < 0) {
+            return null;
+        }
+        float[] userVector = userVector(user);
+        float[] predictions = new float[songIds.length];
+        for (int i = 0; i < predictions.length; i++) {
+            int song = songIndex.get(songIds[i], -1);
+            predictions[i] = song < 0 ? Float.NaN
+                    : Math.max(1.0f, Math.min(5.0f, globalMean + dot(userVector, song)));
+        }
+        return predictions;
+    }
+
+    /**
+     * Best scored songs for a user over the whole catalog
+     *
+     * @param userId  User ID
+     * @param limit   Maximum number of songs
+     * @param exclude Song IDs to leave out (already rated, for example)
+     * @return Song IDs, best first (empty if the user is not in the model)
+     */
+    public List<Integer> recommend(int userId, int limit, Set<Integer> exclude) {
+        List<Integer> recommended = new ArrayList<>();
+        int user = userIndex.get(userId, -1);
+        if (user < 0) {
+            return recommended;
+        }
+
+        float[] userVector = userVector(user);
+        TopK best = new TopK(limit);
+        for (int song = 0; song < songIds.length; song++) {
+            if (!exclude.contains(songIds[song])) {
+                best.offer(song, dot(userVector, song));
+            }
+        }
+        for (int song : best.sortedIds()) {
+            recommended.add(songIds[song]);
+        }
+        return recommended;
+    }
+
+    public int getFactorCount() {
+        return factors;
+    }
+
+    public int getUserCount() {
+        return userIndex.size();
+    }
+
+    public int getSongCount() {
+        return songIds.length;
+    }
+
+    private float[] userVector(int user) {
+        float[] vector = new float[factors];
+        for (int f = 0; f < factors; f++) {
+            vector[f] = userFactors.get(user * factors + f);
+        }
+        return vector;
+    }
+
+    private float dot(float[] userVector, int song) {
+        int base = song * factors;
+        float sum = 0;
+        for (int f = 0; f < factors; f++) {
+            sum += userVector[f] * songFactors.get(base + f);
+        }
+        return sum;
+    }
+
+    private static ByteBuffer slice(MappedByteBuffer buffer, long offset, long length) {
+        ByteBuffer duplicate = buffer.duplicate();
+        duplicate.position(Math.toIntExact(offset)).limit(Math.toIntExact(offset + length));
+        return duplicate.slice();
+    }
+}
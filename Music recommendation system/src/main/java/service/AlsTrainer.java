@@ -0,0 +1,299 @@
+package main.java.service;
+
+import main.java.dao.InteractionDAO;
+import main.java.util.DatabaseConfig;
+import main.java.util.IntIntMap;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.stream.IntStream;
+
+/**
+ * Offline trainer for the latent-factor model: alternating least squares
+ * over user_ratings, written to a model file that AlsModel maps.
+ *
+ * Ratings are streamed from the database into primitive arrays, arranged
+ * as per-user and per-song CSR rows, and factored around the global mean
+ * rating. Each half-step solves every user (or song) independently, so the
+ * rows are spread over all cores.
+ *
+ * Usage: AlsTrainer, with system properties als.modelFile (default
+ * als_model.bin), als.factors (32), als.iterations (10), als.lambda (0.1)
+ * and als.seed (42).
+ */
+public class AlsTrainer {
+
+    private final int factors;
+    private final int iterations;
+    private final float lambda;
+    private final long seed;
+
+    public AlsTrainer(int factors, int iterations, float lambda, long seed) {
+        this.factors = factors;
+        this.iterations = iterations;
+        this.lambda = lambda;
+        this.seed = seed;
+    }
+
+    public static void main(String[] args) throws IOException {
+        Path modelFile = Paths.get(System.getProperty("als.modelFile", "als_model.bin"));
+        AlsTrainer trainer = new AlsTrainer(
+                Integer.getInteger("als.factors", 32),
+                Integer.getInteger("als.iterations", 10),
+                Float.parseFloat(System.getProperty("als.lambda", "0.1")),
+                Long.getLong("als.seed", 42L));
+
+        System.out.println("=== ALS Training ===");
+        long start = System.nanoTime();
+        Ratings ratings = new Ratings();
+        if (!new InteractionDAO().forEachRating(ratings::add)) {
+            System.err.println("Could not read user_ratings");
+            return;
+        }
+        System.out.printf("Read %,d ratings in %.1f s%n", ratings.size, (System.nanoTime() - start) / 1e9);
+
+        trainer.train(ratings, modelFile);
+        DatabaseConfig.closeConnection();
+    }
+
+    /**
+     * Ratings collected for training
+     */
+    public static class Ratings {
+        private int[] users = new int[1024];
+        private int[] songs = new int[1024];
+        private float[] values = new float[1024];
+        private int size = 0;
+
+        public void add(int userId, int songId, float rating) {
+            if (size == users.length) {
+                int capacity = size + (size >> 1);
+                users = Arrays.copyOf(users, capacity);
+                songs = Arrays.copyOf(songs, capacity);
+                values = Arrays.copyOf(values, capacity);
+            }
+            users[size] = userId;
+            songs[size] = songId;
+            values[size] = rating;
+            size++;
+        }
+
+        public int size() {
+            return size;
+        }
+    }
+
+    /**
+     * Factor the ratings and write the model file
+     *
+     * @return Training RMSE after the last iteration
+     */
+    public double train(Ratings ratings, Path modelFile) throws IOException {
+        long start = System.nanoTime();
+
+        // Dense indexes
+        IntIntMap userIndex = new IntIntMap(1024);
+        IntIntMap songIndex = new IntIntMap(1024);
+        int[] userIds = new int[1024];
+        int[] songIds = new int[1024];
+        int userCount = 0;
+        int songCount = 0;
+        int[] userOf = new int[ratings.size];
+        int[] songOf = new int[ratings.size];
+        double sum = 0;
+        for (int r = 0; r < ratings.size; r++) {
+            int user = userIndex.get(ratings.users[r], -1);
+            if (user < 0) {
+                user = userCount++;
+                userIndex.put(ratings.users[r], user);
+                if (user == userIds.length) {
+                    userIds = Arrays.copyOf(userIds, user * 2);
+                }
+                userIds[user] = ratings.users[r];
+            }
+            int song = songIndex.get(ratings.songs[r], -1);
+            if (song < 0) {
+                song = songCount++;
+                songIndex.put(ratings.songs[r], song);
+                if (song == songIds.length) {
+                    songIds = Arrays.copyOf(songIds, song * 2);
+                }
+                songIds[song] = ratings.songs[r];
+            }
+            userOf[r] = user;
+            songOf[r] = song;
+            sum += ratings.values[r];
+        }
+        userIds = Arrays.copyOf(userIds, userCount);
+        songIds = Arrays.copyOf(songIds, songCount);
+        float mean = ratings.size > 0 ? (float) (sum / ratings.size) : 0;
+
+        // Rows of residuals around the mean, by user and by song
+        Csr byUser = Csr.build(userCount, userOf, songOf, ratings.values, ratings.size, mean);
+        Csr bySong = Csr.build(songCount, songOf, userOf, ratings.values, ratings.size, mean);
+        userOf = null;
+        songOf = null;
+
+        float[] userFactors = new float[Math.multiplyExact(userCount, factors)];
+        float[] songFactors = new float[Math.multiplyExact(songCount, factors)];
+        Random random = new Random(seed);
+        for (int i = 0; i < songFactors.length; i++) {
+            songFactors[i] = (float) (random.nextGaussian() * 0.1);
+        }
+
+        double rmse = 0;
+        for (int iteration = 1; iteration <= iterations; iteration++) {
+            solveAll(byUser, songFactors, userFactors);
+            solveAll(bySong, userFactors, songFactors);
+            rmse = rmse(byUser, userFactors, songFactors);
+            System.out.printf("Iteration %2d: RMSE %.4f%n", iteration, rmse);
+        }
+
+        int[] userRatingCounts = new int[userCount];
+        for (int u = 0; u < userCount; u++) {
+            userRatingCounts[u] = byUser.offsets[u + 1] - byUser.offsets[u];
+        }
+        AlsModel.write(modelFile, factors, mean, userIds, userRatingCounts, userFactors, songIds, songFactors);
+
+        System.out.printf("Trained %d factors for %,d users and %,d songs in %.1f s, written to %s%n",
+                factors, userCount, songCount, (System.nanoTime() - start) / 1e9, modelFile.toAbsolutePath());
+        return rmse;
+    }
+
+    /**
+     * Solve every row's factors with the other side held fixed:
+     * x = (Y'Y + lambda * n * I)^-1 Y'r over the row's n ratings
+     */
+    private void solveAll(Csr rows, float[] fixed, float[] solved) {
+        int chunks = Math.max(1, Math.min(rows.count, Runtime.getRuntime().availableProcessors() * 4));
+        IntStream.range(0, chunks).parallel().forEach(chunk -> {
+            double[] matrix = new double[factors * factors];
+            double[] vector = new double[factors];
+            int from = (int) ((long) rows.count * chunk / chunks);
+            int to = (int) ((long) rows.count * (chunk + 1) / chunks);
+            for (int row = from; row < to; row++) {
+                solveRow(rows, row, fixed, solved, matrix, vector);
+            }
+        });
+    }
+
+    private void solveRow(Csr rows, int row, float[] fixed, float[] solved, double[] matrix, double[] vector) {
+        int start = rows.offsets[row];
+        int end = rows.offsets[row + 1];
+        Arrays.fill(matrix, 0);
+        Arrays.fill(vector, 0);
+
+        for (int e = start; e < end; e++) {
+            int base = rows.columns[e] * factors;
+            float residual = rows.values[e];
+            for (int i = 0; i < factors; i++) {
+                double fi = fixed[base + i];
+                vector[i] += fi * residual;
+                for (int j = 0; j <= i; j++) {
+                    matrix[i * factors + j] += fi * fixed[base + j];
+                }
+            }
+        }
+        double regularization = lambda * Math.max(end - start, 1);
+        for (int i = 0; i < factors; i++) {
+            matrix[i * factors + i] += regularization;
+        }
+
+        choleskySolve(matrix, vector, factors);
+        int base = row * factors;
+        for (int i = 0; i < factors; i++) {
+            solved[base + i] = (float) vector[i];
+        }
+    }
+
+    /**
+     * Solve A x = b in place for a symmetric positive definite A given by
+     * its lower triangle; x is left in b
+     */
+    private static void choleskySolve(double[] a, double[] b, int n) {
+        for (int j = 0; j < n; j++) {
+            double diagonal = a[j * n + j];
+            for (int k = 0; k < j; k++) {
+                diagonal -= a[j * n + k] * a[j * n + k];
+            }
+            diagonal = Math.sqrt(Math.max(diagonal, 1e-12));
+            a[j * n + j] = diagonal;
+            for (int i = j + 1; i < n; i++) {
+                double value = a[i * n + j];
+                for (int k = 0; k < j; k++) {
+                    value -= a[i * n + k] * a[j * n + k];
+                }
+                a[i * n + j] = value / diagonal;
+            }
+        }
+        // L y = b, then L' x = y
+        for (int i = 0; i < n; i++) {
+            double value = b[i];
+            for (int k = 0; k < i; k++) {
+                value -= a[i * n + k] * b[k];
+            }
+            b[i] = value / a[i * n + i];
+        }
+        for (int i = n - 1; i >= 0; i--) {
+            double value = b[i];
+            for (int k = i + 1; k < n; k++) {
+                value -= a[k * n + i] * b[k];
+            }
+            b[i] = value / a[i * n + i];
+        }
+    }
+
+    private double rmse(Csr byUser, float[] userFactors, float[] songFactors) {
+        double squared = 0;
+        for (int user = 0; user < byUser.count; user++) {
+            for (int e = byUser.offsets[user]; e < byUser.offsets[user + 1]; e++) {
+                double prediction = 0;
+                for (int f = 0; f < factors; f++) {
+                    prediction += userFactors[user * factors + f] * songFactors[byUser.columns[e] * factors + f];
+                }
+                double error = byUser.values[e] - prediction;
+                squared += error * error;
+            }
+        }
+        return Math.sqrt(squared / Math.max(byUser.columns.length, 1));
+    }
+
+    /**
+     * Compressed rows: the entries of row r are offsets[r]..offsets[r+1]
+     */
+    private static class Csr {
+        final int count;
+        final int[] offsets;
+        final int[] columns;
+        final float[] values;
+
+        private Csr(int count, int[] offsets, int[] columns, float[] values) {
+            this.count = count;
+            this.offsets = offsets;
+            this.columns = columns;
+            this.values = values;
+        }
+
+        static Csr build(int rowCount, int[] rowOf, int[] columnOf, float[] ratings, int size, float mean) {
+            int[] offsets = new int[rowCount + 1];
+            for (int r = 0; r < size; r++) {
+                offsets[rowOf[r] + 1]++;
+            }
+            for (int row = 0; row < rowCount; row++) {
+                offsets[row + 1] += offsets[row];
+            }
+            int[] fill = Arrays.copyOf(offsets, rowCount);
+            int[] columns = new int[size];
+            float[] values = new float[size];
+            for (int r = 0; r < size; r++) {
+                int position = fill[rowOf[r]]++;
+                columns[position] = columnOf[r];
+                values[position] = ratings[r] - mean;
+            }
+            return new Csr(rowCount, offsets, columns, values);
+        }
+    }
+}
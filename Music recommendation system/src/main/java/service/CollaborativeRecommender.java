@@ -0,0 +1,133 @@
+package main.java.service;
+
+import main.java.dao.InteractionDAO;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Keeps the shared ItemSimilarityModel trained and answers "songs like
+ * this" and "songs for this user" from it.
+ *
+ * Training runs on a background thread so callers never wait for it: until
+ * the first model is ready the methods return empty lists and callers fall
+ * back to the tag-based recommendations. Once the retrain interval has
+ * passed the next call starts an incremental update; every
+ * FULL_RETRAIN_EVERY updates a full training replaces the model.
+ *
+ * Settings (system properties): cf.neighbors, cf.maxItemsPerUser,
+ * cf.retrainIntervalMs.
+ */
+public class CollaborativeRecommender {
+
+    private static final int NEIGHBORS = Integer.getInteger("cf.neighbors", 30);
+    private static final int MAX_ITEMS_PER_USER = Integer.getInteger("cf.maxItemsPerUser", 500);
+    private static final long RETRAIN_INTERVAL_MILLIS = Long.getLong("cf.retrainIntervalMs", 10 * 60_000L);
+    private static final int FULL_RETRAIN_EVERY = 12;
+
+    private static final CollaborativeRecommender INSTANCE = new CollaborativeRecommender();
+
+    private final InteractionDAO interactionDAO = new InteractionDAO();
+    private volatile ItemSimilarityModel model = null;
+    private volatile long trainedAt = 0;
+    private volatile boolean training = false;
+    private int updatesSinceFullTraining = 0;
+
+    private CollaborativeRecommender() {
+    }
+
+    public static CollaborativeRecommender getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Start a background training if there is no model yet or it is older
+     * than the retrain interval
+     *
+     * @return true if a model is available now
+     */
+    public boolean ensureTrained() {
+        if (!training && System.currentTimeMillis() - trainedAt > RETRAIN_INTERVAL_MILLIS) {
+            synchronized (this) {
+                if (!training) {
+                    training = true;
+                    Thread trainer = new Thread(this::train, "cf-trainer");
+                    trainer.setDaemon(true);
+                    trainer.start();
+                }
+            }
+        }
+        return model != null;
+    }
+
+    /**
+     * Train on the calling thread: incrementally from the current model, or
+     * fully on the first run and every FULL_RETRAIN_EVERY runs
+     */
+    public void train() {
+        try {
+            ItemSimilarityModel.Interactions data = new ItemSimilarityModel.Interactions();
+            if (!interactionDAO.forEachInteraction(data::add)) {
+                return;
+            }
+
+            ItemSimilarityModel previous;
+            synchronized (this) {
+                boolean full = model == null || ++updatesSinceFullTraining >= FULL_RETRAIN_EVERY;
+                if (full) {
+                    updatesSinceFullTraining = 0;
+                }
+                previous = full ? null : model;
+            }
+
+            model = ItemSimilarityModel.train(data, NEIGHBORS, MAX_ITEMS_PER_USER, previous);
+        } catch (RuntimeException | OutOfMemoryError e) {
+            System.err.println("Error training collaborative filtering model: " + e.getMessage());
+            e.printStackTrace();
+        } finally {
+            trainedAt = System.currentTimeMillis();
+            training = false;
+        }
+    }
+
+    /**
+     * Songs most similar to a song
+     *
+     * @param songId Song ID
+     * @param limit  Maximum number of songs
+     * @return Song IDs, most similar first (empty until a model is trained)
+     */
+    public List<Integer> getSimilarSongIds(int songId, int limit) {
+        ensureTrained();
+        ItemSimilarityModel current = model;
+        return current != null ? current.getSimilarSongIds(songId, limit) : Collections.emptyList();
+    }
+
+    /**
+     * Songs for a user, from the neighbors of everything they rated or
+     * favorited
+     *
+     * @param userId User ID
+     * @param limit  Maximum number of songs
+     * @return Song IDs the user has not interacted with, best first (empty
+     *         until a model is trained)
+     */
+    public List<Integer> recommendSongIds(int userId, int limit) {
+        if (!ensureTrained()) {
+            return Collections.emptyList();
+        }
+        Map<Integer, Float> history = interactionDAO.getUserInteractions(userId);
+        if (history.isEmpty()) {
+            return Collections.emptyList();
+        }
+        return model.recommend(history, limit);
+    }
+
+    /**
+     * Current model, for diagnostics and benchmarks
+     */
+    public ItemSimilarityModel getModel() {
+        return model;
+    }
+}
@@ -0,0 +1,682 @@
+package main.java.service;
+
+import main.java.util.IntIntMap;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Item-item collaborative filtering model: for every song, its K most
+ * similar songs by cosine similarity over the users who rated or favorited
+ * them.
+ *
+ * The model is immutable. Neighbors are stored in primitive arrays with a
+ * fixed stride of K slots per song (song index * K), sorted by score, so a
+ * lookup is an array copy. Training spreads the similarity rows over the
+ * fork/join pool. Given the previous model, training is incremental: only
+ * songs whose set of interactions changed get their rows recomputed, and
+ * their new scores are patched into the rows of the songs they co-occur
+ * with. A full row that loses an entry or sees one drop below its last
+ * score could be missing a song outside it, so such rows are recomputed
+ * too.
+ * Two kinds of change are invisible to an incremental update and are only
+ * picked up by the next full training: a song that stopped co-occurring
+ * with a song it was not a neighbor of, and a user crossing
+ * maxItemsPerUser. A user who goes over the limit drops out of the
+ * similarity sums of every pair of their songs, and one who goes back
+ * under it comes back in. Only the songs whose interactions changed are
+ * recomputed, so the other pairs keep their old scores until then.
+ */
+public class ItemSimilarityModel {
+
+    /** Above this share of changed songs a full training is cheaper */
+    private static final double INCREMENTAL_LIMIT = 0.25;
+    /** Minimum rows per fork/join leaf, each leaf allocates one accumulator */
+    private static final int MIN_ROWS_PER_TASK = 64;
+
+    private final int k;
+    private final int[] songIds;
+    private final IntIntMap songIndex;
+    private final int[] neighborCount;
+    private final int[] neighbors;
+    private final float[] scores;
+    private final long[] fingerprints;
+
+    private final int interactionCount;
+    private final int recomputedRows;
+    private final boolean incremental;
+    private final long trainingMillis;
+
+    private ItemSimilarityModel(int k, int[] songIds, IntIntMap songIndex, int[] neighborCount, int[] neighbors,
+            float[] scores, long[] fingerprints, int interactionCount, int recomputedRows, boolean incremental,
+            long trainingMillis) {
+        this.k = k;
+        this.songIds = songIds;
+        this.songIndex = songIndex;
+        this.neighborCount = neighborCount;
+        this.neighbors = neighbors;
+        this.scores = scores;
+        this.fingerprints = fingerprints;
+        this.interactionCount = interactionCount;
+        this.recomputedRows = recomputedRows;
+        this.incremental = incremental;
+        this.trainingMillis = trainingMillis;
+    }
+
+    /**
+     * Raw interactions collected for training. A (user, song) pair may be
+     * added more than once; the strengths are summed.
+     */
+    public static class Interactions {
+        private int[] users = new int[1024];
+        private int[] songs = new int[1024];
+        private float[] strengths = new float[1024];
+        private int size = 0;
+
+        public void add(int userId, int songId, float strength) {
+            if (size == users.length) {
+                int capacity = size + (size >> 1);
+                users = Arrays.copyOf(users, capacity);
+                songs = Arrays.copyOf(songs, capacity);
+                strengths = Arrays.copyOf(strengths, capacity);
+            }
+            users[size] = userId;
+            songs[size] = songId;
+            strengths[size] = strength;
+            size++;
+        }
+
+        public int size() {
+            return size;
+        }
+    }
+
+    /**
+     * Train a model
+     *
+     * @param data            Every current interaction
+     * @param k               Neighbors kept per song
+     * @param maxItemsPerUser Users with more interactions than this are left
+     *                        out of the similarity sums (they co-occur with
+     *                        everything and dominate the cost), but still
+     *                        count towards song norms
+     * @param previous        Model to update incrementally, or null for a
+     *                        full training
+     * @return The trained model
+     */
+    public static ItemSimilarityModel train(Interactions data, int k, int maxItemsPerUser,
+            ItemSimilarityModel previous) {
+        long start = System.nanoTime();
+        if (previous != null && previous.k != k) {
+            previous = null;
+        }
+
+        // Dense song indexes; an incremental model keeps the previous ones
+        IntIntMap songIndex = previous != null ? previous.songIndex.copy() : new IntIntMap(1024);
+        int[] songIds = previous != null ? Arrays.copyOf(previous.songIds, Math.max(previous.songIds.length, 16))
+                : new int[1024];
+        int songCount = previous != null ? previous.songIds.length : 0;
+
+        IntIntMap userIndex = new IntIntMap(1024);
+        int[] userIds = new int[1024];
+        int userCount = 0;
+
+        int[] itemOf = new int[data.size];
+        int[] userOf = new int[data.size];
+        for (int t = 0; t < data.size; t++) {
+            int item = songIndex.get(data.songs[t], -1);
+            if (item < 0) {
+                item = songCount++;
+                songIndex.put(data.songs[t], item);
+                if (item == songIds.length) {
+                    songIds = Arrays.copyOf(songIds, songIds.length * 2);
+                }
+                songIds[item] = data.songs[t];
+            }
+            itemOf[t] = item;
+
+            int user = userIndex.get(data.users[t], -1);
+            if (user < 0) {
+                user = userCount++;
+                userIndex.put(data.users[t], user);
+                if (user == userIds.length) {
+                    userIds = Arrays.copyOf(userIds, userIds.length * 2);
+                }
+                userIds[user] = data.users[t];
+            }
+            userOf[t] = user;
+        }
+        songIds = Arrays.copyOf(songIds, songCount);
+
+        // User rows: (item, strength) packed into longs, sorted by item and
+        // with duplicate pairs merged
+        int[] userOffsets = new int[userCount + 1];
+        for (int t = 0; t < data.size; t++) {
+            userOffsets[userOf[t] + 1]++;
+        }
+        for (int u = 0; u < userCount; u++) {
+            userOffsets[u + 1] += userOffsets[u];
+        }
+        long[] entries = new long[data.size];
+        int[] fill = Arrays.copyOf(userOffsets, userCount);
+        for (int t = 0; t < data.size; t++) {
+            entries[fill[userOf[t]]++] = pack(itemOf[t], data.strengths[t]);
+        }
+        itemOf = null;
+        userOf = null;
+
+        int[] userItems = new int[data.size];
+        float[] userStrengths = new float[data.size];
+        int[] compactOffsets = new int[userCount + 1];
+        int entryCount = 0;
+        for (int u = 0; u < userCount; u++) {
+            Arrays.sort(entries, userOffsets[u], userOffsets[u + 1]);
+            compactOffsets[u] = entryCount;
+            for (int e = userOffsets[u]; e < userOffsets[u + 1]; e++) {
+                int item = (int) (entries[e] >>> 32);
+                float strength = Float.intBitsToFloat((int) entries[e]);
+                if (entryCount > compactOffsets[u] && userItems[entryCount - 1] == item) {
+                    userStrengths[entryCount - 1] += strength;
+                } else {
+                    userItems[entryCount] = item;
+                    userStrengths[entryCount] = strength;
+                    entryCount++;
+                }
+            }
+        }
+        compactOffsets[userCount] = entryCount;
+        userOffsets = compactOffsets;
+        entries = null;
+
+        // Song columns (users who interacted with each song), norms and
+        // fingerprints of each column to detect changes
+        int[] itemOffsets = new int[songCount + 1];
+        for (int e = 0; e < entryCount; e++) {
+            itemOffsets[userItems[e] + 1]++;
+        }
+        for (int i = 0; i < songCount; i++) {
+            itemOffsets[i + 1] += itemOffsets[i];
+        }
+        int[] itemUsers = new int[entryCount];
+        float[] itemStrengths = new float[entryCount];
+        fill = Arrays.copyOf(itemOffsets, songCount);
+        float[] norms = new float[songCount];
+        long[] fingerprints = new long[songCount];
+        for (int u = 0; u < userCount; u++) {
+            for (int e = userOffsets[u]; e < userOffsets[u + 1]; e++) {
+                int item = userItems[e];
+                int position = fill[item]++;
+                itemUsers[position] = u;
+                itemStrengths[position] = userStrengths[e];
+                norms[item] += userStrengths[e] * userStrengths[e];
+                fingerprints[item] += mix(((long) userIds[u] << 32) | Float.floatToIntBits(userStrengths[e]));
+            }
+        }
+        for (int i = 0; i < songCount; i++) {
+            norms[i] = (float) Math.sqrt(norms[i]);
+        }
+
+        // Rows to (re)compute
+        int[] changed = new int[songCount];
+        int changedCount = 0;
+        for (int i = 0; i < songCount; i++) {
+            if (previous == null || i >= previous.fingerprints.length || previous.fingerprints[i] != fingerprints[i]) {
+                changed[changedCount++] = i;
+            }
+        }
+        boolean incremental = previous != null && changedCount <= songCount * INCREMENTAL_LIMIT;
+        if (previous != null && !incremental) {
+            return train(data, k, maxItemsPerUser, null);
+        }
+        changed = Arrays.copyOf(changed, changedCount);
+
+        int[] neighborCount = new int[songCount];
+        int[] neighbors = new int[songCount * k];
+        float[] scores = new float[songCount * k];
+        boolean[] isChanged = new boolean[songCount];
+        for (int i : changed) {
+            isChanged[i] = true;
+        }
+        if (incremental) {
+            int previousSongs = previous.songIds.length;
+            System.arraycopy(previous.neighborCount, 0, neighborCount, 0, previousSongs);
+            System.arraycopy(previous.neighbors, 0, neighbors, 0, previousSongs * k);
+            System.arraycopy(previous.scores, 0, scores, 0, previousSongs * k);
+        }
+
+        RowContext context = new RowContext(k, maxItemsPerUser, songCount, userOffsets, userItems, userStrengths,
+                itemOffsets, itemUsers, itemStrengths, norms, isChanged, previous, neighborCount, neighbors,
+                scores, changed);
+        ForkJoinPool pool = ForkJoinPool.commonPool();
+        int rowsPerTask = Math.max(MIN_ROWS_PER_TASK, changed.length / (pool.getParallelism() * 8));
+        pool.invoke(new RowTask(context, 0, changed.length, rowsPerTask));
+
+        int refilledCount = 0;
+        if (incremental) {
+            // Patch the new scores into the rows of unchanged songs
+            int[] refill = new int[16];
+            boolean[] isRefilled = new boolean[songCount];
+            for (int c = 0; c < changed.length; c++) {
+                int[] targets = context.patchTargets[c];
+                float[] targetScores = context.patchScores[c];
+                for (int p = 0; p < targets.length; p++) {
+                    int target = targets[p];
+                    if (patchRow(target, changed[c], targetScores[p], k, neighborCount, neighbors, scores)
+                            && !isRefilled[target]) {
+                        isRefilled[target] = true;
+                        if (refilledCount == refill.length) {
+                            refill = Arrays.copyOf(refill, refilledCount * 2);
+                        }
+                        refill[refilledCount++] = target;
+                    }
+                }
+            }
+
+            // Rows that may now miss a neighbor are computed from scratch
+            if (refilledCount > 0) {
+                refill = Arrays.copyOf(refill, refilledCount);
+                RowContext refillContext = new RowContext(k, maxItemsPerUser, songCount, userOffsets, userItems,
+                        userStrengths, itemOffsets, itemUsers, itemStrengths, norms, isChanged, null,
+                        neighborCount, neighbors, scores, refill);
+                rowsPerTask = Math.max(MIN_ROWS_PER_TASK, refill.length / (pool.getParallelism() * 8));
+                pool.invoke(new RowTask(refillContext, 0, refill.length, rowsPerTask));
+            }
+        }
+
+        long millis = (System.nanoTime() - start) / 1_000_000;
+        return new ItemSimilarityModel(k, songIds, songIndex, neighborCount, neighbors, scores, fingerprints,
+                data.size, changed.length + refilledCount, incremental, millis);
+    }
+
+    /**
+     * Most similar songs to a song
+     *
+     * @param songId Song ID
+     * @param limit  Maximum number of songs (at most K)
+     * @return Song IDs, most similar first
+     */
+    public List<Integer> getSimilarSongIds(int songId, int limit) {
+        int item = songIndex.get(songId, -1);
+        if (item < 0) {
+            return Collections.emptyList();
+        }
+        int count = Math.min(neighborCount[item], limit);
+        List<Integer> similar = new ArrayList<>(count);
+        for (int n = 0; n < count; n++) {
+            similar.add(songIds[neighbors[item * k + n]]);
+        }
+        return similar;
+    }
+
+    /**
+     * Similarity of the neighbors returned by getSimilarSongIds, same order
+     */
+    public float[] getSimilarityScores(int songId, int limit) {
+        int item = songIndex.get(songId, -1);
+        if (item < 0) {
+            return new float[0];
+        }
+        return Arrays.copyOfRange(scores, item * k, item * k + Math.min(neighborCount[item], limit));
+    }
+
+    /**
+     * Recommend songs for a user's interaction history: every neighbor of a
+     * song in the history scores similarity * interaction strength
+     *
+     * @param history Interaction strength by song ID
+     * @param limit   Maximum number of songs
+     * @return Song IDs not in the history, best first
+     */
+    public List<Integer> recommend(Map<Integer, Float> history, int limit) {
+        Map<Integer, Float> candidates = new HashMap<>();
+        for (Map.Entry<Integer, Float> entry : history.entrySet()) {
+            int item = songIndex.get(entry.getKey(), -1);
+            if (item < 0) {
+                continue;
+            }
+            for (int n = 0; n < neighborCount[item]; n++) {
+                int neighborSong = songIds[neighbors[item * k + n]];
+                if (!history.containsKey(neighborSong)) {
+                    candidates.merge(neighborSong, scores[item * k + n] * entry.getValue(), Float::sum);
+                }
+            }
+        }
+
+        // Bounded min-heap keeps the best limit candidates
+        PriorityQueue<Map.Entry<Integer, Float>> best = new PriorityQueue<>(Math.max(limit, 1),
+                Map.Entry.<Integer, Float>comparingByValue());
+        for (Map.Entry<Integer, Float> candidate : candidates.entrySet()) {
+            if (best.size() < limit) {
+                best.add(candidate);
+            } else if (limit > 0 && candidate.getValue() > best.peek().getValue()) {
+                best.poll();
+                best.add(candidate);
+            }
+        }
+
+        Integer[] ordered = new Integer[best.size()];
+        for (int i = ordered.length - 1; i >= 0; i--) {
+            ordered[i] = best.poll().getKey();
+        }
+        return Arrays.asList(ordered);
+    }
+
+    public int getSongCount() {
+        return songIds.length;
+    }
+
+    public int getNeighborsPerSong() {
+        return k;
+    }
+
+    public int getInteractionCount() {
+        return interactionCount;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("ItemSimilarityModel{songs=%d, k=%d, interactions=%d, %s, recomputedRows=%d, %d ms}",
+                songIds.length, k, interactionCount, incremental ? "incremental" : "full", recomputedRows,
+                trainingMillis);
+    }
+
+    /**
+     * Set, add or remove one entry of an unchanged song's row, keeping the
+     * row sorted by score
+     *
+     * @return true if the row was full and an entry was removed or dropped
+     *         below its last score, so a song outside the row may now
+     *         belong in it
+     */
+    private static boolean patchRow(int row, int item, float score, int k, int[] neighborCount, int[] neighbors,
+            float[] scores) {
+        int base = row * k;
+        int count = neighborCount[row];
+        int position = -1;
+        for (int n = 0; n < count; n++) {
+            if (neighbors[base + n] == item) {
+                position = n;
+                break;
+            }
+        }
+
+        if (position < 0) {
+            if (score <= 0 || (count == k && score <= scores[base + count - 1])) {
+                return false;
+            }
+            // Take the free slot, or the lowest scored one
+            position = count < k ? count++ : count - 1;
+            neighbors[base + position] = item;
+        } else if (score <= 0) {
+            System.arraycopy(neighbors, base + position + 1, neighbors, base + position, count - position - 1);
+            System.arraycopy(scores, base + position + 1, scores, base + position, count - position - 1);
+            neighborCount[row] = count - 1;
+            return count == k;
+        }
+        boolean lowered = count == k && score < scores[base + count - 1];
+        scores[base + position] = score;
+        neighborCount[row] = count;
+
+        // Move the entry to its place
+        while (position > 0 && scores[base + position - 1] < scores[base + position]) {
+            swap(neighbors, scores, base + position, base + position - 1);
+            position--;
+        }
+        while (position < count - 1 && scores[base + position + 1] > scores[base + position]) {
+            swap(neighbors, scores, base + position, base + position + 1);
+            position++;
+        }
+        return lowered;
+    }
+
+    private static void swap(int[] neighbors, float[] scores, int a, int b) {
+        int neighbor = neighbors[a];
+        neighbors[a] = neighbors[b];
+        neighbors[b] = neighbor;
+        float score = scores[a];
+        scores[a] = scores[b];
+        scores[b] = score;
+    }
+
+    private static long pack(int item, float strength) {
+        return ((long) item << 32) | (Float.floatToIntBits(strength) & 0xFFFFFFFFL);
+    }
+
+    private static long mix(long value) {
+        value ^= value >>> 33;
+        value *= 0xff51afd7ed558ccdL;
+        value ^= value >>> 33;
+        value *= 0xc4ceb9fe1a85ec53L;
+        return value ^ (value >>> 33);
+    }
+
+    /**
+     * Shared inputs and outputs of the row tasks
+     */
+    private static class RowContext {
+        final int k;
+        final int maxItemsPerUser;
+        final int songCount;
+        final int[] userOffsets;
+        final int[] userItems;
+        final float[] userStrengths;
+        final int[] itemOffsets;
+        final int[] itemUsers;
+        final float[] itemStrengths;
+        final float[] norms;
+        final boolean[] isChanged;
+        final ItemSimilarityModel previous;
+        final int[] neighborCount;
+        final int[] neighbors;
+        final float[] scores;
+        final int[] changed;
+        final int[][] patchTargets;
+        final float[][] patchScores;
+
+        RowContext(int k, int maxItemsPerUser, int songCount, int[] userOffsets, int[] userItems,
+                float[] userStrengths, int[] itemOffsets, int[] itemUsers, float[] itemStrengths, float[] norms,
+                boolean[] isChanged, ItemSimilarityModel previous, int[] neighborCount, int[] neighbors,
+                float[] scores, int[] changed) {
+            this.k = k;
+            this.maxItemsPerUser = maxItemsPerUser;
+            this.songCount = songCount;
+            this.userOffsets = userOffsets;
+            this.userItems = userItems;
+            this.userStrengths = userStrengths;
+            this.itemOffsets = itemOffsets;
+            this.itemUsers = itemUsers;
+            this.itemStrengths = itemStrengths;
+            this.norms = norms;
+            this.isChanged = isChanged;
+            this.previous = previous;
+            this.neighborCount = neighborCount;
+            this.neighbors = neighbors;
+            this.scores = scores;
+            this.changed = changed;
+            this.patchTargets = previous != null ? new int[changed.length][] : null;
+            this.patchScores = previous != null ? new float[changed.length][] : null;
+        }
+    }
+
+    /**
+     * Computes the rows of changed[from..to)
+     */
+    private static class RowTask extends RecursiveAction {
+        private final RowContext context;
+        private final int from;
+        private final int to;
+        private final int rowsPerTask;
+
+        RowTask(RowContext context, int from, int to, int rowsPerTask) {
+            this.context = context;
+            this.from = from;
+            this.to = to;
+            this.rowsPerTask = rowsPerTask;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from > rowsPerTask) {
+                int middle = (from + to) >>> 1;
+                invokeAll(new RowTask(context, from, middle, rowsPerTask),
+                        new RowTask(context, middle, to, rowsPerTask));
+                return;
+            }
+
+            RowContext c = context;
+            // Strengths are positive, so a zero entry means "not touched yet"
+            float[] accumulator = new float[c.songCount];
+            int[] touched = new int[64];
+            int[] heapItems = new int[c.k];
+            float[] heapScores = new float[c.k];
+
+            for (int position = from; position < to; position++) {
+                int item = c.changed[position];
+                int touchedCount = 0;
+
+                // Dot products with every song that shares a user
+                for (int e = c.itemOffsets[item]; e < c.itemOffsets[item + 1]; e++) {
+                    int user = c.itemUsers[e];
+                    int userStart = c.userOffsets[user];
+                    int userEnd = c.userOffsets[user + 1];
+                    if (userEnd - userStart > c.maxItemsPerUser) {
+                        continue;
+                    }
+                    float strength = c.itemStrengths[e];
+                    for (int f = userStart; f < userEnd; f++) {
+                        int other = c.userItems[f];
+                        if (other == item) {
+                            continue;
+                        }
+                        if (accumulator[other] == 0) {
+                            if (touchedCount == touched.length) {
+                                touched = Arrays.copyOf(touched, touched.length * 2);
+                            }
+                            touched[touchedCount++] = other;
+                        }
+                        accumulator[other] += strength * c.userStrengths[f];
+                    }
+                }
+
+                int patchCount = 0;
+                int[] patchTargets = c.previous != null ? new int[16] : null;
+                float[] patchScores = c.previous != null ? new float[16] : null;
+
+                // Previous neighbors that no longer share a user lose this song
+                if (c.previous != null && item < c.previous.songIds.length) {
+                    int base = item * c.k;
+                    for (int n = 0; n < c.previous.neighborCount[item]; n++) {
+                        int other = c.previous.neighbors[base + n];
+                        if (!c.isChanged[other] && accumulator[other] == 0) {
+                            if (patchCount == patchTargets.length) {
+                                patchTargets = Arrays.copyOf(patchTargets, patchCount * 2);
+                                patchScores = Arrays.copyOf(patchScores, patchCount * 2);
+                            }
+                            patchTargets[patchCount] = other;
+                            patchScores[patchCount++] = 0;
+                        }
+                    }
+                }
+
+                // Top K by cosine similarity in a min-heap
+                int heapSize = 0;
+
+                for (int t = 0; t < touchedCount; t++) {
+                    int other = touched[t];
+                    float similarity = accumulator[other] / (c.norms[item] * c.norms[other]);
+                    accumulator[other] = 0;
+
+                    if (heapSize < c.k) {
+                        heapItems[heapSize] = other;
+                        heapScores[heapSize] = similarity;
+                        siftUp(heapItems, heapScores, heapSize++);
+                    } else if (similarity > heapScores[0]) {
+                        heapItems[0] = other;
+                        heapScores[0] = similarity;
+                        siftDown(heapItems, heapScores, heapSize);
+                    }
+
+                    if (c.previous != null && !c.isChanged[other] && wantsPatch(c, other, item, similarity)) {
+                        if (patchCount == patchTargets.length) {
+                            patchTargets = Arrays.copyOf(patchTargets, patchCount * 2);
+                            patchScores = Arrays.copyOf(patchScores, patchCount * 2);
+                        }
+                        patchTargets[patchCount] = other;
+                        patchScores[patchCount++] = similarity;
+                    }
+                }
+                if (c.previous != null) {
+                    c.patchTargets[position] = Arrays.copyOf(patchTargets, patchCount);
+                    c.patchScores[position] = Arrays.copyOf(patchScores, patchCount);
+                }
+
+                // Heap to row, highest score first
+                int base = item * c.k;
+                c.neighborCount[item] = heapSize;
+                for (int n = heapSize - 1; n >= 0; n--) {
+                    c.neighbors[base + n] = heapItems[0];
+                    c.scores[base + n] = heapScores[0];
+                    heapItems[0] = heapItems[n];
+                    heapScores[0] = heapScores[n];
+                    siftDown(heapItems, heapScores, n);
+                }
+            }
+        }
+
+        /**
+         * Does an unchanged song's row need this song's new score: it is
+         * there already, or the score would now get it in
+         */
+        private static boolean wantsPatch(RowContext c, int row, int item, float similarity) {
+            if (row >= c.previous.songIds.length) {
+                return true;
+            }
+            int base = row * c.k;
+            int count = c.previous.neighborCount[row];
+            for (int n = 0; n < count; n++) {
+                if (c.previous.neighbors[base + n] == item) {
+                    return true;
+                }
+            }
+            return count < c.k || similarity > c.previous.scores[base + count - 1];
+        }
+
+        private static void siftUp(int[] items, float[] scores, int index) {
+            while (index > 0) {
+                int parent = (index - 1) >>> 1;
+                if (scores[parent] <= scores[index]) {
+                    return;
+                }
+                swap(items, scores, parent, index);
+                index = parent;
+            }
+        }
+
+        private static void siftDown(int[] items, float[] scores, int size) {
+            int index = 0;
+            while (true) {
+                int smallest = index;
+                int left = 2 * index + 1;
+                int right = left + 1;
+                if (left < size && scores[left] < scores[smallest]) {
+                    smallest = left;
+                }
+                if (right < size && scores[right] < scores[smallest]) {
+                    smallest = right;
+                }
+                if (smallest == index) {
+                    return;
+                }
+                swap(items, scores, smallest, index);
+                index = smallest;
+            }
+        }
+    }
+}
@@ -0,0 +1,115 @@
+package main.java.service;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Serves the latent-factor model written by AlsTrainer.
+ *
+ * The model file is mapped on first use and mapped again when the trainer
+ * replaces it (checked at most once per CHECK_INTERVAL_MILLIS). Only users
+ * with at least als.minUserRatings ratings are served; for everyone else,
+ * or when there is no model file, the methods return null or empty lists
+ * and callers keep their other signals.
+ *
+ * Settings (system properties): als.modelFile, als.minUserRatings.
+ */
+public class MatrixFactorizationRecommender {
+
+    private static final Path MODEL_FILE = Paths.get(System.getProperty("als.modelFile", "als_model.bin"));
+    private static final int MIN_USER_RATINGS = Integer.getInteger("als.minUserRatings", 20);
+    private static final long CHECK_INTERVAL_MILLIS = 60_000;
+
+    private static final MatrixFactorizationRecommender INSTANCE = new MatrixFactorizationRecommender();
+
+    private volatile AlsModel model = null;
+    private volatile long modelModifiedAt = 0;
+    private volatile long checkedAt = 0;
+
+    private MatrixFactorizationRecommender() {
+    }
+
+    public static MatrixFactorizationRecommender getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * @return true if there is a model and the user has enough ratings in
+     *         it to be served
+     */
+    public boolean isServed(int userId) {
+        AlsModel current = currentModel();
+        return current != null && current.getUserRatingCount(userId) >= MIN_USER_RATINGS;
+    }
+
+    /**
+     * Predicted ratings for a user, for blending into other scores
+     *
+     * @param userId  User ID
+     * @param songIds Candidate song IDs
+     * @return Predicted rating per candidate (NaN where unknown), or null if
+     *         the user is not served by the model
+     */
+    public float[] predict(int userId, int[] songIds) {
+        AlsModel current = currentModel();
+        if (current == null || current.getUserRatingCount(userId) < MIN_USER_RATINGS) {
+            return null;
+        }
+        return current.predict(userId, songIds);
+    }
+
+    /**
+     * Best songs for a user from the whole catalog
+     *
+     * @param userId  User ID
+     * @param limit   Maximum number of songs
+     * @param exclude Song IDs to leave out
+     * @return Song IDs, best first (empty if the user is not served)
+     */
+    public List<Integer> recommendSongIds(int userId, int limit, Set<Integer> exclude) {
+        AlsModel current = currentModel();
+        if (current == null || current.getUserRatingCount(userId) < MIN_USER_RATINGS) {
+            return Collections.emptyList();
+        }
+        return current.recommend(userId, limit, exclude);
+    }
+
+    /**
+     * The mapped model, remapped if the file has changed
+     */
+    private AlsModel currentModel() {
+        long now = System.currentTimeMillis();
+        if (now - checkedAt > CHECK_INTERVAL_MILLIS) {
+            synchronized (this) {
+                if (now - checkedAt > CHECK_INTERVAL_MILLIS) {
+                    reloadIfChanged();
+                    checkedAt = now;
+                }
+            }
+        }
+        return model;
+    }
+
+    private void reloadIfChanged() {
+        try {
+            long modifiedAt = Files.getLastModifiedTime(MODEL_FILE).toMillis();
+            if (modifiedAt != modelModifiedAt) {
+                model = AlsModel.load(MODEL_FILE);
+                modelModifiedAt = modifiedAt;
+                System.out.println("Loaded ALS model: " + model.getUserCount() + " users, "
+                        + model.getSongCount() + " songs, " + model.getFactorCount() + " factors");
+            }
+        } catch (NoSuchFileException e) {
+            model = null;
+            modelModifiedAt = 0;
+        } catch (IOException e) {
+            System.err.println("Error loading ALS model: " + e.getMessage());
+        }
+    }
+}
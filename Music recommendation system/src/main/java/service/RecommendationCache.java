@@ -0,0 +1,251 @@
+package main.java.service;
+
+import main.java.dao.DataChangeEvents;
+import main.java.model.Song;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Result cache for RecommendationService, shared by every instance.
+ *
+ * Two layers:
+ * - candidates: the non-personalized song list per (kind, mood, activity),
+ * the same for every user. Dropped by tag and song edits, and reloaded
+ * after CANDIDATE_TTL_MILLIS so tags edited from another client show up.
+ * - rankings: the personalized ranking per (user, kind, mood, activity),
+ * kept only as long as was asked for. Dropped when that user rates or
+ * favorites a song, and after the short PERSONAL_TTL_MILLIS, which bounds
+ * how stale other users' ratings and favorite counts can get.
+ *
+ * Rankings reference the Song objects of their candidate list, so the
+ * personalized layer costs little more than the references. Cached lists
+ * are never handed to callers; RecommendationService copies them.
+ *
+ * Settings (system properties): rec.cache.enabled, rec.cache.candidateTtlMs,
+ * rec.cache.personalTtlMs, rec.cache.maxRankings.
+ */
+public class RecommendationCache implements DataChangeEvents.Listener {
+
+    private static final boolean ENABLED = Boolean.parseBoolean(System.getProperty("rec.cache.enabled", "true"));
+    private static final long CANDIDATE_TTL_MILLIS = Long.getLong("rec.cache.candidateTtlMs", 5 * 60_000L);
+    private static final long PERSONAL_TTL_MILLIS = Long.getLong("rec.cache.personalTtlMs", 60_000L);
+    private static final int MAX_RANKINGS = Integer.getInteger("rec.cache.maxRankings", 2_000);
+
+    // Object sizes with compressed references: map entry plus CachedList, an
+    // ArrayList, a Song with its Timestamp
+    private static final long ENTRY_BYTES = 64;
+    private static final long LIST_BYTES = 40;
+    private static final long REFERENCE_BYTES = 4;
+    private static final long SONG_BYTES = 80;
+
+    private static final RecommendationCache INSTANCE = new RecommendationCache();
+
+    static {
+        DataChangeEvents.addListener(INSTANCE);
+    }
+
+    private final Map<String, CachedList> candidates = new HashMap<>();
+
+    private final Map<String, CachedList> rankings = new LinkedHashMap<String, CachedList>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, CachedList> eldest) {
+            return size() > MAX_RANKINGS;
+        }
+    };
+
+    // Bumped by every change, so a result computed before the change cannot
+    // be put back afterwards
+    private long generation = 0;
+
+    private final AtomicLong candidateHits = new AtomicLong();
+    private final AtomicLong candidateMisses = new AtomicLong();
+    private final AtomicLong rankingHits = new AtomicLong();
+    private final AtomicLong rankingMisses = new AtomicLong();
+
+    private RecommendationCache() {
+    }
+
+    public static RecommendationCache getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Key of a candidate list
+     *
+     * @param kind         Which list ("match", "shift", ...)
+     * @param moodName     Mood name
+     * @param activityName Activity name
+     */
+    static String candidateKey(String kind, String moodName, String activityName) {
+        return kind + '\u0000' + moodName + '\u0000' + activityName;
+    }
+
+    /**
+     * Current change generation, read before computing a result
+     */
+    synchronized long getGeneration() {
+        return generation;
+    }
+
+    /**
+     * @return Cached candidate list (not to be modified), or null on a miss
+     */
+    synchronized List<Song> getCandidates(String key) {
+        CachedList entry = candidates.get(key);
+        if (entry == null || entry.isOlderThan(CANDIDATE_TTL_MILLIS)) {
+            candidates.remove(key);
+            candidateMisses.incrementAndGet();
+            return null;
+        }
+        candidateHits.incrementAndGet();
+        return entry.songs;
+    }
+
+    synchronized void putCandidates(String key, List<Song> songs, long readGeneration) {
+        if (ENABLED && readGeneration == generation) {
+            candidates.put(key, new CachedList(0, songs, true));
+        }
+    }
+
+    /**
+     * @param userId       User ID
+     * @param candidateKey Key of the candidate list that was ranked
+     * @param wanted       Number of top ranked songs needed
+     * @return Cached ranking (not to be modified) with at least wanted songs
+     *         or all of them, or null on a miss
+     */
+    synchronized List<Song> getRanking(int userId, String candidateKey, int wanted) {
+        String key = userId + "\u0000" + candidateKey;
+        CachedList entry = rankings.get(key);
+        if (entry == null || entry.isOlderThan(PERSONAL_TTL_MILLIS)) {
+            rankings.remove(key);
+            rankingMisses.incrementAndGet();
+            return null;
+        }
+        if (!entry.complete && entry.songs.size() < wanted) {
+            rankingMisses.incrementAndGet();
+            return null;
+        }
+        rankingHits.incrementAndGet();
+        return entry.songs;
+    }
+
+    /**
+     * @param complete true if the ranking holds every candidate
+     */
+    synchronized void putRanking(int userId, String candidateKey, List<Song> ranked, boolean complete,
+            long readGeneration) {
+        if (ENABLED && readGeneration == generation) {
+            rankings.put(userId + "\u0000" + candidateKey, new CachedList(userId, ranked, complete));
+        }
+    }
+
+    @Override
+    public synchronized void onDataChanged(DataChangeEvents.Type type, int userId, int songId, int tagId,
+            int delta) {
+        if (type == DataChangeEvents.Type.SONG && delta > 0) {
+            return; // A new song has no tags yet
+        }
+        generation++;
+        if (type == DataChangeEvents.Type.RATING || type == DataChangeEvents.Type.FAVORITE) {
+            // Only this user's scores moved noticeably
+            Iterator<CachedList> it = rankings.values().iterator();
+            while (it.hasNext()) {
+                if (it.next().userId == userId) {
+                    it.remove();
+                }
+            }
+        } else {
+            candidates.clear();
+            rankings.clear();
+        }
+    }
+
+    public synchronized void clear() {
+        generation++;
+        candidates.clear();
+        rankings.clear();
+    }
+
+    public double getCandidateHitRatio() {
+        return ratio(candidateHits.get(), candidateMisses.get());
+    }
+
+    public double getRankingHitRatio() {
+        return ratio(rankingHits.get(), rankingMisses.get());
+    }
+
+    public double getHitRatio() {
+        return ratio(candidateHits.get() + rankingHits.get(), candidateMisses.get() + rankingMisses.get());
+    }
+
+    public synchronized int getCandidateListCount() {
+        return candidates.size();
+    }
+
+    public synchronized int getRankingCount() {
+        return rankings.size();
+    }
+
+    /**
+     * Rough heap footprint of the cached results in bytes: the candidate
+     * songs plus one reference per ranked song
+     */
+    public synchronized long getEstimatedBytes() {
+        long bytes = 0;
+        for (Map.Entry<String, CachedList> entry : candidates.entrySet()) {
+            bytes += listBytes(entry.getKey(), entry.getValue());
+            for (Song song : entry.getValue().songs) {
+                bytes += SONG_BYTES + stringBytes(song.getTitle()) + stringBytes(song.getArtist())
+                        + stringBytes(song.getGenre()) + stringBytes(song.getFilePath());
+            }
+        }
+        for (Map.Entry<String, CachedList> entry : rankings.entrySet()) {
+            bytes += listBytes(entry.getKey(), entry.getValue());
+        }
+        return bytes;
+    }
+
+    @Override
+    public String toString() {
+        return String.format(
+                "RecommendationCache{candidateLists=%d, rankings=%d, candidateHitRatio=%.2f, rankingHitRatio=%.2f, hitRatio=%.2f, ~%d KB}",
+                getCandidateListCount(), getRankingCount(), getCandidateHitRatio(), getRankingHitRatio(),
+                getHitRatio(), getEstimatedBytes() / 1024);
+    }
+
+    private static long listBytes(String key, CachedList entry) {
+        return ENTRY_BYTES + stringBytes(key) + LIST_BYTES + REFERENCE_BYTES * entry.songs.size();
+    }
+
+    private static long stringBytes(String value) {
+        return value == null ? 0 : 40 + value.length();
+    }
+
+    private static double ratio(long hits, long misses) {
+        long total = hits + misses;
+        return total > 0 ? (double) hits / total : 0.0;
+    }
+
+    private static class CachedList {
+        final int userId;
+        final List<Song> songs;
+        final boolean complete;
+        final long loadedAt = System.currentTimeMillis();
+
+        CachedList(int userId, List<Song> songs, boolean complete) {
+            this.userId = userId;
+            this.songs = songs;
+            this.complete = complete;
+        }
+
+        boolean isOlderThan(long ttlMillis) {
+            return System.currentTimeMillis() - loadedAt > ttlMillis;
+        }
+    }
+}
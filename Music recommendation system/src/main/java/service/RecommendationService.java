@@ -2,19 +2,48 @@ package main.java.service;
 
 import main.java.dao.*;
 import main.java.model.*;
+import main.java.util.TopK;
 
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.function.Supplier;
 
 public class RecommendationService {
 
+    // Weight of the latent-factor predicted rating (1-5) in the personal score
+    private static final double LATENT_WEIGHT = Double.parseDouble(System.getProperty("rec.latentWeight", "1.0"));
+
+    // Moods tried in order when a mood has no mood-shifting songs for the
+    // activity (comma separated)
+    private static final List<String> MOOD_SHIFT_FALLBACKS = List.of(
+            System.getProperty("rec.moodShiftFallbacks", "Happy,Energetic").split("\\s*,\\s*"));
+
+    // Time slots for getContextualRecommendations, also warmed into the cache
+    private static final ContextSlot[] CONTEXT_SLOTS = {
+            new ContextSlot(6, 9, "Energetic", "Commuting"), // Morning: Energetic music
+            new ContextSlot(9, 12, "Motivated", "Working"), // Late morning: Focus music
+            new ContextSlot(12, 14, "Calm", "Relaxing"), // Lunch time: Relaxing music
+            new ContextSlot(14, 18, "Motivated", "Working"), // Afternoon: Productive music
+            new ContextSlot(18, 21, "Happy", "Relaxing"), // Evening: Upbeat or relaxing
+            new ContextSlot(21, 23, "Calm", "Relaxing"), // Night: Calm music
+            new ContextSlot(23, 6, "Calm", "Sleeping") // Late night: Sleep music
+    };
+
     private SongDAO songDAO;
     private MoodDAO moodDAO;
     private ActivityDAO activityDAO;
     private UserRatingDAO userRatingDAO;
     private UserFavoriteDAO userFavoriteDAO;
+    private InteractionDAO interactionDAO;
+    private CollaborativeRecommender collaborativeRecommender;
+    private MatrixFactorizationRecommender matrixFactorization;
+    private RecommendationCache cache;
+    private MoodGraph moodGraph;
 
     public RecommendationService() {
         this.songDAO = new SongDAO();
@@ -22,6 +51,11 @@ public class RecommendationService {
         this.activityDAO = new ActivityDAO();
         this.userRatingDAO = new UserRatingDAO();
         this.userFavoriteDAO = new UserFavoriteDAO();
+        this.interactionDAO = new InteractionDAO();
+        this.collaborativeRecommender = CollaborativeRecommender.getInstance();
+        this.matrixFactorization = MatrixFactorizationRecommender.getInstance();
+        this.cache = RecommendationCache.getInstance();
+        this.moodGraph = MoodGraph.getInstance();
     }
 
     /**
@@ -34,25 +68,49 @@ public class RecommendationService {
      * @return List of recommended songs
      */
     public List<Song> getRecommendations(String moodName, String activityName, int userId) {
-        Mood mood = moodDAO.getMoodByName(moodName);
-        Activity activity = activityDAO.getActivityByName(activityName);
+        return getRecommendations(moodName, activityName, userId, 0, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Get one page of personalized recommendations based on mood and activity
+     * 
+     * @param moodName     Mood name (e.g., "Happy", "Sad")
+     * @param activityName Activity name (e.g., "Studying", "Workout")
+     * @param userId       User ID for personalization (0 if not logged in)
+     * @param offset       Number of top ranked songs to skip
+     * @param limit        Maximum number of songs
+     * @return Recommended songs ranked offset to offset + limit
+     * @throws IllegalArgumentException if offset or limit is negative
+     */
+    public List<Song> getRecommendations(String moodName, String activityName, int userId,
+            int offset, int limit) {
+        checkWindow(offset, limit);
+        String key = RecommendationCache.candidateKey("match", moodName, activityName);
+        List<Song> recommendations = getCandidates(key, () -> {
+            Mood mood = moodDAO.getMoodByName(moodName);
+            Activity activity = activityDAO.getActivityByName(activityName);
+
+            if (mood == null || activity == null) {
+                return null;
+            }
 
-        if (mood == null || activity == null) {
+            // Get songs matching BOTH mood AND activity (Your USP #1)
+            return songDAO.getSongsByMoodAndActivity(
+                    mood.getMoodId(),
+                    activity.getActivityId());
+        });
+
+        if (recommendations == null) {
             System.err.println("Invalid mood or activity!");
             return new ArrayList<>();
         }
 
-        // Get songs matching BOTH mood AND activity (Your USP #1)
-        List<Song> recommendations = songDAO.getSongsByMoodAndActivity(
-                mood.getMoodId(),
-                activity.getActivityId());
-
         // If user is logged in, personalize based on their history
         if (userId > 0 && !recommendations.isEmpty()) {
-            recommendations = personalizeRecommendations(recommendations, userId);
+            return getRanking(key, recommendations, userId, offset, limit);
         }
 
-        return recommendations;
+        return window(recommendations, offset, limit);
     }
 
     /**
@@ -66,45 +124,126 @@ public class RecommendationService {
     public List<Song> getMoodShiftingRecommendations(String currentMoodName,
             String activityName,
             int userId) {
-        Mood currentMood = moodDAO.getMoodByName(currentMoodName);
-        Activity activity = activityDAO.getActivityByName(activityName);
+        return getMoodShiftingRecommendations(currentMoodName, activityName, userId, 0, Integer.MAX_VALUE);
+    }
 
-        if (currentMood == null || activity == null) {
+    /**
+     * Get one page of mood-shifting recommendations
+     * 
+     * @param currentMoodName Current mood
+     * @param activityName    Current activity
+     * @param userId          User ID
+     * @param offset          Number of top ranked songs to skip
+     * @param limit           Maximum number of songs
+     * @return Mood-shifting songs ranked offset to offset + limit
+     * @throws IllegalArgumentException if offset or limit is negative
+     */
+    public List<Song> getMoodShiftingRecommendations(String currentMoodName,
+            String activityName,
+            int userId,
+            int offset,
+            int limit) {
+        checkWindow(offset, limit);
+        // Songs for OPPOSITE mood (Your USP #2), or else uplifting
+        // alternatives, resolved in one step
+        String key = RecommendationCache.candidateKey("shift", currentMoodName, activityName);
+        List<Song> moodShiftingSongs = getCandidates(key, () -> {
+            if (moodDAO.getMoodByName(currentMoodName) == null
+                    || activityDAO.getActivityByName(activityName) == null) {
+                return null;
+            }
+            return songDAO.getMoodShiftingSongs(currentMoodName, activityName, MOOD_SHIFT_FALLBACKS);
+        });
+
+        if (moodShiftingSongs == null) {
             System.err.println("Invalid mood or activity!");
             return new ArrayList<>();
         }
 
-        // Get songs for OPPOSITE mood (Your USP #2)
-        List<Song> moodShiftingSongs = songDAO.getSongsForReverseMood(
-                currentMood.getMoodId(),
-                activity.getActivityId());
+        if (userId > 0 && !moodShiftingSongs.isEmpty()) {
+            return getRanking(key, moodShiftingSongs, userId, offset, limit);
+        }
 
-        // Fallback: If no reverse mood songs, get energetic/happy songs
-        if (moodShiftingSongs.isEmpty()) {
-            System.out.println("No direct mood-shifting songs found. Getting uplifting alternatives...");
-            Mood happyMood = moodDAO.getMoodByName("Happy");
-            if (happyMood != null) {
-                moodShiftingSongs = songDAO.getSongsByMoodAndActivity(
-                        happyMood.getMoodId(),
-                        activity.getActivityId());
-            }
+        return window(moodShiftingSongs, offset, limit);
+    }
 
-            // If still empty, try Energetic
-            if (moodShiftingSongs.isEmpty()) {
-                Mood energeticMood = moodDAO.getMoodByName("Energetic");
-                if (energeticMood != null) {
-                    moodShiftingSongs = songDAO.getSongsByMoodAndActivity(
-                            energeticMood.getMoodId(),
-                            activity.getActivityId());
+    /**
+     * Get a gradual mood-shift playlist: the cheapest path through the mood
+     * graph from the current to the target mood (e.g. Sad -> Calm -> Happy),
+     * with the songs split evenly over the moods along the way. Each mood's
+     * songs come from the recommendation cache, so a repeat plan runs no
+     * queries.
+     * 
+     * @param currentMoodName Current mood
+     * @param targetMoodName  Mood to end in
+     * @param activityName    Current activity
+     * @param userId          User ID (0 if not logged in)
+     * @param songCount       Playlist length
+     * @return Moods passed through and the songs in play order (no moods if
+     *         the target cannot be reached)
+     */
+    public MoodTrajectory getMoodTrajectory(String currentMoodName, String targetMoodName,
+            String activityName, int userId, int songCount) {
+        List<String> moods = moodGraph.findTrajectory(currentMoodName, targetMoodName);
+        List<Song> playlist = new ArrayList<>();
+        Set<Integer> used = new HashSet<>();
+
+        int shortfall = 0;
+        for (int step = 0; step < moods.size(); step++) {
+            // A mood short of songs passes its share on to the next one
+            int share = (int) ((long) songCount * (step + 1) / moods.size()
+                    - (long) songCount * step / moods.size());
+            int wanted = share + shortfall;
+            int added = 0;
+            for (Song song : getRecommendations(moods.get(step), activityName, userId, 0, songCount)) {
+                if (added == wanted) {
+                    break;
+                }
+                if (used.add(song.getSongId())) {
+                    playlist.add(song);
+                    added++;
                 }
             }
+            shortfall = wanted - added;
         }
 
-        if (userId > 0 && !moodShiftingSongs.isEmpty()) {
-            moodShiftingSongs = personalizeRecommendations(moodShiftingSongs, userId);
+        return new MoodTrajectory(moods, playlist);
+    }
+
+    /**
+     * Candidate list from the cache, loaded on a miss
+     * 
+     * @param key    Candidate key
+     * @param loader Loads the candidates, null if the mood or activity does
+     *               not exist
+     * @return Candidates (shared, not to be modified), or null
+     */
+    private List<Song> getCandidates(String key, Supplier<List<Song>> loader) {
+        List<Song> candidates = cache.getCandidates(key);
+        if (candidates == null) {
+            long generation = cache.getGeneration();
+            candidates = loader.get();
+            // An empty list may be a failed query, so it is not kept
+            if (candidates != null && !candidates.isEmpty()) {
+                cache.putCandidates(key, candidates, generation);
+            }
         }
+        return candidates;
+    }
 
-        return moodShiftingSongs;
+    /**
+     * One window of a user's ranking of a candidate list, from the cache or
+     * ranked on a miss
+     */
+    private List<Song> getRanking(String key, List<Song> candidates, int userId, int offset, int limit) {
+        int wanted = (int) Math.min((long) offset + limit, candidates.size());
+        List<Song> ranked = cache.getRanking(userId, key, wanted);
+        if (ranked == null) {
+            long generation = cache.getGeneration();
+            ranked = personalizeRecommendations(candidates, userId, 0, wanted);
+            cache.putRanking(userId, key, ranked, ranked.size() == candidates.size(), generation);
+        }
+        return window(ranked, offset, limit);
     }
 
     /**
@@ -114,43 +253,109 @@ public class RecommendationService {
      * @param userId User ID
      * @return Personalized list of songs
      */
-    private List<Song> personalizeRecommendations(List<Song> songs, int userId) {
-        // Create a scoring map
-        Map<Integer, Double> songScores = new HashMap<>();
+    public List<Song> personalizeRecommendations(List<Song> songs, int userId) {
+        return personalizeRecommendations(songs, userId, 0, songs.size());
+    }
 
-        for (Song song : songs) {
-            double score = 0.0;
+    /**
+     * Rank candidates by the user's history and return one window of the
+     * ranking. Only the best offset + limit candidates are kept (bounded
+     * heap), so ranking N candidates costs O(N log K) instead of a full sort.
+     * Songs with equal scores keep their candidate order.
+     * 
+     * @param songs  List of candidate songs (not modified)
+     * @param userId User ID
+     * @param offset Number of top ranked songs to skip
+     * @param limit  Maximum number of songs
+     * @return Songs ranked offset to offset + limit
+     * @throws IllegalArgumentException if offset or limit is negative
+     */
+    public List<Song> personalizeRecommendations(List<Song> songs, int userId, int offset, int limit) {
+        checkWindow(offset, limit);
+        int wanted = (int) Math.min((long) offset + limit, songs.size());
+        if (offset >= wanted) {
+            return new ArrayList<>();
+        }
 
-            // Factor 1: User's own rating (highest weight)
-            int userRating = userRatingDAO.getUserRating(userId, song.getSongId());
-            if (userRating > 0) {
-                score += userRating * 2.0; // Double weight for user's own ratings
+        int[] songIds = new int[songs.size()];
+        for (int i = 0; i < songIds.length; i++) {
+            songIds[i] = songs.get(i).getSongId();
+        }
+
+        // Two set-based queries instead of four lookups per candidate, into
+        // arrays indexed by candidate position
+        CandidateSignals signals = new CandidateSignals(songIds);
+        userRatingDAO.addRatingSignals(userId, signals);
+        userFavoriteDAO.addFavoriteSignals(userId, signals);
+
+        // Predicted ratings, for users with long rating histories
+        float[] predictions = matrixFactorization.predict(userId, songIds);
+
+        // Keep the best candidates by position
+        TopK best = new TopK(wanted);
+        for (int i = 0; i < songIds.length; i++) {
+            double score = calculateScore(signals.getUserRating(i), signals.getAverageRating(i),
+                    signals.isFavorite(i), signals.getFavoriteCount(i));
+            if (predictions != null && !Float.isNaN(predictions[i])) {
+                score += predictions[i] * LATENT_WEIGHT;
             }
+            best.offer(i, score);
+        }
+
+        int[] ranked = best.sortedIds();
+        List<Song> page = new ArrayList<>(ranked.length - offset);
+        for (int r = offset; r < ranked.length; r++) {
+            page.add(songs.get(ranked[r]));
+        }
+        return page;
+    }
 
-            // Factor 2: Average rating from all users
-            double avgRating = userRatingDAO.getAverageSongRating(song.getSongId());
-            score += avgRating;
+    /**
+     * Reject a negative offset or limit at the public entry points
+     */
+    private static void checkWindow(int offset, int limit) {
+        if (offset < 0 || limit < 0) {
+            throw new IllegalArgumentException("Invalid window: offset=" + offset + ", limit=" + limit);
+        }
+    }
 
-            // Factor 3: Favorite status (bonus points)
-            if (userFavoriteDAO.isFavorite(userId, song.getSongId())) {
-                score += 5.0; // Bonus for favorited songs
-            }
+    /**
+     * Copy of one window of an already ordered list
+     */
+    private List<Song> window(List<Song> songs, int offset, int limit) {
+        int to = (int) Math.min((long) offset + limit, songs.size());
+        return offset >= to ? new ArrayList<>() : new ArrayList<>(songs.subList(offset, to));
+    }
 
-            // Factor 4: Popularity (favorite count)
-            int favoriteCount = userFavoriteDAO.getFavoriteCount(song.getSongId());
-            score += Math.log(favoriteCount + 1) * 0.5; // Logarithmic scaling
+    /**
+     * Personalization score from the individual signals
+     * 
+     * @param userRating    The user's own rating (1-5), or -1 if not rated
+     * @param averageRating Average rating from all users
+     * @param favorite      Whether the user has favorited the song
+     * @param favoriteCount Number of users who favorited the song
+     * @return Score (higher ranks first)
+     */
+    public static double calculateScore(int userRating, double averageRating, boolean favorite, int favoriteCount) {
+        double score = 0.0;
 
-            songScores.put(song.getSongId(), score);
+        // Factor 1: User's own rating (highest weight)
+        if (userRating > 0) {
+            score += userRating * 2.0; // Double weight for user's own ratings
         }
 
-        // Sort songs by score (descending)
-        songs.sort((s1, s2) -> {
-            double score1 = songScores.getOrDefault(s1.getSongId(), 0.0);
-            double score2 = songScores.getOrDefault(s2.getSongId(), 0.0);
-            return Double.compare(score2, score1);
-        });
+        // Factor 2: Average rating from all users
+        score += averageRating;
+
+        // Factor 3: Favorite status (bonus points)
+        if (favorite) {
+            score += 5.0; // Bonus for favorited songs
+        }
 
-        return songs;
+        // Factor 4: Popularity (favorite count)
+        score += Math.log(favoriteCount + 1) * 0.5; // Logarithmic scaling
+
+        return score;
     }
 
     /**
@@ -168,7 +373,26 @@ public class RecommendationService {
             recommendations.addAll(favorites);
         }
 
-        // Strategy 2: Get top rated songs
+        // Strategy 2: Songs liked by users with similar taste
+        if (userId > 0) {
+            for (Song song : getCollaborativeRecommendations(userId, 10)) {
+                if (!containsSong(recommendations, song)) {
+                    recommendations.add(song);
+                }
+            }
+        }
+
+        // Strategy 3: Songs the latent-factor model predicts the user will
+        // rate highly, for users with long rating histories
+        if (userId > 0) {
+            for (Song song : getLatentFactorRecommendations(userId, 10)) {
+                if (!containsSong(recommendations, song)) {
+                    recommendations.add(song);
+                }
+            }
+        }
+
+        // Strategy 4: Get top rated songs
         List<Song> topRated = userRatingDAO.getTopRatedSongs(5);
         for (Song song : topRated) {
             if (!containsSong(recommendations, song)) {
@@ -176,7 +400,7 @@ public class RecommendationService {
             }
         }
 
-        // Strategy 3: Get most favorited songs
+        // Strategy 5: Get most favorited songs
         List<Song> mostFavorited = userFavoriteDAO.getMostFavoritedSongs(5);
         for (Song song : mostFavorited) {
             if (!containsSong(recommendations, song)) {
@@ -226,38 +450,15 @@ public class RecommendationService {
         java.time.LocalTime now = java.time.LocalTime.now();
         int hour = now.getHour();
 
-        String suggestedMood;
-        String suggestedActivity;
-
-        if (hour >= 6 && hour < 9) {
-            // Morning: Energetic music
-            suggestedMood = "Energetic";
-            suggestedActivity = "Commuting";
-        } else if (hour >= 9 && hour < 12) {
-            // Late morning: Focus music
-            suggestedMood = "Motivated";
-            suggestedActivity = "Working";
-        } else if (hour >= 12 && hour < 14) {
-            // Lunch time: Relaxing music
-            suggestedMood = "Calm";
-            suggestedActivity = "Relaxing";
-        } else if (hour >= 14 && hour < 18) {
-            // Afternoon: Productive music
-            suggestedMood = "Motivated";
-            suggestedActivity = "Working";
-        } else if (hour >= 18 && hour < 21) {
-            // Evening: Upbeat or relaxing
-            suggestedMood = "Happy";
-            suggestedActivity = "Relaxing";
-        } else if (hour >= 21 && hour < 23) {
-            // Night: Calm music
-            suggestedMood = "Calm";
-            suggestedActivity = "Relaxing";
-        } else {
-            // Late night: Sleep music
-            suggestedMood = "Calm";
-            suggestedActivity = "Sleeping";
+        ContextSlot slot = CONTEXT_SLOTS[CONTEXT_SLOTS.length - 1];
+        for (ContextSlot candidate : CONTEXT_SLOTS) {
+            if (candidate.contains(hour)) {
+                slot = candidate;
+                break;
+            }
         }
+        String suggestedMood = slot.mood;
+        String suggestedActivity = slot.activity;
 
         System.out.println("🕐 Contextual recommendation for " + hour + ":00");
         System.out.println("   Suggested: " + suggestedMood + " + " + suggestedActivity);
@@ -265,6 +466,66 @@ public class RecommendationService {
         return getRecommendations(suggestedMood, suggestedActivity, userId);
     }
 
+    /**
+     * Load the mood and activity dictionary and the candidate lists of every
+     * contextual time slot, on a background thread
+     */
+    public static void warmCacheInBackground() {
+        Thread warmer = new Thread(() -> {
+            if (!MoodActivityDictionary.getInstance().ensureLoaded()) {
+                return;
+            }
+            RecommendationService service = new RecommendationService();
+            Set<String> warmed = new LinkedHashSet<>();
+            for (ContextSlot slot : CONTEXT_SLOTS) {
+                if (warmed.add(slot.mood + " + " + slot.activity)) {
+                    service.getRecommendations(slot.mood, slot.activity, 0, 0, 0);
+                }
+            }
+            System.out.println("Warmed recommendation cache: " + warmed);
+        }, "rec-cache-warmup");
+        warmer.setDaemon(true);
+        warmer.start();
+    }
+
+    /**
+     * Get collaborative filtering recommendations: songs rated or favorited
+     * by users who liked the same songs as this user
+     * 
+     * @param userId User ID
+     * @param limit  Maximum number of songs
+     * @return Songs the user has not rated or favorited yet, best first (empty
+     *         while the model is still training)
+     */
+    public List<Song> getCollaborativeRecommendations(int userId, int limit) {
+        List<Integer> songIds = collaborativeRecommender.recommendSongIds(userId, limit);
+        if (songIds.isEmpty()) {
+            return new ArrayList<>();
+        }
+        return songDAO.getSongsByIds(songIds);
+    }
+
+    /**
+     * Get latent-factor recommendations from the whole catalog, for users
+     * with long rating histories
+     * 
+     * @param userId User ID
+     * @param limit  Maximum number of songs
+     * @return Songs the user has not rated or favorited yet, best first (empty
+     *         if there is no model or the user has too few ratings)
+     */
+    public List<Song> getLatentFactorRecommendations(int userId, int limit) {
+        if (!matrixFactorization.isServed(userId)) {
+            return new ArrayList<>();
+        }
+        Set<Integer> seen = interactionDAO.getUserInteractions(userId).keySet();
+        List<Integer> songIds = matrixFactorization.recommendSongIds(userId, limit, seen);
+        if (songIds.isEmpty()) {
+            return new ArrayList<>();
+        }
+        return songDAO.getSongsByIds(songIds);
+    }
+
     /**
      * Get recommendations based on user's favorites pattern
      * 
@@ -272,6 +533,12 @@ public class RecommendationService {
      * @return Similar songs to user's favorites
      */
     public List<Song> getRecommendationsBasedOnFavorites(int userId) {
+        // Prefer what similar users liked; the tag match below is the fallback
+        List<Song> collaborative = getCollaborativeRecommendations(userId, 20);
+        if (!collaborative.isEmpty()) {
+            return collaborative;
+        }
+
         List<Song> recommendations = new ArrayList<>();
         List<Song> favorites = userFavoriteDAO.getUserFavorites(userId);
 
@@ -351,4 +618,26 @@ public class RecommendationService {
     public List<Activity> getAvailableActivities() {
         return activityDAO.getAllActivities();
     }
-}
\ No newline at end of file
+
+    /**
+     * Hours [fromHour, toHour) of the day, wrapping past midnight when
+     * fromHour > toHour, and the mood and activity suggested for them
+     */
+    private static class ContextSlot {
+        final int fromHour;
+        final int toHour;
+        final String mood;
+        final String activity;
+
+        ContextSlot(int fromHour, int toHour, String mood, String activity) {
+            this.fromHour = fromHour;
+            this.toHour = toHour;
+            this.mood = mood;
+            this.activity = activity;
+        }
+
+        boolean contains(int hour) {
+            return fromHour < toHour ? hour >= fromHour && hour < toHour : hour >= fromHour || hour < toHour;
+        }
+    }
+}
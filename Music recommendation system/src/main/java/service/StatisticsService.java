@@ -0,0 +1,156 @@
+package main.java.service;
+
+import main.java.dao.ActivityDAO;
+import main.java.dao.DataChangeEvents;
+import main.java.dao.MoodDAO;
+import main.java.dao.StatisticsDAO;
+import main.java.model.Activity;
+import main.java.model.CatalogStatistics;
+import main.java.model.Mood;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Figures for the admin statistics tab, counted once with a single grouped
+ * query and then kept current from DataChangeEvents: song adds, tag
+ * changes, ratings and favorites adjust the counts in place. Only a song
+ * delete, whose tags, ratings and favorites go with it by cascade, makes
+ * the next read count again.
+ *
+ * Mood and activity names and counts come from the in-memory dictionary.
+ */
+public class StatisticsService implements DataChangeEvents.Listener {
+
+    private static final StatisticsService INSTANCE = new StatisticsService();
+
+    static {
+        DataChangeEvents.addListener(INSTANCE);
+    }
+
+    private final StatisticsDAO statisticsDAO = new StatisticsDAO();
+    private final MoodDAO moodDAO = new MoodDAO();
+    private final ActivityDAO activityDAO = new ActivityDAO();
+
+    // Counts, guarded by this
+    private boolean counted = false;
+    private int songCount;
+    private int ratingCount;
+    private int favoriteCount;
+    private final Map<Integer, Integer> songsByMood = new HashMap<>();
+    private final Map<Integer, Integer> songsByActivity = new HashMap<>();
+    private long changeCount = 0;
+
+    private StatisticsService() {
+    }
+
+    public static StatisticsService getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Current statistics, counted on the first call and after a song delete
+     *
+     * @return Statistics, or null if they could not be counted
+     */
+    public CatalogStatistics getStatistics() {
+        long changesBefore;
+        synchronized (this) {
+            if (counted) {
+                return snapshot();
+            }
+            changesBefore = changeCount;
+        }
+
+        int[] totals = new int[3];
+        Map<Integer, Integer> moods = new HashMap<>();
+        Map<Integer, Integer> activities = new HashMap<>();
+        boolean ok = statisticsDAO.forEachCount((metric, itemId, count) -> {
+            switch (metric) {
+                case StatisticsDAO.SONGS:
+                    totals[0] = count;
+                    break;
+                case StatisticsDAO.RATINGS:
+                    totals[1] = count;
+                    break;
+                case StatisticsDAO.FAVORITES:
+                    totals[2] = count;
+                    break;
+                case StatisticsDAO.SONGS_BY_MOOD:
+                    moods.put(itemId, count);
+                    break;
+                case StatisticsDAO.SONGS_BY_ACTIVITY:
+                    activities.put(itemId, count);
+                    break;
+                default:
+                    break;
+            }
+        });
+        if (!ok) {
+            return null;
+        }
+
+        synchronized (this) {
+            songCount = totals[0];
+            ratingCount = totals[1];
+            favoriteCount = totals[2];
+            songsByMood.clear();
+            songsByMood.putAll(moods);
+            songsByActivity.clear();
+            songsByActivity.putAll(activities);
+            // A write during the query may be missing, count again next time
+            counted = changeCount == changesBefore;
+            return snapshot();
+        }
+    }
+
+    @Override
+    public synchronized void onDataChanged(DataChangeEvents.Type type, int userId, int songId, int tagId,
+            int delta) {
+        changeCount++;
+        if (!counted) {
+            return;
+        }
+        switch (type) {
+            case SONG:
+                if (delta < 0) {
+                    counted = false;
+                } else {
+                    songCount += delta;
+                }
+                break;
+            case MOOD_TAG:
+                songsByMood.merge(tagId, delta, Integer::sum);
+                break;
+            case ACTIVITY_TAG:
+                songsByActivity.merge(tagId, delta, Integer::sum);
+                break;
+            case RATING:
+                ratingCount += delta;
+                break;
+            case FAVORITE:
+                favoriteCount += delta;
+                break;
+            default:
+                break;
+        }
+    }
+
+    private CatalogStatistics snapshot() {
+        CatalogStatistics statistics = new CatalogStatistics();
+        statistics.setSongCount(songCount);
+        statistics.setRatingCount(ratingCount);
+        statistics.setFavoriteCount(favoriteCount);
+
+        for (Mood mood : moodDAO.getAllMoods()) {
+            statistics.getSongsPerMood().put(mood.getMoodName(), songsByMood.getOrDefault(mood.getMoodId(), 0));
+        }
+        for (Activity activity : activityDAO.getAllActivities()) {
+            statistics.getSongsPerActivity().put(activity.getActivityName(),
+                    songsByActivity.getOrDefault(activity.getActivityId(), 0));
+        }
+        statistics.setMoodCount(statistics.getSongsPerMood().size());
+        statistics.setActivityCount(statistics.getSongsPerActivity().size());
+        return statistics;
+    }
+}
@@ -2,11 +2,12 @@ package main.java.ui;
 
 import main.java.dao.ActivityLogDAO;
 import main.java.model.ActivityLog;
+import main.java.util.AsyncExecutor;
 
 import javax.swing.*;
-import javax.swing.table.DefaultTableModel;
 import javax.swing.table.DefaultTableCellRenderer;
 import java.awt.*;
+import java.sql.SQLException;
 import java.text.SimpleDateFormat;
 import java.util.List;
 
@@ -29,7 +30,12 @@ public class ActivityLogViewer extends JFrame {
     private static final Color BORDER_COLOR = new Color(229, 231, 235);
 
     private ActivityLogDAO logDAO;
-    private DefaultTableModel tableModel;
+    // Auto-refresh skips a tick while the previous load is still running
+    private static final int LOG_PAGE_SIZE = 100;
+
+    private volatile String currentFilter = "ALL";
+    private final SimpleDateFormat timestampFormat = new SimpleDateFormat("yyyy-MM-dd HH:mm:ss");
+    private PagedTableModel<ActivityLog> tableModel;
     private JTable logsTable;
     private Timer refreshTimer;
     private JLabel countLabel; // ✅ Store reference to label
@@ -85,9 +91,6 @@ public class ActivityLogViewer extends JFrame {
 
         add(mainPanel);
 
-        // Load initial data
-        loadLogs("ALL");
-
         setVisible(true);
     }
 
@@ -172,12 +175,15 @@ public class ActivityLogViewer extends JFrame {
 
     private void createTable() {
         String[] columns = { "ID", "Action", "Table", "Description", "User ID", "Admin ID", "Timestamp" };
-        tableModel = new DefaultTableModel(columns, 0) {
-            @Override
-            public boolean isCellEditable(int row, int column) {
-                return false;
+        // The first page loads as soon as the model is created
+        tableModel = new PagedTableModel<>(columns, this::fetchLogsPage, this::logColumnValue,
+                ActivityLog::getLogId, LOG_PAGE_SIZE, 10);
+        tableModel.setOnPageLoaded(this::updateLogCount);
+        tableModel.setOnPageFailed(error -> {
+            if (countLabel != null) {
+                countLabel.setText("Error loading logs");
             }
-        };
+        });
 
         logsTable = new JTable(tableModel);
         logsTable.setFont(new Font("Segoe UI", Font.PLAIN, 12));
@@ -281,37 +287,42 @@ public class ActivityLogViewer extends JFrame {
     }
 
     private void loadLogs(String filter) {
-        tableModel.setRowCount(0);
-        List<ActivityLog> logs;
-
-        if ("ALL".equals(filter)) {
-            logs = logDAO.getAllLogs(100);
-        } else {
-            logs = logDAO.getLogsByAction(filter, 100);
+        currentFilter = filter;
+        if (countLabel != null) {
+            countLabel.setText("Loading...");
         }
+        tableModel.refresh();
+    }
 
-        SimpleDateFormat sdf = new SimpleDateFormat("yyyy-MM-dd HH:mm:ss");
-
-        for (ActivityLog log : logs) {
-            tableModel.addRow(new Object[] {
-                    log.getLogId(),
-                    log.getActionType(),
-                    log.getTableName() != null ? log.getTableName() : "-",
-                    log.getDescription(),
-                    log.getUserId() != null ? log.getUserId() : "-",
-                    log.getAdminId() != null ? log.getAdminId() : "-",
-                    sdf.format(log.getTimestamp())
-            });
-        }
+    private List<ActivityLog> fetchLogsPage(ActivityLog after, int limit) throws SQLException {
+        String filter = currentFilter;
+        return logDAO.getLogsPage(after != null ? after.getLogId() : null,
+                "ALL".equals(filter) ? null : filter, limit);
+    }
 
-        // ✅ Update count using stored reference
-        updateLogCount(logs.size());
+    private Object logColumnValue(ActivityLog log, int column) {
+        switch (column) {
+            case 0:
+                return log.getLogId();
+            case 1:
+                return log.getActionType();
+            case 2:
+                return log.getTableName() != null ? log.getTableName() : "-";
+            case 3:
+                return log.getDescription();
+            case 4:
+                return log.getUserId() != null ? log.getUserId() : "-";
+            case 5:
+                return log.getAdminId() != null ? log.getAdminId() : "-";
+            default:
+                return timestampFormat.format(log.getTimestamp());
+        }
     }
 
-    // ✅ SIMPLIFIED updateLogCount method
-    private void updateLogCount(int count) {
+    private void updateLogCount() {
         if (countLabel != null) {
-            countLabel.setText("Total Logs: " + count);
+            countLabel.setText("Total Logs: " + tableModel.getLoadedRowCount()
+                    + (tableModel.isComplete() ? "" : "+"));
         }
     }
 
@@ -331,13 +342,18 @@ public class ActivityLogViewer extends JFrame {
                             JOptionPane.YES_NO_OPTION);
 
                     if (confirm == JOptionPane.YES_OPTION) {
-                        if (logDAO.clearOldLogs(days)) {
-                            JOptionPane.showMessageDialog(this,
-                                    "Old logs cleared successfully!",
-                                    "Success",
-                                    JOptionPane.INFORMATION_MESSAGE);
-                            loadLogs("ALL");
-                        }
+                        AsyncExecutor.load(() -> logDAO.clearOldLogs(days), cleared -> {
+                            if (cleared) {
+                                JOptionPane.showMessageDialog(this,
+                                        "Old logs cleared successfully!",
+                                        "Success",
+                                        JOptionPane.INFORMATION_MESSAGE);
+                                loadLogs("ALL");
+                            }
+                        }, error -> JOptionPane.showMessageDialog(this,
+                                "Failed to clear old logs!",
+                                "Error",
+                                JOptionPane.ERROR_MESSAGE));
                     }
                 }
             } catch (NumberFormatException e) {
@@ -351,8 +367,12 @@ public class ActivityLogViewer extends JFrame {
 
     private void startAutoRefresh() {
         refreshTimer = new Timer(5000, e -> {
-            String currentFilter = (String) filterCombo.getSelectedItem();
-            loadLogs(currentFilter);
+            // New logs arrive at the top: reload the first page in place, and
+            // leave the table alone while the user is reading further down
+            int firstVisibleRow = logsTable.rowAtPoint(logsTable.getVisibleRect().getLocation());
+            if (firstVisibleRow < LOG_PAGE_SIZE) {
+                tableModel.reloadFirstPage();
+            }
         });
         refreshTimer.start();
     }
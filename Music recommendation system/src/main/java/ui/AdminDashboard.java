@@ -1,20 +1,28 @@
 package main.java.ui;
 
+import main.java.audio.MediaIndex;
+import main.java.audio.MediaInfo;
 import main.java.model.Admin;
 import main.java.model.Song;
 import main.java.model.Mood;
 import main.java.model.Activity;
 import main.java.model.ActivityLog;
+import main.java.model.CatalogStatistics;
 import main.java.dao.ActivityLogDAO;
 import main.java.dao.*;
+import main.java.service.StatisticsService;
+import main.java.util.AsyncExecutor;
 
 import javax.swing.*;
 import javax.swing.border.EmptyBorder;
+import javax.swing.event.DocumentEvent;
+import javax.swing.event.DocumentListener;
 import javax.swing.table.DefaultTableCellRenderer;
 import javax.swing.table.DefaultTableModel;
 import javax.swing.table.JTableHeader;
 import java.awt.*;
 import java.util.List;
+import java.util.Map;
 
 public class AdminDashboard extends JFrame {
 
@@ -34,9 +42,12 @@ public class AdminDashboard extends JFrame {
     private static final Color ADMIN_SECONDARY = new Color(220, 38, 38); // Darker red
     private static final Color BG_LIGHT = new Color(249, 250, 251); // Gray-50
     private static final Color BG_WHITE = Color.WHITE;
+
+    private static final int MEDIA_LOOKUP_DEBOUNCE_MS = 300;
     private static final Color TEXT_DARK = new Color(17, 24, 39); // Gray-900
     private static final Color TEXT_MUTED = new Color(107, 114, 128); // Gray-500
     private static final Color BORDER_COLOR = new Color(229, 231, 235); // Gray-200
+    private static final int SONG_PAGE_SIZE = 100;
 
     private JTabbedPane tabbedPane;
 
@@ -233,12 +244,9 @@ public class AdminDashboard extends JFrame {
 
         // Songs table
         String[] columns = { "ID", "Title", "Artist", "Genre", "Duration" };
-        DefaultTableModel tableModel = new DefaultTableModel(columns, 0) {
-            @Override
-            public boolean isCellEditable(int row, int column) {
-                return false;
-            }
-        };
+        // Songs are read a page at a time as the table is scrolled
+        PagedTableModel<Song> tableModel = new PagedTableModel<>(columns,
+                songDAO::getSongsPage, this::songColumnValue, Song::getSongId, SONG_PAGE_SIZE, 10);
         JTable songsTable = new JTable(tableModel);
         styleModernTable(songsTable, new Color(52, 73, 94));
         songsTable.setSelectionMode(ListSelectionModel.SINGLE_SELECTION);
@@ -247,33 +255,29 @@ public class AdminDashboard extends JFrame {
         scrollPane.setBorder(BorderFactory.createEmptyBorder(15, 0, 0, 0));
         panel.add(scrollPane, BorderLayout.CENTER);
 
-        // Load songs
-        loadSongs(tableModel);
-
         // Button actions
-        refreshButton.addActionListener(e -> loadSongs(tableModel));
+        refreshButton.addActionListener(e -> tableModel.refresh());
 
         editButton.addActionListener(e -> {
             int selectedRow = songsTable.getSelectedRow();
-            if (selectedRow == -1) {
+            Song selected = selectedRow == -1 ? null : tableModel.getRow(selectedRow);
+            if (selected == null) {
                 JOptionPane.showMessageDialog(this, "Please select a song to edit!",
                         "Error", JOptionPane.ERROR_MESSAGE);
                 return;
             }
-            int songId = (int) tableModel.getValueAt(selectedRow, 0);
-            editSong(songId, tableModel);
+            editSong(selected.getSongId(), tableModel);
         });
 
         deleteButton.addActionListener(e -> {
             int selectedRow = songsTable.getSelectedRow();
-            if (selectedRow == -1) {
+            Song selected = selectedRow == -1 ? null : tableModel.getRow(selectedRow);
+            if (selected == null) {
                 JOptionPane.showMessageDialog(this, "Please select a song to delete!",
                         "Error", JOptionPane.ERROR_MESSAGE);
                 return;
             }
-            int songId = (int) tableModel.getValueAt(selectedRow, 0);
-            String title = (String) tableModel.getValueAt(selectedRow, 1);
-            deleteSong(songId, title, tableModel);
+            deleteSong(selected.getSongId(), selected.getTitle(), tableModel);
         });
 
         wrapper.add(panel);
@@ -281,22 +285,20 @@ public class AdminDashboard extends JFrame {
     }
 
     /**
-     * Load all songs into table
+     * Cell value of the songs table
      */
-    private void loadSongs(DefaultTableModel tableModel) {
-        tableModel.setRowCount(0);
-        List<Song> songs = songDAO.getAllSongs();
-
-        for (Song song : songs) {
-            String duration = String.format("%d:%02d",
-                    song.getDuration() / 60, song.getDuration() % 60);
-            tableModel.addRow(new Object[] {
-                    song.getSongId(),
-                    song.getTitle(),
-                    song.getArtist(),
-                    song.getGenre(),
-                    duration
-            });
+    private Object songColumnValue(Song song, int column) {
+        switch (column) {
+            case 0:
+                return song.getSongId();
+            case 1:
+                return song.getTitle();
+            case 2:
+                return song.getArtist();
+            case 3:
+                return song.getGenre();
+            default:
+                return String.format("%d:%02d", song.getDuration() / 60, song.getDuration() % 60);
         }
     }
 
@@ -304,7 +306,7 @@ public class AdminDashboard extends JFrame {
      * Add new song
      */
     private void addSong() {
-        JPanel panel = new JPanel(new GridLayout(5, 2, 12, 12));
+        JPanel panel = new JPanel(new GridLayout(6, 2, 12, 12));
         panel.setBorder(BorderFactory.createEmptyBorder(15, 15, 15, 15));
         panel.setBackground(BG_WHITE);
 
@@ -325,8 +327,37 @@ public class AdminDashboard extends JFrame {
         panel.add(createLabel("File Path:"));
         panel.add(filePathField);
 
+        JLabel mediaLabel = new JLabel(" ");
+        panel.add(createLabel("Detected:"));
+        panel.add(mediaLabel);
+
+        // Fill in the duration once the path names a known audio file; each
+        // keystroke restarts the timer, so the file is only looked up (and
+        // probed) once typing pauses
+        Timer mediaLookup = new Timer(MEDIA_LOOKUP_DEBOUNCE_MS,
+                e -> fillFromMediaIndex(filePathField, durationField, mediaLabel));
+        mediaLookup.setRepeats(false);
+
+        filePathField.getDocument().addDocumentListener(new DocumentListener() {
+            @Override
+            public void insertUpdate(DocumentEvent e) {
+                mediaLookup.restart();
+            }
+
+            @Override
+            public void removeUpdate(DocumentEvent e) {
+                mediaLookup.restart();
+            }
+
+            @Override
+            public void changedUpdate(DocumentEvent e) {
+                mediaLookup.restart();
+            }
+        });
+
         int result = JOptionPane.showConfirmDialog(this, panel, "Add New Song",
                 JOptionPane.OK_CANCEL_OPTION, JOptionPane.PLAIN_MESSAGE);
+        mediaLookup.stop();
 
         if (result == JOptionPane.OK_OPTION) {
             try {
@@ -343,17 +374,18 @@ public class AdminDashboard extends JFrame {
                 }
 
                 Song song = new Song(title, artist, genre, duration, filePath);
-                int songId = songDAO.addSong(song);
-
-                if (songId > 0) {
-                    JOptionPane.showMessageDialog(this,
-                            "Song added successfully! ID: " + songId,
-                            "Success", JOptionPane.INFORMATION_MESSAGE);
-                    tabbedPane.setComponentAt(0, createManageSongsPanel());
-                } else {
-                    JOptionPane.showMessageDialog(this, "Failed to add song!",
-                            "Error", JOptionPane.ERROR_MESSAGE);
-                }
+                AsyncExecutor.load(() -> songDAO.addSong(song), songId -> {
+                    if (songId > 0) {
+                        JOptionPane.showMessageDialog(this,
+                                "Song added successfully! ID: " + songId,
+                                "Success", JOptionPane.INFORMATION_MESSAGE);
+                        tabbedPane.setComponentAt(0, createManageSongsPanel());
+                    } else {
+                        JOptionPane.showMessageDialog(this, "Failed to add song!",
+                                "Error", JOptionPane.ERROR_MESSAGE);
+                    }
+                }, error -> JOptionPane.showMessageDialog(this, "Failed to add song!",
+                        "Error", JOptionPane.ERROR_MESSAGE));
             } catch (NumberFormatException e) {
                 JOptionPane.showMessageDialog(this, "Duration must be a number!",
                         "Error", JOptionPane.ERROR_MESSAGE);
@@ -361,11 +393,45 @@ public class AdminDashboard extends JFrame {
         }
     }
 
+    /**
+     * Show what the media scanner knows about the entered file and fill in
+     * its duration. Files the scanner has not seen yet are probed in the
+     * background.
+     */
+    private void fillFromMediaIndex(JTextField filePathField, JTextField durationField, JLabel mediaLabel) {
+        String filePath = filePathField.getText().trim();
+        MediaInfo info = MediaIndex.getInstance().get(filePath);
+        if (info != null) {
+            showMediaInfo(info, durationField, mediaLabel);
+            return;
+        }
+
+        mediaLabel.setText(" ");
+        if (!filePath.isEmpty()) {
+            AsyncExecutor.load(() -> MediaIndex.getInstance().probe(filePath), probed -> {
+                if (probed != null && filePath.equals(filePathField.getText().trim())) {
+                    showMediaInfo(probed, durationField, mediaLabel);
+                }
+            }, error -> mediaLabel.setText(" "));
+        }
+    }
+
+    private void showMediaInfo(MediaInfo info, JTextField durationField, JLabel mediaLabel) {
+        mediaLabel.setText(info.toString());
+        if (info.getDurationSeconds() >= 0) {
+            durationField.setText(String.valueOf(info.getDurationSeconds()));
+        }
+    }
+
     /**
      * Edit song
      */
-    private void editSong(int songId, DefaultTableModel tableModel) {
-        Song song = songDAO.getSongById(songId);
+    private void editSong(int songId, PagedTableModel<Song> tableModel) {
+        AsyncExecutor.load(() -> songDAO.getSongById(songId), song -> showEditSongDialog(song, tableModel),
+                error -> showEditSongDialog(null, tableModel));
+    }
+
+    private void showEditSongDialog(Song song, PagedTableModel<Song> tableModel) {
         if (song == null) {
             JOptionPane.showMessageDialog(this, "Song not found!",
                     "Error", JOptionPane.ERROR_MESSAGE);
@@ -404,14 +470,17 @@ public class AdminDashboard extends JFrame {
                 song.setGenre(genreField.getText().trim());
                 song.setDuration(Integer.parseInt(durationField.getText().trim()));
 
-                if (songDAO.updateSong(song)) {
-                    JOptionPane.showMessageDialog(this, "Song updated successfully!",
-                            "Success", JOptionPane.INFORMATION_MESSAGE);
-                    loadSongs(tableModel);
-                } else {
-                    JOptionPane.showMessageDialog(this, "Failed to update song!",
-                            "Error", JOptionPane.ERROR_MESSAGE);
-                }
+                AsyncExecutor.load(() -> songDAO.updateSong(song), updated -> {
+                    if (updated) {
+                        JOptionPane.showMessageDialog(this, "Song updated successfully!",
+                                "Success", JOptionPane.INFORMATION_MESSAGE);
+                        tableModel.refresh();
+                    } else {
+                        JOptionPane.showMessageDialog(this, "Failed to update song!",
+                                "Error", JOptionPane.ERROR_MESSAGE);
+                    }
+                }, error -> JOptionPane.showMessageDialog(this, "Failed to update song!",
+                        "Error", JOptionPane.ERROR_MESSAGE));
             } catch (NumberFormatException e) {
                 JOptionPane.showMessageDialog(this, "Duration must be a number!",
                         "Error", JOptionPane.ERROR_MESSAGE);
@@ -422,20 +491,23 @@ public class AdminDashboard extends JFrame {
     /**
      * Delete song
      */
-    private void deleteSong(int songId, String title, DefaultTableModel tableModel) {
+    private void deleteSong(int songId, String title, PagedTableModel<Song> tableModel) {
         int confirm = JOptionPane.showConfirmDialog(this,
                 "Are you sure you want to delete \"" + title + "\"?",
                 "Confirm Delete", JOptionPane.YES_NO_OPTION);
 
         if (confirm == JOptionPane.YES_OPTION) {
-            if (songDAO.deleteSong(songId)) {
-                JOptionPane.showMessageDialog(this, "Song deleted successfully!",
-                        "Success", JOptionPane.INFORMATION_MESSAGE);
-                loadSongs(tableModel);
-            } else {
-                JOptionPane.showMessageDialog(this, "Failed to delete song!",
-                        "Error", JOptionPane.ERROR_MESSAGE);
-            }
+            AsyncExecutor.load(() -> songDAO.deleteSong(songId), deleted -> {
+                if (deleted) {
+                    JOptionPane.showMessageDialog(this, "Song deleted successfully!",
+                            "Success", JOptionPane.INFORMATION_MESSAGE);
+                    tableModel.refresh();
+                } else {
+                    JOptionPane.showMessageDialog(this, "Failed to delete song!",
+                            "Error", JOptionPane.ERROR_MESSAGE);
+                }
+            }, error -> JOptionPane.showMessageDialog(this, "Failed to delete song!",
+                    "Error", JOptionPane.ERROR_MESSAGE));
         }
     }
 
@@ -490,8 +562,13 @@ public class AdminDashboard extends JFrame {
      * Load all moods
      */
     private void loadMoods(DefaultTableModel tableModel) {
+        showLoading(tableModel);
+        AsyncExecutor.load(() -> moodDAO.getAllMoods(), moods -> fillMoods(tableModel, moods),
+                error -> showLoadError(tableModel));
+    }
+
+    private void fillMoods(DefaultTableModel tableModel, List<Mood> moods) {
         tableModel.setRowCount(0);
-        List<Mood> moods = moodDAO.getAllMoods();
 
         for (Mood mood : moods) {
             tableModel.addRow(new Object[] {
@@ -532,16 +609,17 @@ public class AdminDashboard extends JFrame {
             }
 
             Mood mood = new Mood(name, description);
-            int moodId = moodDAO.addMood(mood);
-
-            if (moodId > 0) {
-                JOptionPane.showMessageDialog(this, "Mood added successfully! ID: " + moodId,
-                        "Success", JOptionPane.INFORMATION_MESSAGE);
-                tabbedPane.setComponentAt(1, createManageMoodsPanel());
-            } else {
-                JOptionPane.showMessageDialog(this, "Failed to add mood!",
-                        "Error", JOptionPane.ERROR_MESSAGE);
-            }
+            AsyncExecutor.load(() -> moodDAO.addMood(mood), moodId -> {
+                if (moodId > 0) {
+                    JOptionPane.showMessageDialog(this, "Mood added successfully! ID: " + moodId,
+                            "Success", JOptionPane.INFORMATION_MESSAGE);
+                    tabbedPane.setComponentAt(1, createManageMoodsPanel());
+                } else {
+                    JOptionPane.showMessageDialog(this, "Failed to add mood!",
+                            "Error", JOptionPane.ERROR_MESSAGE);
+                }
+            }, error -> JOptionPane.showMessageDialog(this, "Failed to add mood!",
+                    "Error", JOptionPane.ERROR_MESSAGE));
         }
     }
 
@@ -596,8 +674,14 @@ public class AdminDashboard extends JFrame {
      * Load all activities
      */
     private void loadActivities(DefaultTableModel tableModel) {
+        showLoading(tableModel);
+        AsyncExecutor.load(() -> activityDAO.getAllActivities(),
+                activities -> fillActivities(tableModel, activities),
+                error -> showLoadError(tableModel));
+    }
+
+    private void fillActivities(DefaultTableModel tableModel, List<Activity> activities) {
         tableModel.setRowCount(0);
-        List<Activity> activities = activityDAO.getAllActivities();
 
         for (Activity activity : activities) {
             tableModel.addRow(new Object[] {
@@ -638,16 +722,17 @@ public class AdminDashboard extends JFrame {
             }
 
             Activity activity = new Activity(name, description);
-            int activityId = activityDAO.addActivity(activity);
-
-            if (activityId > 0) {
-                JOptionPane.showMessageDialog(this, "Activity added successfully! ID: " + activityId,
-                        "Success", JOptionPane.INFORMATION_MESSAGE);
-                tabbedPane.setComponentAt(2, createManageActivitiesPanel());
-            } else {
-                JOptionPane.showMessageDialog(this, "Failed to add activity!",
-                        "Error", JOptionPane.ERROR_MESSAGE);
-            }
+            AsyncExecutor.load(() -> activityDAO.addActivity(activity), activityId -> {
+                if (activityId > 0) {
+                    JOptionPane.showMessageDialog(this, "Activity added successfully! ID: " + activityId,
+                            "Success", JOptionPane.INFORMATION_MESSAGE);
+                    tabbedPane.setComponentAt(2, createManageActivitiesPanel());
+                } else {
+                    JOptionPane.showMessageDialog(this, "Failed to add activity!",
+                            "Error", JOptionPane.ERROR_MESSAGE);
+                }
+            }, error -> JOptionPane.showMessageDialog(this, "Failed to add activity!",
+                    "Error", JOptionPane.ERROR_MESSAGE));
         }
     }
 
@@ -689,10 +774,13 @@ public class AdminDashboard extends JFrame {
         centerPanel.add(createLabel("Select Song:"), gbc);
 
         JComboBox<String> songCombo = createModernComboBox();
-        List<Song> songs = songDAO.getAllSongs();
-        for (Song song : songs) {
-            songCombo.addItem(song.getSongId() + " - " + song.getTitle() + " by " + song.getArtist());
-        }
+        songCombo.setEnabled(false);
+        AsyncExecutor.load(() -> songDAO.getAllSongs(), songs -> {
+            for (Song song : songs) {
+                songCombo.addItem(song.getSongId() + " - " + song.getTitle() + " by " + song.getArtist());
+            }
+            songCombo.setEnabled(true);
+        }, error -> songCombo.setEnabled(true));
         gbc.gridx = 1;
         centerPanel.add(songCombo, gbc);
 
@@ -702,10 +790,13 @@ public class AdminDashboard extends JFrame {
         centerPanel.add(createLabel("Select Mood:"), gbc);
 
         JComboBox<String> moodCombo = createModernComboBox();
-        List<Mood> moods = moodDAO.getAllMoods();
-        for (Mood mood : moods) {
-            moodCombo.addItem(mood.getMoodId() + " - " + mood.getMoodName());
-        }
+        moodCombo.setEnabled(false);
+        AsyncExecutor.load(() -> moodDAO.getAllMoods(), moods -> {
+            for (Mood mood : moods) {
+                moodCombo.addItem(mood.getMoodId() + " - " + mood.getMoodName());
+            }
+            moodCombo.setEnabled(true);
+        }, error -> moodCombo.setEnabled(true));
         gbc.gridx = 1;
         centerPanel.add(moodCombo, gbc);
 
@@ -715,10 +806,13 @@ public class AdminDashboard extends JFrame {
         centerPanel.add(createLabel("Select Activity:"), gbc);
 
         JComboBox<String> activityCombo = createModernComboBox();
-        List<Activity> activities = activityDAO.getAllActivities();
-        for (Activity activity : activities) {
-            activityCombo.addItem(activity.getActivityId() + " - " + activity.getActivityName());
-        }
+        activityCombo.setEnabled(false);
+        AsyncExecutor.load(() -> activityDAO.getAllActivities(), activities -> {
+            for (Activity activity : activities) {
+                activityCombo.addItem(activity.getActivityId() + " - " + activity.getActivityName());
+            }
+            activityCombo.setEnabled(true);
+        }, error -> activityCombo.setEnabled(true));
         gbc.gridx = 1;
         centerPanel.add(activityCombo, gbc);
 
@@ -740,13 +834,16 @@ public class AdminDashboard extends JFrame {
                 int songId = Integer.parseInt(songStr.split(" - ")[0]);
                 int moodId = Integer.parseInt(moodStr.split(" - ")[0]);
 
-                if (songDAO.addMoodToSong(songId, moodId)) {
-                    JOptionPane.showMessageDialog(this, "Mood tag added successfully!",
-                            "Success", JOptionPane.INFORMATION_MESSAGE);
-                } else {
-                    JOptionPane.showMessageDialog(this, "Failed to add mood tag!",
-                            "Error", JOptionPane.ERROR_MESSAGE);
-                }
+                AsyncExecutor.load(() -> songDAO.addMoodToSong(songId, moodId), added -> {
+                    if (added) {
+                        JOptionPane.showMessageDialog(this, "Mood tag added successfully!",
+                                "Success", JOptionPane.INFORMATION_MESSAGE);
+                    } else {
+                        JOptionPane.showMessageDialog(this, "Failed to add mood tag!",
+                                "Error", JOptionPane.ERROR_MESSAGE);
+                    }
+                }, error -> JOptionPane.showMessageDialog(this, "Failed to add mood tag!",
+                        "Error", JOptionPane.ERROR_MESSAGE));
             }
         });
         buttonPanel.add(addMoodTagBtn);
@@ -760,13 +857,16 @@ public class AdminDashboard extends JFrame {
                 int songId = Integer.parseInt(songStr.split(" - ")[0]);
                 int activityId = Integer.parseInt(activityStr.split(" - ")[0]);
 
-                if (songDAO.addActivityToSong(songId, activityId)) {
-                    JOptionPane.showMessageDialog(this, "Activity tag added successfully!",
-                            "Success", JOptionPane.INFORMATION_MESSAGE);
-                } else {
-                    JOptionPane.showMessageDialog(this, "Failed to add activity tag!",
-                            "Error", JOptionPane.ERROR_MESSAGE);
-                }
+                AsyncExecutor.load(() -> songDAO.addActivityToSong(songId, activityId), added -> {
+                    if (added) {
+                        JOptionPane.showMessageDialog(this, "Activity tag added successfully!",
+                                "Success", JOptionPane.INFORMATION_MESSAGE);
+                    } else {
+                        JOptionPane.showMessageDialog(this, "Failed to add activity tag!",
+                                "Error", JOptionPane.ERROR_MESSAGE);
+                    }
+                }, error -> JOptionPane.showMessageDialog(this, "Failed to add activity tag!",
+                        "Error", JOptionPane.ERROR_MESSAGE));
             }
         });
         buttonPanel.add(addActivityTagBtn);
@@ -810,23 +910,46 @@ public class AdminDashboard extends JFrame {
         gbc.gridwidth = 1;
         gbc.gridy++;
 
-        // Statistics
-        List<Song> allSongs = songDAO.getAllSongs();
-        List<Mood> allMoods = moodDAO.getAllMoods();
-        List<Activity> allActivities = activityDAO.getAllActivities();
-
-        // Create stat cards
-        JPanel statsGrid = new JPanel(new GridLayout(1, 3, 20, 0));
+        // Create stat cards and breakdown tables, filled in once the counts
+        // have loaded (counted once, then kept current by StatisticsService)
+        JPanel statsGrid = new JPanel(new GridLayout(1, 5, 15, 0));
         statsGrid.setBackground(BG_WHITE);
+        fillStatCards(statsGrid, null, "...");
+
+        String[] moodColumns = { "Mood", "Songs" };
+        DefaultTableModel moodTableModel = new DefaultTableModel(moodColumns, 0) {
+            @Override
+            public boolean isCellEditable(int row, int column) {
+                return false;
+            }
+        };
+        String[] activityColumns = { "Activity", "Songs" };
+        DefaultTableModel activityTableModel = new DefaultTableModel(activityColumns, 0) {
+            @Override
+            public boolean isCellEditable(int row, int column) {
+                return false;
+            }
+        };
 
-        statsGrid.add(createStatCard("🎵", "Total Songs", String.valueOf(allSongs.size()), PRIMARY));
-        statsGrid.add(createStatCard("🎭", "Total Moods", String.valueOf(allMoods.size()), SECONDARY));
-        statsGrid.add(createStatCard("🎯", "Total Activities", String.valueOf(allActivities.size()), INFO));
+        AsyncExecutor.load(() -> StatisticsService.getInstance().getStatistics(), statistics -> {
+            fillStatCards(statsGrid, statistics, "-");
+            if (statistics != null) {
+                fillCountRows(moodTableModel, statistics.getSongsPerMood());
+                fillCountRows(activityTableModel, statistics.getSongsPerActivity());
+            }
+        }, error -> fillStatCards(statsGrid, null, "-"));
 
         gbc.gridx = 0;
         gbc.gridwidth = 2;
         panel.add(statsGrid, gbc);
 
+        gbc.gridy++;
+        JPanel breakdownGrid = new JPanel(new GridLayout(1, 2, 20, 0));
+        breakdownGrid.setBackground(BG_WHITE);
+        breakdownGrid.add(createCountTable(moodTableModel, SECONDARY));
+        breakdownGrid.add(createCountTable(activityTableModel, INFO));
+        panel.add(breakdownGrid, gbc);
+
         gbc.gridy++;
         gbc.insets = new Insets(40, 15, 15, 15);
 
@@ -842,6 +965,44 @@ public class AdminDashboard extends JFrame {
         return wrapper;
     }
 
+    /**
+     * Show the statistics in the cards, or the placeholder in each card if
+     * there are none
+     */
+    private void fillStatCards(JPanel statsGrid, CatalogStatistics statistics, String placeholder) {
+        statsGrid.removeAll();
+        statsGrid.add(createStatCard("🎵", "Total Songs",
+                statistics != null ? String.valueOf(statistics.getSongCount()) : placeholder, PRIMARY));
+        statsGrid.add(createStatCard("🎭", "Total Moods",
+                statistics != null ? String.valueOf(statistics.getMoodCount()) : placeholder, SECONDARY));
+        statsGrid.add(createStatCard("🎯", "Total Activities",
+                statistics != null ? String.valueOf(statistics.getActivityCount()) : placeholder, INFO));
+        statsGrid.add(createStatCard("⭐", "Total Ratings",
+                statistics != null ? String.valueOf(statistics.getRatingCount()) : placeholder, WARNING));
+        statsGrid.add(createStatCard("❤", "Total Favorites",
+                statistics != null ? String.valueOf(statistics.getFavoriteCount()) : placeholder, DANGER));
+        statsGrid.revalidate();
+        statsGrid.repaint();
+    }
+
+    /**
+     * Small read-only table of name and song count
+     */
+    private JScrollPane createCountTable(DefaultTableModel tableModel, Color headerColor) {
+        JTable table = new JTable(tableModel);
+        styleModernTable(table, headerColor);
+        JScrollPane scrollPane = new JScrollPane(table);
+        scrollPane.setPreferredSize(new Dimension(400, 180));
+        return scrollPane;
+    }
+
+    private void fillCountRows(DefaultTableModel tableModel, Map<String, Integer> counts) {
+        tableModel.setRowCount(0);
+        for (Map.Entry<String, Integer> count : counts.entrySet()) {
+            tableModel.addRow(new Object[] { count.getKey(), count.getValue() });
+        }
+    }
+
     /**
      * Create stat card
      */
@@ -875,6 +1036,23 @@ public class AdminDashboard extends JFrame {
         return card;
     }
 
+    /**
+     * Replace the table contents with a loading row while a query runs
+     */
+    private void showLoading(DefaultTableModel tableModel) {
+        tableModel.setRowCount(0);
+        Object[] row = new Object[tableModel.getColumnCount()];
+        java.util.Arrays.fill(row, "");
+        row[tableModel.getColumnCount() > 1 ? 1 : 0] = "Loading...";
+        tableModel.addRow(row);
+    }
+
+    private void showLoadError(DefaultTableModel tableModel) {
+        tableModel.setRowCount(0);
+        JOptionPane.showMessageDialog(this, "Could not load data from the database.",
+                "Error", JOptionPane.ERROR_MESSAGE);
+    }
+
     /**
      * Create modern text field
      */
@@ -956,35 +1134,29 @@ public class AdminDashboard extends JFrame {
 
         // Load recent logs
         ActivityLogDAO logDAO = new ActivityLogDAO();
-        List<ActivityLog> logs = logDAO.getAllLogs(50);
         java.text.SimpleDateFormat sdf = new java.text.SimpleDateFormat("yyyy-MM-dd HH:mm:ss");
-
-        for (ActivityLog log : logs) {
-            tableModel.addRow(new Object[] {
-                    log.getActionType(),
-                    log.getTableName() != null ? log.getTableName() : "-",
-                    log.getDescription(),
-                    sdf.format(log.getTimestamp())
-            });
-        }
+        Runnable loadLogs = () -> {
+            showLoading(tableModel);
+            AsyncExecutor.load(() -> logDAO.getAllLogs(50), logs -> {
+                tableModel.setRowCount(0);
+                for (ActivityLog log : logs) {
+                    tableModel.addRow(new Object[] {
+                            log.getActionType(),
+                            log.getTableName() != null ? log.getTableName() : "-",
+                            log.getDescription(),
+                            sdf.format(log.getTimestamp())
+                    });
+                }
+            }, error -> showLoadError(tableModel));
+        };
+        loadLogs.run();
 
         // Refresh button
         JPanel bottomPanel = new JPanel(new FlowLayout(FlowLayout.RIGHT));
         bottomPanel.setBackground(BG_WHITE);
 
         JButton refreshBtn = createModernButton("Refresh", PRIMARY);
-        refreshBtn.addActionListener(e -> {
-            tableModel.setRowCount(0);
-            List<ActivityLog> newLogs = logDAO.getAllLogs(50);
-            for (ActivityLog log : newLogs) {
-                tableModel.addRow(new Object[] {
-                        log.getActionType(),
-                        log.getTableName() != null ? log.getTableName() : "-",
-                        log.getDescription(),
-                        sdf.format(log.getTimestamp())
-                });
-            }
-        });
+        refreshBtn.addActionListener(e -> loadLogs.run());
         bottomPanel.add(refreshBtn);
         panel.add(bottomPanel, BorderLayout.SOUTH);
 
@@ -1,14 +1,24 @@
 package main.java.ui;
 
+import main.java.audio.MediaIndex;
+import main.java.audio.PcmCache;
 import main.java.dao.UserDAO;
 import main.java.dao.AdminDAO;
+import main.java.dao.SongSearchIndex;
+import main.java.dao.UserFavoriteDAO;
+import main.java.dao.UserRatingDAO;
 import main.java.model.User;
 import main.java.model.Admin;
+import main.java.model.Song;
+import main.java.service.CollaborativeRecommender;
+import main.java.service.RecommendationService;
 
 import javax.swing.*;
 import javax.swing.border.EmptyBorder;
 import java.awt.*;
 import java.awt.event.*;
+import java.util.ArrayList;
+import java.util.List;
 
 public class LoginScreen extends JFrame {
 
@@ -335,6 +345,28 @@ public class LoginScreen extends JFrame {
             e.printStackTrace();
         }
 
+        // Build the search index while the user logs in
+        Thread warmup = new Thread(() -> SongSearchIndex.getInstance().ensureLoaded(), "search-index-warmup");
+        warmup.setDaemon(true);
+        warmup.start();
+
+        // Train the collaborative filtering model in the background
+        CollaborativeRecommender.getInstance().ensureTrained();
+
+        // Load the mood and activity dictionary, then preload the
+        // recommendations of the time-of-day slots
+        RecommendationService.warmCacheInBackground();
+
+        // Index the music directory so playback and the admin form need no probing
+        MediaIndex.getInstance().scanInBackground();
+
+        // Decode the most popular songs ahead so they play without decoding
+        PcmCache.getInstance().warmInBackground(() -> {
+            List<Song> popular = new ArrayList<>(new UserRatingDAO().getTopRatedSongs(PcmCache.HOT_SONGS));
+            popular.addAll(new UserFavoriteDAO().getMostFavoritedSongs(PcmCache.HOT_SONGS));
+            return popular;
+        });
+
         SwingUtilities.invokeLater(() -> new LoginScreen());
     }
 }
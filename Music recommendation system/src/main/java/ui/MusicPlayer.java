@@ -1,12 +1,17 @@
 package main.java.ui;
 
+import main.java.audio.StreamingPlayer;
 import main.java.model.Song;
 
-import javax.sound.sampled.*;
+import javax.sound.sampled.LineUnavailableException;
+import javax.sound.sampled.UnsupportedAudioFileException;
 import javax.swing.*;
 import java.awt.*;
 import java.io.File;
 import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
 
 public class MusicPlayer extends JPanel {
 
@@ -18,11 +23,30 @@ public class MusicPlayer extends JPanel {
     private static final Color TEXT_MUTED = new Color(107, 114, 128);
     private static final Color BORDER_COLOR = new Color(229, 231, 235);
 
-    private Clip audioClip;
+    // Streams the track from disk; its callbacks are moved onto the EDT
+    private final StreamingPlayer engine = new StreamingPlayer(new StreamingPlayer.Listener() {
+        @Override
+        public void onStarted(int track, long timeToFirstAudioMillis) {
+            SwingUtilities.invokeLater(() -> playbackStarted(track, timeToFirstAudioMillis));
+        }
+
+        @Override
+        public void onFinished() {
+            SwingUtilities.invokeLater(() -> playbackFinished());
+        }
+
+        @Override
+        public void onError(int track, Exception e) {
+            SwingUtilities.invokeLater(() -> playbackFailed(track, e));
+        }
+    });
+    // Songs handed to the engine and not yet started, by track number
+    private final Map<Integer, Song> queuedSongs = new TreeMap<>();
+    // Track started by playSong, whose errors get a dialog
+    private int directTrack = -1;
     private Song currentSong;
     private boolean isPlaying = false;
-    private long clipTimePosition = 0;
-    private FloatControl volumeControl;
+    private boolean updatingProgress = false;
 
     private JLabel songTitleLabel;
     private JLabel artistLabel;
@@ -30,6 +54,8 @@ public class MusicPlayer extends JPanel {
     private JLabel statusLabel;
     private JButton playPauseButton;
     private JButton stopButton;
+    private JButton nextButton;
+    private JLabel queueLabel;
     private JSlider volumeSlider;
     private JSlider progressSlider;
     private Timer progressTimer;
@@ -91,8 +117,18 @@ public class MusicPlayer extends JPanel {
         progressSlider = new JSlider(0, 100, 0);
         progressSlider.setBackground(BG_WHITE);
         progressSlider.setEnabled(false);
+        progressSlider.addChangeListener(e -> {
+            if (!updatingProgress && !progressSlider.getValueIsAdjusting()) {
+                seekTo(progressSlider.getValue());
+            }
+        });
         panel.add(progressSlider, BorderLayout.CENTER);
 
+        queueLabel = new JLabel(" ");
+        queueLabel.setFont(new Font("Segoe UI", Font.PLAIN, 12));
+        queueLabel.setForeground(TEXT_MUTED);
+        panel.add(queueLabel, BorderLayout.SOUTH);
+
         return panel;
     }
 
@@ -115,6 +151,12 @@ public class MusicPlayer extends JPanel {
         stopButton.addActionListener(e -> stopMusic());
         playbackPanel.add(stopButton);
 
+        nextButton = createRoundButton("Next");
+        nextButton.setBackground(PRIMARY);
+        nextButton.setPreferredSize(new Dimension(50, 50));
+        nextButton.addActionListener(e -> engine.skip());
+        playbackPanel.add(nextButton);
+
         panel.add(playbackPanel, BorderLayout.WEST);
 
         JPanel volumePanel = new JPanel(new FlowLayout(FlowLayout.RIGHT, 10, 0));
@@ -154,116 +196,127 @@ public class MusicPlayer extends JPanel {
             return;
         }
 
-        if (audioClip != null && audioClip.isRunning()) {
+        if (engine.isLoaded()) {
             stopMusic();
         }
 
-        try {
-            File audioFile = new File(song.getFilePath());
-
-            System.out.println("=== AUDIO DEBUG ===");
-            System.out.println("Trying to play: " + song.getTitle());
-            System.out.println("File path: " + song.getFilePath());
-            System.out.println("Absolute path: " + audioFile.getAbsolutePath());
-            System.out.println("File exists: " + audioFile.exists());
-            System.out.println("Can read: " + audioFile.canRead());
-
-            if (!audioFile.exists()) {
-                updateStatus("❌ File not found", DANGER);
-                JOptionPane.showMessageDialog(this,
-                        "Audio file not found at:\n" + audioFile.getAbsolutePath() +
-                                "\n\nPlease check:\n" +
-                                "1. File exists in music/ folder\n" +
-                                "2. File path in database is correct\n" +
-                                "3. File name matches exactly (case-sensitive)",
-                        "File Not Found", JOptionPane.ERROR_MESSAGE);
-                return;
-            }
+        File audioFile = new File(song.getFilePath());
 
-            // Check file format
-            String fileName = audioFile.getName().toLowerCase();
-            if (fileName.endsWith(".mp3")) {
-                updateStatus("⚠ MP3 detected", PRIMARY);
-                int result = JOptionPane.showConfirmDialog(this,
-                        "MP3 format detected!\n\n" +
-                                "Java Sound API has limited MP3 support.\n" +
-                                "If you don't hear sound:\n" +
-                                "1. Convert MP3 to WAV format\n" +
-                                "2. Or add JLayer library for MP3 support\n\n" +
-                                "Try to play anyway?",
-                        "MP3 Format Warning",
-                        JOptionPane.YES_NO_OPTION,
-                        JOptionPane.WARNING_MESSAGE);
-
-                if (result != JOptionPane.YES_OPTION) {
-                    return;
-                }
-            }
+        if (!audioFile.exists()) {
+            updateStatus("❌ File not found", DANGER);
+            JOptionPane.showMessageDialog(this,
+                    "Audio file not found at:\n" + audioFile.getAbsolutePath() +
+                            "\n\nPlease check:\n" +
+                            "1. File exists in music/ folder\n" +
+                            "2. File path in database is correct\n" +
+                            "3. File name matches exactly (case-sensitive)",
+                    "File Not Found", JOptionPane.ERROR_MESSAGE);
+            return;
+        }
 
-            updateStatus("⏳ Loading...", PRIMARY);
-            AudioInputStream audioStream = AudioSystem.getAudioInputStream(audioFile);
-            AudioFormat format = audioStream.getFormat();
-
-            System.out.println("Audio format: " + format);
-            System.out.println("Sample rate: " + format.getSampleRate());
-            System.out.println("Channels: " + format.getChannels());
-
-            // Convert if needed
-            if (format.getEncoding() != AudioFormat.Encoding.PCM_SIGNED) {
-                AudioFormat decodedFormat = new AudioFormat(
-                        AudioFormat.Encoding.PCM_SIGNED,
-                        format.getSampleRate(),
-                        16,
-                        format.getChannels(),
-                        format.getChannels() * 2,
-                        format.getSampleRate(),
-                        false);
-                audioStream = AudioSystem.getAudioInputStream(decodedFormat, audioStream);
-            }
+        // Format detection, opening and decoding happen on the audio threads
+        updateStatus("⏳ Loading...", PRIMARY);
+        currentSong = song;
+        updateSongInfo();
+
+        engine.setVolume(volumeSlider.getValue());
+        directTrack = engine.play(song.getSongId(), audioFile);
+        queuedSongs.put(directTrack, song);
+        isPlaying = true;
+        playPauseButton.setText("Pause");
+        progressSlider.setEnabled(true);
+
+        startProgressTimer();
+    }
 
-            audioClip = AudioSystem.getClip();
-            audioClip.open(audioStream);
-
-            // Get volume control
-            try {
-                volumeControl = (FloatControl) audioClip.getControl(FloatControl.Type.MASTER_GAIN);
-                setVolume(volumeSlider.getValue());
-                System.out.println("Volume control available: YES");
-            } catch (Exception e) {
-                volumeControl = null;
-                System.out.println("Volume control available: NO");
+    /**
+     * Play songs one after another. The engine opens and decodes the next
+     * songs ahead, so they follow without a gap; songs that cannot be
+     * played are skipped.
+     */
+    public void playQueue(List<Song> songs) {
+        if (engine.isLoaded()) {
+            stopMusic();
+        }
+
+        engine.setVolume(volumeSlider.getValue());
+        directTrack = -1;
+        for (Song song : songs) {
+            if (song.getFilePath() != null && !song.getFilePath().isEmpty()) {
+                queuedSongs.put(engine.enqueue(song.getSongId(), new File(song.getFilePath())), song);
             }
+        }
+        if (queuedSongs.isEmpty()) {
+            updateStatus("❌ Error: No file path", DANGER);
+            return;
+        }
 
-            currentSong = song;
-            updateSongInfo();
+        updateStatus("⏳ Loading...", PRIMARY);
+        currentSong = queuedSongs.values().iterator().next();
+        updateSongInfo();
+        isPlaying = true;
+        playPauseButton.setText("Pause");
+        progressSlider.setEnabled(true);
 
-            audioClip.start();
-            isPlaying = true;
-            playPauseButton.setText("Pause");
-            progressSlider.setEnabled(true);
-            updateStatus("Playing", SUCCESS);
+        startProgressTimer();
+    }
 
-            startProgressTimer();
+    private void playbackStarted(int track, long timeToFirstAudioMillis) {
+        Song song = takeQueuedSong(track);
+        if (song == null) {
+            return;
+        }
+        currentSong = song;
+        updateSongInfo();
+        updateQueueLabel();
+
+        if (isPlaying) {
+            updateStatus("Playing (first audio in " + timeToFirstAudioMillis + " ms)", SUCCESS);
+        }
+    }
 
-            System.out.println("Playback started successfully!");
-            System.out.println("==================");
+    private void playbackFinished() {
+        if (progressTimer != null) {
+            progressTimer.stop();
+        }
+
+        queuedSongs.clear();
+        updateQueueLabel();
+
+        isPlaying = false;
+        playPauseButton.setText("▶");
+        setProgress(100);
+        progressSlider.setEnabled(false);
+        updateStatus("⏹ Finished", TEXT_MUTED);
+    }
 
-        } catch (UnsupportedAudioFileException e) {
+    private void playbackFailed(int track, Exception e) {
+        Song song = takeQueuedSong(track);
+        if (track != directTrack && engine.isLoaded()) {
+            // One song of a queue: move on to the next
+            System.err.println("Skipping unplayable song: " + e.getMessage());
+            updateStatus("⚠ Skipped " + (song != null ? song.getTitle() : "song"), PRIMARY);
+            updateQueueLabel();
+            return;
+        }
+
+        stopMusic();
+
+        if (e instanceof UnsupportedAudioFileException) {
             updateStatus("❌ Unsupported format", DANGER);
             System.err.println("Unsupported audio format: " + e.getMessage());
             JOptionPane.showMessageDialog(this,
                     "Unsupported audio format!\n\n" +
-                            "Supported formats: WAV, AU, AIFF\n" +
-                            "For MP3: Convert to WAV or add JLayer library\n\n" +
+                            "Supported formats: MP3, OGG Vorbis, FLAC, WAV, AU, AIFF\n\n" +
                             "Error: " + e.getMessage(),
                     "Format Error", JOptionPane.ERROR_MESSAGE);
-        } catch (IOException e) {
+        } else if (e instanceof IOException) {
             updateStatus("❌ Read error", DANGER);
             System.err.println("IO Error: " + e.getMessage());
             JOptionPane.showMessageDialog(this,
                     "Error reading audio file:\n" + e.getMessage(),
                     "IO Error", JOptionPane.ERROR_MESSAGE);
-        } catch (LineUnavailableException e) {
+        } else {
             updateStatus("❌ Audio line error", DANGER);
             System.err.println("Line unavailable: " + e.getMessage());
             JOptionPane.showMessageDialog(this,
@@ -274,7 +327,7 @@ public class MusicPlayer extends JPanel {
     }
 
     private void togglePlayPause() {
-        if (audioClip == null) {
+        if (!engine.isLoaded()) {
             updateStatus("⚠ No song loaded", PRIMARY);
             JOptionPane.showMessageDialog(this,
                     "No song loaded! Please select a song to play.",
@@ -283,29 +336,26 @@ public class MusicPlayer extends JPanel {
         }
 
         if (isPlaying) {
-            clipTimePosition = audioClip.getMicrosecondPosition();
-            audioClip.stop();
+            engine.pause();
             isPlaying = false;
-            playPauseButton.setText("Pause");
+            playPauseButton.setText("Play");
             updateStatus("Paused", PRIMARY);
             if (progressTimer != null)
                 progressTimer.stop();
         } else {
-            audioClip.setMicrosecondPosition(clipTimePosition);
-            audioClip.start();
+            engine.resume();
             isPlaying = true;
-            playPauseButton.setText("Play");
+            playPauseButton.setText("Pause");
             updateStatus("Playing", SUCCESS);
             startProgressTimer();
         }
     }
 
     private void stopMusic() {
-        if (audioClip != null) {
-            audioClip.stop();
-            audioClip.setMicrosecondPosition(0);
-            clipTimePosition = 0;
-        }
+        engine.stop();
+        queuedSongs.clear();
+        directTrack = -1;
+        updateQueueLabel();
 
         if (progressTimer != null) {
             progressTimer.stop();
@@ -313,7 +363,7 @@ public class MusicPlayer extends JPanel {
 
         isPlaying = false;
         playPauseButton.setText("▶");
-        progressSlider.setValue(0);
+        setProgress(0);
         progressSlider.setEnabled(false);
 
         songTitleLabel.setText("No Song Playing");
@@ -322,20 +372,19 @@ public class MusicPlayer extends JPanel {
         updateStatus("⏹ Stopped", TEXT_MUTED);
     }
 
-    private void setVolume(int value) {
-        if (volumeControl != null) {
-            try {
-                float min = volumeControl.getMinimum();
-                float max = volumeControl.getMaximum();
-                float volume = min + (max - min) * (value / 100.0f);
-                volumeControl.setValue(volume);
-                System.out.println("Volume set to: " + value + "% (" + volume + " dB)");
-            } catch (Exception e) {
-                System.err.println("Failed to set volume: " + e.getMessage());
-            }
+    private void seekTo(int percent) {
+        long total = getDurationMicros();
+        if (engine.isLoaded() && total > 0) {
+            engine.seek(total * percent / 100);
+            updateTimeLabel((int) (total * percent / 100 / 1_000_000), (int) (total / 1_000_000));
         }
     }
 
+    private void setVolume(int value) {
+        engine.setVolume(value);
+        System.out.println("Volume set to: " + value + "%");
+    }
+
     private void updateSongInfo() {
         if (currentSong != null) {
             songTitleLabel.setText("🎵 " + currentSong.getTitle());
@@ -343,6 +392,24 @@ public class MusicPlayer extends JPanel {
         }
     }
 
+    /**
+     * Take a track's song, dropping tracks before it that were skipped
+     */
+    private Song takeQueuedSong(int track) {
+        queuedSongs.keySet().removeIf(queued -> queued < track);
+        return queuedSongs.remove(track);
+    }
+
+    private void updateQueueLabel() {
+        if (queuedSongs.isEmpty()) {
+            queueLabel.setText(" ");
+        } else {
+            Song next = queuedSongs.values().iterator().next();
+            int more = queuedSongs.size() - 1;
+            queueLabel.setText("Up next: " + next.getTitle() + (more > 0 ? " (+" + more + " more)" : ""));
+        }
+    }
+
     private void updateStatus(String status, Color color) {
         if (statusLabel != null) {
             statusLabel.setText(status);
@@ -350,21 +417,40 @@ public class MusicPlayer extends JPanel {
         }
     }
 
+    /**
+     * Track length from the stream, or from the song record if the stream
+     * does not say
+     */
+    private long getDurationMicros() {
+        long total = engine.getDurationMicros();
+        if (total <= 0 && currentSong != null) {
+            total = currentSong.getDuration() * 1_000_000L;
+        }
+        return total;
+    }
+
+    private void setProgress(int progress) {
+        updatingProgress = true;
+        progressSlider.setValue(progress);
+        updatingProgress = false;
+    }
+
     private void startProgressTimer() {
         if (progressTimer != null) {
             progressTimer.stop();
         }
 
         progressTimer = new Timer(100, e -> {
-            if (audioClip != null && audioClip.isRunning()) {
-                long current = audioClip.getMicrosecondPosition();
-                long total = audioClip.getMicrosecondLength();
+            if (engine.isLoaded() && !progressSlider.getValueIsAdjusting()) {
+                long current = engine.getPositionMicros();
+                long total = getDurationMicros();
 
-                int progress = (int) ((current * 100.0) / total);
-                progressSlider.setValue(progress);
+                if (total > 0) {
+                    setProgress((int) Math.min((current * 100.0) / total, 100));
+                }
 
                 int currentSeconds = (int) (current / 1_000_000);
-                int totalSeconds = (int) (total / 1_000_000);
+                int totalSeconds = (int) (Math.max(total, 0) / 1_000_000);
                 updateTimeLabel(currentSeconds, totalSeconds);
             }
         });
@@ -381,8 +467,6 @@ public class MusicPlayer extends JPanel {
         if (progressTimer != null) {
             progressTimer.stop();
         }
-        if (audioClip != null) {
-            audioClip.close();
-        }
+        engine.close();
     }
 }
\ No newline at end of file
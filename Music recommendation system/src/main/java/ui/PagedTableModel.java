@@ -0,0 +1,348 @@
+package main.java.ui;
+
+import main.java.util.AsyncExecutor;
+
+import javax.swing.table.AbstractTableModel;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.CompletionException;
+import java.util.function.BiFunction;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Table model that loads its rows a page at a time with keyset pagination,
+ * instead of materializing a whole table into a DefaultTableModel.
+ *
+ * The model starts with one page and a trailing "Loading..." row. When the
+ * table renders that row (the user scrolled to the bottom) the next page is
+ * fetched in the background. Only the most recently used pages are kept in
+ * memory; the last row of every page is remembered as the cursor for the
+ * next one, so a page that was dropped is fetched again with the same
+ * keyset query when it scrolls back into view. A page that fails to load
+ * is reported and requested again the next time it is needed; it does not
+ * end the table.
+ *
+ * All methods must be called on the EDT.
+ *
+ * @param <T> Row type
+ */
+public class PagedTableModel<T> extends AbstractTableModel {
+
+    /**
+     * Fetches one page of rows
+     */
+    public interface PageSource<T> {
+        /**
+         * @param after Last row of the previous page, or null for the first page
+         * @param limit Page size
+         * @return Up to limit rows following after, in display order
+         * @throws Exception If the page could not be read
+         */
+        List<T> fetchPage(T after, int limit) throws Exception;
+    }
+
+    private static final String LOADING = "Loading...";
+
+    private final String[] columns;
+    private final PageSource<T> source;
+    private final BiFunction<T, Integer, Object> columnValue;
+    private final Function<T, Object> rowKey;
+    private final int pageSize;
+    private final int maxPagesInMemory;
+
+    // cursors.get(p) is the "after" row for page p; its size is the number
+    // of pages discovered so far plus one while more may follow
+    private final List<T> cursors = new ArrayList<>();
+    private final Map<Integer, List<T>> pages;
+    private final Set<Integer> inFlight = new HashSet<>();
+    private int knownRows = 0;
+    private boolean exhausted = false;
+    private int generation = 0;
+    private boolean reloading = false;
+    private Runnable onPageLoaded = null;
+    private Consumer<Throwable> onPageFailed = null;
+
+    /**
+     * @param columns          Column names
+     * @param source           Page query
+     * @param columnValue      Value of a column for a row
+     * @param rowKey           Unique key of a row, to match rows across
+     *                         reloads
+     * @param pageSize         Rows per page
+     * @param maxPagesInMemory Pages kept before the least recently used is
+     *                         dropped
+     */
+    public PagedTableModel(String[] columns, PageSource<T> source, BiFunction<T, Integer, Object> columnValue,
+            Function<T, Object> rowKey, int pageSize, int maxPagesInMemory) {
+        this.columns = columns;
+        this.source = source;
+        this.columnValue = columnValue;
+        this.rowKey = rowKey;
+        this.pageSize = pageSize;
+        this.maxPagesInMemory = Math.max(maxPagesInMemory, 2);
+        this.pages = new LinkedHashMap<Integer, List<T>>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Integer, List<T>> eldest) {
+                return size() > PagedTableModel.this.maxPagesInMemory;
+            }
+        };
+        refresh();
+    }
+
+    /**
+     * Drop every page and start again from the first one
+     */
+    public void refresh() {
+        generation++;
+        cursors.clear();
+        cursors.add(null);
+        pages.clear();
+        inFlight.clear();
+        reloading = false;
+        knownRows = 0;
+        exhausted = false;
+        fireTableDataChanged();
+        requestPage(0);
+    }
+
+    /**
+     * Read the first page again and update it in place, for polling a table
+     * whose newest rows come first. The rows on screen stay until the new
+     * page arrives, and rows added at the top are inserted so the selection
+     * stays on the same row. If the first page now ends on a different row,
+     * the pages after it are dropped and read again from the new cursor
+     * when they scroll into view.
+     */
+    public void reloadFirstPage() {
+        if (reloading || inFlight.contains(0)) {
+            return;
+        }
+        reloading = true;
+        int requestGeneration = generation;
+        AsyncExecutor.load(() -> fetch(null),
+                rows -> {
+                    if (requestGeneration == generation) {
+                        reloading = false;
+                        firstPageReloaded(rows);
+                    }
+                },
+                error -> {
+                    if (requestGeneration == generation) {
+                        reloading = false;
+                        pageFailed(error);
+                    }
+                });
+    }
+
+    /**
+     * Called on the EDT after each page arrives (for row count labels)
+     */
+    public void setOnPageLoaded(Runnable onPageLoaded) {
+        this.onPageLoaded = onPageLoaded;
+    }
+
+    /**
+     * Called on the EDT when a page fails to load
+     */
+    public void setOnPageFailed(Consumer<Throwable> onPageFailed) {
+        this.onPageFailed = onPageFailed;
+    }
+
+    /**
+     * Row object at a table row
+     *
+     * @return The row, or null if its page is not in memory (it is then
+     *         requested)
+     */
+    public T getRow(int row) {
+        if (row < 0 || row >= knownRows) {
+            return null;
+        }
+        int page = row / pageSize;
+        List<T> rows = pages.get(page);
+        if (rows == null) {
+            requestPage(page);
+            return null;
+        }
+        int offset = row % pageSize;
+        return offset < rows.size() ? rows.get(offset) : null;
+    }
+
+    /**
+     * Rows discovered so far
+     */
+    public int getLoadedRowCount() {
+        return knownRows;
+    }
+
+    /**
+     * @return true once the last page has been read
+     */
+    public boolean isComplete() {
+        return exhausted;
+    }
+
+    @Override
+    public int getRowCount() {
+        return exhausted ? knownRows : knownRows + 1;
+    }
+
+    @Override
+    public int getColumnCount() {
+        return columns.length;
+    }
+
+    @Override
+    public String getColumnName(int column) {
+        return columns[column];
+    }
+
+    @Override
+    public boolean isCellEditable(int row, int column) {
+        return false;
+    }
+
+    @Override
+    public Object getValueAt(int row, int column) {
+        if (row >= knownRows) {
+            // The trailing row is on screen: fetch the next page
+            requestPage(cursors.size() - 1);
+            return column == 0 ? LOADING : "";
+        }
+        T value = getRow(row);
+        if (value == null) {
+            return column == 0 ? LOADING : "";
+        }
+        return columnValue.apply(value, column);
+    }
+
+    private void requestPage(int page) {
+        if (page >= cursors.size() || (exhausted && page * pageSize >= knownRows) || !inFlight.add(page)) {
+            return;
+        }
+
+        int requestGeneration = generation;
+        T after = cursors.get(page);
+        AsyncExecutor.load(() -> fetch(after),
+                rows -> pageLoaded(page, rows, requestGeneration),
+                error -> {
+                    if (requestGeneration == generation) {
+                        // Asked for again the next time the page is needed
+                        inFlight.remove(page);
+                        pageFailed(error);
+                    }
+                });
+    }
+
+    private List<T> fetch(T after) {
+        try {
+            return source.fetchPage(after, pageSize);
+        } catch (Exception e) {
+            throw new CompletionException(e);
+        }
+    }
+
+    private void pageFailed(Throwable error) {
+        System.err.println("Error loading table page: " + error.getMessage());
+        if (onPageFailed != null) {
+            onPageFailed.accept(error);
+        }
+    }
+
+    private void firstPageReloaded(List<T> rows) {
+        List<T> old = pages.get(0);
+        int oldRowCount = getRowCount();
+
+        // Rows added at the top: the old first row is now further down
+        int added = 0;
+        if (old != null && !old.isEmpty()) {
+            Object firstKey = rowKey.apply(old.get(0));
+            added = -1;
+            for (int i = 0; i < rows.size() && added < 0; i++) {
+                if (Objects.equals(rowKey.apply(rows.get(i)), firstKey)) {
+                    added = i;
+                }
+            }
+            added = Math.max(added, 0);
+        }
+
+        boolean sameBoundary = old != null && old.size() == rows.size() && added == 0 && !rows.isEmpty()
+                && Objects.equals(rowKey.apply(old.get(old.size() - 1)), rowKey.apply(rows.get(rows.size() - 1)));
+        pages.put(0, rows);
+        if (sameBoundary) {
+            // Same first page apart from row contents; everything after it still lines up
+            fireTableRowsUpdated(0, rows.size() - 1);
+        } else {
+            generation++;
+            cursors.subList(1, cursors.size()).clear();
+            pages.keySet().removeIf(page -> page != 0);
+            inFlight.clear();
+            knownRows = rows.size();
+            exhausted = rows.size() < pageSize;
+            if (!exhausted) {
+                cursors.add(rows.get(rows.size() - 1));
+            }
+
+            int newRowCount = getRowCount();
+            int shownRowCount = oldRowCount;
+            if (added > 0) {
+                fireTableRowsInserted(0, added - 1);
+                shownRowCount += added;
+            }
+            if (newRowCount < shownRowCount) {
+                fireTableRowsDeleted(newRowCount, shownRowCount - 1);
+            } else if (newRowCount > shownRowCount) {
+                fireTableRowsInserted(shownRowCount, newRowCount - 1);
+            }
+            if (newRowCount > added) {
+                fireTableRowsUpdated(added, newRowCount - 1);
+            }
+        }
+
+        if (onPageLoaded != null) {
+            onPageLoaded.run();
+        }
+    }
+
+    private void pageLoaded(int page, List<T> rows, int requestGeneration) {
+        if (requestGeneration != generation) {
+            return;
+        }
+        inFlight.remove(page);
+        pages.put(page, rows);
+
+        if (page == cursors.size() - 1) {
+            // A new page at the end of the table
+            int firstRow = knownRows;
+            knownRows += rows.size();
+            if (rows.size() < pageSize) {
+                exhausted = true;
+                if (rows.isEmpty()) {
+                    fireTableRowsDeleted(firstRow, firstRow);
+                } else {
+                    fireTableRowsUpdated(firstRow, firstRow);
+                    if (rows.size() > 1) {
+                        fireTableRowsInserted(firstRow + 1, knownRows - 1);
+                    }
+                }
+            } else {
+                cursors.add(rows.get(rows.size() - 1));
+                fireTableRowsUpdated(firstRow, firstRow);
+                fireTableRowsInserted(firstRow + 1, knownRows);
+            }
+        } else {
+            int firstRow = page * pageSize;
+            fireTableRowsUpdated(firstRow, Math.min(firstRow + pageSize, knownRows) - 1);
+        }
+
+        if (onPageLoaded != null) {
+            onPageLoaded.run();
+        }
+    }
+}
@@ -5,9 +5,12 @@ import main.java.model.Song;
 import main.java.model.Mood;
 import main.java.model.Activity;
 import main.java.model.ActivityLog;
+import main.java.model.MoodTrajectory;
+import main.java.model.CandidateSignals;
 import main.java.dao.ActivityLogDAO;
 import main.java.service.RecommendationService;
 import main.java.dao.*;
+import main.java.util.AsyncExecutor;
 
 import javax.swing.*;
 import javax.swing.border.EmptyBorder;
@@ -15,7 +18,9 @@ import javax.swing.table.DefaultTableCellRenderer;
 import javax.swing.table.DefaultTableModel;
 import javax.swing.table.JTableHeader;
 import java.awt.*;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 
 public class UserDashboard extends JFrame {
 
@@ -43,6 +48,18 @@ public class UserDashboard extends JFrame {
     // UI Components
     private JTabbedPane tabbedPane;
     private JLabel welcomeLabel;
+    private MusicPlayer musicPlayer;
+
+    // Search tab
+    private static final int SEARCH_DEBOUNCE_MS = 250;
+    private static final int SEARCH_MAX_RESULTS = 500;
+    private static final int PLAYER_PAGE_SIZE = 100;
+    // Recommendation tables show the best ranked songs only
+    private static final int RECOMMENDATION_LIMIT = 100;
+    // Length of a gradual mood-shift playlist
+    private static final int TRAJECTORY_LENGTH = 20;
+    private static final String ANY_TARGET_MOOD = "Any uplifting mood";
+    private SwingWorker<Integer, Object[]> activeSearch;
 
     public UserDashboard(User user) {
         this.currentUser = user;
@@ -231,10 +248,7 @@ public class UserDashboard extends JFrame {
         controlsPanel.add(moodLabel);
 
         JComboBox<String> moodCombo = createModernComboBox();
-        List<Mood> moods = moodDAO.getAllMoods();
-        for (Mood mood : moods) {
-            moodCombo.addItem(mood.getMoodName());
-        }
+        loadMoodNames(moodCombo);
         controlsPanel.add(moodCombo);
 
         JLabel activityLabel = new JLabel("Select Activity:");
@@ -243,26 +257,23 @@ public class UserDashboard extends JFrame {
         controlsPanel.add(activityLabel);
 
         JComboBox<String> activityCombo = createModernComboBox();
-        List<Activity> activities = activityDAO.getAllActivities();
-        for (Activity activity : activities) {
-            activityCombo.addItem(activity.getActivityName());
-        }
+        loadActivityNames(activityCombo);
         controlsPanel.add(activityCombo);
 
         JButton getRecommendationsBtn = createModernButton("Get Recommendations", PRIMARY);
         controlsPanel.add(getRecommendationsBtn);
 
+        List<Song> shownSongs = new ArrayList<>();
+        JButton playAllBtn = createPlayAllButton(shownSongs, PRIMARY);
+        controlsPanel.add(playAllBtn);
+
         panel.add(controlsPanel, BorderLayout.NORTH);
 
         // Results table
         String[] columns = { "Title", "Artist", "Genre", "Duration", "Actions" };
-        DefaultTableModel tableModel = new DefaultTableModel(columns, 0) {
-            @Override
-            public boolean isCellEditable(int row, int column) {
-                return column == 4;
-            }
-        };
+        DefaultTableModel tableModel = createSongTableModel(columns, 4);
         JTable resultsTable = new JTable(tableModel);
+        hideSongIdColumn(resultsTable);
         styleModernTable(resultsTable, PRIMARY);
 
         JScrollPane scrollPane = new JScrollPane(resultsTable);
@@ -275,28 +286,26 @@ public class UserDashboard extends JFrame {
             String selectedActivity = (String) activityCombo.getSelectedItem();
 
             if (selectedMood != null && selectedActivity != null) {
-                List<Song> recommendations = recommendationService.getRecommendations(
-                        selectedMood, selectedActivity, currentUser.getUserId());
-
-                tableModel.setRowCount(0);
-
-                if (recommendations.isEmpty()) {
-                    JOptionPane.showMessageDialog(this,
-                            "No songs found for this mood and activity combination.",
-                            "No Results", JOptionPane.INFORMATION_MESSAGE);
-                } else {
-                    for (Song song : recommendations) {
-                        String duration = String.format("%d:%02d",
-                                song.getDuration() / 60, song.getDuration() % 60);
-                        tableModel.addRow(new Object[] {
-                                song.getTitle(),
-                                song.getArtist(),
-                                song.getGenre(),
-                                duration,
-                                "View Details"
-                        });
-                    }
-                }
+                showLoading(tableModel, getRecommendationsBtn);
+                showSongs(shownSongs, playAllBtn, new ArrayList<>());
+
+                AsyncExecutor.load(
+                        () -> recommendationService.getRecommendations(
+                                selectedMood, selectedActivity, currentUser.getUserId(), 0, RECOMMENDATION_LIMIT),
+                        recommendations -> {
+                            getRecommendationsBtn.setEnabled(true);
+                            tableModel.setRowCount(0);
+
+                            if (recommendations.isEmpty()) {
+                                JOptionPane.showMessageDialog(this,
+                                        "No songs found for this mood and activity combination.",
+                                        "No Results", JOptionPane.INFORMATION_MESSAGE);
+                            } else {
+                                addSongRows(tableModel, recommendations);
+                                showSongs(shownSongs, playAllBtn, recommendations);
+                            }
+                        },
+                        error -> showLoadError(tableModel, getRecommendationsBtn));
             }
         });
 
@@ -307,8 +316,7 @@ public class UserDashboard extends JFrame {
                 int col = resultsTable.columnAtPoint(evt.getPoint());
 
                 if (col == 4 && row >= 0) {
-                    String title = (String) resultsTable.getValueAt(row, 0);
-                    showSongActions(title);
+                    showSongActions(songIdAt(resultsTable, row));
                 }
             }
         });
@@ -349,10 +357,7 @@ public class UserDashboard extends JFrame {
         controlsPanel.add(moodLabel);
 
         JComboBox<String> moodCombo = createModernComboBox();
-        List<Mood> moods = moodDAO.getAllMoods();
-        for (Mood mood : moods) {
-            moodCombo.addItem(mood.getMoodName());
-        }
+        loadMoodNames(moodCombo);
         controlsPanel.add(moodCombo);
 
         JLabel activityLabel = new JLabel("Activity:");
@@ -360,30 +365,42 @@ public class UserDashboard extends JFrame {
         controlsPanel.add(activityLabel);
 
         JComboBox<String> activityCombo = createModernComboBox();
-        List<Activity> activities = activityDAO.getAllActivities();
-        for (Activity activity : activities) {
-            activityCombo.addItem(activity.getActivityName());
-        }
+        loadActivityNames(activityCombo);
         controlsPanel.add(activityCombo);
 
+        JLabel targetLabel = new JLabel("Shift To:");
+        targetLabel.setFont(new Font("Segoe UI", Font.BOLD, 13));
+        controlsPanel.add(targetLabel);
+
+        // A target mood gives a gradual playlist through the moods between
+        JComboBox<String> targetCombo = createModernComboBox();
+        targetCombo.addItem(ANY_TARGET_MOOD);
+        loadMoodNames(targetCombo);
+        controlsPanel.add(targetCombo);
+
         JButton shiftMoodBtn = createModernButton("Get Mood-Lifting Songs", SECONDARY);
         controlsPanel.add(shiftMoodBtn);
 
+        List<Song> shownSongs = new ArrayList<>();
+        JButton playAllBtn = createPlayAllButton(shownSongs, SECONDARY);
+        controlsPanel.add(playAllBtn);
+
+        JLabel trajectoryLabel = new JLabel(" ");
+        trajectoryLabel.setFont(new Font("Segoe UI", Font.BOLD, 13));
+        trajectoryLabel.setForeground(TEXT_DARK);
+
         JPanel topPanel = new JPanel(new BorderLayout(0, 15));
         topPanel.setBackground(BG_WHITE);
         topPanel.add(infoPanel, BorderLayout.NORTH);
         topPanel.add(controlsPanel, BorderLayout.CENTER);
+        topPanel.add(trajectoryLabel, BorderLayout.SOUTH);
         panel.add(topPanel, BorderLayout.NORTH);
 
         // Results table
         String[] columns = { "Title", "Artist", "Genre", "Duration", "Actions" };
-        DefaultTableModel tableModel = new DefaultTableModel(columns, 0) {
-            @Override
-            public boolean isCellEditable(int row, int column) {
-                return column == 4;
-            }
-        };
+        DefaultTableModel tableModel = createSongTableModel(columns, 4);
         JTable resultsTable = new JTable(tableModel);
+        hideSongIdColumn(resultsTable);
         styleModernTable(resultsTable, SECONDARY);
 
         JScrollPane scrollPane = new JScrollPane(resultsTable);
@@ -393,30 +410,56 @@ public class UserDashboard extends JFrame {
         shiftMoodBtn.addActionListener(e -> {
             String currentMood = (String) moodCombo.getSelectedItem();
             String activity = (String) activityCombo.getSelectedItem();
-
-            if (currentMood != null && activity != null) {
-                List<Song> recommendations = recommendationService.getMoodShiftingRecommendations(
-                        currentMood, activity, currentUser.getUserId());
-
-                tableModel.setRowCount(0);
-
-                if (recommendations.isEmpty()) {
-                    JOptionPane.showMessageDialog(this,
-                            "No mood-shifting songs available for this combination.",
-                            "No Results", JOptionPane.INFORMATION_MESSAGE);
-                } else {
-                    for (Song song : recommendations) {
-                        String duration = String.format("%d:%02d",
-                                song.getDuration() / 60, song.getDuration() % 60);
-                        tableModel.addRow(new Object[] {
-                                song.getTitle(),
-                                song.getArtist(),
-                                song.getGenre(),
-                                duration,
-                                "View Details"
-                        });
-                    }
-                }
+            String targetMood = (String) targetCombo.getSelectedItem();
+
+            if (currentMood != null && activity != null && targetMood != null
+                    && !ANY_TARGET_MOOD.equals(targetMood)) {
+                showLoading(tableModel, shiftMoodBtn);
+                showSongs(shownSongs, playAllBtn, new ArrayList<>());
+                trajectoryLabel.setText(" ");
+
+                AsyncExecutor.load(
+                        () -> recommendationService.getMoodTrajectory(
+                                currentMood, targetMood, activity, currentUser.getUserId(), TRAJECTORY_LENGTH),
+                        trajectory -> {
+                            shiftMoodBtn.setEnabled(true);
+                            tableModel.setRowCount(0);
+                            showTrajectory(trajectoryLabel, trajectory);
+
+                            if (trajectory.getSongs().isEmpty()) {
+                                JOptionPane.showMessageDialog(this,
+                                        trajectory.getMoodNames().isEmpty()
+                                                ? "No mood path leads from " + currentMood + " to " + targetMood + "."
+                                                : "No songs available along this mood path.",
+                                        "No Results", JOptionPane.INFORMATION_MESSAGE);
+                            } else {
+                                addSongRows(tableModel, trajectory.getSongs());
+                                showSongs(shownSongs, playAllBtn, trajectory.getSongs());
+                            }
+                        },
+                        error -> showLoadError(tableModel, shiftMoodBtn));
+            } else if (currentMood != null && activity != null) {
+                showLoading(tableModel, shiftMoodBtn);
+                showSongs(shownSongs, playAllBtn, new ArrayList<>());
+                trajectoryLabel.setText(" ");
+
+                AsyncExecutor.load(
+                        () -> recommendationService.getMoodShiftingRecommendations(
+                                currentMood, activity, currentUser.getUserId(), 0, RECOMMENDATION_LIMIT),
+                        recommendations -> {
+                            shiftMoodBtn.setEnabled(true);
+                            tableModel.setRowCount(0);
+
+                            if (recommendations.isEmpty()) {
+                                JOptionPane.showMessageDialog(this,
+                                        "No mood-shifting songs available for this combination.",
+                                        "No Results", JOptionPane.INFORMATION_MESSAGE);
+                            } else {
+                                addSongRows(tableModel, recommendations);
+                                showSongs(shownSongs, playAllBtn, recommendations);
+                            }
+                        },
+                        error -> showLoadError(tableModel, shiftMoodBtn));
             }
         });
 
@@ -427,8 +470,7 @@ public class UserDashboard extends JFrame {
                 int col = resultsTable.columnAtPoint(evt.getPoint());
 
                 if (col == 4 && row >= 0) {
-                    String title = (String) resultsTable.getValueAt(row, 0);
-                    showSongActions(title);
+                    showSongActions(songIdAt(resultsTable, row));
                 }
             }
         });
@@ -437,6 +479,156 @@ public class UserDashboard extends JFrame {
         return wrapper;
     }
 
+    /**
+     * Fill a combo box with mood names once they have loaded
+     */
+    private void loadMoodNames(JComboBox<String> combo) {
+        combo.setEnabled(false);
+        AsyncExecutor.load(() -> moodDAO.getAllMoods(), moods -> {
+            for (Mood mood : moods) {
+                combo.addItem(mood.getMoodName());
+            }
+            combo.setEnabled(true);
+        }, error -> combo.setEnabled(true));
+    }
+
+    /**
+     * Fill a combo box with activity names once they have loaded
+     */
+    private void loadActivityNames(JComboBox<String> combo) {
+        combo.setEnabled(false);
+        AsyncExecutor.load(() -> activityDAO.getAllActivities(), activities -> {
+            for (Activity activity : activities) {
+                combo.addItem(activity.getActivityName());
+            }
+            combo.setEnabled(true);
+        }, error -> combo.setEnabled(true));
+    }
+
+    /**
+     * Show the moods a trajectory playlist passes through
+     */
+    private void showTrajectory(JLabel label, MoodTrajectory trajectory) {
+        label.setText(trajectory.getMoodNames().isEmpty() ? " "
+                : "Mood path: " + String.join(" → ", trajectory.getMoodNames()));
+    }
+
+    /**
+     * Button that plays the songs shown in a results table, in order, as
+     * one gapless queue in the music player
+     */
+    private JButton createPlayAllButton(List<Song> shownSongs, Color color) {
+        JButton button = createModernButton("▶ Play All", color);
+        button.setEnabled(false);
+        button.addActionListener(e -> {
+            if (!shownSongs.isEmpty() && musicPlayer != null) {
+                musicPlayer.playQueue(new ArrayList<>(shownSongs));
+                tabbedPane.setSelectedIndex(tabbedPane.indexOfTab("  Music Player  "));
+
+                ActivityLogDAO logDAO = new ActivityLogDAO();
+                logDAO.logActivity(
+                        "SELECT",
+                        "songs",
+                        "User played all " + shownSongs.size() + " songs, starting with: "
+                                + shownSongs.get(0).getTitle(),
+                        currentUser.getUserId(),
+                        null);
+            }
+        });
+        return button;
+    }
+
+    /**
+     * Remember the songs a results table shows, for its Play All button
+     */
+    private void showSongs(List<Song> shownSongs, JButton playAllBtn, List<Song> songs) {
+        shownSongs.clear();
+        shownSongs.addAll(songs);
+        playAllBtn.setEnabled(!shownSongs.isEmpty());
+    }
+
+    /**
+     * Replace the table contents with a loading row while a query runs
+     */
+    private void showLoading(DefaultTableModel tableModel, JButton trigger) {
+        if (trigger != null) {
+            trigger.setEnabled(false);
+        }
+        tableModel.setRowCount(0);
+        Object[] row = new Object[tableModel.getColumnCount()];
+        java.util.Arrays.fill(row, "");
+        row[0] = "Loading...";
+        tableModel.addRow(row);
+    }
+
+    private void showLoadError(DefaultTableModel tableModel, JButton trigger) {
+        if (trigger != null) {
+            trigger.setEnabled(true);
+        }
+        tableModel.setRowCount(0);
+        JOptionPane.showMessageDialog(this, "Could not load data from the database.",
+                "Error", JOptionPane.ERROR_MESSAGE);
+    }
+
+    /**
+     * Table model for a list of songs with an action column. The last model
+     * column holds each row's song ID (hidden from the view by
+     * hideSongIdColumn), so an action finds its song by ID rather than by
+     * the title shown.
+     */
+    private DefaultTableModel createSongTableModel(String[] columns, int actionColumn) {
+        String[] withId = java.util.Arrays.copyOf(columns, columns.length + 1);
+        withId[columns.length] = "Song ID";
+        return new DefaultTableModel(withId, 0) {
+            @Override
+            public boolean isCellEditable(int row, int column) {
+                return column == actionColumn;
+            }
+        };
+    }
+
+    private void hideSongIdColumn(JTable table) {
+        table.removeColumn(table.getColumnModel().getColumn(table.getColumnCount() - 1));
+    }
+
+    /**
+     * @return Song ID of a table row, or -1 for a placeholder row
+     */
+    private int songIdAt(JTable table, int row) {
+        javax.swing.table.TableModel model = table.getModel();
+        Object songId = model.getValueAt(table.convertRowIndexToModel(row), model.getColumnCount() - 1);
+        return songId instanceof Integer ? (Integer) songId : -1;
+    }
+
+    /**
+     * Empty signals for a list of songs, by list position
+     */
+    private static CandidateSignals signalsFor(List<Song> songs) {
+        int[] songIds = new int[songs.size()];
+        for (int i = 0; i < songIds.length; i++) {
+            songIds[i] = songs.get(i).getSongId();
+        }
+        return new CandidateSignals(songIds);
+    }
+
+    /**
+     * Add Title/Artist/Genre/Duration/Actions rows for a list of songs
+     */
+    private void addSongRows(DefaultTableModel tableModel, List<Song> songs) {
+        for (Song song : songs) {
+            String duration = String.format("%d:%02d",
+                    song.getDuration() / 60, song.getDuration() % 60);
+            tableModel.addRow(new Object[] {
+                    song.getTitle(),
+                    song.getArtist(),
+                    song.getGenre(),
+                    duration,
+                    "View Details",
+                    song.getSongId()
+            });
+        }
+    }
+
     /**
      * Create Search Panel
      */
@@ -466,54 +658,56 @@ public class UserDashboard extends JFrame {
         JButton searchBtn = createModernButton("Search", INFO);
         searchPanel.add(searchBtn);
 
+        JLabel searchStatus = new JLabel(" ");
+        searchStatus.setFont(new Font("Segoe UI", Font.PLAIN, 12));
+        searchStatus.setForeground(TEXT_MUTED);
+        searchPanel.add(searchStatus);
+
         panel.add(searchPanel, BorderLayout.NORTH);
 
         // Results table
         String[] columns = { "Title", "Artist", "Genre", "Duration", "Avg Rating", "Actions" };
-        DefaultTableModel tableModel = new DefaultTableModel(columns, 0) {
-            @Override
-            public boolean isCellEditable(int row, int column) {
-                return column == 5;
-            }
-        };
+        DefaultTableModel tableModel = createSongTableModel(columns, 5);
         JTable resultsTable = new JTable(tableModel);
+        hideSongIdColumn(resultsTable);
         styleModernTable(resultsTable, INFO);
 
         JScrollPane scrollPane = new JScrollPane(resultsTable);
         scrollPane.setBorder(BorderFactory.createEmptyBorder(15, 0, 0, 0));
         panel.add(scrollPane, BorderLayout.CENTER);
 
+        // Search as you type: each keystroke restarts the timer, and the
+        // query only runs once typing pauses
+        Timer debounce = new Timer(SEARCH_DEBOUNCE_MS, e -> startSearch(
+                searchField.getText().trim(), tableModel, searchStatus));
+        debounce.setRepeats(false);
+
+        searchField.getDocument().addDocumentListener(new javax.swing.event.DocumentListener() {
+            @Override
+            public void insertUpdate(javax.swing.event.DocumentEvent e) {
+                debounce.restart();
+            }
+
+            @Override
+            public void removeUpdate(javax.swing.event.DocumentEvent e) {
+                debounce.restart();
+            }
+
+            @Override
+            public void changedUpdate(javax.swing.event.DocumentEvent e) {
+                debounce.restart();
+            }
+        });
+
         Runnable performSearch = () -> {
+            debounce.stop();
             String searchTerm = searchField.getText().trim();
             if (searchTerm.isEmpty()) {
                 JOptionPane.showMessageDialog(this, "Please enter a search term!",
                         "Error", JOptionPane.ERROR_MESSAGE);
                 return;
             }
-
-            List<Song> results = songDAO.searchSongs(searchTerm);
-            tableModel.setRowCount(0);
-
-            if (results.isEmpty()) {
-                JOptionPane.showMessageDialog(this, "No songs found!",
-                        "No Results", JOptionPane.INFORMATION_MESSAGE);
-            } else {
-                for (Song song : results) {
-                    String duration = String.format("%d:%02d",
-                            song.getDuration() / 60, song.getDuration() % 60);
-                    double avgRating = ratingDAO.getAverageSongRating(song.getSongId());
-                    String rating = avgRating > 0 ? String.format("%.1f ⭐", avgRating) : "N/A";
-
-                    tableModel.addRow(new Object[] {
-                            song.getTitle(),
-                            song.getArtist(),
-                            song.getGenre(),
-                            duration,
-                            rating,
-                            "View Details"
-                    });
-                }
-            }
+            startSearch(searchTerm, tableModel, searchStatus);
         };
 
         searchBtn.addActionListener(e -> performSearch.run());
@@ -526,8 +720,7 @@ public class UserDashboard extends JFrame {
                 int col = resultsTable.columnAtPoint(evt.getPoint());
 
                 if (col == 5 && row >= 0) {
-                    String title = (String) resultsTable.getValueAt(row, 0);
-                    showSongActions(title);
+                    showSongActions(songIdAt(resultsTable, row));
                 }
             }
         });
@@ -536,6 +729,113 @@ public class UserDashboard extends JFrame {
         return wrapper;
     }
 
+    /**
+     * Cancel the search in flight and start one for the new term
+     */
+    private void startSearch(String searchTerm, DefaultTableModel tableModel, JLabel statusLabel) {
+        if (activeSearch != null) {
+            activeSearch.cancel(false);
+            activeSearch = null;
+        }
+
+        if (searchTerm.isEmpty()) {
+            tableModel.setRowCount(0);
+            statusLabel.setText(" ");
+            return;
+        }
+
+        statusLabel.setText("Searching...");
+        activeSearch = new SearchWorker(searchTerm, tableModel, statusLabel);
+        activeSearch.execute();
+    }
+
+    /**
+     * Runs one search off the EDT and streams the rows into the table as
+     * they are built (SwingWorker hands them to the EDT in batches). A
+     * worker that has been replaced by a newer search stops early and never
+     * touches the table.
+     */
+    private class SearchWorker extends SwingWorker<Integer, Object[]> {
+        private final String searchTerm;
+        private final DefaultTableModel tableModel;
+        private final JLabel statusLabel;
+        private boolean cleared = false;
+
+        SearchWorker(String searchTerm, DefaultTableModel tableModel, JLabel statusLabel) {
+            this.searchTerm = searchTerm;
+            this.tableModel = tableModel;
+            this.statusLabel = statusLabel;
+        }
+
+        @Override
+        protected Integer doInBackground() {
+            List<Song> results = songDAO.searchSongs(searchTerm, SEARCH_MAX_RESULTS);
+
+            for (int i = 0; i < results.size(); i++) {
+                if (isCancelled()) {
+                    return i;
+                }
+
+                Song song = results.get(i);
+                String duration = String.format("%d:%02d",
+                        song.getDuration() / 60, song.getDuration() % 60);
+                double avgRating = ratingDAO.getAverageSongRating(song.getSongId());
+                String rating = avgRating > 0 ? String.format("%.1f ⭐", avgRating) : "N/A";
+
+                publish(new Object[] {
+                        song.getTitle(),
+                        song.getArtist(),
+                        song.getGenre(),
+                        duration,
+                        rating,
+                        "View Details",
+                        song.getSongId()
+                });
+            }
+
+            return results.size();
+        }
+
+        @Override
+        protected void process(List<Object[]> rows) {
+            if (activeSearch != this) {
+                return;
+            }
+            if (!cleared) {
+                tableModel.setRowCount(0);
+                cleared = true;
+            }
+            for (Object[] row : rows) {
+                tableModel.addRow(row);
+            }
+        }
+
+        @Override
+        protected void done() {
+            if (activeSearch != this) {
+                return;
+            }
+            activeSearch = null;
+
+            try {
+                int found = get();
+                if (!cleared) {
+                    tableModel.setRowCount(0);
+                }
+                if (found == 0) {
+                    statusLabel.setText("No songs found");
+                } else if (found >= SEARCH_MAX_RESULTS) {
+                    statusLabel.setText("Top " + found + " matches");
+                } else {
+                    statusLabel.setText(found + (found == 1 ? " song" : " songs"));
+                }
+            } catch (Exception e) {
+                statusLabel.setText("Search failed");
+                e.printStackTrace();
+            }
+        }
+    }
+
     /**
      * Create Favorites Panel
      */
@@ -562,13 +862,9 @@ public class UserDashboard extends JFrame {
 
         // Table
         String[] columns = { "Title", "Artist", "Genre", "Duration", "My Rating", "Actions" };
-        DefaultTableModel tableModel = new DefaultTableModel(columns, 0) {
-            @Override
-            public boolean isCellEditable(int row, int column) {
-                return column == 5;
-            }
-        };
+        DefaultTableModel tableModel = createSongTableModel(columns, 5);
         JTable favoritesTable = new JTable(tableModel);
+        hideSongIdColumn(favoritesTable);
         styleModernTable(favoritesTable, DANGER);
 
         JScrollPane scrollPane = new JScrollPane(favoritesTable);
@@ -586,8 +882,7 @@ public class UserDashboard extends JFrame {
                 int col = favoritesTable.columnAtPoint(evt.getPoint());
 
                 if (col == 5 && row >= 0) {
-                    String title = (String) favoritesTable.getValueAt(row, 0);
-                    showSongActions(title);
+                    showSongActions(songIdAt(favoritesTable, row));
                 }
             }
         });
@@ -597,16 +892,30 @@ public class UserDashboard extends JFrame {
     }
 
     private void loadFavorites(DefaultTableModel tableModel) {
+        showLoading(tableModel, null);
+
+        int userId = currentUser.getUserId();
+        AsyncExecutor.load(() -> {
+            List<Song> favorites = favoriteDAO.getUserFavorites(userId);
+            // The user's ratings for all favorites in one query
+            CandidateSignals ratings = signalsFor(favorites);
+            ratingDAO.addRatingSignals(userId, ratings);
+            return Map.entry(favorites, ratings);
+        }, loaded -> fillFavorites(tableModel, loaded.getKey(), loaded.getValue()),
+                error -> showLoadError(tableModel, null));
+    }
+
+    private void fillFavorites(DefaultTableModel tableModel, List<Song> favorites, CandidateSignals ratings) {
         tableModel.setRowCount(0);
-        List<Song> favorites = favoriteDAO.getUserFavorites(currentUser.getUserId());
 
         if (favorites.isEmpty()) {
             tableModel.addRow(new Object[] { "No favorites yet!", "", "", "", "", "" });
         } else {
-            for (Song song : favorites) {
+            for (int i = 0; i < favorites.size(); i++) {
+                Song song = favorites.get(i);
                 String duration = String.format("%d:%02d",
                         song.getDuration() / 60, song.getDuration() % 60);
-                int myRating = ratingDAO.getUserRating(currentUser.getUserId(), song.getSongId());
+                int myRating = ratings.getUserRating(i);
                 String rating = myRating > 0 ? myRating + " ⭐" : "Not Rated";
 
                 tableModel.addRow(new Object[] {
@@ -615,7 +924,8 @@ public class UserDashboard extends JFrame {
                         song.getGenre(),
                         duration,
                         rating,
-                        "Manage"
+                        "Manage",
+                        song.getSongId()
                 });
             }
         }
@@ -647,13 +957,9 @@ public class UserDashboard extends JFrame {
 
         // Table
         String[] columns = { "Rank", "Title", "Artist", "Genre", "Avg Rating", "Actions" };
-        DefaultTableModel tableModel = new DefaultTableModel(columns, 0) {
-            @Override
-            public boolean isCellEditable(int row, int column) {
-                return column == 5;
-            }
-        };
+        DefaultTableModel tableModel = createSongTableModel(columns, 5);
         JTable topRatedTable = new JTable(tableModel);
+        hideSongIdColumn(topRatedTable);
         styleModernTable(topRatedTable, WARNING);
 
         JScrollPane scrollPane = new JScrollPane(topRatedTable);
@@ -671,8 +977,7 @@ public class UserDashboard extends JFrame {
                 int col = topRatedTable.columnAtPoint(evt.getPoint());
 
                 if (col == 5 && row >= 0) {
-                    String title = (String) topRatedTable.getValueAt(row, 1);
-                    showSongActions(title);
+                    showSongActions(songIdAt(topRatedTable, row));
                 }
             }
         });
@@ -682,23 +987,35 @@ public class UserDashboard extends JFrame {
     }
 
     private void loadTopRated(DefaultTableModel tableModel) {
+        showLoading(tableModel, null);
+
+        AsyncExecutor.load(() -> {
+            List<Song> topRated = ratingDAO.getTopRatedSongs(20);
+            CandidateSignals ratings = signalsFor(topRated);
+            ratingDAO.addRatingSignals(currentUser.getUserId(), ratings);
+            return Map.entry(topRated, ratings);
+        }, loaded -> fillTopRated(tableModel, loaded.getKey(), loaded.getValue()),
+                error -> showLoadError(tableModel, null));
+    }
+
+    private void fillTopRated(DefaultTableModel tableModel, List<Song> topRated, CandidateSignals ratings) {
         tableModel.setRowCount(0);
-        List<Song> topRated = ratingDAO.getTopRatedSongs(20);
 
         if (topRated.isEmpty()) {
             tableModel.addRow(new Object[] { "", "No rated songs yet!", "", "", "", "" });
         } else {
-            int rank = 1;
-            for (Song song : topRated) {
-                double avgRating = ratingDAO.getAverageSongRating(song.getSongId());
+            for (int i = 0; i < topRated.size(); i++) {
+                Song song = topRated.get(i);
+                double avgRating = ratings.getAverageRating(i);
 
                 tableModel.addRow(new Object[] {
-                        rank++,
+                        i + 1,
                         song.getTitle(),
                         song.getArtist(),
                         song.getGenre(),
                         String.format("%.1f ⭐", avgRating),
-                        "View Details"
+                        "View Details",
+                        song.getSongId()
                 });
             }
         }
@@ -796,12 +1113,15 @@ public class UserDashboard extends JFrame {
         gbc.gridy++;
 
         // Favorites count
-        int favoritesCount = favoriteDAO.getUserFavorites(currentUser.getUserId()).size();
-        JLabel favCountLabel = new JLabel("Favorite Songs: " + favoritesCount);
+        JLabel favCountLabel = new JLabel("Favorite Songs: ...");
         favCountLabel.setFont(new Font("Segoe UI", Font.PLAIN, 15));
         favCountLabel.setForeground(TEXT_DARK);
         panel.add(favCountLabel, gbc);
 
+        AsyncExecutor.load(() -> favoriteDAO.getUserFavoriteCount(currentUser.getUserId()),
+                count -> favCountLabel.setText("Favorite Songs: " + count),
+                error -> favCountLabel.setText("Favorite Songs: unavailable"));
+
         gbc.gridy++;
 
         // Add vertical spacing
@@ -821,12 +1141,35 @@ public class UserDashboard extends JFrame {
     /**
      * Show song actions dialog with modern styling
      */
-    private void showSongActions(String title) {
-        List<Song> songs = songDAO.searchSongs(title);
-        if (songs.isEmpty())
+    private void showSongActions(int songId) {
+        if (songId <= 0) {
             return;
+        }
+        int userId = currentUser.getUserId();
+        setCursor(Cursor.getPredefinedCursor(Cursor.WAIT_CURSOR));
 
-        Song song = songs.get(0);
+        AsyncExecutor.load(() -> {
+            Song song = songDAO.getSongById(songId);
+            if (song == null) {
+                return null;
+            }
+
+            CandidateSignals signals = signalsFor(List.of(song));
+            ratingDAO.addRatingSignals(userId, signals);
+            favoriteDAO.addFavoriteSignals(userId, signals);
+            return Map.entry(song, signals);
+        }, found -> {
+            setCursor(Cursor.getDefaultCursor());
+            if (found != null) {
+                showSongActionsDialog(found.getKey(), found.getValue());
+            }
+        }, error -> setCursor(Cursor.getDefaultCursor()));
+    }
+
+    /**
+     * @param signals Rating and favorite signals of the song, at position 0
+     */
+    private void showSongActionsDialog(Song song, CandidateSignals signals) {
 
         // Create modern dialog
         JDialog dialog = new JDialog(this, "Song Actions", true);
@@ -865,8 +1208,8 @@ public class UserDashboard extends JFrame {
 
         infoPanel.add(Box.createVerticalStrut(10));
 
-        double avgRating = ratingDAO.getAverageSongRating(song.getSongId());
-        int myRating = ratingDAO.getUserRating(currentUser.getUserId(), song.getSongId());
+        double avgRating = signals.getAverageRating(0);
+        int myRating = signals.getUserRating(0);
         JLabel ratingLabel = new JLabel(String.format("⭐ Avg: %.1f | My Rating: %s",
                 avgRating, myRating > 0 ? myRating + " ⭐" : "Not rated"));
         ratingLabel.setFont(new Font("Segoe UI", Font.PLAIN, 13));
@@ -889,20 +1232,22 @@ public class UserDashboard extends JFrame {
         });
         actionsPanel.add(rateBtn);
 
-        boolean isFavorite = favoriteDAO.isFavorite(currentUser.getUserId(), song.getSongId());
+        boolean isFavorite = signals.isFavorite(0);
         JButton favoriteBtn = createModernButton(
                 isFavorite ? "💔 Remove from Favorites" : "❤️ Add to Favorites",
                 isFavorite ? DANGER : SUCCESS);
         favoriteBtn.setPreferredSize(new Dimension(380, 42));
         favoriteBtn.addActionListener(e -> {
-            if (isFavorite) {
-                favoriteDAO.removeFromFavorites(currentUser.getUserId(), song.getSongId());
-                JOptionPane.showMessageDialog(dialog, "Removed from favorites!");
-            } else {
-                favoriteDAO.addToFavorites(currentUser.getUserId(), song.getSongId());
-                JOptionPane.showMessageDialog(dialog, "Added to favorites!");
-            }
-            dialog.dispose();
+            favoriteBtn.setEnabled(false);
+            AsyncExecutor.load(() -> isFavorite
+                    ? favoriteDAO.removeFromFavorites(currentUser.getUserId(), song.getSongId())
+                    : favoriteDAO.addToFavorites(currentUser.getUserId(), song.getSongId()),
+                    saved -> {
+                        JOptionPane.showMessageDialog(dialog,
+                                isFavorite ? "Removed from favorites!" : "Added to favorites!");
+                        dialog.dispose();
+                    },
+                    error -> dialog.dispose());
         });
         actionsPanel.add(favoriteBtn);
 
@@ -931,10 +1276,16 @@ public class UserDashboard extends JFrame {
 
         if (selection != null) {
             int rating = Integer.parseInt(selection.substring(0, 1));
-            if (ratingDAO.addOrUpdateRating(currentUser.getUserId(), song.getSongId(), rating)) {
-                JOptionPane.showMessageDialog(this, "Rating saved successfully!",
-                        "Success", JOptionPane.INFORMATION_MESSAGE);
-            }
+            AsyncExecutor.load(
+                    () -> ratingDAO.addOrUpdateRating(currentUser.getUserId(), song.getSongId(), rating),
+                    saved -> {
+                        if (saved) {
+                            JOptionPane.showMessageDialog(this, "Rating saved successfully!",
+                                    "Success", JOptionPane.INFORMATION_MESSAGE);
+                        }
+                    },
+                    error -> JOptionPane.showMessageDialog(this, "Failed to save rating!",
+                            "Error", JOptionPane.ERROR_MESSAGE));
         }
     }
 
@@ -990,13 +1341,19 @@ public class UserDashboard extends JFrame {
             }
 
             UserDAO userDAO = new UserDAO();
-            if (userDAO.changePassword(currentUser.getUserId(), oldPassword, newPassword)) {
-                JOptionPane.showMessageDialog(this, "Password changed successfully!",
-                        "Success", JOptionPane.INFORMATION_MESSAGE);
-            } else {
-                JOptionPane.showMessageDialog(this, "Failed to change password!",
-                        "Error", JOptionPane.ERROR_MESSAGE);
-            }
+            AsyncExecutor.load(
+                    () -> userDAO.changePassword(currentUser.getUserId(), oldPassword, newPassword),
+                    changed -> {
+                        if (changed) {
+                            JOptionPane.showMessageDialog(this, "Password changed successfully!",
+                                    "Success", JOptionPane.INFORMATION_MESSAGE);
+                        } else {
+                            JOptionPane.showMessageDialog(this, "Failed to change password!",
+                                    "Error", JOptionPane.ERROR_MESSAGE);
+                        }
+                    },
+                    error -> JOptionPane.showMessageDialog(this, "Failed to change password!",
+                            "Error", JOptionPane.ERROR_MESSAGE));
         }
     }
 
@@ -1022,8 +1379,9 @@ public class UserDashboard extends JFrame {
         wrapper.setBackground(BG_LIGHT);
         wrapper.setBorder(new EmptyBorder(15, 15, 15, 15));
 
-        // Create music player instance
+        // Create music player instance; Play All buttons queue songs on it
         MusicPlayer player = new MusicPlayer();
+        musicPlayer = player;
 
         JPanel mainPanel = new JPanel(new BorderLayout(15, 15));
         mainPanel.setBackground(BG_LIGHT);
@@ -1042,29 +1400,28 @@ public class UserDashboard extends JFrame {
 
         // Songs table
         String[] columns = { "Title", "Artist", "Genre", "Duration", "▶ Play" };
-        DefaultTableModel tableModel = new DefaultTableModel(columns, 0) {
-            @Override
-            public boolean isCellEditable(int row, int column) {
-                return column == 4;
-            }
-        };
+
+        // Songs are read a page at a time as the list is scrolled
+        PagedTableModel<Song> tableModel = new PagedTableModel<>(columns,
+                songDAO::getSongsPage,
+                (song, column) -> {
+                    switch (column) {
+                        case 0:
+                            return song.getTitle();
+                        case 1:
+                            return song.getArtist();
+                        case 2:
+                            return song.getGenre();
+                        case 3:
+                            return String.format("%d:%02d", song.getDuration() / 60, song.getDuration() % 60);
+                        default:
+                            return "▶ Play";
+                    }
+                }, Song::getSongId, PLAYER_PAGE_SIZE, 10);
 
         JTable songsTable = new JTable(tableModel);
         styleModernTable(songsTable, PRIMARY);
 
-        // Load songs
-        List<Song> songs = songDAO.getAllSongs();
-        for (Song song : songs) {
-            String duration = String.format("%d:%02d", song.getDuration() / 60, song.getDuration() % 60);
-            tableModel.addRow(new Object[] {
-                    song.getTitle(),
-                    song.getArtist(),
-                    song.getGenre(),
-                    duration,
-                    "▶ Play"
-            });
-        }
-
         JScrollPane scrollPane = new JScrollPane(songsTable);
         scrollPane.setBorder(BorderFactory.createEmptyBorder(10, 0, 0, 0));
         listPanel.add(scrollPane, BorderLayout.CENTER);
@@ -1078,8 +1435,8 @@ public class UserDashboard extends JFrame {
                 int row = songsTable.rowAtPoint(evt.getPoint());
                 int col = songsTable.columnAtPoint(evt.getPoint());
 
-                if (col == 4 && row >= 0) { // Play column
-                    Song selectedSong = songs.get(row);
+                Song selectedSong = col == 4 ? tableModel.getRow(row) : null;
+                if (selectedSong != null) { // Play column
                     player.playSong(selectedSong);
 
                     // Log the activity
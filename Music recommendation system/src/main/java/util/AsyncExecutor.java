@@ -0,0 +1,98 @@
+package main.java.util;
+
+import javax.swing.SwingUtilities;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * Shared executor for DAO and service calls made from the UI, so they never
+ * run on the Event Dispatch Thread.
+ *
+ * Calls run on a small bounded pool (sized like the connection pool, since
+ * nearly every task holds a connection) and their results are handed back
+ * on the EDT. Usage:
+ *
+ * AsyncExecutor.load(() -> favoriteDAO.getUserFavorites(userId),
+ * favorites -> fillTable(favorites),
+ * error -> showError(error));
+ */
+public final class AsyncExecutor {
+
+    private static final int THREADS = Integer.getInteger("ui.async.threads", 4);
+
+    private static final ExecutorService EXECUTOR = createExecutor();
+
+    /** Runs callbacks on the Event Dispatch Thread */
+    public static final Executor EDT = SwingUtilities::invokeLater;
+
+    private AsyncExecutor() {
+    }
+
+    /**
+     * Run a call in the background
+     *
+     * @param task DAO or service call
+     * @return Future completed off the EDT
+     */
+    public static <T> CompletableFuture<T> supply(Supplier<T> task) {
+        return CompletableFuture.supplyAsync(task, EXECUTOR);
+    }
+
+    /**
+     * Run a call without a result in the background
+     */
+    public static CompletableFuture<Void> run(Runnable task) {
+        return CompletableFuture.runAsync(task, EXECUTOR);
+    }
+
+    /**
+     * Run a call in the background and deliver the result on the EDT
+     *
+     * @param task      DAO or service call
+     * @param onSuccess Receives the result on the EDT
+     * @param onError   Receives the failure on the EDT
+     * @return Future completed after the callback has run
+     */
+    public static <T> CompletableFuture<Void> load(Supplier<T> task, Consumer<T> onSuccess,
+            Consumer<Throwable> onError) {
+        return supply(task).handleAsync((result, error) -> {
+            if (error != null) {
+                Throwable cause = error.getCause() != null ? error.getCause() : error;
+                cause.printStackTrace();
+                onError.accept(cause);
+            } else {
+                onSuccess.accept(result);
+            }
+            return null;
+        }, EDT);
+    }
+
+    /**
+     * Number of calls waiting for a thread, for diagnostics
+     */
+    public static int getQueuedCount() {
+        return ((ThreadPoolExecutor) EXECUTOR).getQueue().size();
+    }
+
+    private static ExecutorService createExecutor() {
+        AtomicInteger counter = new AtomicInteger();
+        ThreadFactory factory = runnable -> {
+            Thread thread = new Thread(runnable, "data-access-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(THREADS, THREADS, 30, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(), factory);
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+}
@@ -0,0 +1,483 @@
+package main.java.util;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Bounded JDBC connection pool.
+ *
+ * DAOs borrow a connection with {@link #borrow()} and hand it back by calling
+ * close() on it (the usual try-with-resources), which returns the physical
+ * connection to the pool instead of closing the socket.
+ */
+public class ConnectionPool {
+
+    // Connections used this recently are handed out without a validation ping
+    private static final long VALIDATION_BYPASS_MILLIS = 500;
+    private static final long HOUSEKEEPING_INTERVAL_MILLIS = 30_000;
+
+    private final String url;
+    private final String user;
+    private final String password;
+    private final Settings settings;
+
+    private final LinkedBlockingDeque<PooledConnection> idleConnections = new LinkedBlockingDeque<>();
+    private final Set<PooledConnection> activeConnections = ConcurrentHashMap.newKeySet();
+    private final Semaphore permits;
+    private final ScheduledExecutorService housekeeper;
+    private volatile boolean closed = false;
+
+    // Metrics
+    private final AtomicLong borrowCount = new AtomicLong();
+    private final AtomicLong totalWaitNanos = new AtomicLong();
+    private final AtomicLong maxWaitNanos = new AtomicLong();
+    private final AtomicLong timeoutCount = new AtomicLong();
+    private final AtomicLong createdCount = new AtomicLong();
+    private final AtomicLong evictedCount = new AtomicLong();
+    private final AtomicLong leakCount = new AtomicLong();
+
+    public ConnectionPool(String url, String user, String password, Settings settings) {
+        if (settings.getMinSize() < 0 || settings.getMaxSize() < 1
+                || settings.getMinSize() > settings.getMaxSize()) {
+            throw new IllegalArgumentException("Invalid pool size: min=" + settings.getMinSize()
+                    + ", max=" + settings.getMaxSize());
+        }
+
+        this.url = url;
+        this.user = user;
+        this.password = password;
+        this.settings = settings;
+        this.permits = new Semaphore(settings.getMaxSize(), true);
+
+        this.housekeeper = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "db-pool-housekeeper");
+            thread.setDaemon(true);
+            return thread;
+        });
+        housekeeper.scheduleWithFixedDelay(this::housekeep,
+                HOUSEKEEPING_INTERVAL_MILLIS, HOUSEKEEPING_INTERVAL_MILLIS, TimeUnit.MILLISECONDS);
+
+        fillToMinimum();
+    }
+
+    /**
+     * Borrow a connection from the pool, waiting up to the configured borrow
+     * timeout when all connections are in use
+     *
+     * @return Connection whose close() returns it to the pool
+     * @throws SQLException if the pool is closed, exhausted or the database is
+     *                      unreachable
+     */
+    public Connection borrow() throws SQLException {
+        if (closed) {
+            throw new SQLException("Connection pool is closed");
+        }
+
+        long waitStart = System.nanoTime();
+        try {
+            if (!permits.tryAcquire(settings.getBorrowTimeoutMillis(), TimeUnit.MILLISECONDS)) {
+                timeoutCount.incrementAndGet();
+                throw new SQLException("Timed out after " + settings.getBorrowTimeoutMillis()
+                        + " ms waiting for a database connection (" + getStats() + ")");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrupted while waiting for a database connection", e);
+        }
+        recordWait(System.nanoTime() - waitStart);
+
+        try {
+            PooledConnection pooled = takeValidIdleConnection();
+            if (pooled == null) {
+                pooled = new PooledConnection(openPhysicalConnection());
+            }
+
+            pooled.borrowedAt = System.currentTimeMillis();
+            // Capturing a stack on every borrow is costly, so only when tracing leaks
+            pooled.borrowSite = settings.isTraceLeaks() && settings.getLeakThresholdMillis() > 0
+                    ? new Throwable("Connection borrowed here")
+                    : null;
+            pooled.leakReported = false;
+            activeConnections.add(pooled);
+            borrowCount.incrementAndGet();
+
+            return pooled.newHandle();
+
+        } catch (SQLException | RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+    }
+
+    /**
+     * Close every connection and stop the housekeeping thread. Connections
+     * still borrowed are closed when they are handed back.
+     */
+    public void shutdown() {
+        closed = true;
+        housekeeper.shutdownNow();
+
+        PooledConnection pooled;
+        while ((pooled = idleConnections.pollFirst()) != null) {
+            closeQuietly(pooled.physical);
+        }
+    }
+
+    public boolean isClosed() {
+        return closed;
+    }
+
+    /**
+     * Snapshot of the pool metrics
+     *
+     * @return PoolStats object
+     */
+    public PoolStats getStats() {
+        long borrows = borrowCount.get();
+        return new PoolStats(
+                activeConnections.size(),
+                idleConnections.size(),
+                settings.getMaxSize(),
+                permits.getQueueLength(),
+                borrows,
+                borrows > 0 ? totalWaitNanos.get() / 1_000_000.0 / borrows : 0.0,
+                maxWaitNanos.get() / 1_000_000.0,
+                timeoutCount.get(),
+                createdCount.get(),
+                evictedCount.get(),
+                leakCount.get());
+    }
+
+    private PooledConnection takeValidIdleConnection() {
+        PooledConnection pooled;
+        while ((pooled = idleConnections.pollFirst()) != null) {
+            long idleFor = System.currentTimeMillis() - pooled.lastReturnedAt;
+            if (idleFor < VALIDATION_BYPASS_MILLIS || isAlive(pooled.physical)) {
+                return pooled;
+            }
+            evictedCount.incrementAndGet();
+            closeQuietly(pooled.physical);
+        }
+        return null;
+    }
+
+    private boolean isAlive(Connection conn) {
+        try {
+            return conn.isValid(settings.getValidationTimeoutSeconds());
+        } catch (SQLException e) {
+            return false;
+        }
+    }
+
+    private Connection openPhysicalConnection() throws SQLException {
+        Connection conn = DriverManager.getConnection(url, user, password);
+        createdCount.incrementAndGet();
+        return conn;
+    }
+
+    private void release(PooledConnection pooled) {
+        activeConnections.remove(pooled);
+
+        boolean reusable = !closed;
+        try {
+            if (reusable && !pooled.physical.getAutoCommit()) {
+                pooled.physical.rollback();
+                pooled.physical.setAutoCommit(true);
+            }
+            if (reusable && pooled.sessionChanged) {
+                pooled.restoreDefaults();
+            }
+        } catch (SQLException e) {
+            reusable = false;
+        }
+
+        if (reusable) {
+            pooled.lastReturnedAt = System.currentTimeMillis();
+            pooled.borrowSite = null;
+            idleConnections.offerFirst(pooled);
+        } else {
+            closeQuietly(pooled.physical);
+        }
+
+        permits.release();
+    }
+
+    private void recordWait(long waitNanos) {
+        totalWaitNanos.addAndGet(waitNanos);
+        maxWaitNanos.accumulateAndGet(waitNanos, Math::max);
+    }
+
+    /**
+     * Evict connections idle past the timeout, top the pool back up to its
+     * minimum size and report connections held past the leak threshold
+     */
+    private void housekeep() {
+        try {
+            long now = System.currentTimeMillis();
+
+            for (PooledConnection pooled : idleConnections) {
+                boolean aboveMinimum = activeConnections.size() + idleConnections.size() > settings.getMinSize();
+                if (aboveMinimum && now - pooled.lastReturnedAt > settings.getIdleTimeoutMillis()
+                        && idleConnections.remove(pooled)) {
+                    evictedCount.incrementAndGet();
+                    closeQuietly(pooled.physical);
+                }
+            }
+
+            fillToMinimum();
+
+            long leakThreshold = settings.getLeakThresholdMillis();
+            if (leakThreshold > 0) {
+                for (PooledConnection pooled : activeConnections) {
+                    if (!pooled.leakReported && now - pooled.borrowedAt > leakThreshold) {
+                        pooled.leakReported = true;
+                        leakCount.incrementAndGet();
+                        System.err.println("Possible connection leak: connection held for "
+                                + (now - pooled.borrowedAt) + " ms");
+                        if (pooled.borrowSite != null) {
+                            pooled.borrowSite.printStackTrace();
+                        } else {
+                            System.err.println("Enable leak tracing to see where it was borrowed");
+                        }
+                    }
+                }
+            }
+        } catch (RuntimeException e) {
+            System.err.println("Connection pool housekeeping failed: " + e.getMessage());
+        }
+    }
+
+    private void fillToMinimum() {
+        while (!closed && activeConnections.size() + idleConnections.size() < settings.getMinSize()) {
+            try {
+                PooledConnection pooled = new PooledConnection(openPhysicalConnection());
+                pooled.lastReturnedAt = System.currentTimeMillis();
+                idleConnections.offerLast(pooled);
+            } catch (SQLException e) {
+                System.err.println("Could not pre-open pooled connection: " + e.getMessage());
+                return;
+            }
+        }
+    }
+
+    private static void closeQuietly(Connection conn) {
+        try {
+            conn.close();
+        } catch (SQLException e) {
+            // Connection is being discarded anyway
+        }
+    }
+
+    /**
+     * A physical connection owned by the pool. Each borrow hands out a fresh
+     * proxy so a stale reference cannot close someone else's checkout.
+     */
+    private class PooledConnection {
+        final Connection physical;
+        volatile long borrowedAt;
+        volatile long lastReturnedAt;
+        volatile Throwable borrowSite;
+        volatile boolean leakReported;
+        // Set when a borrower changes read-only, isolation or catalog
+        volatile boolean sessionChanged;
+
+        private final boolean defaultReadOnly;
+        private final int defaultIsolation;
+        private final String defaultCatalog;
+
+        PooledConnection(Connection physical) throws SQLException {
+            this.physical = physical;
+            try {
+                this.defaultReadOnly = physical.isReadOnly();
+                this.defaultIsolation = physical.getTransactionIsolation();
+                this.defaultCatalog = physical.getCatalog();
+            } catch (SQLException e) {
+                closeQuietly(physical);
+                throw e;
+            }
+        }
+
+        /**
+         * Put back the session state the connection was opened with, so the
+         * next borrower does not inherit it
+         */
+        void restoreDefaults() throws SQLException {
+            if (physical.isReadOnly() != defaultReadOnly) {
+                physical.setReadOnly(defaultReadOnly);
+            }
+            if (physical.getTransactionIsolation() != defaultIsolation) {
+                physical.setTransactionIsolation(defaultIsolation);
+            }
+            if (defaultCatalog != null && !defaultCatalog.equals(physical.getCatalog())) {
+                physical.setCatalog(defaultCatalog);
+            }
+            sessionChanged = false;
+        }
+
+        Connection newHandle() {
+            return (Connection) Proxy.newProxyInstance(
+                    Connection.class.getClassLoader(),
+                    new Class<?>[] { Connection.class },
+                    new Handle(this));
+        }
+    }
+
+    private class Handle implements InvocationHandler {
+        private final PooledConnection pooled;
+        private boolean released = false;
+
+        Handle(PooledConnection pooled) {
+            this.pooled = pooled;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "close":
+                    synchronized (this) {
+                        if (!released) {
+                            released = true;
+                            release(pooled);
+                        }
+                    }
+                    return null;
+                case "isClosed":
+                    return released || pooled.physical.isClosed();
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "toString":
+                    return "Pooled" + pooled.physical;
+                case "setReadOnly":
+                case "setTransactionIsolation":
+                case "setCatalog":
+                case "setSchema":
+                    pooled.sessionChanged = true;
+                    break;
+                default:
+                    break;
+            }
+
+            if (released) {
+                throw new SQLException("Connection has already been returned to the pool");
+            }
+
+            try {
+                return method.invoke(pooled.physical, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        }
+    }
+
+    /**
+     * Pool sizing and timeout settings
+     */
+    public static class Settings {
+        private int minSize = 2;
+        private int maxSize = 10;
+        private long borrowTimeoutMillis = 10_000;
+        private long idleTimeoutMillis = 5 * 60_000;
+        private long leakThresholdMillis = 60_000;
+        private int validationTimeoutSeconds = 2;
+        private boolean traceLeaks = false;
+
+        public int getMinSize() { return minSize; }
+        public void setMinSize(int minSize) { this.minSize = minSize; }
+
+        public int getMaxSize() { return maxSize; }
+        public void setMaxSize(int maxSize) { this.maxSize = maxSize; }
+
+        public long getBorrowTimeoutMillis() { return borrowTimeoutMillis; }
+        public void setBorrowTimeoutMillis(long borrowTimeoutMillis) { this.borrowTimeoutMillis = borrowTimeoutMillis; }
+
+        public long getIdleTimeoutMillis() { return idleTimeoutMillis; }
+        public void setIdleTimeoutMillis(long idleTimeoutMillis) { this.idleTimeoutMillis = idleTimeoutMillis; }
+
+        /** 0 disables leak detection */
+        public long getLeakThresholdMillis() { return leakThresholdMillis; }
+        public void setLeakThresholdMillis(long leakThresholdMillis) { this.leakThresholdMillis = leakThresholdMillis; }
+
+        public int getValidationTimeoutSeconds() { return validationTimeoutSeconds; }
+        public void setValidationTimeoutSeconds(int validationTimeoutSeconds) { this.validationTimeoutSeconds = validationTimeoutSeconds; }
+
+        /** Record where each connection was borrowed so leak reports include a stack trace */
+        public boolean isTraceLeaks() { return traceLeaks; }
+        public void setTraceLeaks(boolean traceLeaks) { this.traceLeaks = traceLeaks; }
+    }
+
+    /**
+     * Point-in-time pool metrics, used to size the pool for the user load
+     */
+    public static class PoolStats {
+        private final int active;
+        private final int idle;
+        private final int maxSize;
+        private final int waiting;
+        private final long borrowCount;
+        private final double averageWaitMillis;
+        private final double maxWaitMillis;
+        private final long timeouts;
+        private final long created;
+        private final long evicted;
+        private final long leaksDetected;
+
+        public PoolStats(int active, int idle, int maxSize, int waiting, long borrowCount,
+                double averageWaitMillis, double maxWaitMillis, long timeouts,
+                long created, long evicted, long leaksDetected) {
+            this.active = active;
+            this.idle = idle;
+            this.maxSize = maxSize;
+            this.waiting = waiting;
+            this.borrowCount = borrowCount;
+            this.averageWaitMillis = averageWaitMillis;
+            this.maxWaitMillis = maxWaitMillis;
+            this.timeouts = timeouts;
+            this.created = created;
+            this.evicted = evicted;
+            this.leaksDetected = leaksDetected;
+        }
+
+        public int getActive() { return active; }
+        public int getIdle() { return idle; }
+        public int getMaxSize() { return maxSize; }
+        public int getWaiting() { return waiting; }
+        public long getBorrowCount() { return borrowCount; }
+        public double getAverageWaitMillis() { return averageWaitMillis; }
+        public double getMaxWaitMillis() { return maxWaitMillis; }
+        public long getTimeouts() { return timeouts; }
+        public long getCreated() { return created; }
+        public long getEvicted() { return evicted; }
+        public long getLeaksDetected() { return leaksDetected; }
+
+        @Override
+        public String toString() {
+            return "PoolStats{" +
+                    "active=" + active +
+                    ", idle=" + idle +
+                    ", max=" + maxSize +
+                    ", waiting=" + waiting +
+                    ", borrows=" + borrowCount +
+                    String.format(", avgWait=%.2f ms, maxWait=%.2f ms", averageWaitMillis, maxWaitMillis) +
+                    ", timeouts=" + timeouts +
+                    ", created=" + created +
+                    ", evicted=" + evicted +
+                    ", leaks=" + leaksDetected +
+                    '}';
+        }
+    }
+}
@@ -6,38 +6,35 @@ import java.sql.SQLException;
 
 public class DatabaseConfig {
 
-    private static final String DB_URL = "jdbc:mysql://localhost:3306/music_project";
-    private static final String DB_USER = "root";
-    private static final String DB_PASSWORD = "Vidush@101";
+    private static final String DB_URL = System.getProperty("db.url", "jdbc:mysql://localhost:3306/music_project?rewriteBatchedStatements=true");
+    private static final String DB_USER = System.getProperty("db.user", "root");
+    private static final String DB_PASSWORD = System.getProperty("db.password", "Vidush@101");
 
     private static final String JDBC_DRIVER = "com.mysql.cj.jdbc.Driver";
 
-    private static Connection connection = null;
+    // Pool sizing, override with -Ddb.pool.minSize=... etc.
+    private static final int POOL_MIN_SIZE = Integer.getInteger("db.pool.minSize", 2);
+    private static final int POOL_MAX_SIZE = Integer.getInteger("db.pool.maxSize", 10);
+    private static final long POOL_BORROW_TIMEOUT_MS = Long.getLong("db.pool.borrowTimeoutMs", 10_000L);
+    private static final long POOL_IDLE_TIMEOUT_MS = Long.getLong("db.pool.idleTimeoutMs", 300_000L);
+    private static final long POOL_LEAK_THRESHOLD_MS = Long.getLong("db.pool.leakThresholdMs", 60_000L);
+    private static final boolean POOL_TRACE_LEAKS = Boolean.getBoolean("db.pool.traceLeaks");
+
+    private static ConnectionPool pool = null;
 
     private DatabaseConfig() {
     }
 
     /**
-     * Establishes and returns a database connection
+     * Borrows a connection from the shared pool. Closing the returned
+     * connection hands it back to the pool.
      * 
      * @return Connection object
      * @throws SQLException if connection fails
      */
     public static Connection getConnection() throws SQLException {
         try {
-            Class.forName(JDBC_DRIVER);
-
-            if (connection == null || connection.isClosed()) {
-                connection = DriverManager.getConnection(DB_URL, DB_USER, DB_PASSWORD);
-                System.out.println("Database connection established successfully!");
-            }
-
-            return connection;
-
-        } catch (ClassNotFoundException e) {
-            System.err.println("JDBC Driver not found!");
-            e.printStackTrace();
-            throw new SQLException("Failed to load JDBC driver", e);
+            return getPool().borrow();
         } catch (SQLException e) {
             System.err.println("Failed to connect to database!");
             e.printStackTrace();
@@ -46,7 +43,36 @@ public class DatabaseConfig {
     }
 
     /**
-     * Creates a new connection
+     * Starts the pool on first use, or again after closeConnection()
+     */
+    private static synchronized ConnectionPool getPool() throws SQLException {
+        if (pool == null || pool.isClosed()) {
+            try {
+                Class.forName(JDBC_DRIVER);
+            } catch (ClassNotFoundException e) {
+                System.err.println("JDBC Driver not found!");
+                e.printStackTrace();
+                throw new SQLException("Failed to load JDBC driver", e);
+            }
+
+            ConnectionPool.Settings settings = new ConnectionPool.Settings();
+            settings.setMinSize(POOL_MIN_SIZE);
+            settings.setMaxSize(POOL_MAX_SIZE);
+            settings.setBorrowTimeoutMillis(POOL_BORROW_TIMEOUT_MS);
+            settings.setIdleTimeoutMillis(POOL_IDLE_TIMEOUT_MS);
+            settings.setLeakThresholdMillis(POOL_LEAK_THRESHOLD_MS);
+            settings.setTraceLeaks(POOL_TRACE_LEAKS);
+
+            pool = new ConnectionPool(DB_URL, DB_USER, DB_PASSWORD, settings);
+            System.out.println("Database connection pool started (min=" + POOL_MIN_SIZE
+                    + ", max=" + POOL_MAX_SIZE + ")");
+        }
+
+        return pool;
+    }
+
+    /**
+     * Creates a new connection outside the pool
      * 
      * @return new Connection object
      * @throws SQLException if connection fails
@@ -60,27 +86,33 @@ public class DatabaseConfig {
         }
     }
 
-    public static void closeConnection() {
-        try {
-            if (connection != null && !connection.isClosed()) {
-                connection.close();
-                System.out.println("Database connection closed successfully!");
-            }
-        } catch (SQLException e) {
-            System.err.println("Error closing database connection!");
-            e.printStackTrace();
+    /**
+     * Shuts the pool down and closes every idle connection
+     */
+    public static synchronized void closeConnection() {
+        if (pool != null && !pool.isClosed()) {
+            pool.shutdown();
+            System.out.println("Database connection pool closed successfully!");
         }
     }
 
+    /**
+     * Current pool metrics (active, idle, wait time...)
+     * 
+     * @return PoolStats, or null if the pool has not been started
+     */
+    public static synchronized ConnectionPool.PoolStats getPoolStats() {
+        return pool != null ? pool.getStats() : null;
+    }
+
     /**
      * Test database connection
      * 
      * @return true if connection is successful
      */
     public static boolean testConnection() {
-        try {
-            Connection conn = getConnection();
-            return conn != null && !conn.isClosed();
+        try (Connection conn = getConnection()) {
+            return conn != null && conn.isValid(2);
         } catch (SQLException e) {
             System.err.println("Connection test failed!");
             e.printStackTrace();
@@ -96,4 +128,4 @@ public class DatabaseConfig {
     public static String getDatabaseURL() {
         return DB_URL;
     }
-}
\ No newline at end of file
+}
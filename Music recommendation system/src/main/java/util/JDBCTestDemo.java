@@ -82,6 +82,7 @@ public class JDBCTestDemo {
         if (DatabaseConfig.testConnection()) {
             System.out.println("✓ Database connected successfully!");
             System.out.println("✓ Database URL: " + DatabaseConfig.getDatabaseURL());
+            System.out.println("✓ Pool: " + DatabaseConfig.getPoolStats());
         } else {
             System.out.println("✗ Database connection failed!");
             System.out.println("Please check your database credentials in DatabaseConfig.java");
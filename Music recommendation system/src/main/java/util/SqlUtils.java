@@ -0,0 +1,58 @@
+package main.java.util;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Small helpers for building set-based (IN list) queries
+ */
+public class SqlUtils {
+
+    // Keeps IN lists well below server packet and placeholder limits
+    public static final int MAX_IN_LIST_SIZE = 1000;
+
+    private SqlUtils() {
+    }
+
+    /**
+     * Build "?, ?, ?" for an IN clause
+     * 
+     * @param count Number of placeholders
+     * @return Placeholder list
+     */
+    public static String placeholders(int count) {
+        StringBuilder sb = new StringBuilder(count * 3);
+        for (int i = 0; i < count; i++) {
+            if (i > 0) {
+                sb.append(", ");
+            }
+            sb.append('?');
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Split IDs into chunks of at most MAX_IN_LIST_SIZE
+     * 
+     * @param ids IDs to split
+     * @return List of chunks
+     */
+    public static List<List<Integer>> chunk(Collection<Integer> ids) {
+        List<List<Integer>> chunks = new ArrayList<>();
+        List<Integer> current = new ArrayList<>(Math.min(ids.size(), MAX_IN_LIST_SIZE));
+
+        for (Integer id : ids) {
+            current.add(id);
+            if (current.size() == MAX_IN_LIST_SIZE) {
+                chunks.add(current);
+                current = new ArrayList<>(MAX_IN_LIST_SIZE);
+            }
+        }
+        if (!current.isEmpty()) {
+            chunks.add(current);
+        }
+
+        return chunks;
+    }
+}
@@ -0,0 +1,116 @@
+package main.java.util;
+
+/**
+ * Keeps the k highest scored ids seen so far in a bounded min-heap of
+ * primitive arrays, so ranking n candidates costs O(n log k) and allocates
+ * nothing per candidate.
+ *
+ * Equal scores rank the lower id first, so using candidate positions as ids
+ * gives the same order as a stable sort.
+ */
+public final class TopK {
+
+    private final int k;
+    private final int[] ids;
+    private final double[] scores;
+    private int size = 0;
+
+    public TopK(int k) {
+        this.k = Math.max(k, 0);
+        this.ids = new int[this.k];
+        this.scores = new double[this.k];
+    }
+
+    /**
+     * Offer a candidate
+     *
+     * @return true if it is among the best k so far
+     */
+    public boolean offer(int id, double score) {
+        if (size < k) {
+            ids[size] = id;
+            scores[size] = score;
+            siftUp(size++);
+            return true;
+        }
+        if (k == 0 || !worse(0, id, score)) {
+            return false;
+        }
+        ids[0] = id;
+        scores[0] = score;
+        siftDown(0);
+        return true;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Ids kept, best first; the heap is left unchanged
+     */
+    public int[] sortedIds() {
+        // Pop the heap worst-first into place, then restore it
+        int[] heapIds = ids.clone();
+        double[] heapScores = scores.clone();
+        int count = size;
+        int[] sorted = new int[count];
+        for (int i = count - 1; i >= 0; i--) {
+            sorted[i] = ids[0];
+            size--;
+            ids[0] = ids[size];
+            scores[0] = scores[size];
+            siftDown(0);
+        }
+        System.arraycopy(heapIds, 0, ids, 0, heapIds.length);
+        System.arraycopy(heapScores, 0, scores, 0, heapScores.length);
+        size = count;
+        return sorted;
+    }
+
+    /**
+     * Is the entry at index worse than (id, score)
+     */
+    private boolean worse(int index, int id, double score) {
+        return scores[index] < score || (scores[index] == score && ids[index] > id);
+    }
+
+    private void siftUp(int index) {
+        while (index > 0) {
+            int parent = (index - 1) >>> 1;
+            if (!worse(index, ids[parent], scores[parent])) {
+                return;
+            }
+            swap(index, parent);
+            index = parent;
+        }
+    }
+
+    private void siftDown(int index) {
+        while (true) {
+            int worst = index;
+            int left = 2 * index + 1;
+            int right = left + 1;
+            if (left < size && worse(left, ids[worst], scores[worst])) {
+                worst = left;
+            }
+            if (right < size && worse(right, ids[worst], scores[worst])) {
+                worst = right;
+            }
+            if (worst == index) {
+                return;
+            }
+            swap(index, worst);
+            index = worst;
+        }
+    }
+
+    private void swap(int a, int b) {
+        int id = ids[a];
+        ids[a] = ids[b];
+        ids[b] = id;
+        double score = scores[a];
+        scores[a] = scores[b];
+        scores[b] = score;
+    }
+}